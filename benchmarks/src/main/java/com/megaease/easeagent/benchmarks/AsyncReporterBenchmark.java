@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmarks;
+
+import com.megaease.easeagent.config.Configs;
+import com.megaease.easeagent.core.context.ContextManager;
+import com.megaease.easeagent.report.util.Utils;
+import org.openjdk.jmh.annotations.*;
+import zipkin2.Call;
+import zipkin2.Span;
+import zipkin2.codec.Encoding;
+import zipkin2.reporter.AsyncReporter;
+import zipkin2.reporter.SDKAsyncReporter;
+import zipkin2.reporter.Sender;
+import zipkin2.reporter.kafka11.SDKSender;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost a reporting thread pays for {@code SDKAsyncReporter.report}, while a flush thread
+ * drains the queue into a sender that discards the messages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AsyncReporterBenchmark {
+    SDKAsyncReporter<Span> reporter;
+    Span span;
+
+    @Setup
+    public void setup() {
+        Configs configs = Spans.configs();
+        // the reporter is enabled by the global tracing switch of plugins
+        ContextManager.build(configs);
+        reporter = SDKAsyncReporter.builderSDKAsyncReporter(AsyncReporter.builder(new DiscardSender())
+                .queuedMaxSpans(100_000)
+                .queuedMaxBytes(100_000_000)
+                .messageTimeout(100, TimeUnit.MILLISECONDS),
+            Utils.extractTraceProps(configs), Spans.EXTRAS);
+        span = Spans.serverSpan(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        reporter.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void report() {
+        reporter.report(span);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void reportContended() {
+        reporter.report(span);
+    }
+
+    static class DiscardSender extends Sender implements SDKSender {
+        @Override
+        public Encoding encoding() {
+            return Encoding.JSON;
+        }
+
+        @Override
+        public int messageMaxBytes() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public int messageSizeInBytes(List<byte[]> encodedSpans) {
+            return encoding().listSizeInBytes(encodedSpans);
+        }
+
+        @Override
+        public Call<Void> sendSpans(List<byte[]> encodedSpans) {
+            return Call.create(null);
+        }
+
+        @Override
+        public boolean isClose() {
+            return false;
+        }
+    }
+}
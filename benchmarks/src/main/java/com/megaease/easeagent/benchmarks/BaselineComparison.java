@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.*;
+
+/**
+ * Compares two JMH json result files and reports the benchmarks whose score got worse than the
+ * baseline by more than a threshold. Throughput scores are better when higher, all other modes
+ * when lower.
+ */
+public class BaselineComparison {
+    private static final String THROUGHPUT = "thrpt";
+
+    private final double threshold;
+
+    public BaselineComparison(double threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold must not be negative: " + threshold);
+        }
+        this.threshold = threshold;
+    }
+
+    /**
+     * Prints the comparison of every benchmark in {@code current} and returns the regressed ones.
+     */
+    public List<String> compare(File baseline, File current, PrintStream out) throws IOException {
+        return compare(read(baseline), read(current), out);
+    }
+
+    List<String> compare(Map<String, Score> baseline, Map<String, Score> current, PrintStream out) {
+        List<String> regressions = new ArrayList<>();
+        out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                out.printf("%-90s %14s %14.3f %9s%n", entry.getKey(), "-", now.score, "new");
+                continue;
+            }
+            double change = before.score == 0 ? 0 : (now.score - before.score) / before.score;
+            boolean regressed = THROUGHPUT.equals(now.mode) ? change < -threshold : change > threshold;
+            out.printf("%-90s %14.3f %14.3f %+8.1f%% %s%s%n", entry.getKey(), before.score, now.score,
+                change * 100, now.unit, regressed ? "  REGRESSION" : "");
+            if (regressed) {
+                regressions.add(entry.getKey());
+            }
+        }
+        return regressions;
+    }
+
+    static Map<String, Score> read(File file) throws IOException {
+        JsonNode root = new ObjectMapper().readTree(file);
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode result : root) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            JsonNode params = result.path("params");
+            if (params.isObject()) {
+                List<String> names = new ArrayList<>();
+                params.fieldNames().forEachRemaining(names::add);
+                Collections.sort(names);
+                for (String name : names) {
+                    key.append(':').append(name).append('=').append(params.get(name).asText());
+                }
+            }
+            JsonNode primary = result.path("primaryMetric");
+            scores.put(key.toString(), new Score(result.path("mode").asText(),
+                primary.path("score").asDouble(), primary.path("scoreUnit").asText()));
+        }
+        return scores;
+    }
+
+    static class Score {
+        final String mode;
+        final double score;
+        final String unit;
+
+        Score(String mode, double score, String unit) {
+            this.mode = mode;
+            this.score = score;
+            this.unit = unit;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entry of the benchmarks jar. It runs JMH with the given JMH options, saves the results as json,
+ * and optionally compares them with a baseline result saved by an earlier run.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar [--result FILE] [--baseline FILE] [--threshold RATIO] [JMH options]
+ * java -jar benchmarks/target/benchmarks.jar --compare BASELINE CURRENT [--threshold RATIO]
+ * </pre>
+ * The process exits with 1 when any benchmark regressed by more than the threshold, 10% by default.
+ */
+public class BenchmarkRunner {
+    static final String DEFAULT_RESULT = "benchmark-result.json";
+    static final double DEFAULT_THRESHOLD = 0.10;
+
+    public static void main(String[] args) throws Exception {
+        String result = DEFAULT_RESULT;
+        String baseline = null;
+        String current = null;
+        double threshold = DEFAULT_THRESHOLD;
+        List<String> jmhArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--result":
+                    result = args[++i];
+                    break;
+                case "--baseline":
+                    baseline = args[++i];
+                    break;
+                case "--threshold":
+                    threshold = Double.parseDouble(args[++i]);
+                    break;
+                case "--compare":
+                    baseline = args[++i];
+                    current = args[++i];
+                    break;
+                default:
+                    jmhArgs.add(args[i]);
+            }
+        }
+
+        if (current == null) {
+            Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(jmhArgs.toArray(new String[0])))
+                // the agent logs through the log4j2 of the application, as in the tests
+                .jvmArgsAppend("-DEASEAGENT-SLF4J2-USE-CURRENT=true")
+                .resultFormat(ResultFormatType.JSON)
+                .result(result)
+                .build();
+            new Runner(options).run();
+            current = result;
+        }
+        if (baseline == null) {
+            return;
+        }
+        List<String> regressions = new BaselineComparison(threshold)
+            .compare(new File(baseline), new File(current), System.out);
+        if (!regressions.isEmpty()) {
+            System.out.println(regressions.size() + " benchmark(s) regressed by more than "
+                + Math.round(threshold * 100) + "% against " + baseline);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.megaease.easeagent.benchmarks;
+
+import com.megaease.easeagent.core.plugin.matcher.ClassMatcherConvert;
+import com.megaease.easeagent.core.plugin.matcher.ClassTransformation;
+import com.megaease.easeagent.core.plugin.matcher.CompoundClassMatcher;
+import com.megaease.easeagent.plugin.matcher.ClassMatcher;
+import com.megaease.easeagent.plugin.matcher.IClassMatcher;
+import net.bytebuddy.description.type.TypeDescription;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matching loaded classes against the class matchers of all plugin Points, one by one compared
+ * with the compound matcher of PluginLoader.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassMatcherBenchmark {
+    private static final Class<?>[] TYPES = {
+        String.class, java.util.ArrayList.class, java.util.HashMap.class, java.util.concurrent.ConcurrentHashMap.class,
+        Thread.class, java.util.concurrent.ThreadPoolExecutor.class, java.util.concurrent.ForkJoinPool.class,
+        java.io.BufferedReader.class, java.net.URLClassLoader.class, java.util.logging.Logger.class,
+        java.sql.Timestamp.class, javax.management.ObjectName.class, java.util.Optional.class,
+        java.util.concurrent.CompletableFuture.class, java.lang.reflect.Proxy.class, java.util.TreeMap.class
+    };
+
+    @Param({"50"})
+    int points;
+
+    List<ClassTransformation> transformations;
+    CompoundClassMatcher compound;
+    TypeDescription[] types;
+
+    @Setup
+    public void setup() {
+        transformations = new ArrayList<>();
+        for (int i = 0; i < points; i++) {
+            IClassMatcher matcher;
+            switch (i % 5) {
+                case 0:
+                case 1:
+                    matcher = ClassMatcher.builder().hasClassName("org.example.plugin.Target" + i).build();
+                    break;
+                case 2:
+                    matcher = ClassMatcher.builder().hasInterface("org.example.plugin.Interface" + i).build();
+                    break;
+                case 3:
+                    matcher = ClassMatcher.builder().hasSuperClass("org.example.plugin.Base" + i)
+                        .notAbstract().build();
+                    break;
+                default:
+                    matcher = ClassMatcher.builder().hasAnnotation("org.example.plugin.Annotation" + i).build();
+            }
+            transformations.add(ClassTransformation.builder()
+                .order(i)
+                .classMatcher(ClassMatcherConvert.INSTANCE.convert(matcher))
+                .pointsClassMatcher(matcher)
+                .methodTransformations(Collections.emptySet())
+                .build());
+        }
+        compound = new CompoundClassMatcher(transformations);
+        types = new TypeDescription[TYPES.length];
+        for (int i = 0; i < TYPES.length; i++) {
+            types[i] = TypeDescription.ForLoadedType.of(TYPES[i]);
+        }
+    }
+
+    @Benchmark
+    public void separate(Blackhole blackhole) {
+        for (TypeDescription type : types) {
+            for (ClassTransformation transformation : transformations) {
+                blackhole.consume(transformation.getClassMatcher().matches(type));
+            }
+        }
+    }
+
+    @Benchmark
+    public void compound(Blackhole blackhole) {
+        for (TypeDescription type : types) {
+            blackhole.consume(compound.matches(type));
+        }
+    }
+}
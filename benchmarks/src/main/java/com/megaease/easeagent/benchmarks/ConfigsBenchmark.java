@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmarks;
+
+import com.megaease.easeagent.config.Configs;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading typed values from {@link Configs}, as the plugins do on their hot paths.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigsBenchmark {
+    Configs configs;
+
+    @Setup
+    public void setup() {
+        Map<String, String> source = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            source.put("plugin.observability.plugin" + i + ".metric.interval", String.valueOf(i));
+        }
+        source.put("observability.tracings.enabled", "true");
+        source.put("observability.tracings.sampled", "0.5");
+        source.put("observability.tracings.output.messageMaxBytes", "999900");
+        source.put("observability.tracings.output.messageTimeout", "1000");
+        source.put("observability.tracings.output.hosts", "host1:9092,host2:9092,host3:9092");
+        configs = new Configs(source);
+    }
+
+    @Benchmark
+    public String getString() {
+        return configs.getString("observability.tracings.output.messageMaxBytes");
+    }
+
+    @Benchmark
+    public Boolean getBoolean() {
+        return configs.getBoolean("observability.tracings.enabled");
+    }
+
+    @Benchmark
+    public Integer getInt() {
+        return configs.getInt("observability.tracings.output.messageMaxBytes");
+    }
+
+    @Benchmark
+    public Long getLong() {
+        return configs.getLong("observability.tracings.output.messageTimeout");
+    }
+
+    @Benchmark
+    public Double getDouble() {
+        return configs.getDouble("observability.tracings.sampled");
+    }
+
+    @Benchmark
+    public List<String> getStringList() {
+        return configs.getStringList("observability.tracings.output.hosts");
+    }
+}
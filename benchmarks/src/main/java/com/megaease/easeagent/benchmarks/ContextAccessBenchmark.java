@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.megaease.easeagent.benchmarks;
+
+import com.megaease.easeagent.core.context.SessionContext;
+import com.megaease.easeagent.plugin.api.context.ContextKey;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What an interceptor pays to keep a value in the context and to guard against reentrancy,
+ * with slotted keys compared with plain object keys.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContextAccessBenchmark {
+    private static final ContextKey<Long> SLOT_KEY = ContextKey.of("benchmark.start");
+    private static final Object OBJECT_KEY = new Object();
+
+    SessionContext context;
+    Long value;
+
+    @Setup
+    public void setup() {
+        context = new SessionContext();
+        value = System.currentTimeMillis();
+        // some unrelated values, like other plugins leave in the context
+        for (int i = 0; i < 8; i++) {
+            context.put("benchmark.key" + i, i);
+        }
+    }
+
+    @Benchmark
+    public Long putRemoveSlotKey() {
+        context.put(SLOT_KEY, value);
+        return context.remove(SLOT_KEY);
+    }
+
+    @Benchmark
+    public Long putRemoveObjectKey() {
+        context.put(OBJECT_KEY, value);
+        return context.remove(OBJECT_KEY);
+    }
+
+    @Benchmark
+    public int enterExitClassKey() {
+        context.enter(ContextAccessBenchmark.class);
+        return context.exit(ContextAccessBenchmark.class);
+    }
+
+    @Benchmark
+    public int enterExitObjectKey() {
+        context.enter(OBJECT_KEY);
+        return context.exit(OBJECT_KEY);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmarks;
+
+import com.megaease.easeagent.core.context.SessionContext;
+import com.megaease.easeagent.core.plugin.Dispatcher;
+import com.megaease.easeagent.plugin.Interceptor;
+import com.megaease.easeagent.plugin.MethodInfo;
+import com.megaease.easeagent.plugin.api.Context;
+import com.megaease.easeagent.plugin.interceptor.AgentInterceptorChain;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The cost of dispatching one intercepted call through a chain of no-op interceptors,
+ * with and without reusing MethodInfo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatcherBenchmark {
+    private static final AtomicInteger INDEX = new AtomicInteger(100_000);
+
+    @Param({"0", "1", "5"})
+    int interceptors;
+
+    @Param({"false", "true"})
+    boolean reuse;
+
+    int index;
+    SessionContext context;
+    Object[] args;
+
+    @Setup
+    public void setup() {
+        List<Interceptor> list = new ArrayList<>();
+        for (int i = 0; i < interceptors; i++) {
+            list.add(new NoOpInterceptor());
+        }
+        index = INDEX.incrementAndGet();
+        Dispatcher.register(index, new AgentInterceptorChain(list));
+        SessionContext.setReuseMethodInfo(reuse);
+        context = new SessionContext();
+        args = new Object[]{"arg"};
+    }
+
+    @TearDown
+    public void tearDown() {
+        SessionContext.setReuseMethodInfo(false);
+    }
+
+    @Benchmark
+    public Object enterExit() {
+        MethodInfo methodInfo = Dispatcher.enter(index, this, "type", "method", args, context);
+        Object ret = methodInfo.getRetValue();
+        Dispatcher.exitAndRelease(index, methodInfo, context);
+        return ret;
+    }
+
+    static class NoOpInterceptor implements Interceptor {
+        @Override
+        public void before(MethodInfo methodInfo, Context context) {
+        }
+
+        @Override
+        public void after(MethodInfo methodInfo, Context context) {
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmarks;
+
+import com.megaease.easeagent.plugin.MethodInfo;
+import com.megaease.easeagent.plugin.api.context.AsyncContext;
+import easeagent.plugin.spring.gateway.reactor.AgentMono;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * A response of the gateway wrapped by its three interceptors, tracing, metric and access log, and
+ * subscribed to: one layer per interceptor which collects the values, as before, and the shared layer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GatewayMonoBenchmark {
+    private static final int INTERCEPTORS = 3;
+
+    Mono<Void> response;
+    MethodInfo methodInfo;
+    BiConsumer<MethodInfo, AsyncContext> finish;
+
+    @Setup
+    public void setup(Blackhole bh) {
+        response = Mono.just("response").then();
+        methodInfo = MethodInfo.builder().build();
+        finish = (info, ctx) -> bh.consume(info);
+    }
+
+    @Benchmark
+    public void layerPerInterceptor(Blackhole bh) {
+        Mono<Void> mono = response;
+        for (int i = 0; i < INTERCEPTORS; i++) {
+            mono = new CollectingMono(mono, methodInfo, null, finish);
+        }
+        mono.subscribe(new BlackholeSubscriber(bh));
+    }
+
+    @Benchmark
+    public void sharedLayer(Blackhole bh) {
+        Mono<Void> mono = response;
+        for (int i = 0; i < INTERCEPTORS; i++) {
+            mono = new AgentMono(mono, methodInfo, null, finish);
+        }
+        mono.subscribe(new BlackholeSubscriber(bh));
+    }
+
+    static class BlackholeSubscriber implements CoreSubscriber<Void> {
+        final Blackhole bh;
+
+        BlackholeSubscriber(Blackhole bh) {
+            this.bh = bh;
+        }
+
+        @Override
+        public void onSubscribe(@Nonnull Subscription s) {
+            s.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(Void t) {
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            bh.consume(t);
+        }
+
+        @Override
+        public void onComplete() {
+            bh.consume(true);
+        }
+    }
+
+    /**
+     * The operator of the gateway plugin before it was shared: a layer which keeps every value.
+     */
+    static class CollectingMono extends Mono<Void> {
+        final Mono<Void> source;
+        final MethodInfo methodInfo;
+        final AsyncContext asyncContext;
+        final BiConsumer<MethodInfo, AsyncContext> finish;
+
+        CollectingMono(Mono<Void> source, MethodInfo methodInfo, AsyncContext asyncContext,
+                       BiConsumer<MethodInfo, AsyncContext> finish) {
+            this.source = source;
+            this.methodInfo = methodInfo;
+            this.asyncContext = asyncContext;
+            this.finish = finish;
+        }
+
+        @Override
+        public void subscribe(@Nonnull CoreSubscriber<? super Void> actual) {
+            source.subscribe(new CollectingSubscriber(actual, this));
+        }
+    }
+
+    static class CollectingSubscriber implements CoreSubscriber<Void> {
+        final CoreSubscriber<? super Void> actual;
+        final CollectingMono mono;
+        final List<Void> results = new ArrayList<>();
+
+        CollectingSubscriber(CoreSubscriber<? super Void> actual, CollectingMono mono) {
+            this.actual = actual;
+            this.mono = mono;
+        }
+
+        @Nonnull
+        @Override
+        public reactor.util.context.Context currentContext() {
+            return actual.currentContext();
+        }
+
+        @Override
+        public void onSubscribe(@Nonnull Subscription s) {
+            actual.onSubscribe(s);
+        }
+
+        @Override
+        public void onNext(Void t) {
+            actual.onNext(t);
+            results.add(t);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            actual.onError(t);
+            mono.methodInfo.setThrowable(t);
+            mono.finish.accept(mono.methodInfo, mono.asyncContext);
+        }
+
+        @Override
+        public void onComplete() {
+            actual.onComplete();
+            mono.methodInfo.setRetValue(results);
+            mono.finish.accept(mono.methodInfo, mono.asyncContext);
+        }
+    }
+}
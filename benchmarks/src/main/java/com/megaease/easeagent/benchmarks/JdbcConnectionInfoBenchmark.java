@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmarks;
+
+import com.megaease.easeagent.plugin.field.DynamicFieldAccessor;
+import com.megaease.easeagent.plugin.jdbc.common.ConnectionInfo;
+import com.megaease.easeagent.plugin.jdbc.common.DatabaseInfo;
+import com.megaease.easeagent.plugin.jdbc.common.JdbcUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The url and database read by the jdbc tracing for each statement, from the metadata of an H2 connection
+ * each time and from the dynamic field of the connection.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JdbcConnectionInfoBenchmark {
+    Connection h2;
+    Connection connection;
+
+    @Setup
+    public void setup() throws SQLException {
+        h2 = DriverManager.getConnection("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+        connection = instrumented(h2);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        h2.close();
+    }
+
+    @Benchmark
+    public void metadata(Blackhole bh) {
+        bh.consume(JdbcUtils.getUrl(connection));
+        bh.consume(DatabaseInfo.getFromConnection(connection));
+    }
+
+    @Benchmark
+    public ConnectionInfo cached() {
+        return ConnectionInfo.get(connection);
+    }
+
+    /**
+     * A connection with the dynamic field the agent adds to the connection classes.
+     */
+    private static Connection instrumented(Connection delegate) {
+        Object[] field = new Object[1];
+        return (Connection) Proxy.newProxyInstance(JdbcConnectionInfoBenchmark.class.getClassLoader(),
+            new Class<?>[]{Connection.class, DynamicFieldAccessor.class}, (proxy, method, args) -> {
+                if (method.getDeclaringClass() == DynamicFieldAccessor.class) {
+                    if (args == null) {
+                        return field[0];
+                    }
+                    field[0] = args[0];
+                    return null;
+                }
+                try {
+                    return method.invoke(delegate, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+    }
+}
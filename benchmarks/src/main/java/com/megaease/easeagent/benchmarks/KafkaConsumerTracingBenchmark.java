@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmarks;
+
+import brave.Tracing;
+import brave.handler.SpanHandler;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import brave.propagation.TraceContext;
+import brave.sampler.Sampler;
+import com.megaease.easeagent.core.context.SessionContext;
+import com.megaease.easeagent.plugin.api.trace.MessagingRequest;
+import com.megaease.easeagent.plugin.kafka.interceptor.KafkaUtils;
+import com.megaease.easeagent.plugin.kafka.interceptor.tracing.KafkaConsumerBatch;
+import com.megaease.easeagent.plugin.kafka.interceptor.tracing.KafkaConsumerRequest;
+import com.megaease.easeagent.plugin.kafka.interceptor.tracing.KafkaConsumerTracingInterceptor;
+import com.megaease.easeagent.zipkin.impl.TracingImpl;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The tracing of a poll of 500 records, each with tracing headers, of which only some are processed by a
+ * listener: eagerly at the poll, or in batch mode when a record is processed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KafkaConsumerTracingBenchmark {
+    private static final String URI = "localhost:9092";
+    private static final int RECORDS = 500;
+
+    @Param({"false", "true"})
+    boolean batchMode;
+
+    @Param({"10", "100"})
+    int processedPercent;
+
+    Tracing tracing;
+    SessionContext context;
+    KafkaConsumerTracingInterceptor interceptor;
+    List<ConsumerRecord<String, String>> records;
+    ConsumerRecords<String, String> consumerRecords;
+    Header[][] headers;
+
+    @Setup
+    public void setup() {
+        tracing = Tracing.newBuilder()
+            .localServiceName("benchmark")
+            .currentTraceContext(ThreadLocalCurrentTraceContext.create())
+            .sampler(Sampler.ALWAYS_SAMPLE)
+            // drops the spans, which would be logged without a handler
+            .addSpanHandler(new SpanHandler() {
+            })
+            .build();
+        context = new SessionContext();
+        context.setCurrentTracing(TracingImpl.build(() -> context, tracing));
+        interceptor = new KafkaConsumerTracingInterceptor();
+        records = new ArrayList<>(RECORDS);
+        headers = new Header[RECORDS][];
+        for (int i = 0; i < RECORDS; i++) {
+            records.add(new ConsumerRecord<>("orders", 0, i, "key-" + i, "value-" + i));
+            TraceContext producer = tracing.tracer().newTrace().context();
+            List<Header> injected = new ArrayList<>();
+            tracing.propagation().<List<Header>>injector((list, key, value)
+                -> list.add(new RecordHeader(key, value.getBytes(StandardCharsets.UTF_8)))).inject(producer, injected);
+            headers[i] = injected.toArray(new Header[0]);
+        }
+        consumerRecords = new ConsumerRecords<>(Collections.singletonMap(new TopicPartition("orders", 0), records));
+    }
+
+    @TearDown
+    public void close() {
+        tracing.close();
+    }
+
+    @Benchmark
+    public int pollAndProcess() {
+        // the headers as received, as tracing removes them
+        for (int i = 0; i < RECORDS; i++) {
+            ConsumerRecord<String, String> record = records.get(i);
+            for (Iterator<Header> it = record.headers().iterator(); it.hasNext(); ) {
+                it.next();
+                it.remove();
+            }
+            for (Header header : headers[i]) {
+                record.headers().add(header);
+            }
+        }
+        KafkaConsumerBatch batch = null;
+        if (batchMode) {
+            batch = new KafkaConsumerBatch(URI, consumerRecords);
+        } else {
+            interceptor.afterPoll(context, consumerRecords, URI);
+        }
+        int processed = 0;
+        int every = 100 / processedPercent;
+        for (int i = 0; i < RECORDS; i += every) {
+            ConsumerRecord<String, String> record = records.get(i);
+            MessagingRequest request = batch != null ? batch.receive(context, record)
+                : new KafkaConsumerRequest(KafkaUtils.clearHeaders(context, record), record);
+            context.consumerSpan(request).name("on-message").start().finish();
+            processed++;
+        }
+        return processed;
+    }
+}
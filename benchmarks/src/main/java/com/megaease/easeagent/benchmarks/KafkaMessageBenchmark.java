@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmarks;
+
+import com.megaease.easeagent.config.Configs;
+import com.megaease.easeagent.core.context.ContextManager;
+import com.megaease.easeagent.report.trace.TraceProps;
+import com.megaease.easeagent.report.util.Utils;
+import org.openjdk.jmh.annotations.*;
+import zipkin2.Call;
+import zipkin2.Span;
+import zipkin2.codec.Encoding;
+import zipkin2.reporter.AsyncReporter;
+import zipkin2.reporter.SDKAsyncReporter;
+import zipkin2.reporter.Sender;
+import zipkin2.reporter.kafka11.KafkaSender;
+import zipkin2.reporter.kafka11.SDKKafkaSender;
+import zipkin2.reporter.kafka11.SDKSender;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A flush of the reporter into a message of {@code spans} spans, encoded by the kafka sender into the
+ * record handed to the producer, without sending it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KafkaMessageBenchmark {
+    @Param({"100", "1000"})
+    int spans;
+
+    KafkaSender kafkaSender;
+    SDKAsyncReporter<Span> reporter;
+    Span[] batch;
+
+    @Setup
+    public void setup() {
+        Configs configs = Spans.configs();
+        // the reporter is enabled by the global tracing switch of plugins
+        ContextManager.build(configs);
+        TraceProps traceProps = Utils.extractTraceProps(configs);
+        kafkaSender = KafkaSender.newBuilder()
+            .bootstrapServers("127.0.0.1:9092")
+            .topic("log-tracing")
+            .encoding(Encoding.JSON)
+            .messageMaxBytes(Integer.MAX_VALUE)
+            .build();
+        // the spans are only flushed by the benchmark
+        reporter = SDKAsyncReporter.builderSDKAsyncReporter(AsyncReporter.builder(
+                    new EncodingSender(SDKKafkaSender.wrap(traceProps, kafkaSender)))
+                .queuedMaxSpans(spans)
+                .queuedMaxBytes(Integer.MAX_VALUE)
+                .messageTimeout(0, TimeUnit.MILLISECONDS),
+            traceProps, Spans.EXTRAS);
+        batch = new Span[spans];
+        for (int i = 0; i < spans; i++) {
+            batch[i] = Spans.serverSpan(i + 1);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        reporter.close();
+        kafkaSender.close();
+    }
+
+    @Benchmark
+    public void flush() {
+        for (Span span : batch) {
+            reporter.report(span);
+        }
+        reporter.flush();
+    }
+
+    /**
+     * Encodes the message as the kafka sender does, and discards the record instead of producing it.
+     */
+    static class EncodingSender extends Sender implements SDKSender {
+        final SDKKafkaSender delegate;
+
+        EncodingSender(SDKKafkaSender delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Encoding encoding() {
+            return delegate.encoding();
+        }
+
+        @Override
+        public int messageMaxBytes() {
+            return delegate.messageMaxBytes();
+        }
+
+        @Override
+        public int messageSizeInBytes(List<byte[]> encodedSpans) {
+            return delegate.messageSizeInBytes(encodedSpans);
+        }
+
+        @Override
+        public Call<Void> sendSpans(List<byte[]> encodedSpans) {
+            delegate.sendSpans(encodedSpans);
+            return Call.create(null);
+        }
+
+        @Override
+        public boolean isClose() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmarks;
+
+import com.codahale.metrics.MetricRegistry;
+import com.megaease.easeagent.metrics.MetricRegistryService;
+import com.megaease.easeagent.metrics.converter.ConverterAdapter;
+import com.megaease.easeagent.metrics.converter.KeyType;
+import com.megaease.easeagent.metrics.impl.MetricRegistryImpl;
+import com.megaease.easeagent.plugin.api.metric.name.Tags;
+import com.megaease.easeagent.plugin.tools.metrics.ServerMetric;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converting the http server metrics of every key to json records, as the reporter does once per interval.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricConverterBenchmark {
+    @Param({"1000"})
+    int keys;
+
+    MetricRegistry registry;
+    ConverterAdapter converter;
+
+    @Setup
+    public void setup() {
+        registry = MetricRegistryService.DEFAULT.createMetricRegistry();
+        ServerMetric serverMetric = new ServerMetric(MetricRegistryImpl.build(registry), ServerMetric.nameFactory());
+        for (int i = 0; i < keys; i++) {
+            for (int j = 0; j < 10; j++) {
+                serverMetric.collectMetric("/api/v1/resource" + i, j == 0 ? 500 : 200, null, 0, j * 7);
+            }
+        }
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("host_ipv4", "192.168.0.1");
+        attributes.put("host_name", "benchmark");
+        attributes.put("service", "demo-service");
+        attributes.put("system", "demo-system");
+        converter = new ConverterAdapter(ServerMetric.nameFactory(),
+            Arrays.asList(KeyType.Timer, KeyType.Histogram, KeyType.Gauge, KeyType.Counter, KeyType.Meter),
+            () -> attributes, new Tags("application", "http-request", "url"));
+    }
+
+    @Benchmark
+    public void convert(Blackhole blackhole) {
+        converter.convert(registry.getGauges(), registry.getCounters(), registry.getHistograms(),
+            registry.getMeters(), registry.getTimers(), blackhole::consume);
+    }
+}
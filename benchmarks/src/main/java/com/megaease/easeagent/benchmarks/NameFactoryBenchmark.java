@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmarks;
+
+import com.megaease.easeagent.plugin.api.metric.MetricHandle;
+import com.megaease.easeagent.plugin.api.metric.name.MetricName;
+import com.megaease.easeagent.plugin.api.metric.name.MetricSubType;
+import com.megaease.easeagent.plugin.api.metric.name.NameFactory;
+import com.megaease.easeagent.plugin.bridge.NoOpMetrics;
+import com.megaease.easeagent.plugin.tools.metrics.ServerMetric;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generating metric names for a key, compared with a handle resolved once per key.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NameFactoryBenchmark {
+    NameFactory nameFactory;
+    ServerMetric serverMetric;
+    String key;
+
+    @Setup
+    public void setup() {
+        nameFactory = ServerMetric.nameFactory();
+        serverMetric = new ServerMetric(NoOpMetrics.NO_OP_METRIC, nameFactory);
+        key = "/api/v1/users/{id}";
+    }
+
+    @Benchmark
+    public String timerName() {
+        return nameFactory.timerName(key, MetricSubType.DEFAULT);
+    }
+
+    @Benchmark
+    public Map<MetricSubType, MetricName> meterNames() {
+        return nameFactory.meterNames(key);
+    }
+
+    @Benchmark
+    public MetricHandle handle() {
+        return serverMetric.handle(key);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmarks;
+
+import com.megaease.easeagent.metrics.PrometheusExpositionStream;
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.Gauge;
+import io.prometheus.client.exporter.common.TextFormat;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A prometheus scrape of many samples: the whole exposition as a string, compared with the chunked stream.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrometheusExpositionBenchmark {
+    @Param({"10000"})
+    int samples;
+
+    CollectorRegistry registry;
+    byte[] chunk;
+
+    @Setup
+    public void setup() {
+        registry = new CollectorRegistry();
+        Gauge gauge = Gauge.build().name("application_http_request_m1").help("m1 rate")
+            .labelNames("url", "service").register(registry);
+        for (int i = 0; i < samples; i++) {
+            gauge.labels("/api/v1/resource" + i, "demo-service").set(i * 0.37);
+        }
+        chunk = new byte[16 * 1024];
+    }
+
+    @Benchmark
+    public int stringWriter() throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        try (Writer writer = new BufferedWriter(stringWriter)) {
+            TextFormat.write004(writer, registry.metricFamilySamples());
+        }
+        return drain(new ByteArrayInputStream(stringWriter.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Benchmark
+    public int stream() throws IOException {
+        try (InputStream stream = new PrometheusExpositionStream(registry.metricFamilySamples(), nanos -> {
+        })) {
+            return drain(stream);
+        }
+    }
+
+    private int drain(InputStream stream) throws IOException {
+        int total = 0;
+        int read;
+        while ((read = stream.read(chunk, 0, chunk.length)) > 0) {
+            total += read;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmarks;
+
+import com.megaease.easeagent.plugin.jdbc.common.MD5SQLCompression;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compressing a sql statement to its md5, for a statement already in the cache and for new ones.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SQLCompressionBenchmark {
+    private static final String SQL = "select u.id, u.name, u.email, o.id, o.amount, o.created_at from users u "
+        + "left join orders o on o.user_id = u.id where u.tenant_id = ? and o.status in (?, ?, ?) "
+        + "order by o.created_at desc limit ?";
+
+    @Param({"1", "10000"})
+    int distinct;
+
+    MD5SQLCompression compression;
+    String[] statements;
+    int next;
+
+    @Setup
+    public void setup() {
+        compression = new MD5SQLCompression(items -> {
+        });
+        statements = new String[distinct];
+        for (int i = 0; i < distinct; i++) {
+            statements[i] = SQL + " -- " + i;
+        }
+    }
+
+    @Benchmark
+    public String compress() {
+        String sql = statements[next];
+        next = next + 1 == distinct ? 0 : next + 1;
+        return compression.compress(sql);
+    }
+}
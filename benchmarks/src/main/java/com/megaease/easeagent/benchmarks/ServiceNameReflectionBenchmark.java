@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmarks;
+
+import com.megaease.easeagent.plugin.servicename.ReflectionTool;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The accesses of the service name rewrite of a RestTemplate request: its uri, its headers and the map
+ * inside them, searched by reflection on each request and through the handles cached by {@link ReflectionTool}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceNameReflectionBenchmark {
+    Request request;
+
+    @Setup
+    public void setup() {
+        request = new Request(URI.create("http://order-service/orders/1"));
+    }
+
+    @Benchmark
+    public void reflectiveSearch(Blackhole bh) {
+        bh.consume(searchAndInvoke(request, "getURI"));
+        Object headers = searchAndInvoke(request, "getHeaders");
+        bh.consume(searchAndGet(headers, "headers"));
+    }
+
+    @Benchmark
+    public void cachedHandles(Blackhole bh) throws ReflectiveOperationException {
+        bh.consume(ReflectionTool.invokeMethod(request, "getURI"));
+        Object headers = ReflectionTool.invokeMethod(request, "getHeaders");
+        bh.consume(ReflectionTool.extractField(headers, "headers"));
+    }
+
+    /**
+     * The lookup which ReflectionTool ran on each call before it cached the handles.
+     */
+    private static Object searchAndInvoke(Object own, String method, Object... args) {
+        Class<?>[] types = new Class[args.length];
+        for (int i = 0; i < args.length; i++) {
+            types[i] = args[i].getClass();
+        }
+        Method md = ReflectionUtils.findMethod(own.getClass(), method, types);
+        ReflectionUtils.makeAccessible(md);
+        return ReflectionUtils.invokeMethod(md, own, args);
+    }
+
+    private static Object searchAndGet(Object own, String field) {
+        Field fd = ReflectionUtils.findField(own.getClass(), field);
+        ReflectionUtils.makeAccessible(fd);
+        return ReflectionUtils.getField(fd, own);
+    }
+
+    /**
+     * A request of a client, with methods inherited like those of the spring http requests.
+     */
+    static class Request extends AbstractRequest {
+        private final Headers headers = new Headers();
+
+        Request(URI uri) {
+            super(uri);
+        }
+
+        public Headers getHeaders() {
+            return headers;
+        }
+    }
+
+    abstract static class AbstractRequest {
+        private final URI uri;
+
+        AbstractRequest(URI uri) {
+            this.uri = uri;
+        }
+
+        public URI getURI() {
+            return uri;
+        }
+    }
+
+    static class Headers {
+        private final Map<String, List<String>> headers = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmarks;
+
+import brave.Tracing;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import brave.sampler.Sampler;
+import com.megaease.easeagent.core.context.SessionContext;
+import com.megaease.easeagent.plugin.api.ProgressFields;
+import com.megaease.easeagent.plugin.api.context.AsyncContext;
+import com.megaease.easeagent.plugin.api.trace.Scope;
+import com.megaease.easeagent.plugin.api.trace.Span;
+import com.megaease.easeagent.zipkin.impl.TracingImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of carrying the context to an async task, with or without a span or values in the context,
+ * and the executor throughput with the tasks wrapped.
+ */
+@State(org.openjdk.jmh.annotations.Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionContextBenchmark {
+    private static final Runnable TASK = () -> {
+    };
+    private static final int TASKS = 100;
+
+    @Param({"false", "true"})
+    boolean inSpan;
+
+    @Param({"false", "true"})
+    boolean withValues;
+
+    Tracing tracing;
+    SessionContext context;
+    Span span;
+    Scope scope;
+    ExecutorService executor;
+
+    @Setup
+    public void setup() {
+        tracing = Tracing.newBuilder()
+            .localServiceName("benchmark")
+            .currentTraceContext(ThreadLocalCurrentTraceContext.create())
+            .sampler(Sampler.ALWAYS_SAMPLE)
+            .build();
+        context = new SessionContext();
+        context.setCurrentTracing(TracingImpl.build(() -> context, tracing));
+        if (withValues) {
+            // a forwarded header, the only value carried to the tasks
+            ProgressFields.changeListener().apply(ProgressFields.EASEAGENT_PROGRESS_FORWARDED_HEADERS_CONFIG,
+                new HashMap<>(Collections.singletonMap(ProgressFields.EASEAGENT_PROGRESS_FORWARDED_HEADERS_CONFIG + ".0", "x-benchmark")));
+            context.put("x-benchmark", "value");
+        }
+        if (inSpan) {
+            span = context.nextSpan().start();
+            scope = span.maybeScope();
+        }
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (scope != null) {
+            scope.close();
+            span.abandon();
+        }
+        tracing.close();
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Runnable wrap() {
+        return context.wrap(TASK);
+    }
+
+    @Benchmark
+    public AsyncContext exportAsync() {
+        return context.exportAsync();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS)
+    public void execute() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(TASKS);
+        Runnable task = latch::countDown;
+        for (int i = 0; i < TASKS; i++) {
+            executor.execute(context.wrap(task));
+        }
+        latch.await();
+    }
+}
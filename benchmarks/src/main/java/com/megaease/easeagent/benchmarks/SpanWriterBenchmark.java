@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmarks;
+
+import com.megaease.easeagent.report.trace.TraceProps;
+import org.openjdk.jmh.annotations.*;
+import zipkin2.Span;
+import zipkin2.internal.AgentV2SpanWriter;
+import zipkin2.internal.JsonCodec;
+import zipkin2.internal.WriteBuffer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding a span to the agent json format: the sizing pass, the size estimate, and writing into an exact
+ * array or into a reused buffer sized first, as a span batch does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpanWriterBenchmark {
+    AgentV2SpanWriter writer;
+    Span span;
+    byte[] buffer;
+
+    @Setup
+    public void setup() {
+        writer = new AgentV2SpanWriter(Spans.EXTRAS, TraceProps.newDefault(Spans.configs()));
+        span = Spans.serverSpan(1);
+        buffer = new byte[4096];
+    }
+
+    @Benchmark
+    public int sizeInBytes() {
+        return writer.sizeInBytes(span);
+    }
+
+    @Benchmark
+    public int estimatedSizeInBytes() {
+        return writer.estimatedSizeInBytes(span);
+    }
+
+    @Benchmark
+    public byte[] writeSized() {
+        return JsonCodec.write(writer, span);
+    }
+
+    @Benchmark
+    public int writeIntoBuffer() {
+        int size = writer.sizeInBytes(span);
+        writer.write(span, WriteBuffer.wrap(buffer, 0));
+        return size;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmarks;
+
+import com.megaease.easeagent.config.Configs;
+import com.megaease.easeagent.plugin.api.config.ConfigConst;
+import zipkin2.Endpoint;
+import zipkin2.Span;
+import zipkin2.internal.GlobalExtrasSupplier;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fixtures shared by the span benchmarks.
+ */
+final class Spans {
+    static final GlobalExtrasSupplier EXTRAS = new GlobalExtrasSupplier() {
+        @Override
+        public String service() {
+            return "benchmark-service";
+        }
+
+        @Override
+        public String system() {
+            return "benchmark-system";
+        }
+    };
+
+    private Spans() {
+    }
+
+    static Configs configs() {
+        Map<String, String> source = new HashMap<>();
+        source.put(ConfigConst.SERVICE_NAME, "benchmark-service");
+        source.put(ConfigConst.SYSTEM_NAME, "benchmark-system");
+        source.put(ConfigConst.Observability.TRACE_ENABLED, "true");
+        source.put("plugin.observability.global.tracing.enabled", "true");
+        source.put(ConfigConst.Observability.TRACE_OUTPUT_ENABLED, "true");
+        source.put(ConfigConst.Observability.TRACE_OUTPUT_REPORT_THREAD, "1");
+        source.put(ConfigConst.Observability.TRACE_OUTPUT_MESSAGE_TIMEOUT, "100");
+        source.put(ConfigConst.Observability.TRACE_OUTPUT_MESSAGE_MAX_BYTES, "999900");
+        source.put(ConfigConst.Observability.TRACE_OUTPUT_QUEUED_MAX_SIZE, "100000000");
+        source.put(ConfigConst.Observability.TRACE_OUTPUT_QUEUED_MAX_SPANS, "100000");
+        return new Configs(source);
+    }
+
+    /**
+     * A server span of an http request, with the tags the http plugins usually add.
+     */
+    static Span serverSpan(long id) {
+        return Span.newBuilder()
+            .traceId(id, id)
+            .parentId(id + 1)
+            .id(id + 2)
+            .name("get /api/v1/users/{id}")
+            .kind(Span.Kind.SERVER)
+            .timestamp(1636000000000000L + id)
+            .duration(2345L)
+            .localEndpoint(Endpoint.newBuilder().serviceName("benchmark-service").ip("192.168.1.10").port(8080).build())
+            .remoteEndpoint(Endpoint.newBuilder().serviceName("gateway").ip("192.168.1.1").port(51234).build())
+            .putTag("http.method", "GET")
+            .putTag("http.path", "/api/v1/users/10086")
+            .putTag("http.route", "/api/v1/users/{id}")
+            .putTag("http.status_code", "200")
+            .putTag("i", "127.0.0.1")
+            .build();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.benchmarks;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class BaselineComparisonTest {
+
+    private static File result(String... benchmarks) throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < benchmarks.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(benchmarks[i]);
+        }
+        json.append(']');
+        File file = File.createTempFile("benchmark", ".json");
+        file.deleteOnExit();
+        Files.write(file.toPath(), json.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String benchmark(String name, String mode, String params, double score) {
+        return "{\"benchmark\":\"" + name + "\",\"mode\":\"" + mode + "\",\"params\":{" + params + "},"
+            + "\"primaryMetric\":{\"score\":" + score + ",\"scoreUnit\":\"ns/op\"}}";
+    }
+
+    @Test
+    public void reportRegressions() throws IOException {
+        File baseline = result(
+            benchmark("a.Dispatch", "avgt", "\"interceptors\":\"0\"", 10),
+            benchmark("a.Dispatch", "avgt", "\"interceptors\":\"5\"", 50),
+            benchmark("a.Report", "thrpt", "", 1000));
+        File current = result(
+            benchmark("a.Dispatch", "avgt", "\"interceptors\":\"0\"", 10.5),
+            benchmark("a.Dispatch", "avgt", "\"interceptors\":\"5\"", 60),
+            benchmark("a.Report", "thrpt", "", 800),
+            benchmark("a.New", "avgt", "", 1));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<String> regressions = new BaselineComparison(0.1).compare(baseline, current, new PrintStream(out));
+        assertEquals(2, regressions.size());
+        assertEquals("a.Dispatch:interceptors=5", regressions.get(0));
+        assertEquals("a.Report", regressions.get(1));
+    }
+
+    @Test
+    public void improvementIsNotRegression() throws IOException {
+        File baseline = result(benchmark("a.Dispatch", "avgt", "", 10), benchmark("a.Report", "thrpt", "", 1000));
+        File current = result(benchmark("a.Dispatch", "avgt", "", 5), benchmark("a.Report", "thrpt", "", 2000));
+        List<String> regressions = new BaselineComparison(0.1)
+            .compare(baseline, current, new PrintStream(new ByteArrayOutputStream()));
+        assertEquals(Collections.emptyList(), regressions);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.megaease.easeagent.config;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A configuration value, parsed once into every type it can be read as.
+ */
+public final class ConfigValue {
+    static final ConfigValue NULL = new ConfigValue(null);
+
+    private final String string;
+    private final Integer intValue;
+    private final Long longValue;
+    private final Double doubleValue;
+    private final boolean booleanValue;
+    private final List<String> items;
+
+    private ConfigValue(String value) {
+        this.string = value;
+        this.intValue = parseInt(value);
+        this.longValue = parseLong(value);
+        this.doubleValue = parseDouble(value);
+        this.booleanValue = value != null && (value.equalsIgnoreCase("yes") || value.equalsIgnoreCase("true"));
+        this.items = value == null ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(value.split(",")));
+    }
+
+    public static ConfigValue of(String value) {
+        return value == null ? NULL : new ConfigValue(value);
+    }
+
+    public String getString() {
+        return string;
+    }
+
+    public Integer getInt() {
+        return intValue;
+    }
+
+    public Long getLong() {
+        return longValue;
+    }
+
+    public Double getDouble() {
+        return doubleValue;
+    }
+
+    /**
+     * @return true when the value is "yes" or "true", ignoring case
+     */
+    public boolean getBoolean() {
+        return booleanValue;
+    }
+
+    /**
+     * @return the unmodifiable list of the comma separated items, a caller which changes it copies it first
+     */
+    public List<String> getStringList() {
+        return items;
+    }
+
+    // most values are not numbers, skip them without the cost of a NumberFormatException
+    private static boolean maybeNumber(String value, boolean decimal) {
+        if (value == null || value.isEmpty()) {
+            return false;
+        }
+        char c = value.charAt(0);
+        if (Character.isDigit(c) || c == '-' || c == '+') {
+            return true;
+        }
+        // Double.parseDouble trims the value and accepts ".5", "NaN" and "Infinity"
+        return decimal && (c == '.' || c == 'N' || c == 'I' || Character.isWhitespace(c));
+    }
+
+    private static Integer parseInt(String value) {
+        if (!maybeNumber(value, false)) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Long parseLong(String value) {
+        if (!maybeNumber(value, false)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Double parseDouble(String value) {
+        if (!maybeNumber(value, true)) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return string;
+    }
+}
@@ -24,39 +24,52 @@ import com.megaease.easeagent.plugin.api.config.ConfigConst;
 
 import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
 
+/**
+ * The configuration of the agent. Values are parsed once per update into an immutable snapshot,
+ * published through a volatile field, so reads never lock, parse or allocate.
+ */
 public class Configs implements Config, ConfigManagerMXBean {
     private static final Logger LOGGER = LoggerFactory.getLogger(Configs.class);
-    private volatile Map<String, String> source;
+    private volatile Map<String, ConfigValue> source;
     private final ConfigNotifier notifier;
     private volatile String mainLatestVersion;
     private volatile String canaryLatestVersion;
 
     public Configs(Map<String, String> source) {
-        this.source = new HashMap<>(source);
+        this.source = parse(Collections.emptyMap(), source);
         notifier = new ConfigNotifier("");
     }
 
-    public void updateConfigsNotNotify(Map<String, String> changes) {
-        this.source.putAll(changes);
+    private static Map<String, ConfigValue> parse(Map<String, ConfigValue> current, Map<String, String> changes) {
+        Map<String, ConfigValue> values = new HashMap<>(current);
+        changes.forEach((name, value) -> values.put(name, ConfigValue.of(value)));
+        return Collections.unmodifiableMap(values);
+    }
+
+    public synchronized void updateConfigsNotNotify(Map<String, String> changes) {
+        this.source = parse(this.source, changes);
     }
 
     public void updateConfigs(Map<String, String> changes) {
-        Map<String, String> dump = new HashMap<>(this.source);
         List<ChangeItem> items = new LinkedList<>();
-        changes.forEach((name, value) -> {
-            String old = dump.get(name);
-            if (!Objects.equals(old, value)) {
-                dump.put(name, value);
-                items.add(new ChangeItem(name, name, old, value));
+        synchronized (this) {
+            Map<String, ConfigValue> current = this.source;
+            Map<String, String> changed = new HashMap<>();
+            changes.forEach((name, value) -> {
+                String old = getString(current, name);
+                if (!Objects.equals(old, value)) {
+                    changed.put(name, value);
+                    items.add(new ChangeItem(name, name, old, value));
+                }
+            });
+            if (items.isEmpty()) {
+                return;
             }
-        });
-        if (!items.isEmpty()) {
-            LOGGER.info("change items: {}", items);
-            this.source = dump;
-            this.notifier.handleChanges(items);
+            this.source = parse(current, changed);
         }
+        LOGGER.info("change items: {}", items);
+        this.notifier.handleChanges(items);
     }
 
     @Override
@@ -122,7 +135,9 @@ public class Configs implements Config, ConfigManagerMXBean {
 
     @Override
     public Map<String, String> getConfigs() {
-        return new HashMap<>(this.source);
+        Map<String, String> configs = new HashMap<>();
+        this.source.forEach((name, value) -> configs.put(name, value.getString()));
+        return configs;
     }
 
     @Override
@@ -139,60 +154,38 @@ public class Configs implements Config, ConfigManagerMXBean {
     }
 
 
+    private static String getString(Map<String, ConfigValue> values, String name) {
+        ConfigValue value = values.get(name);
+        return value == null ? null : value.getString();
+    }
+
+    private ConfigValue value(String name) {
+        ConfigValue value = this.source.get(name);
+        return value == null ? ConfigValue.NULL : value;
+    }
+
     public String getString(String name) {
-        return this.source.get(name);
+        return value(name).getString();
     }
 
     public Integer getInt(String name) {
-        String value = this.source.get(name);
-        if (value == null) {
-            return null;
-        }
-        try {
-            return Integer.parseInt(value);
-        } catch (Exception e) {
-            return null;
-        }
+        return value(name).getInt();
     }
 
     public Boolean getBoolean(String name) {
-        String value = this.source.get(name);
-        if (value == null) {
-            return false;
-        }
-        return value.equalsIgnoreCase("yes") || value.equalsIgnoreCase("true");
+        return value(name).getBoolean();
     }
 
     public Double getDouble(String name) {
-        String value = this.source.get(name);
-        if (value == null) {
-            return null;
-        }
-        try {
-            return Double.parseDouble(value);
-        } catch (Exception e) {
-            return null;
-        }
+        return value(name).getDouble();
     }
 
     public Long getLong(String name) {
-        String value = this.source.get(name);
-        if (value == null) {
-            return null;
-        }
-        try {
-            return Long.parseLong(value);
-        } catch (Exception e) {
-            return null;
-        }
+        return value(name).getLong();
     }
 
     public List<String> getStringList(String name) {
-        String value = this.source.get(name);
-        if (value == null) {
-            return Collections.emptyList();
-        }
-        return Arrays.stream(value.split(",")).filter(Objects::nonNull).collect(Collectors.toList());
+        return value(name).getStringList();
     }
 
     @Override
@@ -24,7 +24,6 @@ import com.megaease.easeagent.plugin.api.config.ConfigChangeListener;
 import javax.annotation.Nonnull;
 import java.util.*;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 public class PluginConfig implements Config {
     private final Set<ConfigChangeListener> listeners;
@@ -33,6 +32,9 @@ public class PluginConfig implements Config {
     private final String id;
     private final Map<String, String> global;
     private final Map<String, String> cover;
+    // parsed once, the cover values take precedence over the global ones
+    private final Map<String, ConfigValue> values;
+    private final Map<String, Boolean> booleans;
     private final boolean enabled;
 
     protected PluginConfig(@Nonnull String domain, @Nonnull String id, @Nonnull Map<String, String> global, @Nonnull String namespace, @Nonnull Map<String, String> cover, @Nonnull Set<ConfigChangeListener> listeners) {
@@ -42,6 +44,17 @@ public class PluginConfig implements Config {
         this.global = global;
         this.cover = cover;
         this.listeners = listeners;
+        this.values = new HashMap<>();
+        this.booleans = new HashMap<>();
+        global.forEach((property, value) -> values.put(property, ConfigValue.of(value)));
+        cover.forEach((property, value) -> {
+            if (value != null) {
+                values.put(property, ConfigValue.of(value));
+            }
+        });
+        for (String property : values.keySet()) {
+            booleans.put(property, parseBoolean(property));
+        }
         Boolean b = getBoolean(Const.ENABLED_CONFIG);
         if (b == null) {
             enabled = false;
@@ -81,35 +94,26 @@ public class PluginConfig implements Config {
         return global.containsKey(property) || cover.containsKey(property);
     }
 
+    private ConfigValue value(String property) {
+        ConfigValue value = values.get(property);
+        return value == null ? ConfigValue.NULL : value;
+    }
+
     @Override
     public String getString(String property) {
-        String value = cover.get(property);
-        if (value != null) {
-            return value;
-        }
-        return global.get(property);
+        return value(property).getString();
     }
 
-
     @Override
     public Integer getInt(String property) {
-        String value = this.getString(property);
-        if (value == null) {
-            return null;
-        }
-        try {
-            return Integer.parseInt(value);
-        } catch (Exception e) {
-            return null;
-        }
+        return value(property).getInt();
     }
 
     private boolean isTrue(String value) {
         return value.equalsIgnoreCase("yes") || value.equalsIgnoreCase("true");
     }
 
-    @Override
-    public Boolean getBoolean(String property) {
+    private boolean parseBoolean(String property) {
         String value = cover.get(property);
         boolean implB = true;
         if (value != null) {
@@ -123,6 +127,12 @@ public class PluginConfig implements Config {
         return implB && globalB;
     }
 
+    @Override
+    public Boolean getBoolean(String property) {
+        Boolean b = booleans.get(property);
+        return b == null ? Boolean.FALSE : b;
+    }
+
     @Override
     public boolean enabled() {
         return enabled;
@@ -130,37 +140,17 @@ public class PluginConfig implements Config {
 
     @Override
     public Double getDouble(String property) {
-        String value = this.getString(property);
-        if (value == null) {
-            return null;
-        }
-        try {
-            return Double.parseDouble(value);
-        } catch (Exception e) {
-            return null;
-        }
+        return value(property).getDouble();
     }
 
     @Override
     public Long getLong(String property) {
-        String value = this.getString(property);
-        if (value == null) {
-            return null;
-        }
-        try {
-            return Long.parseLong(value);
-        } catch (Exception e) {
-            return null;
-        }
+        return value(property).getLong();
     }
 
     @Override
     public List<String> getStringList(String property) {
-        String value = this.getString(property);
-        if (value == null) {
-            return Collections.emptyList();
-        }
-        return Arrays.stream(value.split(",")).filter(Objects::nonNull).collect(Collectors.toList());
+        return value(property).getStringList();
     }
 
     @Override
@@ -22,6 +22,8 @@ import com.megaease.easeagent.log4j2.LoggerFactory;
 import com.megaease.easeagent.plugin.api.config.IConfigFactory;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static com.megaease.easeagent.plugin.api.config.ConfigConst.PLUGIN_GLOBAL;
 
@@ -31,6 +33,9 @@ public class PluginConfigManager implements IConfigFactory {
     private final Configs configs;
     private final Map<Key, PluginSourceConfig> pluginSourceConfigs;
     private final Map<Key, PluginConfig> pluginConfigs;
+    // domain -> namespace -> id -> config, the same configs as pluginConfigs, read without a lock or a Key
+    private final ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, PluginConfig>>> index
+        = new ConcurrentHashMap<>();
 
     private PluginConfigManager(Configs configs, Map<Key, PluginSourceConfig> pluginSourceConfigs, Map<Key, PluginConfig> pluginConfigs) {
         this.configs = Objects.requireNonNull(configs, "configs must not be null.");
@@ -49,9 +54,35 @@ public class PluginConfigManager implements IConfigFactory {
     }
 
     public PluginConfig getConfig(String domain, String namespace, String id) {
+        PluginConfig pluginConfig = lookup(domain, namespace, id);
+        if (pluginConfig != null) {
+            return pluginConfig;
+        }
         return getConfig(domain, namespace, id, null);
     }
 
+    private PluginConfig lookup(String domain, String namespace, String id) {
+        if (domain == null || namespace == null || id == null) {
+            return null;
+        }
+        Map<String, ConcurrentMap<String, PluginConfig>> namespaces = index.get(domain);
+        if (namespaces == null) {
+            return null;
+        }
+        Map<String, PluginConfig> ids = namespaces.get(namespace);
+        return ids == null ? null : ids.get(id);
+    }
+
+    private void putConfig(Key key, PluginConfig pluginConfig) {
+        pluginConfigs.put(key, pluginConfig);
+        if (key.getDomain() == null || key.getNamespace() == null || key.getId() == null) {
+            return;
+        }
+        index.computeIfAbsent(key.getDomain(), k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(key.getNamespace(), k -> new ConcurrentHashMap<>())
+            .put(key.getId(), pluginConfig);
+    }
+
     public synchronized PluginConfig getConfig(String domain, String namespace, String id, PluginConfig oldConfig) {
         Key key = new Key(domain, namespace, id);
         PluginConfig pluginConfig = pluginConfigs.get(key);
@@ -61,7 +92,7 @@ public class PluginConfigManager implements IConfigFactory {
         Map<String, String> globalConfig = getGlobalConfig(domain, id);
         Map<String, String> coverConfig = getCoverConfig(domain, namespace, id);
         PluginConfig newPluginConfig = PluginConfig.build(domain, id, globalConfig, namespace, coverConfig, oldConfig);
-        pluginConfigs.put(key, newPluginConfig);
+        putConfig(key, newPluginConfig);
         return newPluginConfig;
     }
 
@@ -126,6 +157,7 @@ public class PluginConfigManager implements IConfigFactory {
             }
         }
         for (Key changeKey : changeKeys) {
+            // the index keeps the old config until the new one replaces it
             final PluginConfig oldConfig = pluginConfigs.remove(changeKey);
             final PluginConfig newConfig = getConfig(changeKey.getDomain(), changeKey.getNamespace(), changeKey.id, oldConfig);
             if (oldConfig == null) {
@@ -21,9 +21,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Assert;
 import org.junit.Test;
 
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.*;
 
 public class ConfigsTest {
 
@@ -84,6 +82,45 @@ public class ConfigsTest {
     }
 
 
+    @Test
+    public void test_typed_values() {
+        Map<String, String> source = new HashMap<>();
+        source.put("int", "12");
+        source.put("long", "12345678901");
+        source.put("double", "0.5");
+        source.put("bool", "YES");
+        source.put("list", "a,b,c");
+        source.put("text", "hello");
+        Configs configs = new Configs(source);
+        Assert.assertEquals(12, (int) configs.getInt("int"));
+        Assert.assertEquals(12L, (long) configs.getLong("int"));
+        Assert.assertEquals(12345678901L, (long) configs.getLong("long"));
+        Assert.assertNull(configs.getInt("long"));
+        Assert.assertEquals(0.5, configs.getDouble("double"), 0);
+        Assert.assertTrue(configs.getBoolean("bool"));
+        Assert.assertFalse(configs.getBoolean("text"));
+        Assert.assertFalse(configs.getBoolean("missing"));
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), configs.getStringList("list"));
+        // the list is built once per update and shared by the callers
+        Assert.assertSame(configs.getStringList("list"), configs.getStringList("list"));
+        try {
+            configs.getStringList("list").add("d");
+            Assert.fail();
+        } catch (UnsupportedOperationException e) {
+            Assert.assertEquals(Arrays.asList("a", "b", "c"), configs.getStringList("list"));
+        }
+        Assert.assertTrue(configs.getStringList("missing").isEmpty());
+        Assert.assertNull(configs.getInt("text"));
+        Assert.assertNull(configs.getDouble("text"));
+        Assert.assertNull(configs.getString("missing"));
+
+        configs.updateConfigs(Collections.singletonMap("int", "13"));
+        Assert.assertEquals(13, (int) configs.getInt("int"));
+        configs.updateConfigsNotNotify(Collections.singletonMap("int", "14"));
+        Assert.assertEquals(14, (int) configs.getInt("int"));
+        Assert.assertEquals("14", configs.getConfigs().get("int"));
+    }
+
     private List<ChangeItem> addListener(Config config) {
         List<ChangeItem> rst = new LinkedList<>();
         config.addChangeListener(rst::addAll);
@@ -141,6 +141,15 @@ public class PluginConfigManagerTest {
         configs.updateConfigs(Collections.singletonMap(String.format("ssss.%s.global.%s.enabled", DOMAIN, TEST_AAA_ID), "false"));
     }
 
+    @Test
+    public void getConfigReturnsTheSameInstance() {
+        PluginConfigManager pluginConfigManager = build();
+        PluginConfig pluginConfig = pluginConfigManager.getConfig(PluginSourceConfigTest.DOMAIN, "global", PluginSourceConfigTest.GLOBAL_ID);
+        assertSame(pluginConfig, pluginConfigManager.getConfig(PluginSourceConfigTest.DOMAIN, "global", PluginSourceConfigTest.GLOBAL_ID));
+        PluginConfig unknown = pluginConfigManager.getConfig("unknown", "unknown", "unknown");
+        assertSame(unknown, pluginConfigManager.getConfig("unknown", "unknown", "unknown"));
+    }
+
     @Test
     public void shutdown() {
     }
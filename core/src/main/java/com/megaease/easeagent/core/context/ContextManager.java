@@ -45,6 +45,7 @@ import java.util.function.Supplier;
 public class ContextManager {
     private static final Logger LOGGER = LoggerFactory.getLogger(ContextManager.class.getName());
     private static final ThreadLocal<SessionContext> LOCAL_SESSION_CONTEXT = ThreadLocal.withInitial(SessionContext::new);
+    private static final String DISPATCH_REUSE_ENABLED = "easeagent.dispatch.reuse.enabled";
     private final PluginConfigManager pluginConfigManager;
     private final Supplier<InitializeContext> sessionSupplier;
     private final GlobalContext globalContext;
@@ -61,6 +62,7 @@ public class ContextManager {
     public static ContextManager build(Configs conf) {
         LOGGER.info("build context manager.");
         ProgressFieldsManager.init(conf);
+        SessionContext.setReuseMethodInfo(conf.getBoolean(DISPATCH_REUSE_ENABLED));
         PluginConfigManager pluginConfigManager = PluginConfigManager.builder(conf).build();
         LoggerFactoryImpl loggerFactory = LoggerFactoryImpl.build();
         ILoggerFactory iLoggerFactory = NoOpLoggerFactory.INSTANCE;
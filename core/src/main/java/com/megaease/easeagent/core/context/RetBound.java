@@ -28,6 +28,13 @@ public class RetBound  {
         this.size = size;
     }
 
+    void reset(int size) {
+        this.size = size;
+        if (local != null && !local.isEmpty()) {
+            local.clear();
+        }
+    }
+
     public int size() {
         return this.size;
     }
@@ -19,10 +19,12 @@ package com.megaease.easeagent.core.context;
 
 import com.megaease.easeagent.log4j2.Logger;
 import com.megaease.easeagent.log4j2.LoggerFactory;
+import com.megaease.easeagent.plugin.MethodInfo;
 import com.megaease.easeagent.plugin.api.InitializeContext;
 import com.megaease.easeagent.plugin.api.ProgressFields;
 import com.megaease.easeagent.plugin.api.config.Config;
 import com.megaease.easeagent.plugin.api.context.AsyncContext;
+import com.megaease.easeagent.plugin.api.context.ContextKey;
 import com.megaease.easeagent.plugin.api.context.RequestContext;
 import com.megaease.easeagent.plugin.api.trace.*;
 import com.megaease.easeagent.plugin.bridge.NoOpConfig;
@@ -37,15 +39,44 @@ public class SessionContext implements InitializeContext {
     private static final Logger LOGGER = LoggerFactory.getLogger(SessionContext.class);
     private static final Setter NOOP_SETTER = (name, value) -> {
     };
+    private static final int INITIAL_DEPTH = 8;
+    private static volatile boolean reuseMethodInfo = false;
     private ITracing tracing = NoOpTracer.NO_OP_TRACING;
 
     private final Deque<Config> configs = new ArrayDeque<>();
     private final Deque<Object> retStack = new ArrayDeque<>();
     private final Deque<RetBound> retBound = new ArrayDeque<>();
-
+    private final Deque<RetBound> freeRetBounds = new ArrayDeque<>();
+
+    // values and reentrancy counts of slotted keys, see ContextKey; other keys are kept in the maps
+    private Object[] keys = new Object[ContextKey.slots()];
+    private Object[] values = new Object[ContextKey.slots()];
+    private int[] counts = new int[ContextKey.slots()];
+    private int valueCount = 0;
+    private boolean counted = false;
     private final Map<Object, Object> context = new HashMap<>();
+    // the forwarded headers last exported, shared by async contexts until a header or the headers forwarded change
+    private Map<Object, Object> snapshot;
+    private Set<String> snapshotFields;
     private final Map<Object, Integer> entered = new HashMap<>();
 
+    private MethodInfo[] methodInfos = new MethodInfo[INITIAL_DEPTH];
+    private int depth = 0;
+    private long beginTime;
+    private long endTime;
+
+    /**
+     * When enabled, MethodInfo instances are reused per thread and per dispatch depth
+     * instead of being allocated on every intercepted call.
+     */
+    public static void setReuseMethodInfo(boolean reuse) {
+        reuseMethodInfo = reuse;
+    }
+
+    public static boolean isReuseMethodInfo() {
+        return reuseMethodInfo;
+    }
+
     @Override
     public boolean isNoop() {
         return false;
@@ -56,14 +87,40 @@ public class SessionContext implements InitializeContext {
         return NoNull.of(tracing, NoOpTracer.NO_OP_TRACING);
     }
 
+    private static int slotOf(Object key) {
+        if (key instanceof ContextKey) {
+            return ((ContextKey<?>) key).getSlot();
+        } else if (key instanceof Class) {
+            return ContextKey.ofClass((Class<?>) key).getSlot();
+        }
+        return -1;
+    }
+
     @Override
     public <V> V get(Object key) {
-        return change(context.get(key));
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return change(context.get(key));
+        }
+        return slot < values.length ? change(values[slot]) : null;
     }
 
     @Override
     public <V> V remove(Object key) {
-        return change(context.remove(key));
+        int slot = slotOf(key);
+        if (slot < 0) {
+            snapshot = null;
+            return change(context.remove(key));
+        }
+        if (slot >= values.length) {
+            return null;
+        }
+        Object value = values[slot];
+        if (value != null) {
+            values[slot] = null;
+            valueCount--;
+        }
+        return change(value);
     }
 
     @SuppressWarnings("unchecked")
@@ -73,10 +130,65 @@ public class SessionContext implements InitializeContext {
 
     @Override
     public <V> V put(Object key, V value) {
-        context.put(key, value);
+        int slot = slotOf(key);
+        if (slot < 0) {
+            snapshot = null;
+            context.put(key, value);
+            return value;
+        }
+        if (slot >= values.length) {
+            // a key created after this context
+            int length = Math.max(slot + 1, ContextKey.slots());
+            keys = Arrays.copyOf(keys, length);
+            values = Arrays.copyOf(values, length);
+        }
+        Object previous = values[slot];
+        keys[slot] = key;
+        values[slot] = value;
+        if (previous == null && value != null) {
+            valueCount++;
+        } else if (previous != null && value == null) {
+            valueCount--;
+        }
         return value;
     }
 
+    private void putAll(Map<Object, Object> map) {
+        for (Map.Entry<Object, Object> entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private boolean isEmpty() {
+        return valueCount == 0 && context.isEmpty();
+    }
+
+    /**
+     * @return an immutable copy of the forwarded headers of the context, the only values carried to async tasks.
+     * The others are kept by the interceptors for the call they intercept, and are not removed after it.
+     */
+    private Map<Object, Object> forwardedHeaders() {
+        Set<String> fields = ProgressFields.getForwardedHeaders();
+        if (snapshot != null && snapshotFields == fields) {
+            return snapshot;
+        }
+        Map<Object, Object> headers = null;
+        if (!context.isEmpty()) {
+            for (String field : fields) {
+                Object value = context.get(field);
+                if (value != null) {
+                    if (headers == null) {
+                        headers = new HashMap<>();
+                    }
+                    headers.put(field, value);
+                }
+            }
+        }
+        snapshot = headers == null ? Collections.emptyMap() : Collections.unmodifiableMap(headers);
+        snapshotFields = fields;
+        return snapshot;
+    }
+
     @Override
     public <V> V putLocal(String key, V value) {
         assert this.retBound.peek() != null;
@@ -115,6 +227,14 @@ public class SessionContext implements InitializeContext {
 
     @Override
     public int enter(Object key) {
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            if (slot >= counts.length) {
+                counts = Arrays.copyOf(counts, Math.max(slot + 1, ContextKey.slots()));
+            }
+            counted = true;
+            return ++counts[slot];
+        }
         Integer count = entered.get(key);
         if (count == null) {
             count = 1;
@@ -127,6 +247,13 @@ public class SessionContext implements InitializeContext {
 
     @Override
     public int exit(Object key) {
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            if (slot >= counts.length || counts[slot] == 0) {
+                return 0;
+            }
+            return counts[slot]--;
+        }
         Integer count = entered.get(key);
         if (count == null) {
             return 0;
@@ -138,15 +265,24 @@ public class SessionContext implements InitializeContext {
     @Override
     public AsyncContext exportAsync() {
         AsyncContext asyncContext = tracing.exportAsync();
-        asyncContext.putAll(context);
+        Map<Object, Object> headers = forwardedHeaders();
+        if (headers.isEmpty()) {
+            return asyncContext;
+        }
+        if (asyncContext.isNoop()) {
+            // the headers are forwarded without a trace too
+            return new SnapshotAsyncContext(headers);
+        }
+        asyncContext.putAll(headers);
         return asyncContext;
     }
 
     @Override
     public Scope importAsync(AsyncContext snapshot) {
-        boolean clearContext = !tracing.hasCurrentSpan();
+        // a task run by the exporting thread itself must not clear its context
+        boolean clearContext = !tracing.hasCurrentSpan() && isEmpty();
         Scope scope = tracing.importAsync(snapshot);
-        context.putAll(snapshot.getAll());
+        putAll(snapshot.getAll());
         return new AsyncScope(this, scope, clearContext);
     }
 
@@ -203,14 +339,87 @@ public class SessionContext implements InitializeContext {
      * called by framework to maintain stack
      */
     public void pushRetBound() {
-        this.retBound.push(new RetBound(this.retStack.size()));
+        RetBound bound = this.freeRetBounds.poll();
+        if (bound == null) {
+            bound = new RetBound(this.retStack.size());
+        } else {
+            bound.reset(this.retStack.size());
+        }
+        this.retBound.push(bound);
     }
 
     /**
      * called by framework to maintain stack
      */
     public void popRetBound() {
-        this.retBound.pop();
+        this.freeRetBounds.push(this.retBound.pop());
+    }
+
+    @Override
+    public MethodInfo enterMethodInfo(Object invoker, String type, String method, Object[] args) {
+        if (!reuseMethodInfo) {
+            return MethodInfo.builder()
+                .invoker(invoker)
+                .type(type)
+                .method(method)
+                .args(args)
+                .build();
+        }
+        if (this.depth == this.methodInfos.length) {
+            this.methodInfos = Arrays.copyOf(this.methodInfos, this.depth << 1);
+        }
+        MethodInfo methodInfo = this.methodInfos[this.depth];
+        if (methodInfo == null) {
+            methodInfo = new MethodInfo();
+            this.methodInfos[this.depth] = methodInfo;
+        }
+        this.depth++;
+        methodInfo.reset(invoker, type, method, args);
+        return methodInfo;
+    }
+
+    @Override
+    public void exitMethodInfo(MethodInfo methodInfo) {
+        // walk down in case of an exit skipped by an Error thrown from the intercepted method
+        for (int i = this.depth - 1; i >= 0; i--) {
+            if (this.methodInfos[i] == methodInfo) {
+                this.depth = i;
+                if (methodInfo.isChanged()) {
+                    // may be retained by interceptors, eg. wrapped into an async result
+                    this.methodInfos[i] = null;
+                } else {
+                    methodInfo.reset(null, null, null, null);
+                }
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void setBeginTime(long beginTime) {
+        this.beginTime = beginTime;
+    }
+
+    @Override
+    public long getBeginTime() {
+        return this.beginTime;
+    }
+
+    @Override
+    public void setEndTime(long endTime) {
+        this.endTime = endTime;
+    }
+
+    @Override
+    public long getEndTime() {
+        return this.endTime;
+    }
+
+    @Override
+    public long removeEndTime() {
+        long time = this.endTime;
+        this.endTime = 0;
+        return time;
     }
 
     @Override
@@ -249,6 +458,10 @@ public class SessionContext implements InitializeContext {
 
     @Override
     public Runnable wrap(Runnable task) {
+        if (!tracing.hasCurrentSpan() && forwardedHeaders().isEmpty()) {
+            // nothing to carry over, importing would change nothing
+            return task;
+        }
         return new CurrentContextRunnable(exportAsync(), task);
     }
 
@@ -308,6 +521,7 @@ public class SessionContext implements InitializeContext {
                 continue;
             }
             this.context.put(field, o);
+            this.snapshot = null;
             setter.setHeader(field, o);
         }
     }
@@ -336,9 +550,22 @@ public class SessionContext implements InitializeContext {
         if (!this.context.isEmpty()) {
             this.context.clear();
         }
+        this.snapshot = null;
+        this.snapshotFields = null;
+        if (this.valueCount != 0) {
+            Arrays.fill(this.keys, null);
+            Arrays.fill(this.values, null);
+            this.valueCount = 0;
+        }
         if (!this.entered.isEmpty()) {
             this.entered.clear();
         }
+        if (this.counted) {
+            Arrays.fill(this.counts, 0);
+            this.counted = false;
+        }
+        this.beginTime = 0;
+        this.endTime = 0;
     }
 
     public static class CurrentContextRunnable implements Runnable {
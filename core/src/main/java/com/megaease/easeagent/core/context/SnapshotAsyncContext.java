@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.megaease.easeagent.core.context;
+
+import com.megaease.easeagent.plugin.api.Context;
+import com.megaease.easeagent.plugin.api.context.AsyncContext;
+import com.megaease.easeagent.plugin.api.trace.Scope;
+import com.megaease.easeagent.plugin.api.trace.Tracing;
+import com.megaease.easeagent.plugin.bridge.EaseAgent;
+import com.megaease.easeagent.plugin.bridge.NoOpTracer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The values of a {@link SessionContext} exported while no span is current.
+ */
+class SnapshotAsyncContext implements AsyncContext {
+    private Map<Object, Object> context;
+
+    SnapshotAsyncContext(Map<Object, Object> context) {
+        this.context = context;
+    }
+
+    @Override
+    public boolean isNoop() {
+        return false;
+    }
+
+    @Override
+    public Tracing getTracer() {
+        return NoOpTracer.NO_OP_TRACING;
+    }
+
+    @Override
+    public Context getContext() {
+        return EaseAgent.initializeContextSupplier.get();
+    }
+
+    @Override
+    public Scope importToCurrent() {
+        return EaseAgent.initializeContextSupplier.get().importAsync(this);
+    }
+
+    @Override
+    public Map<Object, Object> getAll() {
+        return context;
+    }
+
+    @Override
+    public void putAll(Map<Object, Object> context) {
+        Map<Object, Object> all = new HashMap<>(this.context);
+        all.putAll(context);
+        this.context = all;
+    }
+}
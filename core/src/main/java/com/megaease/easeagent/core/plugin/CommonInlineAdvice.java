@@ -47,13 +47,7 @@ public class CommonInlineAdvice {
             return null;
         }
 
-        MethodInfo methodInfo = MethodInfo.builder()
-            .invoker(invoker)
-            .type(type)
-            .method(method)
-            .args(args)
-            .build();
-        Dispatcher.enter(index, methodInfo, context);
+        MethodInfo methodInfo = Dispatcher.enter(index, invoker, type, method, args, context);
         if (methodInfo.isChanged()) {
             args = methodInfo.getArgs();
         }
@@ -73,7 +67,7 @@ public class CommonInlineAdvice {
         }
         methodInfo.throwable(throwable);
         methodInfo.retValue(result);
-        Dispatcher.exit(index, methodInfo, context);
+        Dispatcher.exitAndRelease(index, methodInfo, context);
         if (methodInfo.isChanged()) {
             result = methodInfo.getRetValue();
         }
@@ -88,9 +82,9 @@ public class CommonInlineAdvice {
         if (context.isNoop()) {
             return;
         }
-        methodInfo.setInvoker(invoker);
+        methodInfo.invoker(invoker);
         methodInfo.retValue(result);
-        Dispatcher.exit(index, methodInfo, context);
+        Dispatcher.exitAndRelease(index, methodInfo, context);
         if (methodInfo.isChanged()) {
             result = methodInfo.getRetValue();
         }
@@ -46,6 +46,28 @@ public final class Dispatcher {
         return chain.doAfter(info, pos, ctx);
     }
 
+    /**
+     * enter with the MethodInfo obtained from the context,
+     * which may be reused by the context when dispatch reusing is enabled
+     */
+    public static MethodInfo enter(int index, Object invoker, String type, String method,
+                                   Object[] args, InitializeContext ctx) {
+        MethodInfo info = ctx.enterMethodInfo(invoker, type, method, args);
+        enter(index, info, ctx);
+        return info;
+    }
+
+    /**
+     * exit and release the MethodInfo obtained by {@link #enter(int, Object, String, String, Object[], InitializeContext)}
+     */
+    public static void exitAndRelease(int index, MethodInfo info, InitializeContext ctx) {
+        try {
+            exit(index, info, ctx);
+        } finally {
+            ctx.exitMethodInfo(info);
+        }
+    }
+
     public static AgentInterceptorChain register(int index, AgentInterceptorChain chain) {
         return chains.putIfAbsent(index, chain);
     }
@@ -19,9 +19,11 @@ package com.megaease.easeagent.core.plugin;
 
 import com.megaease.easeagent.config.Configs;
 import com.megaease.easeagent.core.plugin.matcher.ClassTransformation;
+import com.megaease.easeagent.core.plugin.matcher.CompoundClassMatcher;
 import com.megaease.easeagent.core.plugin.matcher.MethodTransformation;
 import com.megaease.easeagent.core.plugin.registry.PluginRegistry;
 import com.megaease.easeagent.core.plugin.transformer.CompoundPluginTransformer;
+import com.megaease.easeagent.core.plugin.transformer.DispatchPluginTransformer;
 import com.megaease.easeagent.core.plugin.transformer.DynamicFieldTransformer;
 import com.megaease.easeagent.core.plugin.transformer.ForAdviceTransformer;
 import com.megaease.easeagent.log4j2.Logger;
@@ -44,12 +46,18 @@ public class PluginLoader {
         pluginLoad();
         providerLoad();
         Set<ClassTransformation> sortedTransformations = pointsLoad();
+        if (sortedTransformations.isEmpty()) {
+            return ab;
+        }
 
-        for (ClassTransformation transformation : sortedTransformations) {
-            ab = ab.type(transformation.getClassMatcher())
-                .transform(compound(transformation.isHasDynamicField(),transformation.getMethodTransformations()));
+        // one matcher for all Points, instead of evaluating every loaded class against each of them
+        CompoundClassMatcher matcher = new CompoundClassMatcher(sortedTransformations);
+        List<AgentBuilder.Transformer> transformers = new ArrayList<>();
+        for (ClassTransformation transformation : matcher.getTransformations()) {
+            transformers.add(compound(transformation.isHasDynamicField(), transformation.getMethodTransformations()));
         }
-        return ab;
+        log.debug("Plugin class matcher: {}", matcher);
+        return ab.type(matcher).transform(new DispatchPluginTransformer(matcher, transformers));
     }
 
     public static void providerLoad() {
@@ -18,6 +18,7 @@
 package com.megaease.easeagent.core.plugin.matcher;
 
 import com.megaease.easeagent.plugin.Ordered;
+import com.megaease.easeagent.plugin.matcher.IClassMatcher;
 import lombok.Data;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.matcher.ElementMatcher.Junction;
@@ -28,6 +29,8 @@ import java.util.Set;
 public class ClassTransformation implements Ordered {
     private int order;
     private Junction<TypeDescription> classMatcher;
+    // the matcher declared by the plugin Points, used to index the transformation by class names
+    private IClassMatcher pointsClassMatcher;
     private Set<MethodTransformation>  methodTransformations;
     private boolean hasDynamicField;
 
@@ -35,8 +38,17 @@ public class ClassTransformation implements Ordered {
                                Junction<TypeDescription> classMatcher,
                                Set<MethodTransformation> methodTransformations,
                                boolean hasDynamicField) {
+        this(order, classMatcher, null, methodTransformations, hasDynamicField);
+    }
+
+    public ClassTransformation(int order,
+                               Junction<TypeDescription> classMatcher,
+                               IClassMatcher pointsClassMatcher,
+                               Set<MethodTransformation> methodTransformations,
+                               boolean hasDynamicField) {
         this.order = order;
         this.classMatcher = classMatcher;
+        this.pointsClassMatcher = pointsClassMatcher;
         this.methodTransformations = methodTransformations;
         this.hasDynamicField = hasDynamicField;
     }
@@ -48,6 +60,7 @@ public class ClassTransformation implements Ordered {
     public static class Builder {
         private int order;
         private Junction<TypeDescription> classMatcher;
+        private IClassMatcher pointsClassMatcher;
         private Set<MethodTransformation> methodTransformations;
         private boolean hasDynamicField;
 
@@ -64,6 +77,11 @@ public class ClassTransformation implements Ordered {
             return this;
         }
 
+        public Builder pointsClassMatcher(IClassMatcher pointsClassMatcher) {
+            this.pointsClassMatcher = pointsClassMatcher;
+            return this;
+        }
+
         public Builder methodTransformations(Set<MethodTransformation> methodTransformations) {
             this.methodTransformations = methodTransformations;
             return this;
@@ -75,11 +93,11 @@ public class ClassTransformation implements Ordered {
         }
 
         public ClassTransformation build() {
-            return new ClassTransformation(order, classMatcher, methodTransformations, hasDynamicField);
+            return new ClassTransformation(order, classMatcher, pointsClassMatcher, methodTransformations, hasDynamicField);
         }
 
         public String toString() {
-            return "ClassTransformation.Builder(order=" + this.order + ", classMatcher=" + this.classMatcher + ", methodTransformations=" + this.methodTransformations + ", hasDynamicField=" + this.hasDynamicField + ")";
+            return "ClassTransformation.Builder(order=" + this.order + ", classMatcher=" + this.classMatcher + ", pointsClassMatcher=" + this.pointsClassMatcher + ", methodTransformations=" + this.methodTransformations + ", hasDynamicField=" + this.hasDynamicField + ")";
         }
     }
 }
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.megaease.easeagent.core.plugin.matcher;
+
+import com.megaease.easeagent.log4j2.Logger;
+import com.megaease.easeagent.log4j2.LoggerFactory;
+import com.megaease.easeagent.plugin.matcher.ClassMatcher;
+import com.megaease.easeagent.plugin.matcher.IClassMatcher;
+import com.megaease.easeagent.plugin.matcher.operator.AndClassMatcher;
+import com.megaease.easeagent.plugin.matcher.operator.OrClassMatcher;
+import net.bytebuddy.description.annotation.AnnotationDescription;
+import net.bytebuddy.description.type.TypeDefinition;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+
+import java.util.*;
+
+/**
+ * One class matcher for the transformations of all plugin Points.
+ *
+ * <p>Each transformation is indexed by the class names its Points matcher requires: the exact class
+ * name, a super class or interface name, or an annotation name. A type is looked up in these indexes
+ * in one pass over its hierarchy, and only the candidates found are checked against their full
+ * ByteBuddy matcher. Transformations that can't be indexed, eg. a negated matcher, are always checked.
+ */
+public class CompoundClassMatcher extends ElementMatcher.Junction.AbstractBase<TypeDescription> {
+    private static final Logger log = LoggerFactory.getLogger(CompoundClassMatcher.class);
+
+    private final List<ClassTransformation> transformations;
+    private final Map<String, BitSet> named = new HashMap<>();
+    private final Map<String, BitSet> superTypes = new HashMap<>();
+    private final Map<String, BitSet> annotations = new HashMap<>();
+    private final BitSet superTypeIndexed = new BitSet();
+    private final BitSet annotationIndexed = new BitSet();
+    private final BitSet unindexed = new BitSet();
+
+    public CompoundClassMatcher(Collection<ClassTransformation> transformations) {
+        this.transformations = new ArrayList<>(transformations);
+        for (int i = 0; i < this.transformations.size(); i++) {
+            ClassTransformation transformation = this.transformations.get(i);
+            if (transformation.getClassMatcher() == null) {
+                log.warn("Transformation without class matcher is ignored: {}", transformation);
+                continue;
+            }
+            List<ClassMatcher> keys = keys(transformation.getPointsClassMatcher());
+            if (keys == null) {
+                unindexed.set(i);
+                continue;
+            }
+            for (ClassMatcher key : keys) {
+                index(key, i);
+            }
+        }
+    }
+
+    /**
+     * Returns the class names one of which a type must have for the matcher to match it,
+     * or null when there is no such set of names.
+     */
+    static List<ClassMatcher> keys(IClassMatcher matcher) {
+        if (matcher instanceof AndClassMatcher) {
+            AndClassMatcher and = (AndClassMatcher) matcher;
+            List<ClassMatcher> left = keys(and.getLeft());
+            List<ClassMatcher> right = keys(and.getRight());
+            if (left == null) {
+                return right;
+            } else if (right == null) {
+                return left;
+            }
+            // both are required, the cheapest to look up is enough
+            return cost(left) <= cost(right) ? left : right;
+        } else if (matcher instanceof OrClassMatcher) {
+            OrClassMatcher or = (OrClassMatcher) matcher;
+            List<ClassMatcher> left = keys(or.getLeft());
+            List<ClassMatcher> right = keys(or.getRight());
+            if (left == null || right == null) {
+                return null;
+            }
+            List<ClassMatcher> keys = new ArrayList<>(left);
+            keys.addAll(right);
+            return keys;
+        } else if (matcher instanceof ClassMatcher) {
+            ClassMatcher classMatcher = (ClassMatcher) matcher;
+            if (classMatcher.getMatchType() == null
+                || classMatcher.getName() == null || classMatcher.getName().isEmpty()) {
+                return null;
+            }
+            return Collections.singletonList(classMatcher);
+        }
+        // a negated matcher can match any name
+        return null;
+    }
+
+    private static int cost(List<ClassMatcher> keys) {
+        int cost = 0;
+        for (ClassMatcher key : keys) {
+            switch (key.getMatchType()) {
+                case NAMED:
+                    cost += 1;
+                    break;
+                case ANNOTATION:
+                    cost += 2;
+                    break;
+                default:
+                    cost += 4;
+            }
+        }
+        return cost;
+    }
+
+    private void index(ClassMatcher key, int transformation) {
+        Map<String, BitSet> index;
+        switch (key.getMatchType()) {
+            case NAMED:
+                index = named;
+                break;
+            case SUPER_CLASS:
+            case INTERFACE:
+                index = superTypes;
+                superTypeIndexed.set(transformation);
+                break;
+            case ANNOTATION:
+                index = annotations;
+                annotationIndexed.set(transformation);
+                break;
+            default:
+                unindexed.set(transformation);
+                return;
+        }
+        index.computeIfAbsent(key.getName(), k -> new BitSet()).set(transformation);
+    }
+
+    public List<ClassTransformation> getTransformations() {
+        return transformations;
+    }
+
+    @Override
+    public boolean matches(TypeDescription target) {
+        return !match(target).isEmpty();
+    }
+
+    /**
+     * Returns the positions of the transformations which match the type, in the order they were given.
+     */
+    public BitSet match(TypeDescription target) {
+        BitSet candidates = (BitSet) unindexed.clone();
+        addCandidates(candidates, named, target.getName());
+        if (!annotations.isEmpty()) {
+            try {
+                for (AnnotationDescription annotation : target.getDeclaredAnnotations()) {
+                    addCandidates(candidates, annotations, annotation.getAnnotationType().getName());
+                }
+            } catch (RuntimeException | LinkageError e) {
+                candidates.or(annotationIndexed);
+            }
+        }
+        if (!superTypes.isEmpty()) {
+            try {
+                addSuperTypeCandidates(candidates, target, new HashSet<>());
+            } catch (RuntimeException | LinkageError e) {
+                // leave it to the full matchers, which fail the same way as they did separately
+                candidates.or(superTypeIndexed);
+            }
+        }
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (!transformations.get(i).getClassMatcher().matches(target)) {
+                candidates.clear(i);
+            }
+        }
+        return candidates;
+    }
+
+    private void addSuperTypeCandidates(BitSet candidates, TypeDefinition type, Set<String> visited) {
+        for (TypeDefinition current = type; current != null; current = current.getSuperClass()) {
+            String name = current.asErasure().getName();
+            if (!visited.add(name)) {
+                return;
+            }
+            addCandidates(candidates, superTypes, name);
+            for (TypeDefinition anInterface : current.getInterfaces()) {
+                addSuperTypeCandidates(candidates, anInterface, visited);
+            }
+        }
+    }
+
+    private static void addCandidates(BitSet candidates, Map<String, BitSet> index, String name) {
+        BitSet found = index.get(name);
+        if (found != null) {
+            candidates.or(found);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CompoundClassMatcher(transformations=" + transformations.size()
+            + ", named=" + named.size()
+            + ", superTypes=" + superTypes.size()
+            + ", annotations=" + annotations.size()
+            + ", unindexed=" + unindexed.cardinality() + ")";
+    }
+}
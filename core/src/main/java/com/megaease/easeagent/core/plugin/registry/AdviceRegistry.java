@@ -33,7 +33,9 @@ import net.bytebuddy.implementation.bytecode.StackManipulation;
 
 import java.lang.ref.WeakReference;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -50,15 +52,21 @@ public class AdviceRegistry {
         String method = instrumentedMethod.getName();
         String methodDescriptor = instrumentedMethod.getDescriptor();
         String key = type + ":" + method + methodDescriptor;
-        IdentityPointcuts newIdentity = new IdentityPointcuts();
-        IdentityPointcuts identityPointcuts = methodsSet.putIfAbsent(key, newIdentity);
+        IdentityPointcuts newIdentity = null;
+        IdentityPointcuts identityPointcuts = methodsSet.get(key);
+        if (identityPointcuts == null) {
+            newIdentity = new IdentityPointcuts();
+            identityPointcuts = methodsSet.putIfAbsent(key, newIdentity);
+        }
 
         Integer pointcutIndex;
         boolean merge = false;
 
         // already exist
         if (identityPointcuts != null) {
-            newIdentity.tryRelease();
+            if (newIdentity != null) {
+                newIdentity.tryRelease();
+            }
             pointcutIndex = getPointcutIndex(methodEnter);
             // this pointcut's interceptors have injected into chain
             if (identityPointcuts.checkPointcutExist(pointcutIndex)) {
@@ -169,13 +177,16 @@ public class AdviceRegistry {
 
     public static class IdentityPointcuts {
         static AtomicInteger index = new AtomicInteger(1);
+        // identities released behind the last one, reused so that the slots of Dispatcher's chains stay compact
+        static final Queue<Integer> released = new ConcurrentLinkedQueue<>();
         ReentrantLock lock = new ReentrantLock();
         int identify;
         ConcurrentHashMap<Integer, Integer> pointcutIndexSet = new ConcurrentHashMap<>();
         Cache<ClassLoader, Boolean> cache = CacheBuilder.newBuilder().weakKeys().build();
 
         public IdentityPointcuts() {
-            this.identify = index.incrementAndGet();
+            Integer id = released.poll();
+            this.identify = id == null ? index.incrementAndGet() : id;
         }
 
         public Boolean checkPointcutExist(Integer pointcutIndex) {
@@ -204,11 +215,13 @@ public class AdviceRegistry {
         }
 
         /**
-         * Some empty slots may appear, the effect can be ignored and can be optimized later
+         * Release the identity of a pointcut which is never registered to the Dispatcher
          */
         public void tryRelease() {
             int id = this.identify;
-            index.compareAndSet(id, id - 1);
+            if (!index.compareAndSet(id, id - 1)) {
+                released.add(id);
+            }
         }
     }
 }
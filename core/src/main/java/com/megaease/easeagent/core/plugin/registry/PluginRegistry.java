@@ -89,6 +89,7 @@ public class PluginRegistry {
         int order = plugin.order();
 
         return ClassTransformation.builder().classMatcher(innerClassMatcher)
+            .pointsClassMatcher(classMatcher)
             .hasDynamicField(hasDynamicField)
             .methodTransformations(mInfo)
             .order(order).build();
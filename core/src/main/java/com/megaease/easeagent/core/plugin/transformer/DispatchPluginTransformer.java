@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.megaease.easeagent.core.plugin.transformer;
+
+import com.megaease.easeagent.core.plugin.matcher.CompoundClassMatcher;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.utility.JavaModule;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Applies, in order, the transformers of the transformations a {@link CompoundClassMatcher} matches.
+ */
+public class DispatchPluginTransformer implements AgentBuilder.Transformer {
+    private final CompoundClassMatcher matcher;
+    private final AgentBuilder.Transformer[] transformers;
+
+    /**
+     * @param transformers the transformer of each transformation of the matcher, at the same position
+     */
+    public DispatchPluginTransformer(CompoundClassMatcher matcher, List<AgentBuilder.Transformer> transformers) {
+        if (matcher.getTransformations().size() != transformers.size()) {
+            throw new IllegalArgumentException("a transformer is required for each transformation");
+        }
+        this.matcher = matcher;
+        this.transformers = transformers.toArray(new AgentBuilder.Transformer[0]);
+    }
+
+    @Override
+    public DynamicType.Builder<?> transform(DynamicType.Builder<?> builder,
+                                            TypeDescription typeDescription,
+                                            ClassLoader classLoader,
+                                            JavaModule module) {
+        // only the few transformed types are matched a second time
+        BitSet matched = matcher.match(typeDescription);
+        for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1)) {
+            builder = transformers[i].transform(builder, typeDescription, classLoader, module);
+        }
+        return builder;
+    }
+}
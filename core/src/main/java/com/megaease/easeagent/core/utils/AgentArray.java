@@ -24,30 +24,33 @@ import java.util.Arrays;
 import java.util.Objects;
 import java.util.Spliterator;
 import java.util.Spliterators;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.function.Consumer;
 
+/**
+ * A lock-free, copy-on-write array indexed by the identity of the instrumented methods.
+ *
+ * <p>Writes only happen while classes are loaded: each one copies the array, sets the slot and
+ * publishes the copy with a CAS, retrying when another write won. A published array is never changed,
+ * so reads on the hot path are a volatile read of the array and a plain element load.
+ * The length of the array is the size, the first slot is never used.
+ */
 @AutoService(AppendBootstrapClassLoaderSearch.class)
 @SuppressWarnings("unchecked")
 public class AgentArray<E> {
-    private static final int DEFAULT_INIT_SIZE = 256;
-    private final Object lock = new Object();
-    private Object[] a;
-    private final AtomicInteger size = new AtomicInteger(0);
+    private static final Object RESERVED = new Object();
+    private static final AtomicReferenceFieldUpdater<AgentArray, Object[]> ARRAY =
+        AtomicReferenceFieldUpdater.newUpdater(AgentArray.class, Object[].class, "a");
 
-    public AgentArray() {
-        this(DEFAULT_INIT_SIZE);
-    }
+    private volatile Object[] a;
 
-    public AgentArray(int capacity) {
-        a = new Object[capacity];
+    public AgentArray() {
         // don't use the first slot
-        a[0] = lock;
-        size.incrementAndGet();
+        a = new Object[]{RESERVED};
     }
 
     public int size() {
-        return size.get();
+        return a.length;
     }
 
     public Object[] toArray() {
@@ -55,25 +58,26 @@ public class AgentArray<E> {
     }
 
     public int add(E element) {
-        int current = size.get();
-        while (!size.compareAndSet(current, current + 1)) {
-            current = size.get();
-        }
-        ensureCapacity(current + 1);
-        a[current] = element;
-
-        return current;
+        Object[] current;
+        Object[] next;
+        do {
+            current = a;
+            next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = element;
+        } while (!ARRAY.compareAndSet(this, current, next));
+        return current.length;
     }
 
     public E get(int index) {
-        if (index >= size()) {
+        Object[] current = a;
+        if (index >= current.length) {
             return null;
         }
-        return (E)a[index];
+        return (E) current[index];
     }
 
     public E getUncheck(int index) {
-        return (E)a[index];
+        return (E) a[index];
     }
 
     /**
@@ -82,27 +86,16 @@ public class AgentArray<E> {
      * @return return null, when successful, otherwise return element already existed
      */
     public E putIfAbsent(int index, E element) {
-        ensureCapacity(index + 1);
-        E oldValue;
-
-        synchronized (lock) {
-            oldValue = (E)a[index];
-            if (oldValue == null) {
-                a[index] = element;
-            } else {
-                return oldValue;
-            }
-        }
-
-        int currentSize = size.get();
-        if (currentSize < index + 1) {
-            while(!size.compareAndSet(currentSize, index + 1)) {
-                currentSize = size.get();
-                if (currentSize > index + 1) {
-                    break;
-                }
+        Object[] current;
+        Object[] next;
+        do {
+            current = a;
+            if (index < current.length && current[index] != null) {
+                return (E) current[index];
             }
-        }
+            next = Arrays.copyOf(current, Math.max(current.length, index + 1));
+            next[index] = element;
+        } while (!ARRAY.compareAndSet(this, current, next));
         return null;
     }
 
@@ -114,37 +107,34 @@ public class AgentArray<E> {
      * @return original value,
      */
     public E replace(int index, E element) {
-        ensureCapacity(index + 1);
+        Object[] current;
+        Object[] next;
         E oldValue;
-
-        synchronized (lock) {
-            oldValue = (E)a[index];
-            if (oldValue == null) {
+        do {
+            current = a;
+            if (index >= current.length || current[index] == null) {
                 return null;
-            } else {
-                a[index] = element;
             }
-        }
+            oldValue = (E) current[index];
+            next = current.clone();
+            next[index] = element;
+        } while (!ARRAY.compareAndSet(this, current, next));
         return oldValue;
     }
 
     public int indexOf(Object o) {
-        int length = size();
-        Object s;
+        Object[] current = a;
         if (o == null) {
-            for (int i = 0; i < length; i++) {
-                s = a[i];
-                if (s == null) {
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == null) {
                     return i;
                 }
             }
         } else {
-            for (int i = 0; i < length; i++) {
-                s = a[i];
-                if (o.equals(s)) {
+            for (int i = 0; i < current.length; i++) {
+                if (o.equals(current[i])) {
                     return i;
                 }
-                return i;
             }
         }
         return -1;
@@ -155,59 +145,13 @@ public class AgentArray<E> {
     }
 
     public Spliterator<E> spliterator() {
-        return Spliterators.spliterator(a, Spliterator.ORDERED);
+        return Spliterators.spliterator(a, Spliterator.ORDERED | Spliterator.IMMUTABLE);
     }
 
     public void forEach(Consumer<? super E> action) {
         Objects.requireNonNull(action);
-        E e;
-        for (int idx = 0; idx < size.get(); idx ++) {
-            e = (E)a[idx];
-            action.accept(e);
+        for (Object e : a) {
+            action.accept((E) e);
         }
     }
-
-    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
-    /**
-     * Increases the capacity to ensure that it can hold at least the
-     * number of elements specified by the minimum capacity argument.
-     *
-     * @param minCapacity the desired minimum capacity
-     */
-    private synchronized void grow(int minCapacity) {
-        // overflow-conscious code
-        int oldCapacity = a.length;
-        int newCapacity = oldCapacity + (oldCapacity >> 1);
-        if (newCapacity - minCapacity < 0)
-            newCapacity = minCapacity;
-        if (newCapacity - MAX_ARRAY_SIZE > 0)
-            newCapacity = hugeCapacity(minCapacity);
-        // minCapacity is usually close to size, so this is a win:
-        this.a = Arrays.copyOf(a, newCapacity);
-    }
-
-    private static int hugeCapacity(int minCapacity) {
-        if (minCapacity < 0) // overflow
-            throw new OutOfMemoryError();
-        return (minCapacity > MAX_ARRAY_SIZE) ?
-            Integer.MAX_VALUE :
-            MAX_ARRAY_SIZE;
-    }
-
-    /**
-     * Increases the capacity of this <tt>ArrayList</tt> instance, if
-     * necessary, to ensure that it can hold at least the number of elements
-     * specified by the minimum capacity argument.
-     *
-     * @param   minCapacity   the desired minimum capacity
-     */
-    private void ensureCapacity(int minCapacity) {
-        if (minCapacity - a.length > 0) {
-            grow(minCapacity);
-        }
-    }
-
-    private String outOfBoundsMsg(int index) {
-        return "Index: "+index+", Size: "+size;
-    }
 }
@@ -20,6 +20,7 @@ package com.megaease.easeagent.core.utils;
 import com.google.auto.service.AutoService;
 import com.megaease.easeagent.core.AppendBootstrapClassLoaderSearch;
 import com.megaease.easeagent.plugin.api.Context;
+import com.megaease.easeagent.plugin.api.InitializeContext;
 import com.megaease.easeagent.plugin.utils.SystemClock;
 
 import java.util.HashMap;
@@ -63,11 +64,32 @@ public class ContextUtils {
         context.put(END_TIME, SystemClock.now());
     }
 
+    public static void setBeginTime(InitializeContext context) {
+        context.setBeginTime(SystemClock.now());
+    }
+
+    public static void setEndTime(InitializeContext context) {
+        context.setEndTime(SystemClock.now());
+    }
+
     public static Long getBeginTime(Context context) {
+        if (context instanceof InitializeContext) {
+            long beginTime = ((InitializeContext) context).getBeginTime();
+            return beginTime == 0 ? null : beginTime;
+        }
         return (Long) context.get(BEGIN_TIME);
     }
 
     public static Long getEndTime(Context context) {
+        if (context instanceof InitializeContext) {
+            InitializeContext iContext = (InitializeContext) context;
+            long endTime = iContext.getEndTime();
+            if (endTime == 0) {
+                endTime = SystemClock.now();
+                iContext.setEndTime(endTime);
+            }
+            return endTime;
+        }
         Long endTime = (Long) context.get(END_TIME);
         if (endTime == null) {
             setEndTime(context);
@@ -48,6 +48,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 public class HttpServerTest {
     WrappedConfigManager oldWrappedConfigManager;
+    IConfigFactory oldConfigFactory;
 
     @Before
     public void before() throws NoSuchFieldException, IllegalAccessException {
@@ -55,11 +56,13 @@ public class HttpServerTest {
         field.setAccessible(true);
         oldWrappedConfigManager = (WrappedConfigManager) field.get(null);
         field.setAccessible(false);
+        oldConfigFactory = EaseAgent.configFactory;
     }
 
     @After
     public void after() throws NoSuchFieldException, IllegalAccessException {
         setWrappedConfigManager(oldWrappedConfigManager);
+        EaseAgent.configFactory = oldConfigFactory;
     }
 
 
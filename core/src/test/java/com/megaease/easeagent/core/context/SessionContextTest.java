@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.megaease.easeagent.core.context;
+
+import com.megaease.easeagent.plugin.api.ProgressFields;
+import com.megaease.easeagent.plugin.api.context.AsyncContext;
+import com.megaease.easeagent.plugin.api.context.ContextKey;
+import com.megaease.easeagent.plugin.api.trace.Scope;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.megaease.easeagent.plugin.api.ProgressFields.EASEAGENT_PROGRESS_FORWARDED_HEADERS_CONFIG;
+import static org.junit.Assert.*;
+
+public class SessionContextTest {
+    private static final ContextKey<String> KEY = ContextKey.of("test.key");
+    private static final String HEADER = "x-test-forwarded";
+
+    @Test
+    public void slottedKeys() {
+        SessionContext context = new SessionContext();
+        assertNull(context.get(KEY));
+        assertEquals("a", context.put(KEY, "a"));
+        assertEquals("a", context.get(KEY));
+
+        // a class key shares its slot with its ContextKey
+        context.put(SessionContextTest.class, "b");
+        assertEquals("b", context.get(ContextKey.ofClass(SessionContextTest.class)));
+        assertSame(ContextKey.ofClass(SessionContextTest.class), ContextKey.ofClass(SessionContextTest.class));
+
+        // other keys are still supported
+        context.put("string", "c");
+        assertEquals("c", context.get("string"));
+
+        assertEquals("a", context.remove(KEY));
+        assertNull(context.get(KEY));
+        assertNull(context.remove(KEY));
+
+        context.clear();
+        assertNull(context.get(SessionContextTest.class));
+        assertNull(context.get("string"));
+    }
+
+    @Test
+    public void keyCreatedAfterContext() {
+        SessionContext context = new SessionContext();
+        ContextKey<Integer> late = ContextKey.of("test.late");
+        assertNull(context.get(late));
+        assertNull(context.remove(late));
+        assertEquals(0, context.exit(late));
+        context.put(late, 1);
+        assertEquals(1, (int) context.get(late));
+        assertEquals(1, context.enter(late));
+    }
+
+    @Test
+    public void reentrancyCounts() {
+        SessionContext context = new SessionContext();
+        for (Object key : new Object[]{KEY, SessionContextTest.class, "string"}) {
+            assertTrue(context.enter(key, 1));
+            assertFalse(context.enter(key, 1));
+            assertFalse(context.exit(key, 1));
+            assertTrue(context.exit(key, 1));
+        }
+        assertEquals(1, context.enter(KEY));
+        context.clear();
+        assertEquals(1, context.enter(KEY));
+        assertEquals(1, context.exit(KEY));
+        assertEquals(0, context.exit(KEY));
+    }
+
+    private static void forwardHeader(String header) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put(EASEAGENT_PROGRESS_FORWARDED_HEADERS_CONFIG + ".test", header);
+        ProgressFields.changeListener().apply(EASEAGENT_PROGRESS_FORWARDED_HEADERS_CONFIG, headers);
+    }
+
+    @After
+    public void resetForwardedHeaders() {
+        forwardHeader("");
+    }
+
+    @Test
+    public void wrapOnlyWithForwardedHeaders() {
+        forwardHeader(HEADER);
+        SessionContext context = new SessionContext();
+        Runnable task = () -> {
+        };
+        assertSame(task, context.wrap(task));
+
+        // the values of the interceptors are not carried
+        context.put(KEY, "a");
+        context.put("string", "b");
+        assertSame(task, context.wrap(task));
+
+        context.put(HEADER, "h");
+        Runnable wrapped = context.wrap(task);
+        assertNotSame(task, wrapped);
+        assertTrue(context.isWrapped(wrapped));
+
+        context.remove(HEADER);
+        assertSame(task, context.wrap(task));
+
+        // nor is a header which is no longer forwarded
+        context.put(HEADER, "h");
+        forwardHeader("");
+        assertSame(task, context.wrap(task));
+    }
+
+    @Test
+    public void exportSharesSnapshot() {
+        forwardHeader(HEADER);
+        SessionContext context = new SessionContext();
+        context.put(KEY, "a");
+        context.put(HEADER, "b");
+        AsyncContext first = context.exportAsync();
+        AsyncContext second = context.exportAsync();
+        assertSame(first.getAll(), second.getAll());
+        assertEquals(1, first.getAll().size());
+        assertNull(first.getAll().get(KEY));
+
+        // a change of the other values keeps the snapshot
+        context.put(KEY, "c");
+        assertSame(first.getAll(), context.exportAsync().getAll());
+
+        context.put(HEADER, "d");
+        AsyncContext third = context.exportAsync();
+        assertNotSame(first.getAll(), third.getAll());
+        assertEquals("b", first.getAll().get(HEADER));
+        assertEquals("d", third.getAll().get(HEADER));
+    }
+
+    @Test
+    public void importAsync() {
+        forwardHeader(HEADER);
+        SessionContext context = new SessionContext();
+        context.put(KEY, "a");
+        context.put(HEADER, "h");
+        AsyncContext asyncContext = context.exportAsync();
+
+        SessionContext other = new SessionContext();
+        try (Scope ignored = other.importAsync(asyncContext)) {
+            assertEquals("h", other.get(HEADER));
+            assertNull(other.get(KEY));
+        }
+        assertNull(other.get(HEADER));
+
+        // imported by the exporting thread itself
+        try (Scope ignored = context.importAsync(asyncContext)) {
+            assertEquals("h", context.get(HEADER));
+        }
+        assertEquals("h", context.get(HEADER));
+        assertEquals("a", context.get(KEY));
+    }
+}
@@ -53,7 +53,7 @@ import static org.junit.Assert.assertTrue;
 public class OrchestrationTransformTest extends TransformTestBase {
     private static ClassLoader classLoader;
     private static String dumpFolder;
-    private static final AtomicInteger globalIndex = new AtomicInteger(1000);
+    private static final AtomicInteger globalIndex = new AtomicInteger(3000);
 
     @Rule
     public MethodRule agentAttachmentRule = new AgentAttachmentRule();
@@ -54,7 +54,7 @@ import static org.junit.Assert.assertTrue;
 public class StaticMethodTransformTest extends TransformTestBase {
     private static ClassLoader classLoader;
     private static String dumpFolder;
-    private static final AtomicInteger globalIndex = new AtomicInteger(0);
+    private static final AtomicInteger globalIndex = new AtomicInteger(100);
 
     @Rule
     public MethodRule agentAttachmentRule = new AgentAttachmentRule();
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.core.plugin;
+
+import com.megaease.easeagent.core.context.SessionContext;
+import com.megaease.easeagent.core.instrument.TestPlugin;
+import com.megaease.easeagent.core.plugin.interceptor.InterceptorPluginDecorator;
+import com.megaease.easeagent.plugin.Interceptor;
+import com.megaease.easeagent.plugin.MethodInfo;
+import com.megaease.easeagent.plugin.api.Context;
+import com.megaease.easeagent.plugin.api.InitializeContext;
+import com.megaease.easeagent.plugin.api.context.ContextUtils;
+import com.megaease.easeagent.plugin.interceptor.AgentInterceptorChain;
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class DispatcherTest {
+    private static final AtomicInteger INDEX = new AtomicInteger(5000);
+    private static final int WARM_UP = 200_000;
+    private static final int ITERATIONS = 100_000;
+
+    @After
+    public void after() {
+        SessionContext.setReuseMethodInfo(false);
+    }
+
+    private static int register(Interceptor... interceptors) {
+        int index = INDEX.incrementAndGet();
+        List<Interceptor> list = new ArrayList<>();
+        for (Interceptor interceptor : interceptors) {
+            list.add(new InterceptorPluginDecorator(interceptor, new TestPlugin()));
+        }
+        assertNull(Dispatcher.register(index, new AgentInterceptorChain(list)));
+        return index;
+    }
+
+    @Test
+    public void reuseMethodInfoPerDepth() {
+        SessionContext.setReuseMethodInfo(true);
+        SessionContext context = new SessionContext();
+        int index = register(new CountInterceptor());
+        Object[] args = new Object[]{"a"};
+
+        MethodInfo first = Dispatcher.enter(index, this, "type", "method", args, context);
+        MethodInfo nested = Dispatcher.enter(index, this, "type", "nested", args, context);
+        assertNotSame(first, nested);
+        assertEquals("nested", nested.getMethod());
+        Dispatcher.exitAndRelease(index, nested, context);
+        assertEquals("method", first.getMethod());
+        Dispatcher.exitAndRelease(index, first, context);
+
+        MethodInfo second = Dispatcher.enter(index, this, "type", "second", args, context);
+        assertSame(first, second);
+        assertEquals("second", second.getMethod());
+        assertSame(args, second.getArgs());
+        assertNull(second.getRetValue());
+        assertFalse(second.isChanged());
+        Dispatcher.exitAndRelease(index, second, context);
+    }
+
+    @Test
+    public void changedMethodInfoIsNotReused() {
+        SessionContext.setReuseMethodInfo(true);
+        SessionContext context = new SessionContext();
+        int index = register(new RetainInterceptor());
+
+        MethodInfo first = Dispatcher.enter(index, this, "type", "method", null, context);
+        Dispatcher.exitAndRelease(index, first, context);
+        assertTrue(first.isChanged());
+        assertEquals("retained", first.getRetValue());
+
+        MethodInfo second = Dispatcher.enter(index, this, "type", "method", null, context);
+        assertNotSame(first, second);
+        assertEquals("method", first.getMethod());
+        Dispatcher.exitAndRelease(index, second, context);
+    }
+
+    @Test
+    public void skippedExitIsRecovered() {
+        SessionContext.setReuseMethodInfo(true);
+        SessionContext context = new SessionContext();
+        int index = register(new CountInterceptor());
+
+        MethodInfo outer = Dispatcher.enter(index, this, "type", "outer", null, context);
+        // the exit of an inner call is skipped, eg. an Error thrown
+        Dispatcher.enter(index, this, "type", "inner", null, context);
+        Dispatcher.exitAndRelease(index, outer, context);
+
+        MethodInfo next = Dispatcher.enter(index, this, "type", "next", null, context);
+        assertSame(outer, next);
+        Dispatcher.exitAndRelease(index, next, context);
+    }
+
+    @Test
+    public void newMethodInfoWhenReuseDisabled() {
+        SessionContext context = new SessionContext();
+        int index = register(new CountInterceptor());
+
+        MethodInfo first = Dispatcher.enter(index, this, "type", "method", null, context);
+        Dispatcher.exitAndRelease(index, first, context);
+        MethodInfo second = Dispatcher.enter(index, this, "type", "method", null, context);
+        Dispatcher.exitAndRelease(index, second, context);
+        assertNotSame(first, second);
+        assertEquals("method", first.getMethod());
+    }
+
+    @Test
+    public void beginAndEndTime() {
+        SessionContext context = new SessionContext();
+        TimeInterceptor interceptor = new TimeInterceptor();
+        int index = register(interceptor);
+
+        MethodInfo methodInfo = Dispatcher.enter(index, this, "type", "method", null, context);
+        Dispatcher.exitAndRelease(index, methodInfo, context);
+        assertTrue(interceptor.beginTime > 0);
+        assertTrue(interceptor.duration >= 0);
+        assertEquals(interceptor.beginTime, context.getBeginTime());
+        assertEquals(0, context.removeEndTime());
+        assertNull(context.get("ContextUtils.beginTime"));
+    }
+
+    @Test
+    public void steadyStateCallAllocatesNothing() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadMXBean;
+        assumeTrue(bean.isThreadAllocatedMemorySupported());
+        bean.setThreadAllocatedMemoryEnabled(true);
+
+        SessionContext.setReuseMethodInfo(true);
+        SessionContext context = new SessionContext();
+        CountInterceptor count = new CountInterceptor();
+        int index = register(count, new StackInterceptor(), new TimeInterceptor());
+        Object[] args = new Object[]{"a", 1};
+
+        call(index, context, args, WARM_UP);
+
+        long tid = Thread.currentThread().getId();
+        long overhead = -bean.getThreadAllocatedBytes(tid) + bean.getThreadAllocatedBytes(tid);
+        long begin = bean.getThreadAllocatedBytes(tid);
+        call(index, context, args, ITERATIONS);
+        long allocated = bean.getThreadAllocatedBytes(tid) - begin - overhead;
+
+        assertEquals(2 * (WARM_UP + ITERATIONS), count.after);
+        // any allocation in a call costs at least 16 bytes, so less than one byte per call proves none happens
+        assertTrue("allocated " + allocated + " bytes in " + ITERATIONS + " calls", allocated < ITERATIONS);
+    }
+
+    private void call(int index, SessionContext context, Object[] args, int times) {
+        for (int i = 0; i < times; i++) {
+            MethodInfo outer = Dispatcher.enter(index, this, "type", "outer", args, context);
+            MethodInfo inner = Dispatcher.enter(index, this, "type", "inner", args, context);
+            Dispatcher.exitAndRelease(index, inner, context);
+            Dispatcher.exitAndRelease(index, outer, context);
+        }
+    }
+
+    static class CountInterceptor implements Interceptor {
+        int before;
+        int after;
+
+        @Override
+        public void before(MethodInfo methodInfo, Context context) {
+            before++;
+        }
+
+        @Override
+        public void after(MethodInfo methodInfo, Context context) {
+            after++;
+        }
+    }
+
+    static class StackInterceptor implements Interceptor {
+        @Override
+        public void before(MethodInfo methodInfo, Context context) {
+            InitializeContext innerContext = (InitializeContext) context;
+            innerContext.push(methodInfo);
+        }
+
+        @Override
+        public void after(MethodInfo methodInfo, Context context) {
+            InitializeContext innerContext = (InitializeContext) context;
+            assertSame(methodInfo, innerContext.pop());
+        }
+    }
+
+    static class TimeInterceptor implements Interceptor {
+        long beginTime;
+        long duration;
+
+        @Override
+        public void before(MethodInfo methodInfo, Context context) {
+        }
+
+        @Override
+        public void after(MethodInfo methodInfo, Context context) {
+            beginTime = ContextUtils.getBeginTimeMillis(context);
+            duration = ContextUtils.getDurationMillis(context);
+        }
+    }
+
+    static class RetainInterceptor implements Interceptor {
+        @Override
+        public void before(MethodInfo methodInfo, Context context) {
+        }
+
+        @Override
+        public void after(MethodInfo methodInfo, Context context) {
+            methodInfo.setRetValue("retained");
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.megaease.easeagent.core.plugin.matcher;
+
+import com.megaease.easeagent.core.plugin.annotation.Index;
+import com.megaease.easeagent.plugin.matcher.ClassMatcher;
+import com.megaease.easeagent.plugin.matcher.IClassMatcher;
+import net.bytebuddy.description.type.TypeDescription;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class CompoundClassMatcherTest {
+    public static class BaseClass {
+    }
+
+    public interface BaseInterface {
+    }
+
+    public interface SubInterface extends BaseInterface {
+    }
+
+    @Index
+    public static class AnnotatedClass extends BaseClass implements Serializable {
+    }
+
+    public static class SubClass extends BaseClass implements SubInterface {
+    }
+
+    public abstract static class AbstractClass implements SubInterface {
+    }
+
+    private static ClassTransformation transformation(int order, IClassMatcher matcher) {
+        return ClassTransformation.builder()
+            .order(order)
+            .classMatcher(ClassMatcherConvert.INSTANCE.convert(matcher))
+            .pointsClassMatcher(matcher)
+            .methodTransformations(Collections.emptySet())
+            .build();
+    }
+
+    private static List<Integer> orders(CompoundClassMatcher matcher, Class<?> type) {
+        BitSet matched = matcher.match(TypeDescription.ForLoadedType.of(type));
+        List<Integer> orders = new ArrayList<>();
+        for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1)) {
+            orders.add(matcher.getTransformations().get(i).getOrder());
+        }
+        return orders;
+    }
+
+    @Test
+    public void keys() {
+        assertEquals(1, CompoundClassMatcher.keys(ClassMatcher.builder()
+            .hasClassName(SubClass.class.getName()).build()).size());
+
+        // the named side of an and is enough
+        List<ClassMatcher> keys = CompoundClassMatcher.keys(ClassMatcher.builder()
+            .hasSuperClass(BaseClass.class.getName()).and()
+            .hasClassName(SubClass.class.getName()).build());
+        assertNotNull(keys);
+        assertEquals(1, keys.size());
+        assertEquals(SubClass.class.getName(), keys.get(0).getName());
+
+        // both sides of an or are required
+        keys = CompoundClassMatcher.keys(ClassMatcher.builder()
+            .hasClassName(SubClass.class.getName()).or()
+            .hasInterface(BaseInterface.class.getName()).build());
+        assertNotNull(keys);
+        assertEquals(2, keys.size());
+
+        assertNull(CompoundClassMatcher.keys(ClassMatcher.builder()
+            .hasClassName(SubClass.class.getName()).negate().build()));
+        assertNull(CompoundClassMatcher.keys(ClassMatcher.builder()
+            .hasClassName(SubClass.class.getName()).or()
+            .hasClassName(BaseClass.class.getName()).negate().build()));
+    }
+
+    @Test
+    public void matchSameAsSeparateMatchers() {
+        List<IClassMatcher> matchers = Arrays.asList(
+            ClassMatcher.builder().hasClassName(SubClass.class.getName()).build(),
+            ClassMatcher.builder().hasSuperClass(BaseClass.class.getName()).build(),
+            ClassMatcher.builder().hasInterface(BaseInterface.class.getName()).notAbstract().build(),
+            ClassMatcher.builder().hasAnnotation(Index.class.getName()).build(),
+            ClassMatcher.builder().hasClassName(AnnotatedClass.class.getName()).negate().build(),
+            ClassMatcher.builder().hasInterface(Serializable.class.getName()).or()
+                .hasClassName(AbstractClass.class.getName()).build(),
+            ClassMatcher.builder().hasInterface(SubInterface.class.getName()).and()
+                .hasSuperClass(BaseClass.class.getName()).build(),
+            ClassMatcher.builder().hasClassName("not.Exists").build());
+        List<ClassTransformation> transformations = new ArrayList<>();
+        for (int i = 0; i < matchers.size(); i++) {
+            transformations.add(transformation(i, matchers.get(i)));
+        }
+        CompoundClassMatcher matcher = new CompoundClassMatcher(transformations);
+
+        for (Class<?> type : Arrays.asList(BaseClass.class, BaseInterface.class, SubInterface.class,
+            AnnotatedClass.class, SubClass.class, AbstractClass.class, String.class)) {
+            TypeDescription typeDescription = TypeDescription.ForLoadedType.of(type);
+            List<Integer> expected = new ArrayList<>();
+            for (ClassTransformation transformation : transformations) {
+                if (transformation.getClassMatcher().matches(typeDescription)) {
+                    expected.add(transformation.getOrder());
+                }
+            }
+            assertEquals(type.getName(), expected, orders(matcher, type));
+            assertEquals(type.getName(), !expected.isEmpty(), matcher.matches(typeDescription));
+        }
+        assertEquals(Arrays.asList(0, 1, 2, 4, 6), orders(matcher, SubClass.class));
+        assertEquals(Arrays.asList(1, 3, 5), orders(matcher, AnnotatedClass.class));
+    }
+}
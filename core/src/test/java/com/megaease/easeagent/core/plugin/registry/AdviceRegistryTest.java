@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.megaease.easeagent.core.plugin.registry;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AdviceRegistryTest {
+
+    @Test
+    public void releasedIdentityIsReused() {
+        AdviceRegistry.IdentityPointcuts first = new AdviceRegistry.IdentityPointcuts();
+        AdviceRegistry.IdentityPointcuts second = new AdviceRegistry.IdentityPointcuts();
+        assertNotEquals(first.getIdentify(), second.getIdentify());
+
+        // not the last identity, its slot is left empty unless reused
+        first.tryRelease();
+        AdviceRegistry.IdentityPointcuts third = new AdviceRegistry.IdentityPointcuts();
+        assertEquals(first.getIdentify(), third.getIdentify());
+
+        // the last identity is given back to the counter
+        second.tryRelease();
+        AdviceRegistry.IdentityPointcuts fourth = new AdviceRegistry.IdentityPointcuts();
+        assertEquals(second.getIdentify(), fourth.getIdentify());
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.megaease.easeagent.core.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class AgentArrayTest {
+    private static final int THREADS = 8;
+    private static final int SLOTS = 2000;
+
+    @Test
+    public void putGetAndReplace() {
+        AgentArray<String> array = new AgentArray<>();
+        assertEquals(1, array.size());
+        assertNull(array.get(10));
+        assertNull(array.replace(10, "x"));
+
+        assertNull(array.putIfAbsent(10, "a"));
+        assertEquals(11, array.size());
+        assertEquals("a", array.putIfAbsent(10, "b"));
+        assertEquals("a", array.get(10));
+        assertEquals("a", array.getUncheck(10));
+        assertNull(array.get(9));
+
+        assertEquals("a", array.replace(10, "c"));
+        assertEquals("c", array.get(10));
+        assertEquals(11, array.add("d"));
+        assertEquals("d", array.get(11));
+    }
+
+    @Test
+    public void indexOf() {
+        AgentArray<String> array = new AgentArray<>();
+        array.add("a");
+        array.add("b");
+        array.putIfAbsent(4, "c");
+        assertEquals(1, array.indexOf("a"));
+        assertEquals(2, array.indexOf("b"));
+        assertEquals(3, array.indexOf(null));
+        assertEquals(4, array.indexOf("c"));
+        assertEquals(-1, array.indexOf("d"));
+        assertTrue(array.contains("b"));
+        assertFalse(array.contains("d"));
+    }
+
+    @Test
+    public void concurrentPutIfAbsentHasOneWinnerPerSlot() throws Exception {
+        AgentArray<Integer> array = new AgentArray<>();
+        AtomicInteger[] winners = new AtomicInteger[SLOTS];
+        for (int i = 0; i < SLOTS; i++) {
+            winners[i] = new AtomicInteger();
+        }
+        run(thread -> {
+            for (int i = 1; i < SLOTS; i++) {
+                // each thread walks the slots in its own order to collide on growth too
+                int index = thread % 2 == 0 ? i : SLOTS - i;
+                Integer existed = array.putIfAbsent(index, thread);
+                if (existed == null) {
+                    winners[index].incrementAndGet();
+                } else {
+                    assertNotEquals(thread, existed.intValue());
+                }
+            }
+        });
+        assertEquals(SLOTS, array.size());
+        for (int i = 1; i < SLOTS; i++) {
+            assertEquals("slot " + i, 1, winners[i].get());
+            assertNotNull(array.get(i));
+        }
+    }
+
+    @Test
+    public void concurrentAddKeepsEveryElement() throws Exception {
+        AgentArray<Integer> array = new AgentArray<>();
+        Set<Integer> indexes = ConcurrentHashMap.newKeySet();
+        run(thread -> {
+            for (int i = 0; i < SLOTS; i++) {
+                int value = thread * SLOTS + i;
+                int index = array.add(value);
+                assertTrue(indexes.add(index));
+                assertEquals(value, (int) array.get(index));
+            }
+        });
+        assertEquals(THREADS * SLOTS + 1, array.size());
+        Set<Integer> values = new HashSet<>();
+        for (int i = 1; i < array.size(); i++) {
+            values.add(array.get(i));
+        }
+        assertEquals(THREADS * SLOTS, values.size());
+    }
+
+    @Test
+    public void concurrentReplaceIsNotLost() throws Exception {
+        AgentArray<Integer> array = new AgentArray<>();
+        for (int i = 1; i <= THREADS; i++) {
+            array.putIfAbsent(i, 0);
+        }
+        run(thread -> {
+            // replace its own slot while the others grow the array
+            for (int i = 1; i <= SLOTS; i++) {
+                assertEquals(i - 1, (int) array.replace(thread + 1, i));
+                array.putIfAbsent(THREADS + 1 + thread * SLOTS + i, i);
+            }
+        });
+        for (int i = 1; i <= THREADS; i++) {
+            assertEquals(SLOTS, (int) array.get(i));
+        }
+    }
+
+    private static void run(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CyclicBarrier barrier = new CyclicBarrier(THREADS);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    task.run(thread);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+}
@@ -25,10 +25,14 @@ import com.sun.net.httpserver.HttpServer;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class AgentHttpServerV2 implements IHttpServer {
+    private static final int WORKERS = 4;
+    private static final int QUEUE_SIZE = 64;
+
     RootContextHandler httpRootHandler;
     HttpServer server;
 
@@ -39,7 +43,10 @@ public class AgentHttpServerV2 implements IHttpServer {
             this.httpRootHandler = new RootContextHandler();
             this.server.createContext("/", this.httpRootHandler);
 
-            ExecutorService threadPoolExecutor = Executors.newFixedThreadPool(1, new AgentThreadFactory());
+            // the dispatcher runs the exchanges itself once the queue is full, so it stops accepting until a worker is free
+            ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(WORKERS, WORKERS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_SIZE), new AgentThreadFactory(), new ThreadPoolExecutor.CallerRunsPolicy());
+            threadPoolExecutor.allowCoreThreadTimeOut(true);
             this.server.setExecutor(threadPoolExecutor);
 
             this.server.start();
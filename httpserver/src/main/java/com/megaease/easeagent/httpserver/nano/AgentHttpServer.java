@@ -17,6 +17,7 @@
 
 package com.megaease.easeagent.httpserver.nano;
 
+import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.threading.BoundedAsyncRunner;
 import com.megaease.easeagent.httpserver.nanohttpd.router.RouterNanoHTTPD;
 import lombok.SneakyThrows;
 
@@ -25,12 +26,32 @@ import java.util.List;
 public class AgentHttpServer extends RouterNanoHTTPD {
 
     public static String JSON_TYPE = "application/json";
+    public static final int DEFAULT_WORKERS = 4;
+    public static final int DEFAULT_QUEUE_SIZE = 256;
+    public static final long MAX_REQUEST_BODY_SIZE = 1024 * 1024;
+
+    private final BoundedAsyncRunner runner;
 
     public AgentHttpServer(int port) {
+        this(port, DEFAULT_WORKERS, DEFAULT_QUEUE_SIZE);
+    }
+
+    /**
+     * @param workers   the max number of threads serving the connections
+     * @param queueSize the max number of connections waiting for a worker, more are rejected with 503
+     */
+    public AgentHttpServer(int port, int workers, int queueSize) {
         super(port);
+        this.runner = new BoundedAsyncRunner(workers, queueSize);
+        this.setAsyncRunner(this.runner);
+        this.setMaxRequestBodySize(MAX_REQUEST_BODY_SIZE);
         Runtime.getRuntime().addShutdownHook(new Thread(this::stop));
     }
 
+    BoundedAsyncRunner getRunner() {
+        return this.runner;
+    }
+
     public void addHttpRoutes(List<AgentHttpHandler> agentHttpHandlers) {
         for (AgentHttpHandler agentHttpHandler : agentHttpHandlers) {
             this.addRoute(agentHttpHandler.getPath(), agentHttpHandler.getClass());
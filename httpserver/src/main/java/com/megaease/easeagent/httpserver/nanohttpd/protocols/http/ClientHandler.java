@@ -50,13 +50,16 @@ package com.megaease.easeagent.httpserver.nanohttpd.protocols.http;
  * #L%
  */
 
+import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.response.Response;
 import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.tempfiles.ITempFileManager;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 /**
@@ -64,6 +67,8 @@ import java.util.logging.Level;
  */
 public class ClientHandler implements Runnable {
 
+    private static final int IDLE_POLL_MILLIS = 50;
+
     private final NanoHTTPD httpd;
 
     private final InputStream inputStream;
@@ -81,6 +86,52 @@ public class ClientHandler implements Runnable {
         NanoHTTPD.safeClose(this.acceptSocket);
     }
 
+    /**
+     * Waits for the next request of a keep-alive connection in short slices, and gives up the connection as soon as
+     * other connections are waiting for the thread, or the socket timeout passes.
+     */
+    private boolean awaitNextRequest(HTTPSession session) throws IOException {
+        if (this.acceptSocket.isClosed()) {
+            return false;
+        }
+        int timeout = this.acceptSocket.getSoTimeout();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        this.acceptSocket.setSoTimeout(IDLE_POLL_MILLIS);
+        try {
+            while (true) {
+                try {
+                    return session.peek() >= 0;
+                } catch (SocketTimeoutException e) {
+                    if (!httpd.asyncRunner.keepAlive() || (timeout > 0 && System.nanoTime() - deadline > 0)) {
+                        return false;
+                    }
+                }
+            }
+        } finally {
+            if (!this.acceptSocket.isClosed()) {
+                this.acceptSocket.setSoTimeout(timeout);
+            }
+        }
+    }
+
+    /**
+     * Answers the connection with {@code response} without reading its request and closes it.
+     */
+    public void reject(Response response) {
+        try {
+            response.setKeepAlive(false);
+            response.addHeader("Retry-After", "1");
+            response.send(this.acceptSocket.getOutputStream());
+            this.acceptSocket.shutdownOutput();
+            // the unread request would reset the connection on close before the client reads the response
+            this.inputStream.skip(this.inputStream.available());
+        } catch (IOException e) {
+            NanoHTTPD.LOG.log(Level.FINE, "Could not reject the client", e);
+        } finally {
+            close();
+        }
+    }
+
     @Override
     public void run() {
         OutputStream outputStream = null;
@@ -90,6 +141,9 @@ public class ClientHandler implements Runnable {
             HTTPSession session = new HTTPSession(httpd, tempFileManager, this.inputStream, outputStream, this.acceptSocket.getInetAddress());
             while (!this.acceptSocket.isClosed()) {
                 session.execute();
+                if (!awaitNextRequest(session)) {
+                    break;
+                }
             }
         } catch (Exception e) {
             // When the socket is closed by the client,
@@ -407,7 +407,13 @@ public class HTTPSession implements IHTTPSession {
             this.cookies = new CookieHandler(this.headers);
 
             String connection = this.headers.get("connection");
-            boolean keepAlive = "HTTP/1.1".equals(protocolVersion) && (connection == null || !connection.matches("(?i).*close.*"));
+            boolean keepAlive = "HTTP/1.1".equals(protocolVersion) && (connection == null || !connection.matches("(?i).*close.*"))
+                && httpd.asyncRunner.keepAlive();
+
+            long maxBodySize = httpd.getMaxRequestBodySize();
+            if (maxBodySize >= 0 && requestBodySize() > maxBodySize) {
+                throw new NanoHTTPD.ResponseException(Status.PAYLOAD_TOO_LARGE, "PAYLOAD TOO LARGE: the request body exceeds " + maxBodySize + " bytes.");
+            }
 
             // Ok, now do the serve()
 
@@ -585,6 +591,26 @@ public class HTTPSession implements IHTTPSession {
         return this.uri;
     }
 
+    /**
+     * @return the next byte of the request without consuming it, or -1 when the stream is closed
+     */
+    int peek() throws IOException {
+        this.inputStream.mark(1);
+        int next = this.inputStream.read();
+        if (next >= 0) {
+            this.inputStream.reset();
+        }
+        return next;
+    }
+
+    private long requestBodySize() throws NanoHTTPD.ResponseException {
+        try {
+            return getBodySize();
+        } catch (NumberFormatException e) {
+            throw new NanoHTTPD.ResponseException(Status.BAD_REQUEST, "BAD REQUEST: invalid content-length.");
+        }
+    }
+
     /**
      * Deduce body length in bytes. Either from "content-length" header or read
      * bytes.
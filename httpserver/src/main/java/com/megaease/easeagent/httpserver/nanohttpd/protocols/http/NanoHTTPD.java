@@ -350,6 +350,11 @@ public abstract class NanoHTTPD {
      */
     private IFactory<ITempFileManager> tempFileManagerFactory;
 
+    /**
+     * The max length of a request body, or -1 for no limit.
+     */
+    private long maxRequestBodySize = -1;
+
     /**
      * Constructs an HTTP server on given port.
      */
@@ -566,6 +571,20 @@ public abstract class NanoHTTPD {
         this.asyncRunner = asyncRunner;
     }
 
+    public long getMaxRequestBodySize() {
+        return maxRequestBodySize;
+    }
+
+    /**
+     * Requests with a larger body are answered with 413 without being handled.
+     *
+     * @param maxRequestBodySize
+     *            the max length in bytes, or -1 for no limit.
+     */
+    public void setMaxRequestBodySize(long maxRequestBodySize) {
+        this.maxRequestBodySize = maxRequestBodySize;
+    }
+
     /**
      * Pluggable strategy for creating and cleaning up temporary files.
      *
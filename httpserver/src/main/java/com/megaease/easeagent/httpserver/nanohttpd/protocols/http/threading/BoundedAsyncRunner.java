@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.httpserver.nanohttpd.protocols.http.threading;
+
+import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.ClientHandler;
+import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.NanoHTTPD;
+import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.response.Response;
+import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.response.Status;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BoundedAsyncRunner serves the connections by a fixed number of worker threads instead of a thread per
+ * connection. Connections wait in a bounded queue while all of the workers are busy, a connection beyond it is
+ * answered with 503 at once and closed, so a burst of requests can't pile up threads in the host application.
+ * The workers stop when they are idle, and keep-alive connections are closed after their response while
+ * other connections are waiting, so the workers are handed over.
+ */
+public class BoundedAsyncRunner implements IAsyncRunner {
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final Set<ClientHandler> running = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    public BoundedAsyncRunner(int workers, int queueSize) {
+        AtomicInteger index = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueSize), r -> {
+            Thread thread = new Thread(r, "easeagent-http-worker-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void closeAll() {
+        for (ClientHandler clientHandler : new ArrayList<>(this.running)) {
+            clientHandler.close();
+        }
+    }
+
+    @Override
+    public void closed(ClientHandler clientHandler) {
+        this.running.remove(clientHandler);
+    }
+
+    @Override
+    public void exec(ClientHandler clientHandler) {
+        this.running.add(clientHandler);
+        try {
+            this.executor.execute(clientHandler);
+        } catch (RejectedExecutionException e) {
+            this.running.remove(clientHandler);
+            this.rejectedCount.incrementAndGet();
+            clientHandler.reject(Response.newFixedLengthResponse(Status.SERVICE_UNAVAILABLE, NanoHTTPD.MIME_PLAINTEXT,
+                "Too many concurrent requests"));
+        }
+    }
+
+    @Override
+    public boolean keepAlive() {
+        return this.executor.getQueue().isEmpty();
+    }
+
+    public int getPoolSize() {
+        return this.executor.getPoolSize();
+    }
+
+    public long getRejectedCount() {
+        return this.rejectedCount.get();
+    }
+}
@@ -62,4 +62,11 @@ public interface IAsyncRunner {
     void closed(ClientHandler clientHandler);
 
     void exec(ClientHandler code);
+
+    /**
+     * @return false to close a keep-alive connection after its response, eg. when other connections are waiting
+     */
+    default boolean keepAlive() {
+        return true;
+    }
 }
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.httpserver.nano;
+
+import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.IHTTPSession;
+import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.response.Response;
+import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.response.Status;
+import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.threading.BoundedAsyncRunner;
+import com.megaease.easeagent.httpserver.nanohttpd.router.RouterNanoHTTPD;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class AgentHttpServerTest {
+    private static final String BODY;
+
+    static {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            builder.append("application_http_request_m1{url=\"/api/").append(i).append("\",} 0.5\n");
+        }
+        BODY = builder.toString();
+    }
+
+    private AgentHttpServer server;
+    private BoundedAsyncRunner runner;
+    private int port;
+
+    private void start(int workers, int queueSize) throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new AgentHttpServer(port, workers, queueSize);
+        runner = server.getRunner();
+        server.addHttpRoute("/metrics", MetricsHandler.class);
+        server.addHttpRoute("/slow", SlowHandler.class);
+        server.startServer();
+    }
+
+    @After
+    public void after() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void concurrentScrapes() throws Exception {
+        start(AgentHttpServer.DEFAULT_WORKERS, 512);
+        List<Integer> statuses = scrape("/metrics", 300);
+        for (int status : statuses) {
+            assertEquals(200, status);
+        }
+        assertTrue(runner.getPoolSize() <= AgentHttpServer.DEFAULT_WORKERS);
+        assertEquals(0, runner.getRejectedCount());
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            assertFalse(thread.getName(), thread.getName().startsWith("NanoHttpd Request Processor"));
+        }
+    }
+
+    @Test
+    public void rejectWhenQueueIsFull() throws Exception {
+        start(1, 2);
+        List<Integer> statuses = scrape("/slow", 50);
+        int ok = 0;
+        for (int status : statuses) {
+            // -1 is a connection reset before the 503 was read
+            assertTrue(String.valueOf(status), status == 200 || status == 503 || status == -1);
+            ok += status == 200 ? 1 : 0;
+        }
+        assertTrue(ok >= 1);
+        assertTrue(runner.getRejectedCount() > 0);
+        assertEquals(50, ok + runner.getRejectedCount());
+        assertTrue(runner.getPoolSize() <= 1);
+        assertEquals(200, get("/metrics"));
+    }
+
+    @Test
+    public void payloadTooLarge() throws Exception {
+        start(1, 2);
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            socket.setSoTimeout(5000);
+            OutputStream out = socket.getOutputStream();
+            out.write(("POST /metrics HTTP/1.1\r\nHost: localhost\r\nContent-Length: "
+                + (AgentHttpServer.MAX_REQUEST_BODY_SIZE + 1) + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            assertEquals("HTTP/1.1 413 Payload Too Large ", reader.readLine());
+        }
+    }
+
+    @Test
+    public void keepAlive() throws Exception {
+        start(1, 2);
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            socket.setSoTimeout(5000);
+            OutputStream out = socket.getOutputStream();
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            for (int i = 0; i < 3; i++) {
+                out.write("GET /metrics HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+                assertEquals("keep-alive", readResponse(in).get("connection"));
+            }
+        }
+    }
+
+    private Map<String, String> readResponse(DataInputStream in) throws IOException {
+        Map<String, String> headers = new ConcurrentHashMap<>();
+        String line = readLine(in);
+        assertTrue(line, line.startsWith("HTTP/1.1 200"));
+        while (!(line = readLine(in)).isEmpty()) {
+            int colon = line.indexOf(':');
+            headers.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+        }
+        byte[] body = new byte[Integer.parseInt(headers.get("content-length"))];
+        in.readFully(body);
+        assertEquals(BODY, new String(body, StandardCharsets.UTF_8));
+        return headers;
+    }
+
+    private static String readLine(DataInputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\n') {
+            if (c < 0) {
+                throw new EOFException();
+            }
+            if (c != '\r') {
+                line.append((char) c);
+            }
+        }
+        return line.toString();
+    }
+
+    private List<Integer> scrape(String path, int concurrency) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        try {
+            CountDownLatch ready = new CountDownLatch(concurrency);
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(clients.submit(() -> {
+                    ready.countDown();
+                    ready.await();
+                    return get(path);
+                }));
+            }
+            List<Integer> statuses = new ArrayList<>();
+            for (Future<Integer> future : futures) {
+                statuses.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return statuses;
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private int get(String path) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + port + path).openConnection();
+            connection.setConnectTimeout(10000);
+            connection.setReadTimeout(30000);
+            int status = connection.getResponseCode();
+            InputStream in = status == 200 ? connection.getInputStream() : connection.getErrorStream();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while (in != null && (read = in.read(buffer)) > 0) {
+                body.write(buffer, 0, read);
+            }
+            if (status == 200) {
+                assertEquals(BODY, new String(body.toByteArray(), StandardCharsets.UTF_8));
+            }
+            return status;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    public static class MetricsHandler extends AgentHttpHandler {
+        @Override
+        public String getPath() {
+            return "/metrics";
+        }
+
+        @Override
+        public Response process(RouterNanoHTTPD.UriResource uriResource, Map<String, String> urlParams, IHTTPSession session) {
+            return Response.newFixedLengthResponse(Status.OK, "text/plain", BODY);
+        }
+    }
+
+    public static class SlowHandler extends MetricsHandler {
+        @Override
+        public Response process(RouterNanoHTTPD.UriResource uriResource, Map<String, String> urlParams, IHTTPSession session) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.process(uriResource, urlParams, session);
+        }
+    }
+}
@@ -18,9 +18,7 @@
 package com.megaease.easeagent.metrics;
 
 import com.codahale.metrics.*;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.megaease.easeagent.metrics.converter.Converter;
-import lombok.SneakyThrows;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -34,7 +32,6 @@ public class AgentScheduledReporter extends ScheduledReporter {
     public static final Map<String, Map<String, String>> METRIC_MAP = new ConcurrentHashMap<>();
     public static final Map<String, Long> METRIC_TIMESTAMP = new ConcurrentHashMap<>();
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
     private Converter converter;
     private final Consumer<String> dataConsumer;
     private final Supplier<Boolean> enabled;
@@ -67,7 +64,6 @@ public class AgentScheduledReporter extends ScheduledReporter {
     }
 
 
-    @SneakyThrows
     @Override
     @SuppressWarnings("rawtypes")
     public void report(SortedMap<String, Gauge> gauges, SortedMap<String, Counter> counters, SortedMap<String, Histogram> histograms, SortedMap<String, Meter> meters, SortedMap<String, com.codahale.metrics.Timer> timers) {
@@ -76,10 +72,7 @@ public class AgentScheduledReporter extends ScheduledReporter {
             return;
         }
 
-        List<Map<String, Object>> outputs = converter.convertMap(gauges, counters, histograms, meters, timers);
-        for (Map<String, Object> output : outputs) {
-            this.dataConsumer.accept(objectMapper.writeValueAsString(output));
-        }
+        converter.convert(gauges, counters, histograms, meters, timers, this.dataConsumer);
     }
 
 
@@ -96,7 +89,7 @@ public class AgentScheduledReporter extends ScheduledReporter {
     /**
      * Invoke it in the Metric constructor only.
      *
-     * @param converter convert meter to List<Map<String, Object>> to serialize to json
+     * @param converter convert meters to json records
      */
     public void setConverter(Converter converter) {
         this.converter = converter;
@@ -18,45 +18,38 @@
 package com.megaease.easeagent.metrics;
 
 import com.megaease.easeagent.httpserver.nano.AgentHttpHandler;
-import com.megaease.easeagent.httpserver.nano.AgentHttpServer;
 import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.IHTTPSession;
 import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.response.Response;
 import com.megaease.easeagent.httpserver.nanohttpd.protocols.http.response.Status;
 import com.megaease.easeagent.httpserver.nanohttpd.router.RouterNanoHTTPD;
-import io.prometheus.client.Collector;
 import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.Gauge;
 import io.prometheus.client.exporter.common.TextFormat;
-import lombok.extern.slf4j.Slf4j;
 
-import java.io.BufferedWriter;
-import java.io.IOException;
-import java.io.StringWriter;
-import java.io.Writer;
-import java.util.Collections;
-import java.util.Enumeration;
 import java.util.Map;
 
-@Slf4j
 public class PrometheusAgentHttpHandler extends AgentHttpHandler {
+    private static final Gauge SCRAPE_DURATION = Gauge.build()
+        .name("easeagent_prometheus_scrape_duration_seconds")
+        .help("Time taken to encode the previous prometheus scrape of the agent")
+        .register();
 
     @Override
     public String getPath() {
         return "/prometheus/metrics";
     }
 
+    /**
+     * The samples are encoded while the chunked response is sent, and gzipped when the client accepts it.
+     */
     @Override
     public Response process(RouterNanoHTTPD.UriResource uriResource, Map<String, String> urlParams, IHTTPSession session) {
-        Map<String, String> headers = session.getHeaders();
-        String contentType = TextFormat.chooseContentType(headers.get("Accept"));
-        Enumeration<Collector.MetricFamilySamples> samples = CollectorRegistry.defaultRegistry.filteredMetricFamilySamples(Collections.emptySet());
-        StringWriter stringWriter = new StringWriter();
-        try (Writer writer = new BufferedWriter(stringWriter)) {
-            TextFormat.writeFormat(contentType, writer, samples);
-            writer.flush();
-        } catch (IOException e) {
-            log.warn("write data error. {}", e.getMessage());
-        }
-        String data = stringWriter.toString();
-        return Response.newFixedLengthResponse(Status.OK, AgentHttpServer.JSON_TYPE, data);
+        PrometheusExpositionStream data = new PrometheusExpositionStream(
+            CollectorRegistry.defaultRegistry.metricFamilySamples(),
+            nanos -> SCRAPE_DURATION.set(nanos / 1e9));
+        Response response = Response.newChunkedResponse(Status.OK, TextFormat.CONTENT_TYPE_004, data);
+        String acceptEncoding = session.getHeaders().get("accept-encoding");
+        response.setUseGzip(acceptEncoding != null && acceptEncoding.contains("gzip"));
+        return response;
     }
 }
@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.metrics;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.exporter.common.TextFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.LongConsumer;
+
+/**
+ * PrometheusExpositionStream encodes metric family samples in the {@link TextFormat#CONTENT_TYPE_004} format
+ * lazily while it is read, so a scrape holds one chunk of bytes at a time instead of the whole exposition.
+ * The output is the same as {@link TextFormat#write004}. The chunk buffers are pooled between scrapes.
+ */
+public class PrometheusExpositionStream extends InputStream {
+    static final int BUFFER_SIZE = 16 * 1024;
+    private static final int CHUNK_SIZE = 8 * 1024;
+    private static final ArrayBlockingQueue<byte[]> POOL = new ArrayBlockingQueue<>(4);
+
+    private static final int ESCAPE_NONE = 0;
+    private static final int ESCAPE_HELP = 1;
+    private static final int ESCAPE_LABEL = 2;
+
+    private final long begin = System.nanoTime();
+    private final LongConsumer onComplete;
+    private final StringBuilder numbers = new StringBuilder(32);
+    private Enumeration<Collector.MetricFamilySamples> families;
+    // the OpenMetrics specific samples which are written as gauges at the end, the same as TextFormat does
+    private Map<String, Collector.MetricFamilySamples> deferred;
+    private Collector.MetricFamilySamples family;
+    private Iterator<Collector.MetricFamilySamples.Sample> samples;
+    private byte[] buffer;
+    private int count;
+    private int position;
+    private boolean done;
+
+    /**
+     * @param families   the samples to encode
+     * @param onComplete called with the nanoseconds taken once all of the samples are encoded
+     */
+    public PrometheusExpositionStream(Enumeration<Collector.MetricFamilySamples> families, LongConsumer onComplete) {
+        this.families = families;
+        this.onComplete = onComplete;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position == count && !fill()) {
+            return -1;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (position == count && !fill()) {
+            return -1;
+        }
+        int n = Math.min(len, count - position);
+        System.arraycopy(buffer, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return count - position;
+    }
+
+    @Override
+    public void close() {
+        done = true;
+        byte[] buffer = this.buffer;
+        this.buffer = null;
+        count = 0;
+        position = 0;
+        if (buffer != null && buffer.length == BUFFER_SIZE) {
+            POOL.offer(buffer);
+        }
+    }
+
+    private boolean fill() throws IOException {
+        if (done) {
+            return false;
+        }
+        if (buffer == null) {
+            byte[] pooled = POOL.poll();
+            buffer = pooled == null ? new byte[BUFFER_SIZE] : pooled;
+        }
+        count = 0;
+        position = 0;
+        try {
+            while (count < CHUNK_SIZE) {
+                if (family == null) {
+                    if (!nextFamily()) {
+                        done = true;
+                        onComplete.accept(System.nanoTime() - begin);
+                        break;
+                    }
+                    writeHeader(family);
+                } else if (samples.hasNext()) {
+                    writeSample(family.name, samples.next());
+                } else {
+                    family = null;
+                }
+            }
+        } catch (RuntimeException e) {
+            done = true;
+            throw new IOException("collect prometheus samples fail", e);
+        }
+        return count > 0;
+    }
+
+    private boolean nextFamily() {
+        if (!families.hasMoreElements()) {
+            if (deferred == null || deferred.isEmpty()) {
+                return false;
+            }
+            families = Collections.enumeration(deferred.values());
+            deferred = null;
+            return nextFamily();
+        }
+        family = families.nextElement();
+        samples = family.samples.iterator();
+        return true;
+    }
+
+    private void writeHeader(Collector.MetricFamilySamples family) {
+        writeString("# HELP ", ESCAPE_NONE);
+        writeName(family);
+        write(' ');
+        writeString(family.help, ESCAPE_HELP);
+        write('\n');
+        writeString("# TYPE ", ESCAPE_NONE);
+        writeName(family);
+        write(' ');
+        writeString(typeString(family.type), ESCAPE_NONE);
+        write('\n');
+    }
+
+    private void writeName(Collector.MetricFamilySamples family) {
+        writeString(family.name, ESCAPE_NONE);
+        if (family.type == Collector.Type.COUNTER) {
+            writeString("_total", ESCAPE_NONE);
+        } else if (family.type == Collector.Type.INFO) {
+            writeString("_info", ESCAPE_NONE);
+        }
+    }
+
+    private void writeSample(String familyName, Collector.MetricFamilySamples.Sample sample) {
+        if (isOpenMetricsSample(familyName, sample.name)) {
+            defer(sample);
+            return;
+        }
+        writeString(sample.name, ESCAPE_NONE);
+        List<String> labelNames = sample.labelNames;
+        if (!labelNames.isEmpty()) {
+            write('{');
+            List<String> labelValues = sample.labelValues;
+            for (int i = 0; i < labelNames.size(); i++) {
+                writeString(labelNames.get(i), ESCAPE_NONE);
+                write('=');
+                write('"');
+                writeString(labelValues.get(i), ESCAPE_LABEL);
+                write('"');
+                write(',');
+            }
+            write('}');
+        }
+        write(' ');
+        writeDouble(sample.value);
+        if (sample.timestampMs != null) {
+            write(' ');
+            numbers.setLength(0);
+            writeString(numbers.append(sample.timestampMs.longValue()), ESCAPE_NONE);
+        }
+        write('\n');
+    }
+
+    private static boolean isOpenMetricsSample(String familyName, String name) {
+        return name.startsWith(familyName)
+            && (hasSuffix(familyName, name, "_created") || hasSuffix(familyName, name, "_gcount")
+            || hasSuffix(familyName, name, "_gsum"));
+    }
+
+    private static boolean hasSuffix(String familyName, String name, String suffix) {
+        return name.length() == familyName.length() + suffix.length() && name.endsWith(suffix);
+    }
+
+    private void defer(Collector.MetricFamilySamples.Sample sample) {
+        if (deferred == null) {
+            deferred = new TreeMap<>();
+        }
+        Collector.MetricFamilySamples omFamily = deferred.get(sample.name);
+        if (omFamily == null) {
+            omFamily = new Collector.MetricFamilySamples(sample.name, Collector.Type.GAUGE, family.help, new ArrayList<>());
+            deferred.put(sample.name, omFamily);
+        }
+        omFamily.samples.add(sample);
+    }
+
+    private void writeDouble(double value) {
+        if (value == Double.POSITIVE_INFINITY) {
+            writeString("+Inf", ESCAPE_NONE);
+        } else if (value == Double.NEGATIVE_INFINITY) {
+            writeString("-Inf", ESCAPE_NONE);
+        } else if (Double.isNaN(value)) {
+            writeString("NaN", ESCAPE_NONE);
+        } else {
+            numbers.setLength(0);
+            writeString(numbers.append(value), ESCAPE_NONE);
+        }
+    }
+
+    private static String typeString(Collector.Type type) {
+        switch (type) {
+            case GAUGE:
+            case STATE_SET:
+            case INFO:
+                return "gauge";
+            case COUNTER:
+                return "counter";
+            case SUMMARY:
+                return "summary";
+            case HISTOGRAM:
+            case GAUGE_HISTOGRAM:
+                return "histogram";
+            default:
+                return "untyped";
+        }
+    }
+
+    private void write(char c) {
+        ensure(1);
+        buffer[count++] = (byte) c;
+    }
+
+    private void ensure(int length) {
+        if (count + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, count + length));
+        }
+    }
+
+    /**
+     * Writes the chars as utf-8, the same as an OutputStreamWriter, which replaces a malformed surrogate with '?'.
+     */
+    private void writeString(CharSequence value, int escape) {
+        int length = value.length();
+        ensure(length * 3);
+        byte[] buffer = this.buffer;
+        int count = this.count;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (escape != ESCAPE_NONE && (c == '\\' || c == '\n' || (c == '"' && escape == ESCAPE_LABEL))) {
+                    buffer[count++] = '\\';
+                    c = c == '\n' ? 'n' : c;
+                }
+                buffer[count++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[count++] = (byte) (0xC0 | (c >> 6));
+                buffer[count++] = (byte) (0x80 | (c & 0x3F));
+            } else if (!Character.isSurrogate(c)) {
+                buffer[count++] = (byte) (0xE0 | (c >> 12));
+                buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                buffer[count++] = '?';
+            }
+        }
+        this.count = count;
+    }
+}
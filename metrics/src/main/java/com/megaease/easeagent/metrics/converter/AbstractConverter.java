@@ -22,10 +22,10 @@ import com.codahale.metrics.*;
 import com.megaease.easeagent.log4j2.Logger;
 import com.megaease.easeagent.log4j2.LoggerFactory;
 import com.megaease.easeagent.plugin.api.metric.name.Tags;
-import lombok.SneakyThrows;
 
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 public abstract class AbstractConverter implements Converter {
@@ -37,6 +37,9 @@ public abstract class AbstractConverter implements Converter {
     final Long rateFactor;
     private final Tags tags;
     private final Supplier<Map<String, Object>> additionalAttributes;
+    private final MetricJsonWriter writer = new MetricJsonWriter();
+    private Map<String, Object> encodedAttributes;
+    private String staticFields;
 
     AbstractConverter(String category, String type, String keyFieldName, Supplier<Map<String, Object>> additionalAttributes) {
         this(additionalAttributes, new Tags(category, type, keyFieldName));
@@ -56,51 +59,52 @@ public abstract class AbstractConverter implements Converter {
         return s.substring(0, s.length() - 1);
     }
 
-    @SneakyThrows
+    @Override
     @SuppressWarnings("rawtypes")
-    public List<Map<String, Object>> convertMap(SortedMap<String, Gauge> gauges,
-                                                SortedMap<String, Counter> counters,
-                                                SortedMap<String, Histogram> histograms,
-                                                SortedMap<String, Meter> meters,
-                                                SortedMap<String, Timer> timers) {
-
-
+    public synchronized void convert(SortedMap<String, Gauge> gauges,
+                                     SortedMap<String, Counter> counters,
+                                     SortedMap<String, Histogram> histograms,
+                                     SortedMap<String, Meter> meters,
+                                     SortedMap<String, Timer> timers,
+                                     Consumer<String> output) {
         List<String> keys = keysFromMetrics(gauges, counters, histograms, meters, timers);
-        final List<Map<String, Object>> result = new ArrayList<>();
+        String fields = staticFields();
+        MetricJsonWriter writer = this.writer;
         for (String k : keys) {
             try {
-                Map<String, Object> output = buildMap();
-                writeKey(output, k);
-                writeTag(output);
-                writeGauges(k, gauges, output);
-                writeCounters(k, counters, output);
-                writeHistograms(k, histograms, output);
-                writeMeters(k, meters, output);
-                writeTimers(k, timers, output);
-                result.add(output);
+                writer.reset();
+                writeGauges(k, gauges, writer);
+                writeCounters(k, counters, writer);
+                writeHistograms(k, histograms, writer);
+                writeMeters(k, meters, writer);
+                writeTimers(k, timers, writer);
+                output.accept(writer.toJson(System.currentTimeMillis(), fields, tags.getKeyFieldName(), k));
             } catch (IgnoreOutputException exception) {
                 LOGGER.trace("convert key of " + k + " error: " + exception.getMessage());
             }
         }
-        return result;
     }
 
-    private Map<String, Object> buildMap() {
-        Map<String, Object> map = new HashMap<>();
-        map.put("timestamp", System.currentTimeMillis());
-        map.putAll(additionalAttributes.get());
-        return map;
-    }
-
-
-    private void writeTag(Map<String, Object> output) {
-        output.put(Tags.CATEGORY, tags.getCategory());
-        output.put(Tags.TYPE, tags.getType());
-        output.putAll(tags.getTags());
-    }
-
-    private void writeKey(Map<String, Object> output, String key) {
-        output.put(tags.getKeyFieldName(), key);
+    /**
+     * The additional attributes and tags are the same for every record, they are encoded once
+     * and again only when the attributes are replaced.
+     */
+    private String staticFields() {
+        Map<String, Object> attributes = additionalAttributes.get();
+        if (staticFields != null && encodedAttributes == attributes) {
+            return staticFields;
+        }
+        MetricJsonWriter writer = this.writer;
+        writer.reset();
+        if (attributes != null) {
+            writer.putAll(attributes);
+        }
+        writer.putObject(Tags.CATEGORY, tags.getCategory());
+        writer.putObject(Tags.TYPE, tags.getType());
+        writer.putAll(tags.getTags());
+        encodedAttributes = attributes;
+        staticFields = writer.fieldsJson();
+        return staticFields;
     }
 
     @SuppressWarnings("rawtypes")
@@ -112,13 +116,13 @@ public abstract class AbstractConverter implements Converter {
 
 
     @SuppressWarnings("rawtypes")
-    protected abstract void writeGauges(String key, SortedMap<String, Gauge> gauges, Map<String, Object> output);
+    protected abstract void writeGauges(String key, SortedMap<String, Gauge> gauges, MetricJsonWriter output);
 
-    protected abstract void writeCounters(String key, SortedMap<String, Counter> counters, Map<String, Object> output);
+    protected abstract void writeCounters(String key, SortedMap<String, Counter> counters, MetricJsonWriter output);
 
-    protected abstract void writeHistograms(String key, SortedMap<String, Histogram> histograms, Map<String, Object> output);
+    protected abstract void writeHistograms(String key, SortedMap<String, Histogram> histograms, MetricJsonWriter output);
 
-    protected abstract void writeMeters(String key, SortedMap<String, Meter> meters, Map<String, Object> output);
+    protected abstract void writeMeters(String key, SortedMap<String, Meter> meters, MetricJsonWriter output);
 
-    protected abstract void writeTimers(String key, SortedMap<String, Timer> timers, Map<String, Object> output);
+    protected abstract void writeTimers(String key, SortedMap<String, Timer> timers, MetricJsonWriter output);
 }
@@ -26,7 +26,6 @@ import com.megaease.easeagent.metrics.impl.TimerImpl;
 import com.megaease.easeagent.plugin.api.metric.name.*;
 import com.megaease.easeagent.plugin.tools.metrics.GaugeMetricModel;
 
-import java.math.BigDecimal;
 import java.util.*;
 import java.util.function.Supplier;
 
@@ -108,75 +107,91 @@ public class ConverterAdapter extends AbstractConverter {
         return rate * rateFactor;
     }
 
-    private void appendRate(Map<String, Object> output, String key, Object value, int scale) {
+    private void appendRate(MetricJsonWriter output, String key, Object value, int scale) {
         if (value instanceof Long) {
-            output.put(key, convertRate((Long) value));
+            output.putDouble(key, convertRate((Long) value));
         } else if (value instanceof Double) {
-            output.put(key, toDouble(convertRate((Double) value), scale));
+            output.putDouble(key, convertRate((Double) value), scale);
         }
     }
 
-    private void appendDuration(Map<String, Object> output, String key, Object value, int scale) {
+    private void appendDuration(MetricJsonWriter output, String key, Object value, int scale) {
         if (value instanceof Long) {
-            output.put(key, convertDuration((Long) value));
+            output.putDouble(key, convertDuration((Long) value));
         } else if (value instanceof Double) {
-            output.put(key, toDouble(convertDuration((Double) value), scale));
+            output.putDouble(key, convertDuration((Double) value), scale);
         }
     }
 
-    private double toDouble(Double i, int scale) {
-        return BigDecimal.valueOf(i).setScale(scale, BigDecimal.ROUND_HALF_DOWN).doubleValue();
-    }
-
-
     @Override
     @SuppressWarnings("rawtypes")
-    protected void writeGauges(String key, SortedMap<String, Gauge> gauges, Map<String, Object> output) {
+    protected void writeGauges(String key, SortedMap<String, Gauge> gauges, MetricJsonWriter output) {
         Map<MetricSubType, MetricName> map = nameFactory.gaugeNames(key);
-        map.values().forEach(v -> {
+        for (MetricName v : map.values()) {
             Gauge gauge = gauges.get(v.name());
             if (gauge == null) {
-                return;
+                continue;
             }
             Object value = gauge.getValue();
             if (value instanceof GaugeMetricModel) {
                 GaugeMetricModel model = (GaugeMetricModel) value;
                 output.putAll(model.toHashMap());
             }
-        });
+        }
     }
 
     @Override
-    protected void writeCounters(String key, SortedMap<String, Counter> counters, Map<String, Object> output) {
+    protected void writeCounters(String key, SortedMap<String, Counter> counters, MetricJsonWriter output) {
         Map<MetricSubType, MetricName> map = nameFactory.counterNames(key);
-        map.values().forEach(v -> Optional
-            .ofNullable(counters.get(v.name()))
-            .ifPresent(c -> v.getValueFetcher().forEach((fieldName, fetcher) -> {
-                // for test
-                appendField(output, fieldName, fetcher, CounterImpl.build(c));
-            })));
-
+        for (MetricName v : map.values()) {
+            Counter counter = counters.get(v.name());
+            if (counter != null) {
+                appendFields(output, v, CounterImpl.build(counter), null);
+            }
+        }
     }
 
     @Override
-    protected void writeHistograms(String key, SortedMap<String, Histogram> histograms, Map<String, Object> output) {
+    protected void writeHistograms(String key, SortedMap<String, Histogram> histograms, MetricJsonWriter output) {
 
     }
 
     @Override
-    protected void writeMeters(String key, SortedMap<String, Meter> meters, Map<String, Object> output) {
+    protected void writeMeters(String key, SortedMap<String, Meter> meters, MetricJsonWriter output) {
         Map<MetricSubType, MetricName> map = nameFactory.meterNames(key);
-        map.values().forEach(v -> Optional
-            .ofNullable(meters.get(v.name()))
-            .ifPresent(m -> v.getValueFetcher().forEach(
-                (fieldName, fetcher) -> {
-                    // for test
-                    appendField(output, fieldName, fetcher, MeterImpl.build(m));
-                }))
-        );
+        for (MetricName v : map.values()) {
+            Meter meter = meters.get(v.name());
+            if (meter != null) {
+                appendFields(output, v, MeterImpl.build(meter), null);
+            }
+        }
     }
 
-    private void appendField(Map<String, Object> output, MetricField fieldName, MetricValueFetcher fetcher,
+    @Override
+    protected void writeTimers(String key, SortedMap<String, Timer> timers, MetricJsonWriter output) {
+        Map<MetricSubType, MetricName> map = nameFactory.timerNames(key);
+        for (MetricName v : map.values()) {
+            Timer timer = timers.get(v.name());
+            if (timer != null) {
+                appendFields(output, v, TimerImpl.build(timer), SnapshotImpl.build(timer.getSnapshot()));
+            }
+        }
+    }
+
+    private void appendFields(MetricJsonWriter output, MetricName name,
+                              com.megaease.easeagent.plugin.api.metric.Metric metric,
+                              com.megaease.easeagent.plugin.api.metric.Snapshot snapshot) {
+        for (Map.Entry<MetricField, MetricValueFetcher> entry : name.getValueFetcher().entrySet()) {
+            MetricValueFetcher fetcher = entry.getValue();
+            if (snapshot != null && fetcher.getClazz().equals(com.megaease.easeagent.plugin.api.metric.Snapshot.class)) {
+                appendField(output, entry.getKey(), fetcher, snapshot);
+            } else {
+                appendField(output, entry.getKey(), fetcher, metric);
+            }
+        }
+    }
+
+    private void appendField(MetricJsonWriter output, MetricField fieldName, MetricValueFetcher fetcher,
                              com.megaease.easeagent.plugin.api.metric.Metric metric) {
         switch (fieldName.getType()) {
             case DURATION:
@@ -186,24 +201,8 @@ public class ConverterAdapter extends AbstractConverter {
                 appendRate(output, fieldName.getField(), fetcher.apply(metric), fieldName.getScale());
                 break;
             default:
-                output.put(fieldName.getField(), fetcher.apply(metric));
+                output.putObject(fieldName.getField(), fetcher.apply(metric));
                 break;
         }
     }
-
-    @Override
-    protected void writeTimers(String key, SortedMap<String, Timer> timers, Map<String, Object> output) {
-        Map<MetricSubType, MetricName> map = nameFactory.timerNames(key);
-        map.values().forEach(v -> Optional.ofNullable(timers.get(v.name())).ifPresent(t -> {
-                final Snapshot snapshot = t.getSnapshot();
-                v.getValueFetcher().forEach((fieldName, fetcher) -> {
-                    if (fetcher.getClazz().equals(com.megaease.easeagent.plugin.api.metric.Snapshot.class)) {
-                        appendField(output, fieldName, fetcher, SnapshotImpl.build(snapshot));
-                    } else {
-                        appendField(output, fieldName, fetcher, TimerImpl.build(t));
-                    }
-                });
-            })
-        );
-    }
 }
@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.metrics.converter;
+
+import com.megaease.easeagent.plugin.utils.common.JsonUtil;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * MetricJsonWriter collects the fields of one metric record and writes them as a json object into a
+ * reusable buffer, so that reporting a key allocates nothing but the resulting string.
+ * A field put twice keeps the last value, the same as putting it into a map.
+ * It is not thread-safe, every converter owns one and uses it under its own lock.
+ */
+public final class MetricJsonWriter {
+    private static final byte LONG = 0;
+    private static final byte DOUBLE = 1;
+    private static final byte OBJECT = 2;
+    private static final double[] POWERS = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000};
+    // doubles below 2^53 hold every integer exactly
+    private static final double MAX_EXACT = 9007199254740992d;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final StringBuilder buffer = new StringBuilder(1024);
+    private String[] names = new String[32];
+    private byte[] types = new byte[32];
+    private long[] longs = new long[32];
+    private double[] doubles = new double[32];
+    private Object[] objects = new Object[32];
+    private int size;
+
+    public void reset() {
+        Arrays.fill(objects, 0, size, null);
+        size = 0;
+    }
+
+    public void putLong(String name, long value) {
+        int i = slot(name, LONG);
+        longs[i] = value;
+    }
+
+    public void putDouble(String name, double value) {
+        int i = slot(name, DOUBLE);
+        doubles[i] = value;
+    }
+
+    /**
+     * Put a double rounded to {@code scale} decimal places with {@link BigDecimal#ROUND_HALF_DOWN}.
+     */
+    public void putDouble(String name, double value, int scale) {
+        putDouble(name, round(value, scale));
+    }
+
+    public void putObject(String name, Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            putLong(name, ((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            putDouble(name, ((Number) value).doubleValue());
+        } else {
+            int i = slot(name, OBJECT);
+            objects[i] = value;
+        }
+    }
+
+    public void putAll(Map<String, ?> fields) {
+        for (Map.Entry<String, ?> entry : fields.entrySet()) {
+            putObject(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Writes the collected fields as one json object. {@code staticFields} is a fragment made by
+     * {@link #fieldsJson()} which is written as it is.
+     *
+     * @return the json object
+     */
+    public String toJson(long timestamp, String staticFields, String keyFieldName, String key) {
+        StringBuilder out = this.buffer;
+        out.setLength(0);
+        out.append("{\"timestamp\":").append(timestamp);
+        if (!staticFields.isEmpty()) {
+            out.append(',').append(staticFields);
+        }
+        out.append(',');
+        appendString(out, keyFieldName);
+        out.append(':');
+        appendString(out, key);
+        for (int i = 0; i < size; i++) {
+            out.append(',');
+            appendField(out, i);
+        }
+        return out.append('}').toString();
+    }
+
+    /**
+     * @return the collected fields as a json fragment without braces
+     */
+    public String fieldsJson() {
+        StringBuilder out = this.buffer;
+        out.setLength(0);
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            appendField(out, i);
+        }
+        return out.toString();
+    }
+
+    static double round(double value, int scale) {
+        if (scale >= 0 && scale < POWERS.length) {
+            double power = POWERS[scale];
+            double scaled = Math.abs(value) * power;
+            if (scaled < MAX_EXACT) {
+                long whole = (long) scaled;
+                if (scaled - whole > 0.5) {
+                    whole++;
+                }
+                // the quotient of two exact doubles is the nearest double of the decimal
+                double rounded = whole / power;
+                return value < 0 ? -rounded : rounded;
+            }
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return value;
+        }
+        return BigDecimal.valueOf(value).setScale(scale, BigDecimal.ROUND_HALF_DOWN).doubleValue();
+    }
+
+    private int slot(String name, byte type) {
+        String[] names = this.names;
+        for (int i = 0; i < size; i++) {
+            if (names[i] == name || names[i].equals(name)) {
+                types[i] = type;
+                objects[i] = null;
+                return i;
+            }
+        }
+        if (size == names.length) {
+            grow();
+        }
+        int i = size++;
+        this.names[i] = name;
+        types[i] = type;
+        return i;
+    }
+
+    private void grow() {
+        int length = names.length << 1;
+        names = Arrays.copyOf(names, length);
+        types = Arrays.copyOf(types, length);
+        longs = Arrays.copyOf(longs, length);
+        doubles = Arrays.copyOf(doubles, length);
+        objects = Arrays.copyOf(objects, length);
+    }
+
+    private void appendField(StringBuilder out, int i) {
+        appendString(out, names[i]);
+        out.append(':');
+        switch (types[i]) {
+            case LONG:
+                out.append(longs[i]);
+                break;
+            case DOUBLE:
+                appendDouble(out, doubles[i]);
+                break;
+            default:
+                appendObject(out, objects[i]);
+                break;
+        }
+    }
+
+    private static void appendDouble(StringBuilder out, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            // the same as jackson, which quotes the non numeric numbers
+            out.append('"').append(value).append('"');
+        } else {
+            out.append(value);
+        }
+    }
+
+    private static void appendObject(StringBuilder out, Object value) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof String) {
+            appendString(out, (String) value);
+        } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+            out.append(value);
+        } else if (value instanceof Number) {
+            appendDouble(out, ((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            out.append(((Boolean) value).booleanValue());
+        } else if (value instanceof Enum) {
+            appendString(out, ((Enum<?>) value).name());
+        } else if (value instanceof CharSequence || value instanceof Character) {
+            appendString(out, value.toString());
+        } else {
+            out.append(JsonUtil.toJson(value));
+        }
+    }
+
+    static void appendString(StringBuilder out, String value) {
+        out.append('"');
+        int start = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            out.append(value, start, i);
+            start = i + 1;
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                case '\b':
+                    out.append("\\b");
+                    break;
+                case '\f':
+                    out.append("\\f");
+                    break;
+                default:
+                    out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    break;
+            }
+        }
+        out.append(value, start, length).append('"');
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.metrics;
+
+import io.prometheus.client.*;
+import io.prometheus.client.exporter.common.TextFormat;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class PrometheusExpositionStreamTest {
+    private final CollectorRegistry registry = new CollectorRegistry();
+
+    @Before
+    public void before() {
+        Gauge gauge = Gauge.build().name("requests_in_flight").help("help with \\ and \n and \"")
+            .labelNames("url", "method").register(registry);
+        for (int i = 0; i < 2000; i++) {
+            gauge.labels("/api/v1/\"users\"\\" + i + "\n", "中文😀").set(i * 1.5);
+        }
+        gauge.labels("lone\uD800", "GET").set(Double.NaN);
+        Counter.build().name("requests").help("counter").register(registry).inc(3);
+        Summary.build().name("latency").help("summary").quantile(0.5, 0.05).register(registry).observe(12.5);
+        Histogram.build().name("size").help("histogram").register(registry).observe(3);
+        new Collector() {
+            @Override
+            public List<MetricFamilySamples> collect() {
+                MetricFamilySamples.Sample inf = new MetricFamilySamples.Sample("custom", Collections.singletonList("a"),
+                    Collections.singletonList("b"), Double.POSITIVE_INFINITY, 1234567890123L);
+                MetricFamilySamples.Sample negative = new MetricFamilySamples.Sample("custom", Collections.emptyList(),
+                    Collections.emptyList(), Double.NEGATIVE_INFINITY);
+                return Arrays.asList(
+                    new MetricFamilySamples("custom", Type.UNKNOWN, "untyped", Arrays.asList(inf, negative)),
+                    new MetricFamilySamples("version", Type.INFO, "info", Collections.singletonList(
+                        new MetricFamilySamples.Sample("version_info", Collections.singletonList("v"),
+                            Collections.singletonList("1.0"), 1))),
+                    new MetricFamilySamples("state", Type.STATE_SET, "state set", Collections.emptyList()),
+                    new MetricFamilySamples("queue", Type.GAUGE_HISTOGRAM, "gauge histogram", Arrays.asList(
+                        new MetricFamilySamples.Sample("queue_gcount", Collections.emptyList(), Collections.emptyList(), 2),
+                        new MetricFamilySamples.Sample("queue_gsum", Collections.emptyList(), Collections.emptyList(), 5))));
+            }
+        }.register(registry);
+    }
+
+    private byte[] expected() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            TextFormat.write004(writer, registry.metricFamilySamples());
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void sameAsTextFormat() throws IOException {
+        byte[] expected = expected();
+        assertTrue(expected.length > 4 * PrometheusExpositionStream.BUFFER_SIZE);
+        AtomicInteger completed = new AtomicInteger();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PrometheusExpositionStream stream = new PrometheusExpositionStream(registry.metricFamilySamples(),
+            nanos -> completed.incrementAndGet())) {
+            byte[] chunk = new byte[777];
+            int read;
+            while ((read = stream.read(chunk, 0, chunk.length)) > 0) {
+                out.write(chunk, 0, read);
+            }
+            assertEquals(-1, stream.read());
+        }
+        assertEquals(new String(expected, StandardCharsets.UTF_8), new String(out.toByteArray(), StandardCharsets.UTF_8));
+        assertArrayEquals(expected, out.toByteArray());
+        assertEquals(1, completed.get());
+    }
+
+    @Test
+    public void readByteByByte() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrometheusExpositionStream stream = new PrometheusExpositionStream(registry.metricFamilySamples(), nanos -> {
+        });
+        int b;
+        while ((b = stream.read()) >= 0) {
+            out.write(b);
+        }
+        stream.close();
+        assertArrayEquals(expected(), out.toByteArray());
+    }
+
+    @Test
+    public void closedStreamIsEmpty() throws IOException {
+        PrometheusExpositionStream stream = new PrometheusExpositionStream(registry.metricFamilySamples(), nanos -> {
+        });
+        assertTrue(stream.read() >= 0);
+        stream.close();
+        assertEquals(-1, stream.read());
+        assertEquals(-1, stream.read(new byte[10], 0, 10));
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.metrics.converter;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.megaease.easeagent.metrics.MetricRegistryService;
+import com.megaease.easeagent.metrics.impl.MetricRegistryImpl;
+import com.megaease.easeagent.plugin.api.metric.name.Tags;
+import com.megaease.easeagent.plugin.tools.metrics.ServerMetric;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class ConverterAdapterTest {
+    private final ObjectMapper json = new ObjectMapper();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void convert() throws Exception {
+        MetricRegistry registry = MetricRegistryService.DEFAULT.createMetricRegistry();
+        ServerMetric serverMetric = new ServerMetric(MetricRegistryImpl.build(registry), ServerMetric.nameFactory());
+        serverMetric.collectMetric("/a", 200, null, 0, 10);
+        serverMetric.collectMetric("/a", 500, null, 0, 30);
+        serverMetric.collectMetric("/b", 200, null, 0, 5);
+
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("service", "demo");
+        AtomicReference<Map<String, Object>> attributesRef = new AtomicReference<>(attributes);
+        Tags tags = new Tags("application", "http-request", "url").put("custom", "tag");
+        ConverterAdapter converter = new ConverterAdapter(ServerMetric.nameFactory(),
+            Arrays.asList(KeyType.Timer, KeyType.Counter), attributesRef::get, tags);
+
+        Map<String, Map<String, Object>> records = convert(converter, registry);
+        assertEquals(2, records.size());
+        Map<String, Object> a = records.get("/a");
+        assertEquals("demo", a.get("service"));
+        assertEquals("application", a.get("category"));
+        assertEquals("http-request", a.get("type"));
+        assertEquals("tag", a.get("custom"));
+        assertTrue(a.get("timestamp") instanceof Long);
+        assertEquals(2, a.get("cnt"));
+        assertEquals(1, a.get("errcnt"));
+        assertEquals(10.0, a.get("min"));
+        assertEquals(30.0, a.get("max"));
+        assertEquals(20.0, (Double) a.get("mean"), 0.01);
+        assertTrue(a.containsKey("m1"));
+        assertTrue(a.containsKey("m1errpct"));
+        assertEquals(1, records.get("/b").get("cnt"));
+        assertEquals(0, records.get("/b").get("errcnt"));
+
+        Map<String, Object> replaced = new HashMap<>(attributes);
+        replaced.put("service", "other");
+        attributesRef.set(replaced);
+        assertEquals("other", convert(converter, registry).get("/b").get("service"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Map<String, Object>> convert(ConverterAdapter converter, MetricRegistry registry) throws Exception {
+        List<String> outputs = new ArrayList<>();
+        converter.convert(registry.getGauges(), registry.getCounters(), registry.getHistograms(),
+            registry.getMeters(), registry.getTimers(), outputs::add);
+        Map<String, Map<String, Object>> records = new HashMap<>();
+        for (String output : outputs) {
+            Map<String, Object> record = json.readValue(output, Map.class);
+            records.put((String) record.get("url"), record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.metrics.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MetricJsonWriterTest {
+    private final ObjectMapper json = new ObjectMapper();
+
+    @Test
+    public void roundLikeBigDecimal() {
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            double value = random.nextDouble() * Math.pow(10, random.nextInt(12) - 3);
+            for (int scale : new int[]{0, 2, 5}) {
+                double expected = BigDecimal.valueOf(value).setScale(scale, BigDecimal.ROUND_HALF_DOWN).doubleValue();
+                double actual = MetricJsonWriter.round(value, scale);
+                // a tie which is not exactly representable may round the other way
+                assertEquals(value + "@" + scale, expected, actual, 1.01 / Math.pow(10, scale));
+                assertEquals(actual, MetricJsonWriter.round(actual, scale), 0);
+            }
+        }
+        assertEquals(2.67, MetricJsonWriter.round(2.675, 2), 0);
+        assertEquals(0.12, MetricJsonWriter.round(0.125, 2), 0);
+        assertEquals(0.13, MetricJsonWriter.round(0.1251, 2), 0);
+        assertEquals(-1.23457, MetricJsonWriter.round(-1.234567, 5), 0);
+        assertEquals(1e17, MetricJsonWriter.round(1e17, 2), 0);
+        assertTrue(Double.isNaN(MetricJsonWriter.round(Double.NaN, 2)));
+    }
+
+    @Test
+    public void writeFields() throws Exception {
+        MetricJsonWriter writer = new MetricJsonWriter();
+        writer.putLong("cnt", 3);
+        writer.putDouble("m1", 0.123456789, 5);
+        writer.putDouble("max", 2.0);
+        writer.putObject("m1errpct", new BigDecimal("0.50"));
+        writer.putObject("flag", true);
+        writer.putObject("none", null);
+        writer.putObject("nan", Double.NaN);
+        writer.putObject("list", Collections.singletonList("a"));
+        String record = writer.toJson(100, "\"service\":\"demo\"", "url", "/get?q=\"a\\b\"\n\u0001");
+
+        assertEquals("{\"timestamp\":100,\"service\":\"demo\",\"url\":\"/get?q=\\\"a\\\\b\\\"\\n\\u0001\","
+            + "\"cnt\":3,\"m1\":0.12346,\"max\":2.0,\"m1errpct\":0.50,\"flag\":true,\"none\":null,\"nan\":\"NaN\","
+            + "\"list\":[\"a\"]}", record);
+        Map<?, ?> map = json.readValue(record, Map.class);
+        assertEquals("/get?q=\"a\\b\"\n\u0001", map.get("url"));
+        assertEquals(11, map.size());
+    }
+
+    @Test
+    public void lastValueWins() throws Exception {
+        MetricJsonWriter writer = new MetricJsonWriter();
+        for (int i = 0; i < 100; i++) {
+            writer.putLong("f" + i, i);
+        }
+        writer.putDouble("mean_rate", 1.5);
+        writer.putObject(new String("mean_rate"), "x");
+        writer.putLong("f0", -1);
+        Map<?, ?> map = json.readValue(writer.toJson(1, "", "key", "k"), Map.class);
+        assertEquals(103, map.size());
+        assertEquals("x", map.get("mean_rate"));
+        assertEquals(-1, map.get("f0"));
+        assertEquals(99, map.get("f99"));
+
+        writer.reset();
+        writer.putLong("a", 1);
+        assertEquals("\"a\":1", writer.fieldsJson());
+    }
+}
@@ -17,11 +17,15 @@
 
 package com.megaease.easeagent.plugin;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
+import lombok.NoArgsConstructor;
 
 import java.util.Objects;
 
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class MethodInfo {
 
     /**
@@ -129,6 +133,24 @@ public class MethodInfo {
         this.changed = true;
     }
 
+    /**
+     * Reinitialize this instance for a new invocation,
+     * called by framework when MethodInfo instances are reused across invocations.
+     */
+    public void reset(Object invoker, String type, String method, Object[] args) {
+        this.invoker = invoker;
+        this.type = type;
+        this.method = method;
+        this.args = args;
+        this.throwable = null;
+        this.retValue = null;
+        this.changed = false;
+    }
+
+
+    public void invoker(Object invoker) {
+        this.invoker = invoker;
+    }
 
     public void throwable(Throwable throwable) {
         this.throwable = throwable;
@@ -97,6 +97,9 @@ public interface Context {
      * the key, the old value is replaced by the specified value.  (A context
      * <tt>m</tt> is said to contain a mapping for a key <tt>k</tt>
      *
+     * <p>A key declared as {@link com.megaease.easeagent.plugin.api.context.ContextKey}, or a class, is kept in a slot of the context
+     * instead of being hashed, which is cheaper for the interceptors calling it on every method.
+     *
      * @param key   key with which the specified value is to be associated
      * @param value value to be associated with the specified key
      * @return the previous value associated with <tt>key</tt>, or
@@ -266,6 +269,8 @@ public interface Context {
 
     /**
      * Wraps the input so that it executes with the same context as now.
+     * Only the current span and the forwarded headers are carried, and the input is returned as is when there
+     * are neither.
      */
     Runnable wrap(Runnable task);
 
@@ -17,6 +17,7 @@
 
 package com.megaease.easeagent.plugin.api;
 
+import com.megaease.easeagent.plugin.MethodInfo;
 import com.megaease.easeagent.plugin.api.config.Config;
 import com.megaease.easeagent.plugin.api.trace.TracingContext;
 
@@ -83,6 +84,47 @@ public interface InitializeContext extends Context, TracingContext {
      */
     void popToBound();
 
+    /**
+     * called by framework to obtain the MethodInfo of an intercepted method when it enters.
+     * The implementation may reuse the instance released at the same dispatch depth of current session.
+     *
+     * @return the MethodInfo initialized by the given invocation
+     */
+    MethodInfo enterMethodInfo(Object invoker, String type, String method, Object[] args);
+
+    /**
+     * called by framework to release the MethodInfo obtained by {@link #enterMethodInfo} when the method exits.
+     * An instance which has been changed by interceptors may be retained by them, so it is never reused.
+     */
+    void exitMethodInfo(MethodInfo methodInfo);
+
+    /**
+     * called by framework to record the begin time of intercepted method in a primitive slot
+     */
+    void setBeginTime(long beginTime);
+
+    /**
+     * @return the begin time of intercepted method, 0 if it has not been recorded
+     */
+    long getBeginTime();
+
+    /**
+     * called by framework to record the end time of intercepted method in a primitive slot
+     */
+    void setEndTime(long endTime);
+
+    /**
+     * @return the end time of intercepted method, 0 if it has not been recorded
+     */
+    long getEndTime();
+
+    /**
+     * Removes the end time of intercepted method and returns it
+     *
+     * @return the end time of intercepted method, 0 if it has not been recorded
+     */
+    long removeEndTime();
+
     /**
      * clear the context
      */
@@ -76,6 +76,7 @@ public class AutoRefreshRegistry {
             Config config = EaseAgent.getConfig(domain, namespace, id);
             newConfig.onChange(null, config);
             config.addChangeListener(newConfig);
+            configs.put(key, newConfig);
             return newConfig;
         }
     }
@@ -65,6 +65,8 @@ public interface ConfigConst {
     interface Observability {
         String KEY_COMM_ENABLED = "enabled";
         String KEY_COMM_SAMPLED_BY_QPS = "sampledByQPS";
+        String KEY_COMM_SAMPLED_TYPE = "sampledType";
+        String KEY_COMM_SAMPLED = "sampled";
         String KEY_COMM_OUTPUT = "output";
         String KEY_COMM_TAG = "tag";
         String KEY_COMM_SERVICE_PREFIX = "servicePrefix";
@@ -93,6 +95,8 @@ public interface ConfigConst {
 
         String TRACE_ENABLED = join(TRACE, "enabled");
         String TRACE_SAMPLED_BY_QPS = join(TRACE, KEY_COMM_SAMPLED_BY_QPS);
+        String TRACE_SAMPLED_TYPE = join(TRACE, KEY_COMM_SAMPLED_TYPE);
+        String TRACE_SAMPLED = join(TRACE, KEY_COMM_SAMPLED);
 
         String TRACE_OUTPUT = join(TRACE, KEY_COMM_OUTPUT);
         String TRACE_OUTPUT_ENABLED = join(TRACE_OUTPUT, "enabled");
@@ -102,6 +106,12 @@ public interface ConfigConst {
         String TRACE_OUTPUT_MESSAGE_TIMEOUT = join(TRACE_OUTPUT, "messageTimeout");
         String TRACE_OUTPUT_QUEUED_MAX_SPANS = join(TRACE_OUTPUT, "queuedMaxSpans");
         String TRACE_OUTPUT_QUEUED_MAX_SIZE = join(TRACE_OUTPUT, "queuedMaxSize");
+        String TRACE_OUTPUT_BATCH_SIZE = join(TRACE_OUTPUT, "batchSize");
+        String TRACE_OUTPUT_LINGER_MS = join(TRACE_OUTPUT, "lingerMs");
+        String TRACE_OUTPUT_SPILL_ENABLED = join(TRACE_OUTPUT, "spill.enabled");
+        String TRACE_OUTPUT_SPILL_DIR = join(TRACE_OUTPUT, "spill.dir");
+        String TRACE_OUTPUT_SPILL_MAX_SIZE = join(TRACE_OUTPUT, "spill.maxSize");
+        String TRACE_OUTPUT_SPILL_MAX_AGE = join(TRACE_OUTPUT, "spill.maxAge");
 
         String KEY_METRICS_ACCESS = "access";
         String KEY_METRICS_REQUEST = "request";
@@ -71,7 +71,7 @@ public interface AsyncContext {
 
 
     /**
-     * put all key:value to context
+     * put all key:value to context, the map may be kept without a copy and must not be changed afterwards
      *
      * @param context key:value
      */
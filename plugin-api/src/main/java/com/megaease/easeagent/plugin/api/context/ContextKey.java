@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.megaease.easeagent.plugin.api.context;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A key of {@link com.megaease.easeagent.plugin.api.Context} assigned an integer slot when it is created,
+ * so that the context stores its value or its reentrancy count in an array instead of a hash map.
+ *
+ * <p>Declare keys as constants, they are created once when the plugin is loaded:
+ * <pre>{@code
+ *     private static final ContextKey<Span> SPAN = ContextKey.of("redis.span");
+ *     ...
+ *     context.put(SPAN, span);
+ * }</pre>
+ * A class used as key is given a slot too, through {@link #ofClass(Class)}.
+ *
+ * @param <V> the type of the value
+ */
+public final class ContextKey<V> {
+    private static final AtomicInteger SLOTS = new AtomicInteger();
+    private static final ClassValue<ContextKey<?>> CLASS_KEYS = new ClassValue<ContextKey<?>>() {
+        @Override
+        protected ContextKey<?> computeValue(Class<?> type) {
+            return new ContextKey<>(type.getName());
+        }
+    };
+
+    private final String name;
+    private final int slot;
+
+    private ContextKey(String name) {
+        this.name = name;
+        this.slot = SLOTS.getAndIncrement();
+    }
+
+    public static <V> ContextKey<V> of(String name) {
+        return new ContextKey<>(name);
+    }
+
+    /**
+     * Returns the key of a class used as key of context, the same instance for every call.
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> ContextKey<V> ofClass(Class<?> type) {
+        return (ContextKey<V>) CLASS_KEYS.get(type);
+    }
+
+    /**
+     * @return count of slots assigned so far
+     */
+    public static int slots() {
+        return SLOTS.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    @Override
+    public String toString() {
+        return "ContextKey(" + name + ", slot=" + slot + ")";
+    }
+}
@@ -18,17 +18,53 @@
 package com.megaease.easeagent.plugin.api.context;
 
 import com.megaease.easeagent.plugin.api.Context;
+import com.megaease.easeagent.plugin.api.InitializeContext;
 import com.megaease.easeagent.plugin.utils.SystemClock;
 
 public class ContextUtils {
-    private static final String BEGIN_TIME = ContextUtils.class.getSimpleName() + ".beginTime";
-    private static final String END_TIME = ContextUtils.class.getSimpleName() + ".endTime";
+    private static final ContextKey<Long> BEGIN_TIME = ContextKey.of(ContextUtils.class.getSimpleName() + ".beginTime");
+    private static final ContextKey<Long> END_TIME = ContextKey.of(ContextUtils.class.getSimpleName() + ".endTime");
 
+    /**
+     * @return the begin time of intercepted method, null if it has not been recorded
+     */
     public static Long getBeginTime(Context context) {
-        return context.get(BEGIN_TIME);
+        long beginTime = getBeginTimeMillis(context);
+        return beginTime == 0 ? null : beginTime;
     }
 
+    /**
+     * Removes the end time of intercepted method and returns it, or the current time if it has not been recorded
+     */
     public static Long getEndTime(Context context) {
+        return getEndTimeMillis(context);
+    }
+
+    public static Long getDuration(Context context) {
+        return getDurationMillis(context);
+    }
+
+    /**
+     * Same as {@link #getBeginTime(Context)} without boxing
+     *
+     * @return the begin time of intercepted method, 0 if it has not been recorded
+     */
+    public static long getBeginTimeMillis(Context context) {
+        if (context instanceof InitializeContext) {
+            return ((InitializeContext) context).getBeginTime();
+        }
+        Long beginTime = context.get(BEGIN_TIME);
+        return beginTime == null ? 0 : beginTime;
+    }
+
+    /**
+     * Same as {@link #getEndTime(Context)} without boxing
+     */
+    public static long getEndTimeMillis(Context context) {
+        if (context instanceof InitializeContext) {
+            long endTime = ((InitializeContext) context).removeEndTime();
+            return endTime == 0 ? SystemClock.now() : endTime;
+        }
         Long endTime = context.remove(END_TIME);
         if (endTime == null) {
             return SystemClock.now();
@@ -36,8 +72,11 @@ public class ContextUtils {
         return endTime;
     }
 
-    public static Long getDuration(Context context) {
-        return getEndTime(context) - getBeginTime(context);
+    /**
+     * Same as {@link #getDuration(Context)} without boxing
+     */
+    public static long getDurationMillis(Context context) {
+        return getEndTimeMillis(context) - getBeginTimeMillis(context);
     }
 
     /**
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.plugin.api.metric;
+
+/**
+ * The timer, meters and counters of one metric key, resolved once by {@link ServiceMetric#handle(String)}
+ * so that collecting a call updates them directly instead of building names and looking up each metric.
+ */
+public class MetricHandle {
+    private final Timer timer;
+    private final Meter meter;
+    private final Meter errorMeter;
+    private final Counter counter;
+    private final Counter errorCounter;
+
+    public MetricHandle(Timer timer, Meter meter, Meter errorMeter, Counter counter, Counter errorCounter) {
+        this.timer = timer;
+        this.meter = meter;
+        this.errorMeter = errorMeter;
+        this.counter = counter;
+        this.errorCounter = errorCounter;
+    }
+
+    public Timer timer() {
+        return timer;
+    }
+
+    public Meter meter() {
+        return meter;
+    }
+
+    public Meter errorMeter() {
+        return errorMeter;
+    }
+
+    public Counter counter() {
+        return counter;
+    }
+
+    public Counter errorCounter() {
+        return errorCounter;
+    }
+}
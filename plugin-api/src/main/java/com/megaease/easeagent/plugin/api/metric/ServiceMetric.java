@@ -17,10 +17,14 @@
 
 package com.megaease.easeagent.plugin.api.metric;
 
+import com.megaease.easeagent.plugin.api.metric.name.MetricName;
 import com.megaease.easeagent.plugin.api.metric.name.MetricSubType;
 import com.megaease.easeagent.plugin.api.metric.name.NameFactory;
 
 import javax.annotation.Nonnull;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Supplier;
 
 /**
@@ -29,6 +33,7 @@ import java.util.function.Supplier;
 public abstract class ServiceMetric {
     protected final MetricRegistry metricRegistry;
     protected final NameFactory nameFactory;
+    private final ConcurrentMap<String, MetricHandle> handles = new ConcurrentHashMap<>();
 
     public ServiceMetric(@Nonnull MetricRegistry metricRegistry, @Nonnull NameFactory nameFactory) {
         this.metricRegistry = metricRegistry;
@@ -54,4 +59,65 @@ public abstract class ServiceMetric {
     public Timer timer(String key, MetricSubType subType) {
         return metricRegistry.timer(nameFactory.timerName(key, subType));
     }
+
+    /**
+     * Return the {@link MetricHandle} of the key, resolving it by {@link #newHandle(String)} on first use.
+     * Later calls cost a single map lookup.
+     *
+     * @param key the key of metric
+     * @return a new or pre-existing {@link MetricHandle}
+     */
+    public MetricHandle handle(String key) {
+        MetricHandle handle = handles.get(key);
+        if (handle != null) {
+            return handle;
+        }
+        return handles.computeIfAbsent(key, this::newHandle);
+    }
+
+    /**
+     * Drop the resolved handle of the key, it must be called when the metrics of the key are removed
+     * from the {@link MetricRegistry}.
+     *
+     * @param key the key of metric
+     */
+    public void removeHandle(String key) {
+        handles.remove(key);
+    }
+
+    /**
+     * Remove all the metrics of the key from the {@link MetricRegistry}, and its resolved handle,
+     * for a key which is no longer used.
+     *
+     * @param key the key of metric
+     */
+    public void remove(String key) {
+        removeHandle(key);
+        remove(nameFactory.meterNames(key));
+        remove(nameFactory.counterNames(key));
+        remove(nameFactory.gaugeNames(key));
+        remove(nameFactory.histogramNames(key));
+        remove(nameFactory.timerNames(key));
+    }
+
+    private void remove(Map<MetricSubType, MetricName> names) {
+        for (MetricName name : names.values()) {
+            metricRegistry.remove(name.name());
+        }
+    }
+
+    /**
+     * Resolve the DEFAULT timer and the DEFAULT and ERROR meters and counters of the key.
+     * Subclasses register the gauges of the key here, so they are registered only once.
+     *
+     * @param key the key of metric
+     * @return a new {@link MetricHandle}
+     */
+    protected MetricHandle newHandle(String key) {
+        return new MetricHandle(timer(key, MetricSubType.DEFAULT),
+            meter(key, MetricSubType.DEFAULT),
+            meter(key, MetricSubType.ERROR),
+            counter(key, MetricSubType.DEFAULT),
+            counter(key, MetricSubType.ERROR));
+    }
 }
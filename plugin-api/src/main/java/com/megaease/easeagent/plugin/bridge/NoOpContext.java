@@ -17,6 +17,7 @@
 
 package com.megaease.easeagent.plugin.bridge;
 
+import com.megaease.easeagent.plugin.MethodInfo;
 import com.megaease.easeagent.plugin.api.Context;
 import com.megaease.easeagent.plugin.api.InitializeContext;
 import com.megaease.easeagent.plugin.api.config.Config;
@@ -205,6 +206,43 @@ public class NoOpContext {
         public void popToBound() {
         }
 
+        @Override
+        public MethodInfo enterMethodInfo(Object invoker, String type, String method, Object[] args) {
+            return MethodInfo.builder()
+                .invoker(invoker)
+                .type(type)
+                .method(method)
+                .args(args)
+                .build();
+        }
+
+        @Override
+        public void exitMethodInfo(MethodInfo methodInfo) {
+        }
+
+        @Override
+        public void setBeginTime(long beginTime) {
+        }
+
+        @Override
+        public long getBeginTime() {
+            return 0;
+        }
+
+        @Override
+        public void setEndTime(long endTime) {
+        }
+
+        @Override
+        public long getEndTime() {
+            return 0;
+        }
+
+        @Override
+        public long removeEndTime() {
+            return 0;
+        }
+
         @Override
         public void clear() {
 
@@ -43,26 +43,27 @@ public class RedisMetric extends ServiceMetric {
     }
 
     public void collect(String key, long duration, boolean success) {
-        metricRegistry.timer(this.nameFactory.timerName(key, MetricSubType.DEFAULT)).update(duration, TimeUnit.MILLISECONDS);
-        final Meter defaultMeter = metricRegistry.meter(nameFactory.meterName(key, MetricSubType.DEFAULT));
-        final Counter defaultCounter = metricRegistry.counter(nameFactory.counterName(key, MetricSubType.DEFAULT));
-        final Meter errorMeter = metricRegistry.meter(nameFactory.meterName(key, MetricSubType.ERROR));
-        final Counter errorCounter = metricRegistry.counter(nameFactory.counterName(key, MetricSubType.ERROR));
-
+        MetricHandle handle = handle(key);
+        handle.timer().update(duration, TimeUnit.MILLISECONDS);
         if (!success) {
-            errorMeter.mark();
-            errorCounter.inc();
+            handle.errorMeter().mark();
+            handle.errorCounter().inc();
         }
-        defaultMeter.mark();
-        defaultCounter.inc();
+        handle.meter().mark();
+        handle.counter().inc();
+    }
 
-        MetricName gaugeName = nameFactory.gaugeNames(key).get(MetricSubType.DEFAULT);
-        metricRegistry.gauge(gaugeName.name(), () -> () ->
+    @Override
+    protected MetricHandle newHandle(String key) {
+        MetricHandle handle = super.newHandle(key);
+        final Meter defaultMeter = handle.meter();
+        gauge(key, MetricSubType.DEFAULT, () -> () ->
             LastMinutesCounterGauge.builder()
                 .m1Count((long) (defaultMeter.getOneMinuteRate() * 60))
                 .m5Count((long) (defaultMeter.getFiveMinuteRate() * 60 * 5))
                 .m15Count((long) (defaultMeter.getFifteenMinuteRate() * 60 * 15))
                 .build());
+        return handle;
     }
 
     @Nonnull
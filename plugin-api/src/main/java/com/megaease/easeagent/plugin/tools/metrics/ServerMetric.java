@@ -26,8 +26,8 @@ import com.megaease.easeagent.plugin.utils.ImmutableMap;
 
 import javax.annotation.Nonnull;
 import java.math.BigDecimal;
-import java.time.Duration;
 import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
 
 public class ServerMetric extends ServiceMetric {
     public static final ServiceMetricSupplier<ServerMetric> SERVICE_METRIC_SUPPLIER = new ServiceMetricSupplier<ServerMetric>() {
@@ -47,20 +47,22 @@ public class ServerMetric extends ServiceMetric {
     }
 
     public void collectMetric(String key, int statusCode, Throwable throwable, long startMillis, long endMillis) {
-        Timer timer = timer(key, MetricSubType.DEFAULT);
-        timer.update(Duration.ofMillis(endMillis - startMillis));
-        final Meter errorMeter = meter(key, MetricSubType.ERROR);
-        final Meter meter = meter(key, MetricSubType.DEFAULT);
-        Counter errorCounter = counter(key, MetricSubType.ERROR);
-        Counter counter = counter(key, MetricSubType.DEFAULT);
+        MetricHandle handle = handle(key);
+        handle.timer().update(endMillis - startMillis, TimeUnit.MILLISECONDS);
         boolean hasException = throwable != null;
         if (statusCode >= 400 || hasException) {
-            errorMeter.mark();
-            errorCounter.inc();
+            handle.errorMeter().mark();
+            handle.errorCounter().inc();
         }
-        counter.inc();
-        meter.mark();
+        handle.counter().inc();
+        handle.meter().mark();
+    }
 
+    @Override
+    protected MetricHandle newHandle(String key) {
+        MetricHandle handle = super.newHandle(key);
+        final Meter errorMeter = handle.errorMeter();
+        final Meter meter = handle.meter();
         gauge(key, MetricSubType.DEFAULT, () -> () -> {
             BigDecimal m1ErrorPercent = BigDecimal.ZERO;
             BigDecimal m5ErrorPercent = BigDecimal.ZERO;
@@ -83,6 +85,7 @@ public class ServerMetric extends ServiceMetric {
             }
             return new ErrorPercentModelGauge(m1ErrorPercent, m5ErrorPercent, m15ErrorPercent);
         });
+        return handle;
     }
 
     @Nonnull
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.plugin.tools.metrics;
+
+import com.megaease.easeagent.plugin.api.metric.*;
+import com.megaease.easeagent.plugin.api.metric.name.MetricSubType;
+import com.megaease.easeagent.plugin.api.metric.name.NameFactory;
+import com.megaease.easeagent.plugin.bridge.NoOpMetrics;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+public class ServerMetricTest {
+
+    @Test
+    public void resolveMetricsOncePerKey() {
+        CountingMetricRegistry registry = new CountingMetricRegistry();
+        ServerMetric serverMetric = new ServerMetric(registry, ServerMetric.nameFactory());
+
+        serverMetric.collectMetric("/a", 200, null, 0, 10);
+        int lookups = registry.lookups;
+        assertEquals(5, lookups);
+        assertEquals(1, registry.gauges.size());
+
+        for (int i = 0; i < 100; i++) {
+            serverMetric.collectMetric("/a", 500, null, 0, 10);
+        }
+        assertEquals(lookups, registry.lookups);
+        assertEquals(1, registry.gaugeRegistrations);
+        assertSame(serverMetric.handle("/a"), serverMetric.handle("/a"));
+
+        serverMetric.collectMetric("/b", 200, null, 0, 10);
+        assertEquals(lookups * 2, registry.lookups);
+        assertEquals(2, registry.gauges.size());
+    }
+
+    @Test
+    public void resolveAgainAfterRemoved() {
+        CountingMetricRegistry registry = new CountingMetricRegistry();
+        RedisMetric redisMetric = new RedisMetric(registry, RedisMetric.nameFactory());
+
+        redisMetric.collect("get", 10, true);
+        MetricHandle handle = redisMetric.handle("get");
+        int lookups = registry.lookups;
+        redisMetric.removeHandle("get");
+        redisMetric.collect("get", 10, false);
+        assertNotSame(handle, redisMetric.handle("get"));
+        assertEquals(lookups * 2, registry.lookups);
+    }
+
+    @Test
+    public void removeMetricsOfKey() {
+        CountingMetricRegistry registry = new CountingMetricRegistry();
+        ServerMetric serverMetric = new ServerMetric(registry, ServerMetric.nameFactory());
+        serverMetric.collectMetric("/a", 200, null, 0, 10);
+        serverMetric.collectMetric("/b", 200, null, 0, 10);
+        MetricHandle handle = serverMetric.handle("/a");
+
+        serverMetric.remove("/a");
+        NameFactory names = ServerMetric.nameFactory();
+        assertEquals(6, registry.removed.size());
+        assertTrue(registry.removed.contains(names.timerName("/a", MetricSubType.DEFAULT)));
+        assertTrue(registry.removed.contains(names.meterName("/a", MetricSubType.ERROR)));
+        assertTrue(registry.removed.contains(names.counterName("/a", MetricSubType.ERROR)));
+        assertEquals(1, registry.gauges.size());
+        assertTrue(registry.gauges.containsKey(names.gaugeName("/b", MetricSubType.DEFAULT)));
+        assertNotSame(handle, serverMetric.handle("/a"));
+    }
+
+    static class CountingMetricRegistry implements MetricRegistry {
+        final Map<String, Gauge> gauges = new HashMap<>();
+        final List<String> removed = new ArrayList<>();
+        int lookups;
+        int gaugeRegistrations;
+
+        @Override
+        public boolean remove(String name) {
+            removed.add(name);
+            return gauges.remove(name) != null;
+        }
+
+        @Override
+        public Map<String, Metric> getMetrics() {
+            return new HashMap<>(gauges);
+        }
+
+        @Override
+        public Meter meter(String name) {
+            lookups++;
+            return NoOpMetrics.NO_OP_METER;
+        }
+
+        @Override
+        public Counter counter(String name) {
+            lookups++;
+            return NoOpMetrics.NO_OP_COUNTER;
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        public Gauge gauge(String name, Supplier<Gauge> supplier) {
+            gaugeRegistrations++;
+            return gauges.computeIfAbsent(name, k -> supplier.get());
+        }
+
+        @Override
+        public Histogram histogram(String name) {
+            lookups++;
+            return NoOpMetrics.NO_OP_HISTOGRAM;
+        }
+
+        @Override
+        public Timer timer(String name) {
+            lookups++;
+            return NoOpMetrics.NO_OP_TIMER;
+        }
+    }
+}
@@ -39,7 +39,9 @@ public class RunnableInterceptor implements Interceptor {
             Runnable task = (Runnable) args[0];
             if (!context.isWrapped(task)) {
                 Runnable wrap = context.wrap(task);
-                methodInfo.changeArg(0, wrap);
+                if (wrap != task) {
+                    methodInfo.changeArg(0, wrap);
+                }
             }
         } catch (Throwable e) {
             logger.warn("intercept method [{}] failure", methodInfo.getMethod(), e);
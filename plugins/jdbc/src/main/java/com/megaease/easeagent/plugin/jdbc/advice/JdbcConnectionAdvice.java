@@ -30,6 +30,7 @@ public class JdbcConnectionAdvice implements Points {
     public IClassMatcher getClassMatcher() {
         return ClassMatcher.builder()
             .hasInterface("java.sql.Connection")
+            .notInterface()
             .build();
     }
 
@@ -41,4 +42,9 @@ public class JdbcConnectionAdvice implements Points {
             .or().named("prepareStatement").isPublic()
             .build().toSet();
     }
+
+    @Override
+    public boolean isAddDynamicField() {
+        return true;
+    }
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.plugin.jdbc.common;
+
+import com.megaease.easeagent.plugin.field.AgentDynamicFieldAccessor;
+import com.megaease.easeagent.plugin.field.DynamicFieldAccessor;
+import lombok.Data;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * The url and database of a connection, read from its metadata on the first statement only and kept in the
+ * dynamic field of the connection, as some drivers do a round-trip to the database for the metadata.
+ * The catalog is read at the same time, changing it later on the same connection is not reflected.
+ */
+@Data
+public class ConnectionInfo {
+    private final String url;
+    private final DatabaseInfo databaseInfo;
+
+    public static ConnectionInfo get(Connection connection) {
+        if (!(connection instanceof DynamicFieldAccessor)) {
+            return read(connection);
+        }
+        Object cached = AgentDynamicFieldAccessor.getDynamicFieldValue(connection);
+        if (cached instanceof ConnectionInfo) {
+            return (ConnectionInfo) cached;
+        }
+        ConnectionInfo info = read(connection);
+        if (info != null) {
+            AgentDynamicFieldAccessor.setDynamicFieldValue(connection, info);
+        }
+        return info;
+    }
+
+    static ConnectionInfo read(Connection connection) {
+        String jdbcURL;
+        try {
+            jdbcURL = connection.getMetaData().getURL();
+        } catch (SQLException ignored) {
+            return null;
+        }
+        if (jdbcURL == null) {
+            return null;
+        }
+        DatabaseInfo databaseInfo;
+        try {
+            databaseInfo = DatabaseInfo.parse(jdbcURL, connection.getCatalog());
+        } catch (SQLException | IllegalArgumentException ignored) {
+            databaseInfo = null;
+        }
+        return new ConnectionInfo(JdbcUtils.stripQuery(jdbcURL), databaseInfo);
+    }
+}
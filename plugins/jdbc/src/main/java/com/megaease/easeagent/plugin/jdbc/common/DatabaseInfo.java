@@ -34,20 +34,22 @@ public class DatabaseInfo {
 
     public static DatabaseInfo getFromConnection(Connection connection) {
         try {
-            String jdbcURL = connection.getMetaData().getURL();
-            URI url = URI.create(jdbcURL.substring(5)); // strip "jdbc:"
-            String remoteServiceName;
-            String databaseName = connection.getCatalog();
-            if (databaseName != null && !databaseName.isEmpty()) {
-                remoteServiceName = databaseName;
-            } else {
-                remoteServiceName = "";
-            }
-            return new DatabaseInfo(remoteServiceName,
-                StringUtils.isNotEmpty(url.getHost()) ? url.getHost() : "",
-                url.getPort() == -1 ? 3306 : url.getPort());
+            return parse(connection.getMetaData().getURL(), connection.getCatalog());
         } catch (SQLException ignored) {
         }
         return null;
     }
+
+    public static DatabaseInfo parse(String jdbcURL, String databaseName) {
+        URI url = URI.create(jdbcURL.substring(5)); // strip "jdbc:"
+        String remoteServiceName;
+        if (databaseName != null && !databaseName.isEmpty()) {
+            remoteServiceName = databaseName;
+        } else {
+            remoteServiceName = "";
+        }
+        return new DatabaseInfo(remoteServiceName,
+            StringUtils.isNotEmpty(url.getHost()) ? url.getHost() : "",
+            url.getPort() == -1 ? 3306 : url.getPort());
+    }
 }
@@ -26,14 +26,17 @@ public class JdbcUtils {
     public static String getUrl(Connection con) {
         try {
             final DatabaseMetaData meta = con.getMetaData();
-            final String url = meta.getURL();
-            int idx = url.indexOf('?');
-            if (idx == -1) {
-                return url;
-            }
-            return url.substring(0, idx);
+            return stripQuery(meta.getURL());
         } catch (SQLException ignored) {
         }
         return null;
     }
+
+    public static String stripQuery(String url) {
+        int idx = url.indexOf('?');
+        if (idx == -1) {
+            return url;
+        }
+        return url.substring(0, idx);
+    }
 }
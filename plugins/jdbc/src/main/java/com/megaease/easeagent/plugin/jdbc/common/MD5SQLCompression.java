@@ -17,40 +17,75 @@
 
 package com.megaease.easeagent.plugin.jdbc.common;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.RemovalListener;
-import com.google.common.cache.RemovalNotification;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
 import com.megaease.easeagent.plugin.api.logging.Logger;
 import com.megaease.easeagent.plugin.async.ScheduleHelper;
 import com.megaease.easeagent.plugin.bridge.EaseAgent;
 import com.megaease.easeagent.plugin.utils.common.DataSize;
 import com.megaease.easeagent.plugin.utils.common.StringUtils;
-import org.apache.commons.codec.digest.DigestUtils;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
-public class MD5SQLCompression implements SQLCompression, RemovalListener<String, String> {
+/**
+ * Compresses sql statements to a 128 bits fingerprint in hex, the key of their metrics and spans,
+ * and reports the dictionary from the keys to the statements.
+ *
+ * <p>The dictionary is bounded: once it holds {@code maxSize} statements, any new statement is
+ * compressed to {@link #OTHER_KEY}, so that the memory and the count of metrics stay flat with ad-hoc
+ * sql. The spans are tagged by {@link #compressForTracing(String)}, which keeps the fingerprint of any
+ * statement. Only the items added since the last push are reported, the whole dictionary is reported
+ * again every {@link #FULL_PUSH_INTERVAL} pushes in case a report was lost.
+ *
+ * <p>The fingerprint is a murmur3 hash, which is as wide as the md5 it replaced and much cheaper. The
+ * name stays: the keys are still reported in the {@code md5} field of the {@code md5-dictionary}
+ * items, to the {@code md5Dictionary} namespace, which the backend joins the metrics with.
+ */
+public class MD5SQLCompression implements SQLCompression {
     private static final Logger logger = EaseAgent.getLogger(MD5SQLCompression.class);
 
     public static final DataSize MAX_SQL_SIZE = DataSize.ofKilobytes(32);//32KB
+    public static final int DEFAULT_DICTIONARY_SIZE = 1000;
+    public static final String OTHER_SQL = "other";
+    public static final String OTHER_KEY;
+    static final int FULL_PUSH_INTERVAL = 120;
+    private static final int PUSH_DELAY_SECONDS = 5;
+    // a char takes up to 3 bytes in utf-8
+    private static final int UNCUT_SQL_LENGTH = (int) (MAX_SQL_SIZE.toBytes() / 3);
+    private static final HashFunction FINGERPRINT = Hashing.murmur3_128();
 
     private static final AtomicReference<MD5SQLCompression> INSTANCE = new AtomicReference<>();
 
-    private final Cache<String, String> dictionary = CacheBuilder.newBuilder().maximumSize(1000)
-        .removalListener(this).build();
-
-    private final Cache<String, String> md5Cache = CacheBuilder.newBuilder().maximumSize(1000).build();
+    static {
+        OTHER_KEY = fingerprint(OTHER_SQL);
+    }
 
+    private final int maxSize;
+    private final Map<String, String> dictionary = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+    private final Queue<String> unreported = new ConcurrentLinkedQueue<>();
+    private final SQLFingerprintCache cache;
     private final Consumer<Map<String, String>> reportConsumer;
+    private int pushes = 0;
 
     public MD5SQLCompression(Consumer<Map<String, String>> reportConsumer) {
+        this(reportConsumer, DEFAULT_DICTIONARY_SIZE);
+    }
+
+    public MD5SQLCompression(Consumer<Map<String, String>> reportConsumer, int maxSize) {
         this.reportConsumer = reportConsumer;
-        ScheduleHelper.DEFAULT.nonStopExecute(10, 5, this::pushItems);
+        this.maxSize = maxSize;
+        this.cache = new SQLFingerprintCache(maxSize * 4);
+        ScheduleHelper.DEFAULT.nonStopExecute(10, PUSH_DELAY_SECONDS, this::pushItems);
     }
 
     public static MD5SQLCompression getInstance() {
@@ -69,40 +104,88 @@ public class MD5SQLCompression implements SQLCompression, RemovalListener<String
         }
     }
 
-    private String cacheLoad(String str) {
-        return DigestUtils.md5Hex(str);
+    static String fingerprint(String sql) {
+        return FINGERPRINT.hashUnencodedChars(sql).toString();
     }
 
     @Override
     public String compress(String origin) {
+        return compress(origin, false);
+    }
+
+    /**
+     * Compresses the statement to its own fingerprint, for the spans. Unlike {@link #compress(String)},
+     * a new statement still gets its fingerprint once the dictionary is full, though it is not reported.
+     */
+    public String compressForTracing(String origin) {
+        return compress(origin, true);
+    }
+
+    private String compress(String origin, boolean tracing) {
         try {
-            String cutStr = StringUtils.cutStrByDataSize(origin, MAX_SQL_SIZE);
-            String md5 = md5Cache.get(cutStr, () -> cacheLoad(cutStr));
-            String value = dictionary.getIfPresent(md5);
-            if (value == null) {
-                dictionary.put(md5, cutStr);
+            String sql = origin.length() <= UNCUT_SQL_LENGTH ? origin : StringUtils.cutStrByDataSize(origin, MAX_SQL_SIZE);
+            boolean cacheable = sql == origin;
+            String key = cacheable ? cache.get(origin) : null;
+            if (key == null) {
+                key = fingerprint(sql);
+                if (cacheable) {
+                    cache.put(origin, key);
+                }
             }
-            return md5;
+            String added = add(key, sql);
+            return tracing ? key : added;
         } catch (Exception e) {
             logger.warn("compress content[{}] failure", origin, e);
             return origin;
         }
     }
 
-    private void pushItems() {
-        ConcurrentMap<String, String> map = this.dictionary.asMap();
-        if (map.isEmpty()) {
-            return;
+    private String add(String key, String sql) {
+        if (dictionary.containsKey(key)) {
+            return key;
         }
-        this.reportConsumer.accept(map);
+        for (int current = size.get(); ; current = size.get()) {
+            if (current >= maxSize) {
+                return overflow();
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+        if (dictionary.putIfAbsent(key, sql) == null) {
+            unreported.add(key);
+        } else {
+            size.decrementAndGet();
+        }
+        return key;
     }
 
-    @Override
-    public void onRemoval(RemovalNotification<String, String> notification) {
-        logger.info("remove md5 dictionary item. cause: {}, md5: {}, content: {}",
-            notification.getCause().toString(), notification.getKey(), notification.getValue());
-        Map<String, String> map = new HashMap<>();
-        map.put(notification.getKey(), notification.getValue());
-        reportConsumer.accept(map);
+    private String overflow() {
+        if (overflowed.compareAndSet(false, true)) {
+            logger.info("md5 dictionary is full with {} sql, the metrics of other sql are reported as [{}]",
+                maxSize, OTHER_SQL);
+            dictionary.put(OTHER_KEY, OTHER_SQL);
+            unreported.add(OTHER_KEY);
+        }
+        return OTHER_KEY;
+    }
+
+
+    void pushItems() {
+        Map<String, String> items;
+        if (++pushes % FULL_PUSH_INTERVAL == 0) {
+            unreported.clear();
+            items = dictionary;
+        } else {
+            items = new LinkedHashMap<>();
+            String key;
+            while ((key = unreported.poll()) != null) {
+                items.put(key, dictionary.get(key));
+            }
+        }
+        if (items.isEmpty()) {
+            return;
+        }
+        this.reportConsumer.accept(items);
     }
 }
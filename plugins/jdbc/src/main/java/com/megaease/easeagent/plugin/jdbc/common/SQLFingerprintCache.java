@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.megaease.easeagent.plugin.jdbc.common;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed size, lock-free cache of the key of sql statements, with open addressing.
+ *
+ * <p>A statement is looked up in a few consecutive slots from its hash. When they are all taken,
+ * a new statement replaces the first of them, so the memory stays flat whatever the count of
+ * distinct statements.
+ */
+class SQLFingerprintCache {
+    private static final int PROBES = 4;
+
+    private final AtomicReferenceArray<Entry> table;
+    private final int mask;
+
+    SQLFingerprintCache(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, PROBES) - 1) << 1;
+        this.table = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    String get(String sql) {
+        int hash = spread(sql.hashCode());
+        for (int i = 0; i < PROBES; i++) {
+            Entry entry = table.get((hash + i) & mask);
+            if (entry == null) {
+                // slots are never emptied, so the statement is not further
+                return null;
+            }
+            if (entry.matches(hash, sql)) {
+                return entry.key;
+            }
+        }
+        return null;
+    }
+
+    void put(String sql, String key) {
+        int hash = spread(sql.hashCode());
+        Entry newEntry = new Entry(hash, sql, key);
+        for (int i = 0; i < PROBES; i++) {
+            int index = (hash + i) & mask;
+            Entry entry = table.get(index);
+            if (entry == null) {
+                if (table.compareAndSet(index, null, newEntry)) {
+                    return;
+                }
+                entry = table.get(index);
+            }
+            if (entry.matches(hash, sql)) {
+                return;
+            }
+        }
+        table.set(hash & mask, newEntry);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Entry {
+        final int hash;
+        final String sql;
+        final String key;
+
+        Entry(int hash, String sql, String key) {
+            this.hash = hash;
+            this.sql = sql;
+            this.key = key;
+        }
+
+        boolean matches(int hash, String sql) {
+            return this.hash == hash && (this.sql == sql || this.sql.equals(sql));
+        }
+    }
+}
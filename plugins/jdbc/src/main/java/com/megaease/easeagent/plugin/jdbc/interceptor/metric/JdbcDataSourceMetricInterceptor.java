@@ -27,7 +27,7 @@ import com.megaease.easeagent.plugin.enums.Order;
 import com.megaease.easeagent.plugin.interceptor.NonReentrantInterceptor;
 import com.megaease.easeagent.plugin.jdbc.JdbcConnectionMetricPlugin;
 import com.megaease.easeagent.plugin.jdbc.advice.JdbcDataSourceAdvice;
-import com.megaease.easeagent.plugin.jdbc.common.JdbcUtils;
+import com.megaease.easeagent.plugin.jdbc.common.ConnectionInfo;
 
 import java.sql.Connection;
 import java.sql.SQLException;
@@ -68,7 +68,9 @@ public class JdbcDataSourceMetricInterceptor implements NonReentrantInterceptor
         if (throwable != null) {
             return ERR_CON_METRIC_KEY;
         }
-        return JdbcUtils.getUrl(con);
+        // the connection keeps it for the tracing of its statements
+        ConnectionInfo connectionInfo = ConnectionInfo.get(con);
+        return connectionInfo == null ? null : connectionInfo.getUrl();
     }
 
     @Override
@@ -17,25 +17,18 @@
 
 package com.megaease.easeagent.plugin.jdbc.interceptor.metric;
 
-import com.google.common.cache.RemovalListener;
-import com.google.common.cache.RemovalNotification;
-import com.google.common.collect.ImmutableList;
 import com.megaease.easeagent.plugin.api.Context;
 import com.megaease.easeagent.plugin.api.context.ContextUtils;
-import com.megaease.easeagent.plugin.api.logging.Logger;
 import com.megaease.easeagent.plugin.api.metric.*;
 import com.megaease.easeagent.plugin.api.metric.name.*;
-import com.megaease.easeagent.plugin.bridge.EaseAgent;
 import com.megaease.easeagent.plugin.tools.metrics.LastMinutesCounterGauge;
 import com.megaease.easeagent.plugin.utils.ImmutableMap;
 
 import javax.annotation.Nonnull;
-import java.time.Duration;
 import java.util.HashMap;
-import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
-public class JdbcMetric extends ServiceMetric implements RemovalListener<String, String> {
-    private final Logger logger = EaseAgent.getLogger(JdbcMetric.class);
+public class JdbcMetric extends ServiceMetric {
     public static final ServiceMetricSupplier<JdbcMetric> METRIC_SUPPLIER = new ServiceMetricSupplier<JdbcMetric>() {
         @Override
         public NameFactory newNameFactory() {
@@ -90,41 +83,25 @@ public class JdbcMetric extends ServiceMetric implements RemovalListener<String,
     }
 
     public void collectMetric(String key, boolean success, Context ctx) {
-        Timer timer = this.metricRegistry.timer(this.nameFactory.timerName(key, MetricSubType.DEFAULT));
-        timer.update(Duration.ofMillis(ContextUtils.getDuration(ctx)));
-        Counter counter = this.metricRegistry.counter(this.nameFactory.counterName(key, MetricSubType.DEFAULT));
-        Meter meter = this.metricRegistry.meter(this.nameFactory.meterName(key, MetricSubType.DEFAULT));
-        meter.mark();
-        counter.inc();
+        MetricHandle handle = handle(key);
+        handle.timer().update(ContextUtils.getDurationMillis(ctx), TimeUnit.MILLISECONDS);
+        handle.meter().mark();
+        handle.counter().inc();
         if (!success) {
-            Counter errCounter = this.metricRegistry.counter(this.nameFactory.counterName(key, MetricSubType.ERROR));
-            Meter errMeter = this.metricRegistry.meter(this.nameFactory.meterName(key, MetricSubType.ERROR));
-            errMeter.mark();
-            errCounter.inc();
+            handle.errorMeter().mark();
+            handle.errorCounter().inc();
         }
-        MetricName gaugeName = this.nameFactory.gaugeNames(key).get(MetricSubType.DEFAULT);
-        metricRegistry.gauge(gaugeName.name(), () -> () -> LastMinutesCounterGauge.builder()
+    }
+
+    @Override
+    protected MetricHandle newHandle(String key) {
+        MetricHandle handle = super.newHandle(key);
+        final Meter meter = handle.meter();
+        gauge(key, MetricSubType.DEFAULT, () -> () -> LastMinutesCounterGauge.builder()
             .m1Count((long) meter.getOneMinuteRate() * 60)
             .m5Count((long) meter.getFiveMinuteRate() * 60 * 5)
             .m15Count((long) meter.getFifteenMinuteRate() * 60 * 15)
             .build());
-    }
-
-    @SuppressWarnings("NullableProblems")
-    public void onRemoval(RemovalNotification<String, String> notification) {
-        try {
-            String key = notification.getKey();
-            ImmutableList<String> list = ImmutableList.of(
-                Optional.ofNullable(this.nameFactory.counterName(key, MetricSubType.DEFAULT)).orElse(""),
-                Optional.ofNullable(this.nameFactory.counterName(key, MetricSubType.ERROR)).orElse(""),
-                Optional.ofNullable(this.nameFactory.meterName(key, MetricSubType.DEFAULT)).orElse(""),
-                Optional.ofNullable(this.nameFactory.meterName(key, MetricSubType.ERROR)).orElse(""),
-                Optional.ofNullable(this.nameFactory.timerName(key, MetricSubType.DEFAULT)).orElse(""),
-                Optional.ofNullable(this.nameFactory.gaugeName(key, MetricSubType.DEFAULT)).orElse(""));
-
-            list.forEach(metricRegistry::remove);
-        } catch (Exception e) {
-            logger.warn("remove lru cache failed: " + e.getMessage());
-        }
+        return handle;
     }
 }
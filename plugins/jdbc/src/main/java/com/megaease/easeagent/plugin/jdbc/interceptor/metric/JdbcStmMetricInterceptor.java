@@ -17,8 +17,6 @@
 
 package com.megaease.easeagent.plugin.jdbc.interceptor.metric;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import com.megaease.easeagent.plugin.MethodInfo;
 import com.megaease.easeagent.plugin.annotation.AdviceTo;
 import com.megaease.easeagent.plugin.api.Context;
@@ -34,10 +32,8 @@ import com.megaease.easeagent.plugin.jdbc.common.SqlInfo;
 
 @AdviceTo(value = JdbcStatementAdvice.class, plugin = JdbcDataSourceMetricPlugin.class)
 public class JdbcStmMetricInterceptor implements NonReentrantInterceptor {
-    private static final int maxCacheSize = 1000;
     private static JdbcMetric metric;
     private static MD5SQLCompression sqlCompression;
-    private static Cache<String, String> cache;
 
     @Override
     public void init(Config config, String className, String methodName, String methodDescriptor) {
@@ -48,9 +44,6 @@ public class JdbcStmMetricInterceptor implements NonReentrantInterceptor {
                         new Tags("application", "jdbc-statement", "signature"),
                         JdbcMetric.METRIC_SUPPLIER);
                     sqlCompression = MD5SQLCompression.getInstance();
-                    cache = CacheBuilder.newBuilder()
-                        .maximumSize(maxCacheSize).removalListener(metric).build();
-
                 }
             }
         }
@@ -66,10 +59,6 @@ public class JdbcStmMetricInterceptor implements NonReentrantInterceptor {
         String sql = sqlInfo.getSql();
         String key = sqlCompression.compress(sql);
         metric.collectMetric(key, methodInfo.getThrowable() == null, context);
-        String value = cache.getIfPresent(key);
-        if (value == null) {
-            cache.put(key, "");
-        }
     }
 
 
@@ -21,6 +21,7 @@ import com.megaease.easeagent.plugin.MethodInfo;
 import com.megaease.easeagent.plugin.annotation.AdviceTo;
 import com.megaease.easeagent.plugin.api.Context;
 import com.megaease.easeagent.plugin.api.config.Config;
+import com.megaease.easeagent.plugin.api.context.ContextKey;
 import com.megaease.easeagent.plugin.api.context.ContextUtils;
 import com.megaease.easeagent.plugin.api.logging.Logger;
 import com.megaease.easeagent.plugin.api.trace.Span;
@@ -29,19 +30,17 @@ import com.megaease.easeagent.plugin.enums.Order;
 import com.megaease.easeagent.plugin.interceptor.NonReentrantInterceptor;
 import com.megaease.easeagent.plugin.jdbc.JdbcTracingPlugin;
 import com.megaease.easeagent.plugin.jdbc.advice.JdbcStatementAdvice;
+import com.megaease.easeagent.plugin.jdbc.common.ConnectionInfo;
 import com.megaease.easeagent.plugin.jdbc.common.DatabaseInfo;
-import com.megaease.easeagent.plugin.jdbc.common.JdbcUtils;
 import com.megaease.easeagent.plugin.jdbc.common.MD5SQLCompression;
 import com.megaease.easeagent.plugin.jdbc.common.SqlInfo;
 import com.megaease.easeagent.plugin.utils.common.ExceptionUtil;
 import org.apache.commons.codec.digest.DigestUtils;
 
-import java.sql.Connection;
-
 @AdviceTo(value = JdbcStatementAdvice.class, plugin = JdbcTracingPlugin.class)
 public class JdbcStmTracingInterceptor implements NonReentrantInterceptor {
     private final static Logger log = EaseAgent.getLogger(JdbcStmTracingInterceptor.class);
-    private final static String SPAN_KEY = JdbcStmTracingInterceptor.class.getName() + "-SPAN";
+    private final static ContextKey<Span> SPAN_KEY = ContextKey.of(JdbcStmTracingInterceptor.class.getName() + "-SPAN");
 
     public static final String SPAN_SQL_QUERY_TAG_NAME = "sql";
     public static final String SPAN_ERROR_TAG_NAME = "error";
@@ -72,17 +71,16 @@ public class JdbcStmTracingInterceptor implements NonReentrantInterceptor {
         span.name(methodInfo.getMethod());
         span.kind(Span.Kind.CLIENT);
         span.tag(SPAN_SQL_QUERY_TAG_NAME,
-            md5SQLCompression.compress(sqlInfo.getSql()));
+            md5SQLCompression.compressForTracing(sqlInfo.getSql()));
         span.tag(SPAN_LOCAL_COMPONENT_TAG_NAME, "database");
-        Connection conn = sqlInfo.getConnection();
-        String url = JdbcUtils.getUrl(conn);
-        if (url != null) {
-            span.tag(SPAN_URL, url);
-        }
-        DatabaseInfo databaseInfo = DatabaseInfo.getFromConnection(conn);
-        if (databaseInfo != null) {
-            span.remoteServiceName(databaseInfo.getDatabase());
-            span.remoteIpAndPort(databaseInfo.getHost(), databaseInfo.getPort());
+        ConnectionInfo connectionInfo = ConnectionInfo.get(sqlInfo.getConnection());
+        if (connectionInfo != null) {
+            span.tag(SPAN_URL, connectionInfo.getUrl());
+            DatabaseInfo databaseInfo = connectionInfo.getDatabaseInfo();
+            if (databaseInfo != null) {
+                span.remoteServiceName(databaseInfo.getDatabase());
+                span.remoteIpAndPort(databaseInfo.getHost(), databaseInfo.getPort());
+            }
         }
         span.start();
         context.put(SPAN_KEY, span);
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.plugin.jdbc.common;
+
+import com.megaease.easeagent.plugin.utils.common.StringUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.megaease.easeagent.plugin.jdbc.common.MD5SQLCompression.*;
+import static org.junit.Assert.*;
+
+public class MD5SQLCompressionTest {
+    private final List<Map<String, String>> pushed = new ArrayList<>();
+
+    private MD5SQLCompression compression(int maxSize) {
+        return new MD5SQLCompression(items -> pushed.add(new HashMap<>(items)), maxSize);
+    }
+
+    private static Map<String, String> items(String... sql) {
+        Map<String, String> items = new HashMap<>();
+        for (String s : sql) {
+            items.put(s.equals(OTHER_SQL) ? OTHER_KEY : fingerprint(s), s);
+        }
+        return items;
+    }
+
+    @Test
+    public void compressToFingerprint() {
+        MD5SQLCompression compression = compression(10);
+        String key = compression.compress("select 1");
+        assertEquals(32, key.length());
+        assertEquals(fingerprint("select 1"), key);
+        assertSame(key, compression.compress(new String("select 1")));
+        assertNotEquals(key, compression.compress("select 2"));
+    }
+
+    @Test
+    public void cutLongStatement() {
+        StringBuilder sql = new StringBuilder("select ");
+        while (sql.length() <= MAX_SQL_SIZE.toBytes()) {
+            sql.append("column, ");
+        }
+        String cut = StringUtils.cutStrByDataSize(sql.toString(), MAX_SQL_SIZE);
+        assertNotEquals(sql.toString(), cut);
+
+        MD5SQLCompression compression = compression(10);
+        assertEquals(fingerprint(cut), compression.compress(sql.toString()));
+        compression.pushItems();
+        assertEquals(items(cut), pushed.get(0));
+    }
+
+    @Test
+    public void overflowToOther() {
+        MD5SQLCompression compression = compression(2);
+        String first = compression.compress("select 1");
+        String second = compression.compress("select 2");
+        assertEquals(OTHER_KEY, compression.compress("select 3"));
+        assertEquals(OTHER_KEY, compression.compress("select 4"));
+        assertEquals(first, compression.compress("select 1"));
+        assertEquals(second, compression.compress("select 2"));
+
+        compression.pushItems();
+        assertEquals(items("select 1", "select 2", OTHER_SQL), pushed.get(0));
+    }
+
+    @Test
+    public void traceOwnFingerprintWhenFull() {
+        MD5SQLCompression compression = compression(1);
+        assertEquals(fingerprint("select 1"), compression.compressForTracing("select 1"));
+        assertEquals(fingerprint("select 2"), compression.compressForTracing("select 2"));
+        assertEquals(OTHER_KEY, compression.compress("select 2"));
+        assertEquals(fingerprint("select 1"), compression.compress("select 1"));
+        assertEquals(fingerprint("select 2"), compression.compressForTracing("select 2"));
+
+        compression.pushItems();
+        assertEquals(items("select 1", OTHER_SQL), pushed.get(0));
+    }
+
+    @Test
+    public void pushAddedItemsOnly() {
+        MD5SQLCompression compression = compression(2);
+        compression.compress("select 1");
+        compression.compress("select 2");
+        compression.pushItems();
+        assertEquals(items("select 1", "select 2"), pushed.get(0));
+
+        // nothing new, nothing pushed
+        compression.compress("select 1");
+        compression.pushItems();
+        assertEquals(1, pushed.size());
+
+        compression.compress("select 3");
+        compression.compress("select 4");
+        compression.pushItems();
+        assertEquals(items(OTHER_SQL), pushed.get(1));
+    }
+
+    @Test
+    public void pushWholeDictionaryPeriodically() {
+        MD5SQLCompression compression = compression(10);
+        compression.compress("select 1");
+        compression.pushItems();
+        compression.compress("select 2");
+        for (int i = 1; i < FULL_PUSH_INTERVAL - 1; i++) {
+            compression.pushItems();
+        }
+        assertEquals(2, pushed.size());
+        assertEquals(items("select 2"), pushed.get(1));
+
+        compression.compress("select 3");
+        compression.pushItems();
+        assertEquals(items("select 1", "select 2", "select 3"), pushed.get(2));
+        compression.pushItems();
+        assertEquals(3, pushed.size());
+    }
+}
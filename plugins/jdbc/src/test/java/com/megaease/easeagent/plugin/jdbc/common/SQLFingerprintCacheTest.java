@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.plugin.jdbc.common;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SQLFingerprintCacheTest {
+
+    /**
+     * Statements of the same hash code, made of "Aa" and "BB" which hash alike.
+     */
+    private static List<String> colliding(int count) {
+        List<String> statements = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            StringBuilder sql = new StringBuilder("select ");
+            for (int bit = 0; bit < 4; bit++) {
+                sql.append((i & (1 << bit)) == 0 ? "Aa" : "BB");
+            }
+            statements.add(sql.toString());
+        }
+        assertEquals(statements.get(0).hashCode(), statements.get(count - 1).hashCode());
+        return statements;
+    }
+
+    @Test
+    public void getAfterPut() {
+        SQLFingerprintCache cache = new SQLFingerprintCache(16);
+        assertNull(cache.get("select 1"));
+        cache.put("select 1", "key1");
+        cache.put("select 2", "key2");
+        assertEquals("key1", cache.get("select 1"));
+        assertEquals("key2", cache.get(new String("select 2")));
+        assertNull(cache.get("select 3"));
+    }
+
+    @Test
+    public void probeCollidingStatements() {
+        SQLFingerprintCache cache = new SQLFingerprintCache(4);
+        List<String> statements = colliding(4);
+        for (String sql : statements) {
+            cache.put(sql, "key-" + sql);
+        }
+        // the same statement again takes no other slot
+        cache.put(statements.get(0), "key-" + statements.get(0));
+        for (String sql : statements) {
+            assertEquals("key-" + sql, cache.get(sql));
+        }
+    }
+
+    @Test
+    public void replaceFirstProbeWhenFull() {
+        SQLFingerprintCache cache = new SQLFingerprintCache(4);
+        List<String> statements = colliding(5);
+        for (String sql : statements) {
+            cache.put(sql, "key-" + sql);
+        }
+        assertNull(cache.get(statements.get(0)));
+        for (String sql : statements.subList(1, 5)) {
+            assertEquals("key-" + sql, cache.get(sql));
+        }
+    }
+}
@@ -20,17 +20,28 @@ package com.megaease.easeagent.plugin.kafka.interceptor.initialize;
 import com.megaease.easeagent.plugin.MethodInfo;
 import com.megaease.easeagent.plugin.annotation.AdviceTo;
 import com.megaease.easeagent.plugin.api.Context;
+import com.megaease.easeagent.plugin.api.config.AutoRefreshRegistry;
+import com.megaease.easeagent.plugin.api.config.Config;
 import com.megaease.easeagent.plugin.enums.Order;
 import com.megaease.easeagent.plugin.field.AgentDynamicFieldAccessor;
 import com.megaease.easeagent.plugin.interceptor.NonReentrantInterceptor;
 import com.megaease.easeagent.plugin.kafka.KafkaPlugin;
 import com.megaease.easeagent.plugin.kafka.advice.KafkaConsumerAdvice;
+import com.megaease.easeagent.plugin.kafka.interceptor.tracing.KafkaConsumerBatch;
+import com.megaease.easeagent.plugin.kafka.interceptor.tracing.KafkaConsumerTracingConfig;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 
 @AdviceTo(value = KafkaConsumerAdvice.class, qualifier = "poll", plugin = KafkaPlugin.class)
 public class KafkaConsumerPollInterceptor implements NonReentrantInterceptor {
+    private static volatile KafkaConsumerTracingConfig CONFIG = null;
+
+    @Override
+    public void init(Config config, String className, String methodName, String methodDescriptor) {
+        CONFIG = AutoRefreshRegistry.getOrCreate(config.domain(), config.namespace(), config.id(), KafkaConsumerTracingConfig.SUPPLIER);
+    }
+
     @Override
     public void doAfter(MethodInfo methodInfo, Context context) {
         ConsumerRecords<?, ?> consumerRecords = (ConsumerRecords<?, ?>) methodInfo.getRetValue();
@@ -39,6 +50,11 @@ public class KafkaConsumerPollInterceptor implements NonReentrantInterceptor {
         }
         Consumer<?, ?> consumer = (Consumer<?, ?>) methodInfo.getInvoker();
         String uri = AgentDynamicFieldAccessor.getDynamicFieldValue(consumer);
+        if (CONFIG != null && CONFIG.isBatchMode()) {
+            // the listener finds the batch in the context, instead of a field set on each record
+            new KafkaConsumerBatch(uri, consumerRecords).attach(context);
+            return;
+        }
         for (ConsumerRecord<?, ?> consumerRecord : consumerRecords) {
             AgentDynamicFieldAccessor.setDynamicFieldValue(consumerRecord, uri);
         }
@@ -21,6 +21,7 @@ import com.megaease.easeagent.plugin.MethodInfo;
 import com.megaease.easeagent.plugin.annotation.AdviceTo;
 import com.megaease.easeagent.plugin.api.Context;
 import com.megaease.easeagent.plugin.api.config.Config;
+import com.megaease.easeagent.plugin.api.context.ContextKey;
 import com.megaease.easeagent.plugin.api.metric.ServiceMetricRegistry;
 import com.megaease.easeagent.plugin.interceptor.NonReentrantInterceptor;
 import com.megaease.easeagent.plugin.kafka.KafkaPlugin;
@@ -29,7 +30,7 @@ import org.apache.kafka.clients.consumer.ConsumerRecord;
 
 @AdviceTo(value = KafkaMessageListenerAdvice.class, plugin = KafkaPlugin.class)
 public class KafkaMessageListenerMetricInterceptor implements NonReentrantInterceptor {
-    private static final Object START = new Object();
+    private static final ContextKey<Long> START = ContextKey.of(KafkaMessageListenerMetricInterceptor.class.getName() + "-START");
     private static KafkaMetric kafkaMetric;
 
     @Override
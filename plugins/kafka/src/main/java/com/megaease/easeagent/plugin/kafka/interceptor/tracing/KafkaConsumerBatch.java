@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.plugin.kafka.interceptor.tracing;
+
+import com.megaease.easeagent.plugin.api.Context;
+import com.megaease.easeagent.plugin.api.context.ContextKey;
+import com.megaease.easeagent.plugin.api.trace.Span;
+import com.megaease.easeagent.plugin.kafka.interceptor.KafkaUtils;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The records of a poll when the consumer is traced in batch mode, see {@link KafkaConsumerTracingConfig}.
+ *
+ * <p>The poll does nothing per record: it keeps the range of offsets it read of each partition, and puts
+ * the batch in the context of the polling thread, where the listener finds it, as the listener containers
+ * process the records of a poll on the thread which polled them. The tracing headers of a record are
+ * extracted when a listener processes it, which is when its consumer span is created, so the records that
+ * are never processed cost nothing. The spans are linked as by {@link KafkaConsumerTracingInterceptor#afterPoll}:
+ * a record with tracing headers gets its own consumer span, a child of the producer, and the records
+ * without share a root span per topic, created for the first of them that is processed.
+ */
+public class KafkaConsumerBatch {
+    private static final ContextKey<KafkaConsumerBatch> CURRENT = ContextKey.of(KafkaConsumerBatch.class.getName());
+
+    private final String uri;
+    private final Map<TopicPartition, long[]> offsets = new HashMap<>();
+    private final Map<String, Span> rootSpansForTopic = new ConcurrentHashMap<>();
+
+    public KafkaConsumerBatch(String uri, ConsumerRecords<?, ?> records) {
+        this.uri = uri;
+        for (TopicPartition partition : records.partitions()) {
+            List<? extends ConsumerRecord<?, ?>> list = records.records(partition);
+            if (!list.isEmpty()) {
+                offsets.put(partition, new long[]{list.get(0).offset(), list.get(list.size() - 1).offset()});
+            }
+        }
+    }
+
+    /**
+     * Makes the batch the one of the records processed next on this thread.
+     */
+    public void attach(Context context) {
+        context.put(CURRENT, this);
+    }
+
+    /**
+     * Returns the batch of the last poll of this thread if the record is one of it, or null.
+     */
+    public static KafkaConsumerBatch of(Context context, ConsumerRecord<?, ?> record) {
+        KafkaConsumerBatch batch = context.get(CURRENT);
+        return batch != null && batch.contains(record) ? batch : null;
+    }
+
+    boolean contains(ConsumerRecord<?, ?> record) {
+        long[] range = offsets.get(new TopicPartition(record.topic(), record.partition()));
+        return range != null && record.offset() >= range[0] && record.offset() <= range[1];
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    /**
+     * Creates the consumer span of the record, and returns the request carrying it to the listener.
+     */
+    public KafkaConsumerRequest receive(Context context, ConsumerRecord<?, ?> record) {
+        Map<String, String> headers = KafkaUtils.clearHeaders(context, record);
+        KafkaConsumerRequest request = new KafkaConsumerRequest(headers, record);
+        if (context.currentTracing().isNoop()) {
+            return request;
+        }
+        Span span;
+        if (headers == null) {
+            span = rootSpan(context, record.topic(), request);
+        } else {
+            span = context.consumerSpan(request);
+            if (span.isNoop()) {
+                return request;
+            }
+            KafkaConsumerTracingInterceptor.setConsumerSpan(record.topic(), span);
+            span.tag("kafka.broker", uri);
+            span.start().finish();
+        }
+        // as the headers are injected to the record at the poll, the listener only sees the consumer span
+        KafkaConsumerRequest injected = new KafkaConsumerRequest(new HashMap<>(), record);
+        context.consumerInject(span, injected);
+        return injected;
+    }
+
+    private Span rootSpan(Context context, String topic, KafkaConsumerRequest request) {
+        Span span = rootSpansForTopic.get(topic);
+        if (span != null) {
+            return span;
+        }
+        // the records of a poll may be processed by several threads, which all link to the span that is kept.
+        // it is not created in a mapping function, as finishing it reports it while the map is locked
+        span = context.consumerSpan(request);
+        if (!span.isNoop()) {
+            KafkaConsumerTracingInterceptor.setConsumerSpan(topic, span);
+            span.tag("kafka.broker", uri);
+            span.start().finish();
+        }
+        Span kept = rootSpansForTopic.putIfAbsent(topic, span);
+        return kept == null ? span : kept;
+    }
+}
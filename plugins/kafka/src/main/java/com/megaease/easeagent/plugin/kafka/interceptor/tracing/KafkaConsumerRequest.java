@@ -74,6 +74,10 @@ public class KafkaConsumerRequest implements MessagingRequest {
 
     @Override
     public void setHeader(String name, String value) {
+        if (headers != null) {
+            // so that a request injected by the batch mode reads its own headers
+            headers.put(name, value);
+        }
         KafkaHeaders.replaceHeader(delegate.headers(), name, value);
     }
 }
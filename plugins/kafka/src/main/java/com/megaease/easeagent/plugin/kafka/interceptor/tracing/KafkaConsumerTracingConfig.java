@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.plugin.kafka.interceptor.tracing;
+
+import com.megaease.easeagent.plugin.api.config.AutoRefreshConfig;
+import com.megaease.easeagent.plugin.api.config.AutoRefreshConfigSupplier;
+import com.megaease.easeagent.plugin.api.config.Config;
+
+/**
+ * The tracing config of the kafka consumer.
+ *
+ * <p>With {@link #BATCH_MODE_CONFIG}, a poll only keeps a {@link KafkaConsumerBatch} of its records, and the
+ * consumer span of a record is created when a listener processes it. The records a consumer reads by itself
+ * are then not traced, so it is off by default.
+ */
+public class KafkaConsumerTracingConfig implements AutoRefreshConfig {
+    public static final AutoRefreshConfigSupplier<KafkaConsumerTracingConfig> SUPPLIER = new AutoRefreshConfigSupplier<KafkaConsumerTracingConfig>() {
+        @Override
+        public KafkaConsumerTracingConfig newInstance() {
+            return new KafkaConsumerTracingConfig();
+        }
+    };
+
+    public static final String BATCH_MODE_CONFIG = "consumerBatchMode";
+
+    private volatile boolean batchMode = false;
+
+    @Override
+    public void onChange(Config oldConfig, Config newConfig) {
+        this.batchMode = newConfig.getBoolean(BATCH_MODE_CONFIG, false);
+    }
+
+    public boolean isBatchMode() {
+        return batchMode;
+    }
+}
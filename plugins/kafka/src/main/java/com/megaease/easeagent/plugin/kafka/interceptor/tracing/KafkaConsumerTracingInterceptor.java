@@ -20,6 +20,8 @@ package com.megaease.easeagent.plugin.kafka.interceptor.tracing;
 import com.megaease.easeagent.plugin.MethodInfo;
 import com.megaease.easeagent.plugin.annotation.AdviceTo;
 import com.megaease.easeagent.plugin.api.Context;
+import com.megaease.easeagent.plugin.api.config.AutoRefreshRegistry;
+import com.megaease.easeagent.plugin.api.config.Config;
 import com.megaease.easeagent.plugin.api.trace.MessagingRequest;
 import com.megaease.easeagent.plugin.api.trace.Span;
 import com.megaease.easeagent.plugin.field.AgentDynamicFieldAccessor;
@@ -38,13 +40,23 @@ import java.util.Map;
 @AdviceTo(value = KafkaConsumerAdvice.class, qualifier = "poll", plugin = KafkaPlugin.class)
 public class KafkaConsumerTracingInterceptor implements NonReentrantInterceptor {
     private static final String remoteServiceName = "kafka";
+    private static volatile KafkaConsumerTracingConfig CONFIG = null;
     boolean singleRootSpanOnReceiveBatch = true;
 
+    @Override
+    public void init(Config config, String className, String methodName, String methodDescriptor) {
+        CONFIG = AutoRefreshRegistry.getOrCreate(config.domain(), config.namespace(), config.id(), KafkaConsumerTracingConfig.SUPPLIER);
+    }
+
     @Override
     public void doAfter(MethodInfo methodInfo, Context context) {
         if (!methodInfo.isSuccess() || context.currentTracing().isNoop()) {
             return;
         }
+        if (CONFIG != null && CONFIG.isBatchMode()) {
+            // the records are traced by the listener, see KafkaConsumerBatch
+            return;
+        }
         ConsumerRecords<?, ?> consumerRecords = (ConsumerRecords<?, ?>) methodInfo.getRetValue();
         if (consumerRecords == null || consumerRecords.isEmpty()) {
             return;
@@ -89,7 +101,7 @@ public class KafkaConsumerTracingInterceptor implements NonReentrantInterceptor
         for (Span span : consumerSpansForTopic.values()) span.finish();
     }
 
-    void setConsumerSpan(String topic, Span span) {
+    static void setConsumerSpan(String topic, Span span) {
         span.tag(KafkaTags.KAFKA_TOPIC_TAG, topic);
         if (remoteServiceName != null) span.remoteServiceName(remoteServiceName);
     }
@@ -20,6 +20,7 @@ package com.megaease.easeagent.plugin.kafka.interceptor.tracing;
 import com.megaease.easeagent.plugin.MethodInfo;
 import com.megaease.easeagent.plugin.annotation.AdviceTo;
 import com.megaease.easeagent.plugin.api.Context;
+import com.megaease.easeagent.plugin.api.context.ContextKey;
 import com.megaease.easeagent.plugin.api.trace.MessagingRequest;
 import com.megaease.easeagent.plugin.api.trace.Span;
 import com.megaease.easeagent.plugin.field.AgentDynamicFieldAccessor;
@@ -33,14 +34,21 @@ import java.util.Map;
 
 @AdviceTo(value = KafkaMessageListenerAdvice.class, plugin = KafkaPlugin.class)
 public class KafkaMessageListenerTracingInterceptor implements NonReentrantInterceptor {
-    private static final Object SPAN = new Object();
+    private static final ContextKey<Span> SPAN = ContextKey.of(KafkaMessageListenerTracingInterceptor.class.getName() + "-SPAN");
 
     @Override
     public void doBefore(MethodInfo methodInfo, Context context) {
         ConsumerRecord<?, ?> consumerRecord = (ConsumerRecord<?, ?>) methodInfo.getArgs()[0];
         String uri = AgentDynamicFieldAccessor.getDynamicFieldValue(consumerRecord);
-        Map<String, String> headers = KafkaUtils.clearHeaders(context, consumerRecord);
-        MessagingRequest request = new KafkaConsumerRequest(headers, consumerRecord);
+        KafkaConsumerBatch batch = uri == null ? KafkaConsumerBatch.of(context, consumerRecord) : null;
+        MessagingRequest request;
+        if (batch != null) {
+            uri = batch.getUri();
+            request = batch.receive(context, consumerRecord);
+        } else {
+            Map<String, String> headers = KafkaUtils.clearHeaders(context, consumerRecord);
+            request = new KafkaConsumerRequest(headers, consumerRecord);
+        }
         Span span = context.consumerSpan(request).name("on-message")
             .kind(Span.Kind.CLIENT)
             .remoteServiceName("kafka")
@@ -20,6 +20,7 @@ package com.megaease.easeagent.plugin.kafka.interceptor.tracing;
 import com.megaease.easeagent.plugin.MethodInfo;
 import com.megaease.easeagent.plugin.annotation.AdviceTo;
 import com.megaease.easeagent.plugin.api.Context;
+import com.megaease.easeagent.plugin.api.context.ContextKey;
 import com.megaease.easeagent.plugin.api.trace.Scope;
 import com.megaease.easeagent.plugin.api.trace.Span;
 import com.megaease.easeagent.plugin.field.AgentDynamicFieldAccessor;
@@ -34,8 +35,8 @@ import org.apache.kafka.clients.producer.ProducerRecord;
 @AdviceTo(value = KafkaProducerAdvice.class, qualifier = "doSend", plugin = KafkaPlugin.class)
 public class KafkaProducerDoSendInterceptor implements NonReentrantInterceptor {
     private static final String remoteServiceName = "kafka";
-    private static final Object SCOPE = new Object();
-    private static final Object SPAN = new Object();
+    private static final ContextKey<Scope> SCOPE = ContextKey.of(KafkaProducerDoSendInterceptor.class.getName() + "-SCOPE");
+    private static final ContextKey<Span> SPAN = ContextKey.of(KafkaProducerDoSendInterceptor.class.getName() + "-SPAN");
 
     @Override
     public void doBefore(MethodInfo methodInfo, Context context) {
@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.plugin.kafka.interceptor.tracing;
+
+import com.megaease.easeagent.plugin.MethodInfo;
+import com.megaease.easeagent.plugin.api.Context;
+import com.megaease.easeagent.plugin.api.config.AutoRefreshRegistry;
+import com.megaease.easeagent.plugin.api.config.Config;
+import com.megaease.easeagent.plugin.api.trace.MessagingRequest;
+import com.megaease.easeagent.plugin.api.trace.Span;
+import com.megaease.easeagent.plugin.api.trace.Tracing;
+import com.megaease.easeagent.plugin.kafka.interceptor.initialize.KafkaConsumerPollInterceptor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class KafkaConsumerBatchTest {
+    private static final String TRACE_HEADER = "b3";
+    private static final TopicPartition ORDERS = new TopicPartition("orders", 0);
+    private static final TopicPartition PAYMENTS = new TopicPartition("payments", 0);
+
+    private final Map<Object, Object> values = new HashMap<>();
+    private final List<RecordedSpan> spans = new ArrayList<>();
+    private final Context context = proxy(Context.class, (method, args) -> {
+        switch (method) {
+            case "currentTracing":
+                return proxy(Tracing.class, (m, a) -> m.equals("isNoop") ? false : null);
+            case "isNecessaryKeys":
+                return TRACE_HEADER.equals(args[0]);
+            case "consumerSpan":
+                return newSpan(((MessagingRequest) args[0]).header(TRACE_HEADER));
+            case "consumerInject":
+                ((MessagingRequest) args[1]).setHeader(TRACE_HEADER, ((Span) args[0]).spanIdString());
+                return null;
+            case "put":
+                return values.put(args[0], args[1]);
+            case "get":
+                return values.get(args[0]);
+            case "remove":
+                return values.remove(args[0]);
+            default:
+                return null;
+        }
+    });
+    private MockConsumer<String, String> consumer;
+    private long nextOffset;
+
+    interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+            (proxy, method, args) -> handler.invoke(method.getName(), args)));
+    }
+
+    /**
+     * The fields of a span the test checks, the others are ignored.
+     */
+    static class RecordedSpan {
+        final String id;
+        final String parentId;
+        final Map<String, String> tags = new HashMap<>();
+        String name;
+        boolean finished;
+
+        RecordedSpan(String id, String parentId) {
+            this.id = id;
+            this.parentId = parentId;
+        }
+    }
+
+    private Span newSpan(String parentId) {
+        RecordedSpan recorded = new RecordedSpan(String.valueOf(spans.size() + 1), parentId);
+        spans.add(recorded);
+        Span[] span = new Span[1];
+        span[0] = proxy(Span.class, (method, args) -> {
+            switch (method) {
+                case "isNoop":
+                    return false;
+                case "spanIdString":
+                    return recorded.id;
+                case "name":
+                    recorded.name = (String) args[0];
+                    return span[0];
+                case "tag":
+                    recorded.tags.put((String) args[0], (String) args[1]);
+                    return span[0];
+                case "finish":
+                    recorded.finished = true;
+                    return null;
+                default:
+                    return span[0];
+            }
+        });
+        return span[0];
+    }
+
+    private static Config config(boolean batchMode) {
+        return proxy(Config.class, (method, args) -> {
+            switch (method) {
+                case "domain":
+                    return "observability";
+                case "namespace":
+                    return "kafka";
+                case "id":
+                    return "tracing";
+                case "getBoolean":
+                    return KafkaConsumerTracingConfig.BATCH_MODE_CONFIG.equals(args[0]) && batchMode;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    @Before
+    public void setup() {
+        Config config = config(true);
+        new KafkaConsumerPollInterceptor().init(config, null, null, null);
+        AutoRefreshRegistry.getOrCreate(config.domain(), config.namespace(), config.id(),
+            KafkaConsumerTracingConfig.SUPPLIER).onChange(null, config);
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.assign(Arrays.asList(ORDERS, PAYMENTS));
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        offsets.put(ORDERS, 0L);
+        offsets.put(PAYMENTS, 0L);
+        consumer.updateBeginningOffsets(offsets);
+    }
+
+    @After
+    public void close() {
+        Config config = config(false);
+        AutoRefreshRegistry.getOrCreate(config.domain(), config.namespace(), config.id(),
+            KafkaConsumerTracingConfig.SUPPLIER).onChange(null, config);
+        consumer.close();
+    }
+
+    private void addRecord(TopicPartition partition, String producerSpanId) {
+        long offset = nextOffset++;
+        ConsumerRecord<String, String> record = new ConsumerRecord<>(partition.topic(), partition.partition(), offset,
+            "key-" + offset, "value-" + offset);
+        if (producerSpanId != null) {
+            record.headers().add(TRACE_HEADER, producerSpanId.getBytes(StandardCharsets.UTF_8));
+        }
+        consumer.addRecord(record);
+    }
+
+    private ConsumerRecords<String, String> poll() {
+        ConsumerRecords<String, String> records = consumer.poll(Duration.ZERO);
+        assertFalse(records.isEmpty());
+        new KafkaConsumerPollInterceptor().doAfter(MethodInfo.builder().invoker(consumer).retValue(records).build(), context);
+        return records;
+    }
+
+    private RecordedSpan onMessage(ConsumerRecord<String, String> record) {
+        KafkaMessageListenerTracingInterceptor listener = new KafkaMessageListenerTracingInterceptor();
+        MethodInfo methodInfo = MethodInfo.builder().args(new Object[]{record}).build();
+        listener.doBefore(methodInfo, context);
+        RecordedSpan onMessage = spans.get(spans.size() - 1);
+        listener.doAfter(methodInfo, context);
+        assertEquals("on-message", onMessage.name);
+        assertTrue(onMessage.finished);
+        return onMessage;
+    }
+
+    private RecordedSpan span(String id) {
+        return spans.get(Integer.parseInt(id) - 1);
+    }
+
+    @Test
+    public void pollDoesNothingPerRecord() {
+        for (int i = 0; i < 10; i++) {
+            addRecord(ORDERS, "producer-" + i);
+        }
+        ConsumerRecords<String, String> records = poll();
+        assertTrue(spans.isEmpty());
+        for (ConsumerRecord<String, String> record : records) {
+            assertNotNull(record.headers().lastHeader(TRACE_HEADER));
+            assertNotNull(KafkaConsumerBatch.of(context, record));
+        }
+    }
+
+    @Test
+    public void linkRecordsToTheirProducers() {
+        addRecord(ORDERS, "producer-1");
+        addRecord(ORDERS, "producer-2");
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        poll().forEach(records::add);
+
+        // only the processed record has a consumer span, a child of its producer
+        RecordedSpan onMessage = onMessage(records.get(1));
+        RecordedSpan consumerSpan = span(onMessage.parentId);
+        assertEquals("producer-2", consumerSpan.parentId);
+        assertEquals("orders", consumerSpan.tags.get(KafkaTags.KAFKA_TOPIC_TAG));
+        assertTrue(consumerSpan.finished);
+        assertEquals(2, spans.size());
+        assertNotNull(records.get(0).headers().lastHeader(TRACE_HEADER));
+    }
+
+    @Test
+    public void shareARootSpanPerTopic() {
+        for (int i = 0; i < 3; i++) {
+            addRecord(ORDERS, null);
+            addRecord(PAYMENTS, null);
+        }
+        Map<String, String> roots = new HashMap<>();
+        for (ConsumerRecord<String, String> record : poll()) {
+            RecordedSpan root = span(onMessage(record).parentId);
+            assertNull(root.parentId);
+            assertEquals(record.topic(), root.tags.get(KafkaTags.KAFKA_TOPIC_TAG));
+            String kept = roots.putIfAbsent(record.topic(), root.id);
+            if (kept != null) {
+                assertEquals(kept, root.id);
+            }
+        }
+        assertEquals(2, roots.size());
+        // two root spans and one span per record
+        assertEquals(8, spans.size());
+    }
+
+    @Test
+    public void matchRecordsOfTheLastPollOnly() {
+        addRecord(ORDERS, "producer-1");
+        ConsumerRecord<String, String> first = poll().iterator().next();
+        addRecord(ORDERS, "producer-2");
+        ConsumerRecord<String, String> second = poll().iterator().next();
+        assertNull(KafkaConsumerBatch.of(context, first));
+        assertNotNull(KafkaConsumerBatch.of(context, second));
+
+        // a record of another poll is still traced by its own headers
+        RecordedSpan onMessage = onMessage(first);
+        assertEquals("producer-1", onMessage.parentId);
+    }
+}
@@ -20,6 +20,7 @@ package com.megaease.easeagent.plugin.okhttp.interceptor;
 import com.megaease.easeagent.plugin.MethodInfo;
 import com.megaease.easeagent.plugin.annotation.AdviceTo;
 import com.megaease.easeagent.plugin.api.Context;
+import com.megaease.easeagent.plugin.api.context.ContextKey;
 import com.megaease.easeagent.plugin.field.AgentFieldReflectAccessor;
 import com.megaease.easeagent.plugin.okhttp.advice.OkHttpAdvice;
 import com.megaease.easeagent.plugin.tools.trace.BaseHttpClientTracingInterceptor;
@@ -30,8 +31,8 @@ import okhttp3.Response;
 
 @AdviceTo(value = OkHttpAdvice.class, qualifier = "execute")
 public class OkHttpTracingInterceptor extends BaseHttpClientTracingInterceptor {
-    public static Object REQUEST_BUILDER_KEY = new Object();
-    public static Object METHOD_KEY = new Object();
+    public static final ContextKey<Request.Builder> REQUEST_BUILDER_KEY = ContextKey.of(OkHttpTracingInterceptor.class.getName() + "-REQUEST_BUILDER");
+    public static final ContextKey<String> METHOD_KEY = ContextKey.of(OkHttpTracingInterceptor.class.getName() + "-METHOD");
 
     @Override
     public Object getProgressKey() {
@@ -17,26 +17,34 @@
 
 package com.megaease.easeagent.plugin.rabbitmq;
 
-import com.megaease.easeagent.plugin.api.config.Config;
-import com.megaease.easeagent.plugin.api.metric.Meter;
+import com.megaease.easeagent.plugin.api.metric.MetricHandle;
 import com.megaease.easeagent.plugin.api.metric.MetricRegistry;
-import com.megaease.easeagent.plugin.api.metric.Timer;
+import com.megaease.easeagent.plugin.api.metric.ServiceMetric;
+import com.megaease.easeagent.plugin.api.metric.ServiceMetricSupplier;
 import com.megaease.easeagent.plugin.api.metric.name.*;
-import com.megaease.easeagent.plugin.bridge.EaseAgent;
 import com.megaease.easeagent.plugin.utils.ImmutableMap;
 
-import java.util.Map;
+import javax.annotation.Nonnull;
 import java.util.concurrent.TimeUnit;
 
-public class RabbitMqConsumerMetric {
-    final NameFactory nameFactory;
-    final MetricRegistry metric;
+/**
+ * The metrics of the messages consumed from a queue, keyed by the queue.
+ */
+public class RabbitMqConsumerMetric extends ServiceMetric {
+    public static final ServiceMetricSupplier<RabbitMqConsumerMetric> SERVICE_METRIC_SUPPLIER = new ServiceMetricSupplier<RabbitMqConsumerMetric>() {
+        @Override
+        public NameFactory newNameFactory() {
+            return getNameFactory();
+        }
+
+        @Override
+        public RabbitMqConsumerMetric newInstance(MetricRegistry metricRegistry, NameFactory nameFactory) {
+            return new RabbitMqConsumerMetric(metricRegistry, nameFactory);
+        }
+    };
 
-    public RabbitMqConsumerMetric(Config config) {
-        this.nameFactory = getNameFactory();
-        // Tags tags = new Tags("application", "rabbitmq-ex-ro", "resource");
-        Tags tags = new Tags("application", "rabbitmq-consumer", "resource");
-        this.metric = EaseAgent.newMetricRegistry(config, this.nameFactory, tags);
+    public RabbitMqConsumerMetric(@Nonnull MetricRegistry metricRegistry, @Nonnull NameFactory nameFactory) {
+        super(metricRegistry, nameFactory);
     }
 
     public static NameFactory getNameFactory() {
@@ -68,15 +76,22 @@ public class RabbitMqConsumerMetric {
     }
 
     public void metricAfter(String queue, long beginTime, boolean success) {
-        Map<MetricSubType, MetricName> timerNames = this.nameFactory.timerNames(queue);
-        MetricName metricName = timerNames.get(MetricSubType.DEFAULT);
-        Timer timer = this.metric.timer(metricName.name());
-        timer.update(System.currentTimeMillis() - beginTime, TimeUnit.MILLISECONDS);
-        final Meter defaultMeter = this.metric.meter(this.nameFactory.meterName(queue, MetricSubType.CONSUMER));
-        final Meter errorMeter = this.metric.meter(this.nameFactory.meterName(queue, MetricSubType.CONSUMER_ERROR));
+        MetricHandle handle = handle(queue);
+        handle.timer().update(System.currentTimeMillis() - beginTime, TimeUnit.MILLISECONDS);
         if (!success) {
-            errorMeter.mark();
+            handle.errorMeter().mark();
         }
-        defaultMeter.mark();
+        handle.meter().mark();
+    }
+
+    /**
+     * The consumer metrics have no counters.
+     */
+    @Override
+    protected MetricHandle newHandle(String key) {
+        return new MetricHandle(timer(key, MetricSubType.DEFAULT),
+            meter(key, MetricSubType.CONSUMER),
+            meter(key, MetricSubType.CONSUMER_ERROR),
+            null, null);
     }
 }
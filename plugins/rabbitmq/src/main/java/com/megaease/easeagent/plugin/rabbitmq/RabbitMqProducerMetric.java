@@ -17,39 +17,76 @@
 
 package com.megaease.easeagent.plugin.rabbitmq;
 
-import com.megaease.easeagent.plugin.api.config.Config;
-import com.megaease.easeagent.plugin.api.metric.Meter;
+import com.megaease.easeagent.plugin.api.metric.MetricHandle;
 import com.megaease.easeagent.plugin.api.metric.MetricRegistry;
-import com.megaease.easeagent.plugin.api.metric.Timer;
+import com.megaease.easeagent.plugin.api.metric.ServiceMetric;
+import com.megaease.easeagent.plugin.api.metric.ServiceMetricSupplier;
 import com.megaease.easeagent.plugin.api.metric.name.*;
-import com.megaease.easeagent.plugin.bridge.EaseAgent;
 import com.megaease.easeagent.plugin.utils.ImmutableMap;
 
-import java.util.Map;
+import javax.annotation.Nonnull;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
-public class RabbitMqProducerMetric {
-    final NameFactory nameFactory;
-    final MetricRegistry metric;
+/**
+ * The metrics of the messages published to an exchange with a routing key, keyed by "exchange-routingKey".
+ * The handles are kept per exchange and routing key, so a publish does not build the key.
+ */
+public class RabbitMqProducerMetric extends ServiceMetric {
+    public static final Tags TAGS = new Tags("application", "rabbitmq-ex-ro", "resource");
+    public static final ServiceMetricSupplier<RabbitMqProducerMetric> SERVICE_METRIC_SUPPLIER = new ServiceMetricSupplier<RabbitMqProducerMetric>() {
+        @Override
+        public NameFactory newNameFactory() {
+            return getNameFactory();
+        }
+
+        @Override
+        public RabbitMqProducerMetric newInstance(MetricRegistry metricRegistry, NameFactory nameFactory) {
+            return new RabbitMqProducerMetric(metricRegistry, nameFactory);
+        }
+    };
+
+    private final ConcurrentMap<String, ConcurrentMap<String, MetricHandle>> exchanges = new ConcurrentHashMap<>();
 
-    public RabbitMqProducerMetric(Config config) {
-        this.nameFactory = getNameFactory();
-        Tags tags = new Tags("application", "rabbitmq-ex-ro", "resource");
-        this.metric = EaseAgent.newMetricRegistry(config, this.nameFactory, tags);
+    public RabbitMqProducerMetric(@Nonnull MetricRegistry metricRegistry, @Nonnull NameFactory nameFactory) {
+        super(metricRegistry, nameFactory);
     }
 
     public void metricAfter(String exchange, String routingKey, long beginTime, boolean success) {
-        String key = String.join("-", exchange, routingKey);
-        Map<MetricSubType, MetricName> timerNames = nameFactory.timerNames(key);
-        MetricName name = timerNames.get(MetricSubType.DEFAULT);
-        Timer timer = metric.timer(name.name());
-        timer.update(System.currentTimeMillis() - beginTime, TimeUnit.MILLISECONDS);
-        final Meter defaultMeter = metric.meter(nameFactory.meterName(key, MetricSubType.PRODUCER));
-        final Meter errorMeter = metric.meter(nameFactory.meterName(key, MetricSubType.PRODUCER_ERROR));
+        MetricHandle handle = handle(exchange, routingKey);
+        handle.timer().update(System.currentTimeMillis() - beginTime, TimeUnit.MILLISECONDS);
         if (!success) {
-            errorMeter.mark();
+            handle.errorMeter().mark();
+        }
+        handle.meter().mark();
+    }
+
+    private MetricHandle handle(String exchange, String routingKey) {
+        if (exchange == null || routingKey == null) {
+            return handle(String.join("-", exchange, routingKey));
+        }
+        ConcurrentMap<String, MetricHandle> routingKeys = exchanges.get(exchange);
+        if (routingKeys == null) {
+            routingKeys = exchanges.computeIfAbsent(exchange, e -> new ConcurrentHashMap<>());
         }
-        defaultMeter.mark();
+        MetricHandle handle = routingKeys.get(routingKey);
+        if (handle == null) {
+            handle = handle(String.join("-", exchange, routingKey));
+            routingKeys.putIfAbsent(routingKey, handle);
+        }
+        return handle;
+    }
+
+    /**
+     * The producer metrics have no counters.
+     */
+    @Override
+    protected MetricHandle newHandle(String key) {
+        return new MetricHandle(timer(key, MetricSubType.DEFAULT),
+            meter(key, MetricSubType.PRODUCER),
+            meter(key, MetricSubType.PRODUCER_ERROR),
+            null, null);
     }
 
     public static NameFactory getNameFactory() {
@@ -22,13 +22,9 @@ import com.megaease.easeagent.plugin.MethodInfo;
 import com.megaease.easeagent.plugin.annotation.AdviceTo;
 import com.megaease.easeagent.plugin.api.Context;
 import com.megaease.easeagent.plugin.api.config.Config;
+import com.megaease.easeagent.plugin.api.context.ContextKey;
 import com.megaease.easeagent.plugin.api.logging.Logger;
-import com.megaease.easeagent.plugin.api.metric.Meter;
-import com.megaease.easeagent.plugin.api.metric.MetricRegistry;
-import com.megaease.easeagent.plugin.api.metric.Timer;
-import com.megaease.easeagent.plugin.api.metric.name.MetricName;
-import com.megaease.easeagent.plugin.api.metric.name.MetricSubType;
-import com.megaease.easeagent.plugin.api.metric.name.NameFactory;
+import com.megaease.easeagent.plugin.api.metric.ServiceMetricRegistry;
 import com.megaease.easeagent.plugin.api.metric.name.Tags;
 import com.megaease.easeagent.plugin.bridge.EaseAgent;
 import com.megaease.easeagent.plugin.enums.Order;
@@ -37,32 +33,19 @@ import com.megaease.easeagent.plugin.rabbitmq.spring.RabbitMqMessageListenerAdvi
 import org.springframework.amqp.core.Message;
 
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.TimeUnit;
 
 @SuppressWarnings("unused")
 @AdviceTo(RabbitMqMessageListenerAdvice.class)
 public class RabbitMqOnMessageMetricInterceptor implements Interceptor {
     private static final Logger LOGGER = EaseAgent.getLogger(RabbitMqOnMessageMetricInterceptor.class);
     private static final String AFTER_MARK = RabbitMqOnMessageMetricInterceptor.class.getName() + "$AfterMark";
-    private static final Object START = new Object();
-    private static volatile NameFactory NAME_FACTORY = null;
-    private static volatile MetricRegistry METRIC = null;
+    private static final ContextKey<Long> START = ContextKey.of(RabbitMqOnMessageMetricInterceptor.class.getName() + "-START");
+    private static final Tags TAGS = new Tags("application", "rabbitmq-queue", "resource");
+    private static volatile RabbitMqConsumerMetric METRIC = null;
 
     @Override
-    @SuppressWarnings("all")
     public void init(Config config, String className, String methodName, String methodDescriptor) {
-        if (METRIC != null) {
-            return;
-        }
-        synchronized (RabbitMqOnMessageMetricInterceptor.class) {
-            if (METRIC != null) {
-                return;
-            }
-            NAME_FACTORY = RabbitMqConsumerMetric.getNameFactory();
-            Tags tags = new Tags("application", "rabbitmq-queue", "resource");
-            METRIC = EaseAgent.newMetricRegistry(config, NAME_FACTORY, tags);
-        }
+        METRIC = ServiceMetricRegistry.getOrCreate(config, TAGS, RabbitMqConsumerMetric.SERVICE_METRIC_SUPPLIER);
     }
 
     @Override
@@ -75,29 +58,16 @@ public class RabbitMqOnMessageMetricInterceptor implements Interceptor {
         if (methodInfo.getArgs()[0] instanceof List) {
             List<Message> messageList = (List<Message>) methodInfo.getArgs()[0];
             for (Message message : messageList) {
-                metricAfter(message.getMessageProperties().getConsumerQueue(),
+                METRIC.metricAfter(message.getMessageProperties().getConsumerQueue(),
                     context.get(START), methodInfo.isSuccess());
             }
         } else {
             Message message = (Message) methodInfo.getArgs()[0];
-            metricAfter(message.getMessageProperties().getConsumerQueue(),
+            METRIC.metricAfter(message.getMessageProperties().getConsumerQueue(),
                 context.get(START), methodInfo.isSuccess());
         }
     }
 
-    private void metricAfter(String queue, long beginTime, boolean success) {
-        Map<MetricSubType, MetricName> timerNames = NAME_FACTORY.timerNames(queue);
-        MetricName metricName = timerNames.get(MetricSubType.DEFAULT);
-        Timer timer = METRIC.timer(metricName.name());
-        timer.update(System.currentTimeMillis() - beginTime, TimeUnit.MILLISECONDS);
-        final Meter defaultMeter = METRIC.meter(NAME_FACTORY.meterName(queue, MetricSubType.CONSUMER));
-        final Meter errorMeter = METRIC.meter(NAME_FACTORY.meterName(queue, MetricSubType.CONSUMER_ERROR));
-        if (!success) {
-            errorMeter.mark();
-        }
-        defaultMeter.mark();
-    }
-
     @Override
     public String getType() {
         return Order.METRIC.getName();
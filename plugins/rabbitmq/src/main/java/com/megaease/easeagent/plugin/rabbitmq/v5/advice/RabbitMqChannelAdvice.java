@@ -50,7 +50,7 @@ public class RabbitMqChannelAdvice implements Points {
     }
 
     public boolean isAddDynamicField() {
-        return false;
+        return true;
     }
 
     /*
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.plugin.rabbitmq.v5.interceptor;
+
+import com.megaease.easeagent.plugin.field.AgentDynamicFieldAccessor;
+import com.megaease.easeagent.plugin.field.DynamicFieldAccessor;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Connection;
+
+import java.net.InetAddress;
+
+/**
+ * The "host:port" of the broker of a channel, built on the first publish or consume of the channel only and
+ * kept in the dynamic field of the channel. It is built again once the connection has another address, as
+ * an auto-recovering connection may reconnect to another broker.
+ */
+public class RabbitMqBrokerUri {
+    private final InetAddress address;
+    private final int port;
+    private final String uri;
+
+    RabbitMqBrokerUri(InetAddress address, int port) {
+        this.address = address;
+        this.port = port;
+        this.uri = address.getHostAddress() + ":" + port;
+    }
+
+    public static String get(Channel channel) {
+        Connection connection = channel.getConnection();
+        InetAddress address = connection.getAddress();
+        int port = connection.getPort();
+        if (!(channel instanceof DynamicFieldAccessor)) {
+            return new RabbitMqBrokerUri(address, port).uri;
+        }
+        Object cached = AgentDynamicFieldAccessor.getDynamicFieldValue(channel);
+        if (cached instanceof RabbitMqBrokerUri) {
+            RabbitMqBrokerUri brokerUri = (RabbitMqBrokerUri) cached;
+            if (brokerUri.address == address && brokerUri.port == port) {
+                return brokerUri.uri;
+            }
+        }
+        RabbitMqBrokerUri brokerUri = new RabbitMqBrokerUri(address, port);
+        AgentDynamicFieldAccessor.setDynamicFieldValue(channel, brokerUri);
+        return brokerUri.uri;
+    }
+}
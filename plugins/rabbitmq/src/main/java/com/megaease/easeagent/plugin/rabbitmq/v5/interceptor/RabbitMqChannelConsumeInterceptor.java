@@ -26,23 +26,16 @@ import com.megaease.easeagent.plugin.field.AgentDynamicFieldAccessor;
 import com.megaease.easeagent.plugin.rabbitmq.RabbitMqPlugin;
 import com.megaease.easeagent.plugin.rabbitmq.v5.advice.RabbitMqChannelAdvice;
 import com.rabbitmq.client.Channel;
-import com.rabbitmq.client.Connection;
 import com.rabbitmq.client.Consumer;
 
-import java.net.InetAddress;
-
 @SuppressWarnings("unused")
 @AdviceTo(value = RabbitMqChannelAdvice.class, qualifier = "basicConsume", plugin = RabbitMqPlugin.class)
 public class RabbitMqChannelConsumeInterceptor implements Interceptor {
     @Override
     public void before(MethodInfo methodInfo, Context context) {
         Channel channel = (Channel) methodInfo.getInvoker();
-        Connection connection = channel.getConnection();
-        InetAddress address = connection.getAddress();
-        String hostAddress = address.getHostAddress();
-        String uri = hostAddress + ":" + connection.getPort();
         Consumer consumer = (Consumer) methodInfo.getArgs()[6];
-        AgentDynamicFieldAccessor.setDynamicFieldValue(consumer, uri);
+        AgentDynamicFieldAccessor.setDynamicFieldValue(consumer, RabbitMqBrokerUri.get(channel));
     }
 
     @Override
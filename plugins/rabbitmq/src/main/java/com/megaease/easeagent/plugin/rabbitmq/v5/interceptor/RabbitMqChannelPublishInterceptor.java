@@ -27,11 +27,8 @@ import com.megaease.easeagent.plugin.rabbitmq.RabbitMqPlugin;
 import com.megaease.easeagent.plugin.rabbitmq.v5.advice.RabbitMqChannelAdvice;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
-import com.rabbitmq.client.Connection;
 import com.rabbitmq.client.MessageProperties;
 
-import java.net.InetAddress;
-
 @AdviceTo(value = RabbitMqChannelAdvice.class, qualifier = "basicPublish", plugin = RabbitMqPlugin.class)
 public class RabbitMqChannelPublishInterceptor implements Interceptor {
     @Override
@@ -42,11 +39,7 @@ public class RabbitMqChannelPublishInterceptor implements Interceptor {
             basicProperties = MessageProperties.MINIMAL_BASIC;
             methodInfo.getArgs()[4] = basicProperties;
         }
-        Connection connection = channel.getConnection();
-        InetAddress address = connection.getAddress();
-        String hostAddress = address.getHostAddress();
-        String uri = hostAddress + ":" + connection.getPort();
-        context.put(ContextCons.MQ_URI, uri);
+        context.put(ContextCons.MQ_URI, RabbitMqBrokerUri.get(channel));
     }
 
     @Override
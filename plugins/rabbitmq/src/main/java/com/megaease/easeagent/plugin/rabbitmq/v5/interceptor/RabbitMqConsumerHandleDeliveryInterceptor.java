@@ -39,10 +39,15 @@ public class RabbitMqConsumerHandleDeliveryInterceptor implements Interceptor {
         String uri = AgentDynamicFieldAccessor.getDynamicFieldValue(methodInfo.getInvoker());
         // context.put(ContextCons.MQ_URI, uri);
         AMQP.BasicProperties properties = (AMQP.BasicProperties) methodInfo.getArgs()[2];
+        Map<String, Object> original = properties.getHeaders();
+        if (original != null && uri != null && uri.equals(original.get(ContextCons.MQ_URI))) {
+            // the headers already carry the uri, as the other interceptor of the delivery copied them
+            return;
+        }
         Map<String, Object> headers = new HashMap<>();
         headers.put(ContextCons.MQ_URI, uri);
-        if (properties.getHeaders() != null) {
-            headers.putAll(properties.getHeaders());
+        if (original != null) {
+            headers.putAll(original);
         }
         AgentFieldReflectAccessor.setFieldValue(properties, "headers", headers);
     }
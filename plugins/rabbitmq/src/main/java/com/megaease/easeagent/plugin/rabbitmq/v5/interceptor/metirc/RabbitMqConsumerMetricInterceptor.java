@@ -22,44 +22,24 @@ import com.megaease.easeagent.plugin.MethodInfo;
 import com.megaease.easeagent.plugin.annotation.AdviceTo;
 import com.megaease.easeagent.plugin.api.Context;
 import com.megaease.easeagent.plugin.api.config.Config;
-import com.megaease.easeagent.plugin.api.metric.Meter;
-import com.megaease.easeagent.plugin.api.metric.MetricRegistry;
-import com.megaease.easeagent.plugin.api.metric.Timer;
-import com.megaease.easeagent.plugin.api.metric.name.MetricName;
-import com.megaease.easeagent.plugin.api.metric.name.MetricSubType;
-import com.megaease.easeagent.plugin.api.metric.name.NameFactory;
+import com.megaease.easeagent.plugin.api.context.ContextKey;
+import com.megaease.easeagent.plugin.api.metric.ServiceMetricRegistry;
 import com.megaease.easeagent.plugin.api.metric.name.Tags;
-import com.megaease.easeagent.plugin.bridge.EaseAgent;
 import com.megaease.easeagent.plugin.enums.Order;
 import com.megaease.easeagent.plugin.rabbitmq.RabbitMqConsumerMetric;
 import com.megaease.easeagent.plugin.rabbitmq.RabbitMqPlugin;
-import com.megaease.easeagent.plugin.rabbitmq.spring.interceptor.RabbitMqOnMessageMetricInterceptor;
 import com.megaease.easeagent.plugin.rabbitmq.v5.advice.RabbitMqConsumerAdvice;
 import com.rabbitmq.client.Envelope;
 
-import java.util.Map;
-import java.util.concurrent.TimeUnit;
-
 @AdviceTo(value = RabbitMqConsumerAdvice.class, plugin = RabbitMqPlugin.class)
 public class RabbitMqConsumerMetricInterceptor implements Interceptor {
-    private static final Object START = new Object();
-    private static volatile NameFactory NAME_FACTORY = null;
-    private static volatile MetricRegistry METRIC = null;
+    private static final ContextKey<Long> START = ContextKey.of(RabbitMqConsumerMetricInterceptor.class.getName() + "-START");
+    private static final Tags TAGS = new Tags("application", "rabbitmq-consumer", "resource");
+    private static volatile RabbitMqConsumerMetric METRIC = null;
 
     @Override
-    @SuppressWarnings("all")
     public void init(Config config, String className, String methodName, String methodDescriptor) {
-        if (METRIC != null) {
-            return;
-        }
-        synchronized (RabbitMqOnMessageMetricInterceptor.class) {
-            if (METRIC != null) {
-                return;
-            }
-            NAME_FACTORY = RabbitMqConsumerMetric.getNameFactory();
-            Tags tags = new Tags("application", "rabbitmq-consumer", "resource");
-            METRIC = EaseAgent.newMetricRegistry(config, NAME_FACTORY, tags);
-        }
+        METRIC = ServiceMetricRegistry.getOrCreate(config, TAGS, RabbitMqConsumerMetric.SERVICE_METRIC_SUPPLIER);
     }
 
     @Override
@@ -70,20 +50,7 @@ public class RabbitMqConsumerMetricInterceptor implements Interceptor {
     @Override
     public void after(MethodInfo methodInfo, Context context) {
         Envelope envelope = (Envelope) methodInfo.getArgs()[1];
-        metricAfter(envelope.getRoutingKey(), context.get(START), methodInfo.isSuccess());
-    }
-
-    private void metricAfter(String queue, long beginTime, boolean success) {
-        Map<MetricSubType, MetricName> timerNames = NAME_FACTORY.timerNames(queue);
-        MetricName metricName = timerNames.get(MetricSubType.DEFAULT);
-        Timer timer = METRIC.timer(metricName.name());
-        timer.update(System.currentTimeMillis() - beginTime, TimeUnit.MILLISECONDS);
-        final Meter defaultMeter = METRIC.meter(NAME_FACTORY.meterName(queue, MetricSubType.CONSUMER));
-        final Meter errorMeter = METRIC.meter(NAME_FACTORY.meterName(queue, MetricSubType.CONSUMER_ERROR));
-        if (!success) {
-            errorMeter.mark();
-        }
-        defaultMeter.mark();
+        METRIC.metricAfter(envelope.getRoutingKey(), context.get(START), methodInfo.isSuccess());
     }
 
     @Override
@@ -23,10 +23,10 @@ import com.megaease.easeagent.plugin.annotation.AdviceTo;
 import com.megaease.easeagent.plugin.api.Context;
 import com.megaease.easeagent.plugin.api.config.Config;
 import com.megaease.easeagent.plugin.api.context.ContextUtils;
+import com.megaease.easeagent.plugin.api.metric.ServiceMetricRegistry;
 import com.megaease.easeagent.plugin.enums.Order;
 import com.megaease.easeagent.plugin.rabbitmq.RabbitMqPlugin;
 import com.megaease.easeagent.plugin.rabbitmq.RabbitMqProducerMetric;
-import com.megaease.easeagent.plugin.rabbitmq.spring.interceptor.RabbitMqOnMessageMetricInterceptor;
 import com.megaease.easeagent.plugin.rabbitmq.v5.advice.RabbitMqChannelAdvice;
 
 @SuppressWarnings("unused")
@@ -36,15 +36,8 @@ public class RabbitMqProducerMetricInterceptor implements Interceptor {
 
     @Override
     public void init(Config config, String className, String methodName, String methodDescriptor) {
-        if (METRIC != null) {
-            return;
-        }
-        synchronized (RabbitMqOnMessageMetricInterceptor.class) {
-            if (METRIC != null) {
-                return;
-            }
-            METRIC = new RabbitMqProducerMetric(config);
-        }
+        METRIC = ServiceMetricRegistry.getOrCreate(config, RabbitMqProducerMetric.TAGS,
+            RabbitMqProducerMetric.SERVICE_METRIC_SUPPLIER);
     }
 
     @Override
@@ -55,7 +48,7 @@ public class RabbitMqProducerMetricInterceptor implements Interceptor {
     public void after(MethodInfo methodInfo, Context context) {
         String exchange = (String) methodInfo.getArgs()[0];
         String routingKey = (String) methodInfo.getArgs()[1];
-        METRIC.metricAfter(exchange, routingKey, ContextUtils.getBeginTime(context), methodInfo.isSuccess());
+        METRIC.metricAfter(exchange, routingKey, ContextUtils.getBeginTimeMillis(context), methodInfo.isSuccess());
     }
 
     @Override
@@ -22,6 +22,7 @@ import com.megaease.easeagent.plugin.MethodInfo;
 import com.megaease.easeagent.plugin.annotation.AdviceTo;
 import com.megaease.easeagent.plugin.api.Context;
 import com.megaease.easeagent.plugin.api.context.ContextCons;
+import com.megaease.easeagent.plugin.api.context.ContextKey;
 import com.megaease.easeagent.plugin.api.context.ContextUtils;
 import com.megaease.easeagent.plugin.api.trace.MessagingRequest;
 import com.megaease.easeagent.plugin.api.trace.Span;
@@ -37,7 +38,7 @@ import java.util.Map;
 @SuppressWarnings("unused")
 @AdviceTo(value = RabbitMqChannelAdvice.class, qualifier = "basicPublish", plugin = RabbitMqPlugin.class)
 public class RabbitMqChannelPublishTracingInterceptor implements Interceptor {
-    private static final String SPAN_CONTEXT_KEY = RabbitMqChannelPublishTracingInterceptor.class.getName() + "-Span";
+    private static final ContextKey<Span> SPAN_CONTEXT_KEY = ContextKey.of(RabbitMqChannelPublishTracingInterceptor.class.getName() + "-Span");
 
     @Override
     public void before(MethodInfo methodInfo, Context context) {
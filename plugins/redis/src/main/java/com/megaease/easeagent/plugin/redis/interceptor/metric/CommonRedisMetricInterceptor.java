@@ -20,6 +20,7 @@ package com.megaease.easeagent.plugin.redis.interceptor.metric;
 import com.megaease.easeagent.plugin.MethodInfo;
 import com.megaease.easeagent.plugin.api.Context;
 import com.megaease.easeagent.plugin.api.config.Config;
+import com.megaease.easeagent.plugin.api.context.ContextKey;
 import com.megaease.easeagent.plugin.api.metric.ServiceMetricRegistry;
 import com.megaease.easeagent.plugin.api.metric.name.Tags;
 import com.megaease.easeagent.plugin.enums.Order;
@@ -28,8 +29,8 @@ import com.megaease.easeagent.plugin.tools.metrics.RedisMetric;
 
 public abstract class CommonRedisMetricInterceptor implements NonReentrantInterceptor {
     private static volatile RedisMetric REDIS_METRIC = null;
-    private static final Object ENTER = new Object();
-    private static final Object START = new Object();
+    private static final ContextKey<Object> ENTER = ContextKey.of(CommonRedisMetricInterceptor.class.getName() + "-ENTER");
+    private static final ContextKey<Long> START = ContextKey.of(CommonRedisMetricInterceptor.class.getName() + "-START");
 
     @Override
     public void init(Config config, String className, String methodName, String methodDescriptor) {
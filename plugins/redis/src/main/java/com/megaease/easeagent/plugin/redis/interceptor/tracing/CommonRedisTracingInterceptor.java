@@ -19,12 +19,13 @@ package com.megaease.easeagent.plugin.redis.interceptor.tracing;
 
 import com.megaease.easeagent.plugin.MethodInfo;
 import com.megaease.easeagent.plugin.api.Context;
+import com.megaease.easeagent.plugin.api.context.ContextKey;
 import com.megaease.easeagent.plugin.api.trace.Span;
 import com.megaease.easeagent.plugin.interceptor.NonReentrantInterceptor;
 
 public abstract class CommonRedisTracingInterceptor implements NonReentrantInterceptor {
-    private static final Object ENTER = new Object();
-    private static final Object SPAN_KEY = new Object();
+    private static final ContextKey<Object> ENTER = ContextKey.of(CommonRedisTracingInterceptor.class.getName() + "-ENTER");
+    private static final ContextKey<Span> SPAN_KEY = ContextKey.of(CommonRedisTracingInterceptor.class.getName() + "-SPAN");
 
 
     @Override
@@ -19,28 +19,150 @@ package com.megaease.easeagent.plugin.servicename;
 
 import org.springframework.util.ReflectionUtils;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Invokes the methods and reads the fields of the requests of the spring clients, which are not visible
+ * to the plugin.
+ *
+ * <p>A member is looked up once per class and kept as a {@link MethodHandle}, so the service name rewrite
+ * of each request is a direct invocation. The handles are held by a {@link ClassValue}, which does not
+ * keep the classes of an application from being unloaded.
+ */
 public class ReflectionTool {
+    private static final MethodType METHOD_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final Class<?>[] NO_TYPES = new Class<?>[0];
+
+    private static final ClassValue<Accessors> ACCESSORS = new ClassValue<Accessors>() {
+        @Override
+        protected Accessors computeValue(Class<?> type) {
+            return new Accessors(type);
+        }
+    };
+
     public static Object invokeMethod(Object own, String method, Object... args) throws ReflectiveOperationException {
-        Class<?>[] types = new Class[args.length];
-        for (int i = 0; i < args.length; i++) {
-            types[i] = args[i].getClass();
+        MethodHandle handle = ACCESSORS.get(own.getClass()).method(method, args);
+        try {
+            return (Object) handle.invokeExact(own, args);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
         }
-        Method md = ReflectionUtils.findMethod(own.getClass(), method, types);
-        ReflectionUtils.makeAccessible(md);
-        return ReflectionUtils.invokeMethod(md, own, args);
     }
 
     public static Object extractField(Object own, String field) throws ReflectiveOperationException {
-        Field fd = ReflectionUtils.findField(own.getClass(), field);
-        ReflectionUtils.makeAccessible(fd);
-        return ReflectionUtils.getField(fd, own);
+        MethodHandle handle = ACCESSORS.get(own.getClass()).getter(field);
+        try {
+            return (Object) handle.invokeExact(own);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
     }
 
 
     public static boolean hasText(String val) {
         return val != null && val.trim().length() > 0;
     }
+
+    static final class Accessors {
+        private final Class<?> type;
+        // the methods without arguments, which most calls are, are found by their name only
+        private final ConcurrentMap<String, MethodHandle> noArgMethods = new ConcurrentHashMap<>();
+        private final ConcurrentMap<MethodKey, MethodHandle> methods = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, MethodHandle> getters = new ConcurrentHashMap<>();
+
+        Accessors(Class<?> type) {
+            this.type = type;
+        }
+
+        MethodHandle method(String name, Object[] args) throws ReflectiveOperationException {
+            if (args.length == 0) {
+                MethodHandle handle = noArgMethods.get(name);
+                if (handle == null) {
+                    handle = findMethod(name, NO_TYPES);
+                    noArgMethods.putIfAbsent(name, handle);
+                }
+                return handle;
+            }
+            MethodKey key = new MethodKey(name, types(args));
+            MethodHandle handle = methods.get(key);
+            if (handle == null) {
+                handle = findMethod(name, key.types);
+                methods.putIfAbsent(key, handle);
+            }
+            return handle;
+        }
+
+        private MethodHandle findMethod(String name, Class<?>[] types) throws ReflectiveOperationException {
+            Method md = ReflectionUtils.findMethod(type, name, types);
+            if (md == null) {
+                throw new NoSuchMethodException(type.getName() + "." + name + Arrays.toString(types));
+            }
+            ReflectionUtils.makeAccessible(md);
+            return MethodHandles.lookup().unreflect(md)
+                .asSpreader(Object[].class, types.length)
+                .asType(METHOD_TYPE);
+        }
+
+        MethodHandle getter(String name) throws ReflectiveOperationException {
+            MethodHandle handle = getters.get(name);
+            if (handle == null) {
+                Field fd = ReflectionUtils.findField(type, name);
+                if (fd == null) {
+                    throw new NoSuchFieldException(type.getName() + "." + name);
+                }
+                ReflectionUtils.makeAccessible(fd);
+                handle = MethodHandles.lookup().unreflectGetter(fd).asType(GETTER_TYPE);
+                getters.putIfAbsent(name, handle);
+            }
+            return handle;
+        }
+
+        private static Class<?>[] types(Object[] args) {
+            Class<?>[] types = new Class[args.length];
+            for (int i = 0; i < args.length; i++) {
+                types[i] = args[i].getClass();
+            }
+            return types;
+        }
+    }
+
+    static final class MethodKey {
+        final String name;
+        final Class<?>[] types;
+
+        MethodKey(String name, Class<?>[] types) {
+            this.name = name;
+            this.types = types;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MethodKey)) {
+                return false;
+            }
+            MethodKey that = (MethodKey) o;
+            return name.equals(that.name) && Arrays.equals(types, that.types);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * name.hashCode() + Arrays.hashCode(types);
+        }
+    }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.plugin.servicename;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+
+import static org.junit.Assert.*;
+
+public class ReflectionToolTest {
+
+    static class Base {
+        private final String host = "base-host";
+
+        private String name() {
+            return "base";
+        }
+    }
+
+    static class Request extends Base {
+        private final String uri;
+
+        Request(String uri) {
+            this.uri = uri;
+        }
+
+        private String uri() {
+            return uri;
+        }
+
+        private String resolve(String path, Integer port) {
+            return uri + ":" + port + path;
+        }
+
+        private String resolve(String path) {
+            return uri + path;
+        }
+
+        private void fail() throws IOException {
+            throw new IOException("failed");
+        }
+
+        private void failUnchecked() {
+            throw new IllegalStateException("failed");
+        }
+    }
+
+    @Test
+    public void invokeMethodWithoutArguments() throws ReflectiveOperationException {
+        Request request = new Request("http://a");
+        assertEquals("http://a", ReflectionTool.invokeMethod(request, "uri"));
+        assertEquals("http://b", ReflectionTool.invokeMethod(new Request("http://b"), "uri"));
+        // declared by the super class
+        assertEquals("base", ReflectionTool.invokeMethod(request, "name"));
+    }
+
+    @Test
+    public void invokeMethodWithArguments() throws ReflectiveOperationException {
+        Request request = new Request("http://a");
+        assertEquals("http://a:80/users", ReflectionTool.invokeMethod(request, "resolve", "/users", 80));
+        assertEquals("http://a/users", ReflectionTool.invokeMethod(request, "resolve", "/users"));
+    }
+
+    @Test
+    public void extractField() throws ReflectiveOperationException {
+        assertEquals("http://a", ReflectionTool.extractField(new Request("http://a"), "uri"));
+        assertEquals("http://b", ReflectionTool.extractField(new Request("http://b"), "uri"));
+        assertEquals("base-host", ReflectionTool.extractField(new Request("http://a"), "host"));
+    }
+
+    @Test
+    public void resolveMembersOnce() throws ReflectiveOperationException {
+        ReflectionTool.Accessors accessors = new ReflectionTool.Accessors(Request.class);
+        assertSame(accessors.method("uri", new Object[0]), accessors.method("uri", new Object[0]));
+        assertSame(accessors.method("resolve", new Object[]{"/a", 80}), accessors.method("resolve", new Object[]{"/b", 81}));
+        assertNotSame(accessors.method("resolve", new Object[]{"/a", 80}), accessors.method("resolve", new Object[]{"/a"}));
+        assertSame(accessors.getter("uri"), accessors.getter("uri"));
+    }
+
+    @Test(expected = NoSuchMethodException.class)
+    public void missingMethod() throws ReflectiveOperationException {
+        ReflectionTool.invokeMethod(new Request("http://a"), "host");
+    }
+
+    @Test(expected = NoSuchMethodException.class)
+    public void missingMethodOfArguments() throws ReflectiveOperationException {
+        ReflectionTool.invokeMethod(new Request("http://a"), "resolve", 80);
+    }
+
+    @Test(expected = NoSuchFieldException.class)
+    public void missingField() throws ReflectiveOperationException {
+        ReflectionTool.extractField(new Request("http://a"), "port");
+    }
+
+    @Test
+    public void wrapCheckedException() throws ReflectiveOperationException {
+        try {
+            ReflectionTool.invokeMethod(new Request("http://a"), "fail");
+            fail();
+        } catch (InvocationTargetException e) {
+            assertTrue(e.getCause() instanceof IOException);
+            assertEquals("failed", e.getCause().getMessage());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rethrowUncheckedException() throws ReflectiveOperationException {
+        ReflectionTool.invokeMethod(new Request("http://a"), "failUnchecked");
+    }
+}
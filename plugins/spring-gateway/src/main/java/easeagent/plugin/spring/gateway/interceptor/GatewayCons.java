@@ -21,4 +21,5 @@ public interface GatewayCons {
     String SPAN_KEY = GatewayCons.class.getName() + ".SPAN";
     String CHILD_SPAN_KEY = GatewayCons.class.getName() + ".CHILD_SPAN";
     String CLIENT_RECEIVE_CALLBACK_KEY = GatewayCons.class.getName() + ".CLIENT_RECEIVE_CALLBACK";
+    String BEGIN_TIME_KEY = GatewayCons.class.getName() + ".BEGIN_TIME";
 }
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package easeagent.plugin.spring.gateway.interceptor.metric;
+
+import com.megaease.easeagent.plugin.api.config.AutoRefreshConfig;
+import com.megaease.easeagent.plugin.api.config.AutoRefreshConfigSupplier;
+import com.megaease.easeagent.plugin.api.config.Config;
+import com.megaease.easeagent.plugin.api.logging.Logger;
+import com.megaease.easeagent.plugin.bridge.EaseAgent;
+import com.megaease.easeagent.plugin.utils.common.StringUtils;
+
+import java.net.URI;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * The keys of the gateway metrics, of which there is a timer, meters and counters each.
+ *
+ * <p>A request of a route is keyed by the uri of the route, which is built once per route and method.
+ * A request without a route is keyed by its path, without the query, in which the segments that look
+ * like path variables are replaced by a placeholder: numbers, uuids, long hex strings and the segments
+ * matching {@link #PATH_VARIABLE_PATTERN_CONFIG}.
+ *
+ * <p>There are at most {@link #MAX_KEYS_CONFIG} keys of either kind. Past that, the requests of any new
+ * key are counted under {@link #OTHER_KEY}, so that the metrics stay bounded when the gateway is scanned.
+ * A new route which finds no room first releases the routes not requested since the previous time,
+ * so the routes removed by a refresh do not hold their keys forever. The keys of a released route, or
+ * of the former uri of a route, are passed to the {@link #setReleasedKeyConsumer released key consumer},
+ * which removes their metrics.
+ */
+public class GatewayMetricKeys implements AutoRefreshConfig {
+    private static final Logger LOGGER = EaseAgent.getLogger(GatewayMetricKeys.class);
+
+    public static final AutoRefreshConfigSupplier<GatewayMetricKeys> SUPPLIER = new AutoRefreshConfigSupplier<GatewayMetricKeys>() {
+        @Override
+        public GatewayMetricKeys newInstance() {
+            return new GatewayMetricKeys();
+        }
+    };
+
+    public static final String MAX_KEYS_CONFIG = "maxKeys";
+    public static final String PATH_VARIABLE_PATTERN_CONFIG = "pathVariablePattern";
+    public static final int DEFAULT_MAX_KEYS = 1000;
+    public static final String OTHER_KEY = "other";
+
+    static final String ID_VARIABLE = "{id}";
+    static final String UUID_VARIABLE = "{uuid}";
+    static final String HEX_VARIABLE = "{hex}";
+    static final String VARIABLE = "{var}";
+    private static final int MIN_HEX_VARIABLE_LENGTH = 16;
+    private static final int UUID_LENGTH = 36;
+
+    private volatile int maxKeys = DEFAULT_MAX_KEYS;
+    private volatile Pattern pathVariablePattern = null;
+
+    private final Map<String, RouteKeys> routes = new ConcurrentHashMap<>();
+    private final Map<String, String> paths = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private volatile Consumer<String> releasedKeyConsumer = key -> {
+    };
+
+    @Override
+    public void onChange(Config oldConfig, Config newConfig) {
+        Integer maxKeys = newConfig.getInt(MAX_KEYS_CONFIG);
+        if (maxKeys != null && maxKeys > 0) {
+            this.maxKeys = maxKeys;
+        }
+        String pattern = newConfig.getString(PATH_VARIABLE_PATTERN_CONFIG);
+        if (StringUtils.isEmpty(pattern) || StringUtils.isEmpty(pattern.trim())) {
+            this.pathVariablePattern = null;
+            return;
+        }
+        try {
+            this.pathVariablePattern = Pattern.compile(pattern.trim());
+        } catch (PatternSyntaxException e) {
+            LOGGER.warn("ignore invalid {}: {}", PATH_VARIABLE_PATTERN_CONFIG, pattern, e);
+        }
+    }
+
+    public void setReleasedKeyConsumer(Consumer<String> releasedKeyConsumer) {
+        this.releasedKeyConsumer = releasedKeyConsumer;
+    }
+
+    /**
+     * Returns the key of a request of the route with {@code routeId}.
+     */
+    public String routeKey(String method, String routeId, URI routeUri) {
+        RouteKeys keys = routes.get(routeId);
+        if (keys == null || !keys.uri.equals(routeUri)) {
+            keys = putRoute(routeId, routeUri);
+            if (keys == null) {
+                return OTHER_KEY;
+            }
+        }
+        if (!keys.used) {
+            keys.used = true;
+        }
+        return keys.get(method);
+    }
+
+    private RouteKeys putRoute(String routeId, URI routeUri) {
+        synchronized (routes) {
+            RouteKeys keys = routes.get(routeId);
+            if (keys != null && keys.uri.equals(routeUri)) {
+                return keys;
+            }
+            // the uri of a route changes when the routes are refreshed, it keeps its reservation
+            if (keys == null && !reserve()) {
+                releaseUnusedRoutes();
+                if (!reserve()) {
+                    return null;
+                }
+            }
+            if (keys != null) {
+                release(keys);
+            }
+            keys = new RouteKeys(routeUri);
+            routes.put(routeId, keys);
+            return keys;
+        }
+    }
+
+    /**
+     * Releases the routes not requested since the previous call, and marks the others as unused.
+     */
+    private void releaseUnusedRoutes() {
+        for (Iterator<RouteKeys> iterator = routes.values().iterator(); iterator.hasNext(); ) {
+            RouteKeys keys = iterator.next();
+            if (keys.used) {
+                keys.used = false;
+            } else {
+                iterator.remove();
+                size.decrementAndGet();
+                release(keys);
+            }
+        }
+    }
+
+    private void release(RouteKeys keys) {
+        Consumer<String> consumer = this.releasedKeyConsumer;
+        for (String key : keys.keys.values()) {
+            consumer.accept(key);
+        }
+    }
+
+    /**
+     * Returns the key of a request without a route.
+     */
+    public String pathKey(String method, String path) {
+        String key = method + " " + normalize(path);
+        String cached = paths.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (!reserve()) {
+            return OTHER_KEY;
+        }
+        cached = paths.putIfAbsent(key, key);
+        if (cached != null) {
+            size.decrementAndGet();
+            return cached;
+        }
+        return key;
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    private boolean reserve() {
+        for (; ; ) {
+            int current = size.get();
+            if (current >= maxKeys) {
+                return false;
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    String normalize(String path) {
+        if (StringUtils.isEmpty(path)) {
+            return "/";
+        }
+        Pattern pattern = this.pathVariablePattern;
+        StringBuilder normalized = null;
+        int begin = 0;
+        int length = path.length();
+        while (begin <= length) {
+            int end = path.indexOf('/', begin);
+            if (end < 0) {
+                end = length;
+            }
+            String variable = end > begin ? variable(path, begin, end, pattern) : null;
+            if (variable != null) {
+                if (normalized == null) {
+                    normalized = new StringBuilder(length).append(path, 0, begin);
+                }
+                normalized.append(variable);
+            } else if (normalized != null) {
+                normalized.append(path, begin, end);
+            }
+            if (end < length && normalized != null) {
+                normalized.append('/');
+            }
+            begin = end + 1;
+        }
+        return normalized == null ? path : normalized.toString();
+    }
+
+    private static String variable(String path, int begin, int end, Pattern pattern) {
+        int length = end - begin;
+        boolean digits = true;
+        boolean hex = true;
+        for (int i = begin; i < end && hex; i++) {
+            char c = path.charAt(i);
+            if (c < '0' || c > '9') {
+                digits = false;
+                hex = (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+            }
+        }
+        if (digits) {
+            return ID_VARIABLE;
+        }
+        if (hex && length >= MIN_HEX_VARIABLE_LENGTH) {
+            return HEX_VARIABLE;
+        }
+        if (length == UUID_LENGTH && isUuid(path, begin)) {
+            return UUID_VARIABLE;
+        }
+        if (pattern != null && pattern.matcher(path.substring(begin, end)).matches()) {
+            return VARIABLE;
+        }
+        return null;
+    }
+
+    private static boolean isUuid(String path, int begin) {
+        for (int i = 0; i < UUID_LENGTH; i++) {
+            char c = path.charAt(begin + i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (Character.digit(c, 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The keys of a route by http method, built on the first request of each method.
+     */
+    static class RouteKeys {
+        private final URI uri;
+        private final String uriString;
+        private final Map<String, String> keys = new ConcurrentHashMap<>();
+        private volatile boolean used;
+
+        RouteKeys(URI uri) {
+            this.uri = uri;
+            this.uriString = uri.toString();
+        }
+
+        String get(String method) {
+            String key = keys.get(method);
+            if (key == null) {
+                key = method + " " + uriString;
+                keys.put(method, key);
+            }
+            return key;
+        }
+    }
+}
@@ -21,6 +21,7 @@ import com.megaease.easeagent.plugin.Interceptor;
 import com.megaease.easeagent.plugin.MethodInfo;
 import com.megaease.easeagent.plugin.annotation.AdviceTo;
 import com.megaease.easeagent.plugin.api.Context;
+import com.megaease.easeagent.plugin.api.config.AutoRefreshRegistry;
 import com.megaease.easeagent.plugin.api.config.Config;
 import com.megaease.easeagent.plugin.api.context.AsyncContext;
 import com.megaease.easeagent.plugin.api.context.ContextUtils;
@@ -31,6 +32,7 @@ import com.megaease.easeagent.plugin.tools.metrics.ServerMetric;
 import com.megaease.easeagent.plugin.utils.SystemClock;
 import easeagent.plugin.spring.gateway.SpringGatewayPlugin;
 import easeagent.plugin.spring.gateway.advice.AgentGlobalFilterAdvice;
+import easeagent.plugin.spring.gateway.interceptor.GatewayCons;
 import easeagent.plugin.spring.gateway.reactor.AgentMono;
 import org.springframework.cloud.gateway.route.Route;
 import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
@@ -42,11 +44,16 @@ import reactor.core.publisher.Mono;
 @AdviceTo(value = AgentGlobalFilterAdvice.class, plugin = SpringGatewayPlugin.class)
 public class GatewayMetricsInterceptor implements Interceptor {
     private static volatile ServerMetric SERVER_METRIC = null;
+    private static volatile GatewayMetricKeys KEYS = null;
 
     @Override
     public void init(Config config, String className, String methodName, String methodDescriptor) {
-        SERVER_METRIC = ServiceMetricRegistry.getOrCreate(config,
+        ServerMetric serverMetric = ServiceMetricRegistry.getOrCreate(config,
             new Tags("application", "http-request", "url"), ServerMetric.SERVICE_METRIC_SUPPLIER);
+        GatewayMetricKeys keys = AutoRefreshRegistry.getOrCreate(config.domain(), config.namespace(), config.id(), GatewayMetricKeys.SUPPLIER);
+        keys.setReleasedKeyConsumer(serverMetric::remove);
+        SERVER_METRIC = serverMetric;
+        KEYS = keys;
     }
 
     @Override
@@ -58,12 +65,17 @@ public class GatewayMetricsInterceptor implements Interceptor {
     @SuppressWarnings("unchecked")
     public void after(MethodInfo methodInfo, Context context) {
         ServerWebExchange exchange = (ServerWebExchange) methodInfo.getArgs()[0];
+        long end = SystemClock.now();
+        long start = ContextUtils.getBeginTimeMillis(context);
+        if (start == 0) {
+            start = end;
+        }
         if (!methodInfo.isSuccess()) {
             String key = getKey(exchange);
-            Long start = ContextUtils.getBeginTime(context);
-            long end = System.currentTimeMillis();
             SERVER_METRIC.collectMetric(key, 500, methodInfo.getThrowable(), start, end);
         }
+        // the callback runs on another thread, whose context knows nothing of this call
+        exchange.getAttributes().put(GatewayCons.BEGIN_TIME_KEY, start);
         // async
         Mono<Void> mono = (Mono<Void>) methodInfo.getRetValue();
         methodInfo.setRetValue(new AgentMono(mono, methodInfo, context.exportAsync(), this::finishCallback));
@@ -71,7 +83,6 @@ public class GatewayMetricsInterceptor implements Interceptor {
 
     void finishCallback(MethodInfo methodInfo, AsyncContext ctx) {
         ctx.importToCurrent();
-        Context context = ctx.getContext();
         ServerWebExchange exchange = (ServerWebExchange) methodInfo.getArgs()[0];
         String key = getKey(exchange);
         HttpStatus statusCode = exchange.getResponse().getStatusCode();
@@ -79,8 +90,9 @@ public class GatewayMetricsInterceptor implements Interceptor {
         if (statusCode != null) {
             code = statusCode.value();
         }
-        SERVER_METRIC.collectMetric(key, code, methodInfo.getThrowable(),
-            ContextUtils.getBeginTime(context), SystemClock.now());
+        long end = SystemClock.now();
+        Long start = exchange.getAttribute(GatewayCons.BEGIN_TIME_KEY);
+        SERVER_METRIC.collectMetric(key, code, methodInfo.getThrowable(), start == null ? end : start, end);
     }
 
     public static String getKey(ServerWebExchange exchange) {
@@ -89,13 +101,10 @@ public class GatewayMetricsInterceptor implements Interceptor {
             return "";
         }
         Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
-        String key;
         if (route != null && route.getUri() != null) {
-            key = httpMethod.name() + " " + route.getUri().toString();
-        } else {
-            key = httpMethod.name() + " " + exchange.getRequest().getURI();
+            return KEYS.routeKey(httpMethod.name(), route.getId(), route.getUri());
         }
-        return key;
+        return KEYS.pathKey(httpMethod.name(), exchange.getRequest().getPath().value());
     }
 
     @Override
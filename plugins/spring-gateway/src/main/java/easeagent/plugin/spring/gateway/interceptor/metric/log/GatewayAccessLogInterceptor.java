@@ -31,6 +31,7 @@ import com.megaease.easeagent.plugin.enums.Order;
 import com.megaease.easeagent.plugin.tools.metrics.AccessLogServerInfo;
 import com.megaease.easeagent.plugin.tools.metrics.HttpLog;
 import com.megaease.easeagent.plugin.tools.metrics.RequestInfo;
+import com.megaease.easeagent.plugin.utils.SystemClock;
 import easeagent.plugin.spring.gateway.AccessPlugin;
 import easeagent.plugin.spring.gateway.advice.AgentGlobalFilterAdvice;
 import easeagent.plugin.spring.gateway.interceptor.GatewayCons;
@@ -52,7 +53,10 @@ public class GatewayAccessLogInterceptor implements Interceptor {
     public void before(MethodInfo methodInfo, Context context) {
         ServerWebExchange exchange = (ServerWebExchange) methodInfo.getArgs()[0];
         AccessLogServerInfo serverInfo = this.serverInfo(exchange);
-        Long beginTime = ContextUtils.getBeginTime(context);
+        long beginTime = ContextUtils.getBeginTimeMillis(context);
+        if (beginTime == 0) {
+            beginTime = SystemClock.now();
+        }
         RequestContext pCtx = exchange.getAttribute(GatewayCons.SPAN_KEY);
         if (pCtx == null) {
             return;
@@ -72,13 +76,13 @@ public class GatewayAccessLogInterceptor implements Interceptor {
 
     private void finishCallback(MethodInfo methodInfo, AsyncContext ctx) {
         ctx.importToCurrent();
-        Context context = ctx.getContext();
         ServerWebExchange exchange = (ServerWebExchange) methodInfo.getArgs()[0];
         RequestInfo requestInfo = exchange.getAttribute(RequestInfo.class.getName());
         if (requestInfo == null) {
             return;
         }
-        Long beginTime = ContextUtils.getBeginTime(context);
+        // the callback runs on another thread, so the begin time is the one recorded before the call
+        long beginTime = requestInfo.getBeginTime();
         AccessLogServerInfo serverInfo = this.serverInfo(exchange);
         String logString = this.httpLog.getLogString(requestInfo, methodInfo.isSuccess(), beginTime, serverInfo);
         reportConsumer.report(logString);
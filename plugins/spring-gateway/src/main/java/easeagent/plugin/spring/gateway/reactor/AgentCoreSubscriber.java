@@ -1,52 +1,57 @@
- /*
-  * Copyright (c) 2021, MegaEase
-  * All rights reserved.
-  *
-  * Licensed under the Apache License, Version 2.0 (the "License");
-  * you may not use this file except in compliance with the License.
-  * You may obtain a copy of the License at
-  *
-  *     http://www.apache.org/licenses/LICENSE-2.0
-  *
-  * Unless required by applicable law or agreed to in writing, software
-  * distributed under the License is distributed on an "AS IS" BASIS,
-  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
-  * See the License for the specific language governing permissions and
-  * limitations under the License.
-  */
-
- package easeagent.plugin.spring.gateway.reactor;
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package easeagent.plugin.spring.gateway.reactor;
 
 import com.megaease.easeagent.plugin.MethodInfo;
-import com.megaease.easeagent.plugin.api.context.AsyncContext;
 import org.reactivestreams.Subscription;
 import reactor.core.CoreSubscriber;
+import reactor.core.Fuseable;
+import reactor.core.Scannable;
+import reactor.core.publisher.Operators;
 
 import javax.annotation.Nonnull;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.function.BiConsumer;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
-public class AgentCoreSubscriber implements CoreSubscriber<Void> {
+/**
+ * Passes the signals of the response through and only records its termination, without keeping its values.
+ *
+ * <p>It is a {@link Fuseable.QueueSubscription} to the subscriber, so an asynchronous fusion of the
+ * operators around it is kept. A synchronous fusion is refused, as it has no terminal signal. As the
+ * response has no values, only its termination crosses from the upstream to the draining thread, and it
+ * is claimed once by whichever of them sees it first.
+ */
+public class AgentCoreSubscriber implements CoreSubscriber<Void>, Fuseable.QueueSubscription<Void>, Scannable {
 
-    private final CoreSubscriber<Void> actual;
+    private final CoreSubscriber<? super Void> actual;
     private final MethodInfo methodInfo;
-    // private final Object ctx;
-    private final AsyncContext asyncContext;
-    private final BiConsumer<MethodInfo, AsyncContext> finish;
-    private final List<Void> results = new ArrayList<>();
+    private final AgentMono.Callback callbacks;
+    private Subscription s;
+    private Fuseable.QueueSubscription<Void> qs;
+    private volatile int done;
+    private static final AtomicIntegerFieldUpdater<AgentCoreSubscriber> DONE =
+        AtomicIntegerFieldUpdater.newUpdater(AgentCoreSubscriber.class, "done");
 
-    @SuppressWarnings("unchecked")
     public AgentCoreSubscriber(CoreSubscriber<? super Void> actual,
                                MethodInfo methodInfo,
-                               // Object context,
-                               AsyncContext async,
-                               BiConsumer<MethodInfo, AsyncContext> finish) {
-        this.actual = (CoreSubscriber<Void>)actual;
+                               AgentMono.Callback callbacks) {
+        this.actual = actual;
         this.methodInfo = methodInfo;
-        // this.ctx = context;
-        this.finish = finish;
-        this.asyncContext = async;
+        this.callbacks = callbacks;
     }
 
     @Nonnull
@@ -56,29 +61,106 @@ public class AgentCoreSubscriber implements CoreSubscriber<Void> {
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public void onSubscribe(@Nonnull Subscription s) {
-        actual.onSubscribe(s);
+        if (Operators.validate(this.s, s)) {
+            this.s = s;
+            if (s instanceof Fuseable.QueueSubscription) {
+                this.qs = (Fuseable.QueueSubscription<Void>) s;
+            }
+            actual.onSubscribe(this);
+        }
     }
 
     @Override
     public void onNext(Void t) {
         actual.onNext(t);
-        results.add(t);
     }
 
     @Override
     public void onError(Throwable t) {
+        if (!DONE.compareAndSet(this, 0, 1)) {
+            Operators.onErrorDropped(t, actual.currentContext());
+            return;
+        }
         actual.onError(t);
         methodInfo.setThrowable(t);
-        finish.accept(this.methodInfo, asyncContext);
-        // EaseAgent.dispatcher.exit(chain, methodInfo, getContext(), results, t);
+        finish();
     }
 
     @Override
     public void onComplete() {
+        if (!DONE.compareAndSet(this, 0, 1)) {
+            return;
+        }
         actual.onComplete();
-        methodInfo.setRetValue(results);
-        finish.accept(this.methodInfo, asyncContext);
+        finish();
+    }
+
+    private void finish() {
+        for (AgentMono.Callback callback = callbacks; callback != null; callback = callback.next) {
+            callback.finish.accept(methodInfo, callback.asyncContext);
+        }
+    }
+
+    @Override
+    public void request(long n) {
+        s.request(n);
+    }
+
+    @Override
+    public void cancel() {
+        s.cancel();
+    }
+
+    @Override
+    public int requestFusion(int requestedMode) {
+        if (qs == null || (requestedMode & Fuseable.ASYNC) == 0) {
+            return Fuseable.NONE;
+        }
+        return qs.requestFusion(requestedMode & ~Fuseable.SYNC);
     }
-}
 
+    @Override
+    public Void poll() {
+        try {
+            return qs.poll();
+        } catch (RuntimeException | Error e) {
+            // a failure of the fused upstream is not signalled through onError
+            if (DONE.compareAndSet(this, 0, 1)) {
+                methodInfo.setThrowable(e);
+                finish();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public int size() {
+        return qs.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return qs.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        qs.clear();
+    }
+
+    @Override
+    public Object scanUnsafe(@Nonnull Attr key) {
+        if (key == Attr.PARENT) {
+            return s;
+        }
+        if (key == Attr.ACTUAL) {
+            return actual;
+        }
+        if (key == Attr.TERMINATED) {
+            return done == 1;
+        }
+        return null;
+    }
+}
@@ -20,29 +20,53 @@ package easeagent.plugin.spring.gateway.reactor;
 import com.megaease.easeagent.plugin.MethodInfo;
 import com.megaease.easeagent.plugin.api.context.AsyncContext;
 import reactor.core.CoreSubscriber;
+import reactor.core.Fuseable;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoOperator;
 
 import javax.annotation.Nonnull;
 import java.util.function.BiConsumer;
 
-public class AgentMono extends Mono<Void> {
-    private final Mono<Void> source;
+/**
+ * Calls back the interceptors of a request once the response of the gateway terminates.
+ *
+ * <p>The interceptors of the same call share one operator: wrapping an AgentMono of the same
+ * {@link MethodInfo} adds the callback to a copy of it instead of adding a layer to the response.
+ * The callbacks run from the last added to the first, as they did when each one was a layer.
+ */
+public class AgentMono extends MonoOperator<Void, Void> implements Fuseable {
     private final MethodInfo methodInfo;
-    private final AsyncContext asyncContext;
-    private final BiConsumer<MethodInfo, AsyncContext> finish;
+    private final Callback callbacks;
 
     public AgentMono(Mono<Void> mono, MethodInfo methodInfo,
                      AsyncContext async,
                      BiConsumer<MethodInfo, AsyncContext> consumer) {
-        this.source = mono;
+        super(shares(mono, methodInfo) ? ((AgentMono) mono).source : mono);
         this.methodInfo = methodInfo;
-        this.finish = consumer;
-        this.asyncContext = async;
+        this.callbacks = new Callback(async, consumer, shares(mono, methodInfo) ? ((AgentMono) mono).callbacks : null);
+    }
+
+    private static boolean shares(Mono<Void> mono, MethodInfo methodInfo) {
+        return mono instanceof AgentMono && ((AgentMono) mono).methodInfo == methodInfo;
     }
 
     @Override
     public void subscribe(@Nonnull CoreSubscriber<? super Void> actual) {
-        this.source.subscribe(new AgentCoreSubscriber(actual, methodInfo,
-            asyncContext, finish));
+        this.source.subscribe(new AgentCoreSubscriber(actual, methodInfo, callbacks));
+    }
+
+    /**
+     * The callbacks of the interceptors, from the last added.
+     */
+    static final class Callback {
+        final AsyncContext asyncContext;
+        final BiConsumer<MethodInfo, AsyncContext> finish;
+        final Callback next;
+
+        Callback(AsyncContext asyncContext, BiConsumer<MethodInfo, AsyncContext> finish, Callback next) {
+            this.asyncContext = asyncContext;
+            this.finish = finish;
+            this.next = next;
+        }
     }
 }
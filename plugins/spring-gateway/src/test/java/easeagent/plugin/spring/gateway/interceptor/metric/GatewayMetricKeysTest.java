@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package easeagent.plugin.spring.gateway.interceptor.metric;
+
+import com.megaease.easeagent.plugin.api.config.Config;
+import com.megaease.easeagent.plugin.api.metric.MetricRegistry;
+import com.megaease.easeagent.plugin.bridge.NoOpMetrics;
+import com.megaease.easeagent.plugin.tools.metrics.ServerMetric;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static easeagent.plugin.spring.gateway.interceptor.metric.GatewayMetricKeys.OTHER_KEY;
+import static org.junit.Assert.*;
+
+public class GatewayMetricKeysTest {
+
+    private static Config config(String maxKeys, String pathVariablePattern) {
+        Map<String, String> values = new HashMap<>();
+        values.put(GatewayMetricKeys.MAX_KEYS_CONFIG, maxKeys);
+        values.put(GatewayMetricKeys.PATH_VARIABLE_PATTERN_CONFIG, pathVariablePattern);
+        return (Config) Proxy.newProxyInstance(Config.class.getClassLoader(), new Class<?>[]{Config.class},
+            (proxy, method, args) -> {
+                String value = values.get((String) args[0]);
+                if (method.getName().equals("getInt")) {
+                    return value == null ? null : Integer.valueOf(value);
+                }
+                return value;
+            });
+    }
+
+    private static GatewayMetricKeys keys(int maxKeys) {
+        GatewayMetricKeys keys = new GatewayMetricKeys();
+        keys.onChange(null, config(String.valueOf(maxKeys), null));
+        return keys;
+    }
+
+    @Test
+    public void normalize() {
+        GatewayMetricKeys keys = new GatewayMetricKeys();
+        assertEquals("/", keys.normalize(null));
+        assertEquals("/", keys.normalize(""));
+        assertEquals("/", keys.normalize("/"));
+        assertEquals("/users/list", keys.normalize("/users/list"));
+        assertEquals("/users/{id}/orders", keys.normalize("/users/123/orders"));
+        assertEquals("/users/{id}/", keys.normalize("/users/123/"));
+        assertEquals("/users//{id}", keys.normalize("/users//123"));
+        assertEquals("{id}/{id}", keys.normalize("1/2"));
+    }
+
+    @Test
+    public void normalizeVariables() {
+        GatewayMetricKeys keys = new GatewayMetricKeys();
+        assertEquals("/orders/{uuid}", keys.normalize("/orders/123e4567-e89b-12d3-a456-426614174000"));
+        assertEquals("/orders/123e4567-e89b-12d3-a456-42661417400g",
+            keys.normalize("/orders/123e4567-e89b-12d3-a456-42661417400g"));
+        assertEquals("/blobs/{hex}", keys.normalize("/blobs/0123456789abcdefABCDEF"));
+        // too short to be told from a word
+        assertEquals("/blobs/cafe", keys.normalize("/blobs/cafe"));
+        assertEquals("/users/alice", keys.normalize("/users/alice"));
+
+        keys.onChange(null, config(null, " [a-z]+-[0-9]+ "));
+        assertEquals("/users/{var}/orders", keys.normalize("/users/alice-42/orders"));
+        keys.onChange(null, config(null, "[invalid"));
+        assertEquals("/users/{var}/orders", keys.normalize("/users/alice-42/orders"));
+        keys.onChange(null, config(null, ""));
+        assertEquals("/users/alice-42/orders", keys.normalize("/users/alice-42/orders"));
+    }
+
+    @Test
+    public void pathKeysOverflowToOther() {
+        GatewayMetricKeys keys = keys(3);
+        assertEquals("GET /users/{id}", keys.pathKey("GET", "/users/1"));
+        assertSame(keys.pathKey("GET", "/users/1"), keys.pathKey("GET", "/users/2"));
+        assertEquals("POST /users/{id}", keys.pathKey("POST", "/users/1"));
+        assertEquals("GET /orders", keys.pathKey("GET", "/orders"));
+        assertEquals(3, keys.size());
+
+        assertEquals(OTHER_KEY, keys.pathKey("GET", "/scan/a"));
+        assertEquals(OTHER_KEY, keys.routeKey("GET", "route", URI.create("http://localhost:8080")));
+        assertEquals("GET /orders", keys.pathKey("GET", "/orders"));
+        assertEquals(3, keys.size());
+    }
+
+    @Test
+    public void routeKeysFollowRefreshedUri() {
+        GatewayMetricKeys keys = keys(2);
+        assertEquals("GET http://a:8080", keys.routeKey("GET", "route", URI.create("http://a:8080")));
+        assertEquals("POST http://a:8080", keys.routeKey("POST", "route", URI.create("http://a:8080")));
+        assertEquals(1, keys.size());
+
+        // the refreshed route keeps its reservation
+        assertEquals("GET http://b:8080", keys.routeKey("GET", "route", URI.create("http://b:8080")));
+        assertEquals(1, keys.size());
+    }
+
+    @Test
+    public void releaseRoutesGoneByRefresh() {
+        GatewayMetricKeys keys = keys(3);
+        assertEquals("GET /health", keys.pathKey("GET", "/health"));
+        for (String id : new String[]{"a", "b"}) {
+            keys.routeKey("GET", id, URI.create("http://" + id));
+        }
+        assertEquals(3, keys.size());
+
+        // the refresh replaced a and b by c and d: the first new route finds both still in use
+        assertEquals(OTHER_KEY, keys.routeKey("GET", "c", URI.create("http://c")));
+        assertEquals("GET http://c", keys.routeKey("GET", "c", URI.create("http://c")));
+        assertEquals("GET http://d", keys.routeKey("GET", "d", URI.create("http://d")));
+        assertEquals(3, keys.size());
+
+        // the path keys are never released
+        assertEquals("GET /health", keys.pathKey("GET", "/health"));
+        assertEquals(OTHER_KEY, keys.routeKey("GET", "e", URI.create("http://e")));
+        assertEquals(3, keys.size());
+    }
+
+    @Test
+    public void removeMetricsOfRoutesGoneByRefresh() {
+        Set<String> names = new HashSet<>();
+        MetricRegistry registry = (MetricRegistry) Proxy.newProxyInstance(MetricRegistry.class.getClassLoader(),
+            new Class<?>[]{MetricRegistry.class}, (proxy, method, args) -> {
+                if (method.getName().equals("remove")) {
+                    return names.remove((String) args[0]);
+                }
+                names.add((String) args[0]);
+                return method.invoke(NoOpMetrics.NO_OP_METRIC, args);
+            });
+        ServerMetric serverMetric = new ServerMetric(registry, ServerMetric.nameFactory());
+        GatewayMetricKeys keys = keys(2);
+        keys.setReleasedKeyConsumer(serverMetric::remove);
+
+        serverMetric.collectMetric(OTHER_KEY, 200, null, 0, 1);
+        int metricsPerKey = names.size();
+        for (int refresh = 0; refresh < 10; refresh++) {
+            // each refresh replaces the routes, of which the first requests go to the other key
+            for (int i = 0; i < 3; i++) {
+                for (String id : new String[]{"a" + refresh, "b" + refresh}) {
+                    for (String method : new String[]{"GET", "POST"}) {
+                        String key = keys.routeKey(method, id, URI.create("http://" + id));
+                        serverMetric.collectMetric(key, 200, null, 0, 1);
+                    }
+                }
+            }
+            assertEquals(metricsPerKey * 5, names.size());
+        }
+        assertEquals(2, keys.size());
+
+        // the former uri of a route is released as well
+        serverMetric.collectMetric(keys.routeKey("GET", "a9", URI.create("http://moved")), 200, null, 0, 1);
+        assertEquals(metricsPerKey * 4, names.size());
+        assertFalse(names.stream().anyMatch(name -> name.endsWith("http://a9")));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package easeagent.plugin.spring.gateway.reactor;
+
+import com.megaease.easeagent.plugin.MethodInfo;
+import com.megaease.easeagent.plugin.api.context.AsyncContext;
+import org.junit.Test;
+import reactor.core.Fuseable;
+import reactor.core.Scannable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static org.junit.Assert.*;
+
+public class AgentMonoTest {
+    private final MethodInfo methodInfo = MethodInfo.builder().build();
+    private final List<String> finished = new ArrayList<>();
+    private final List<Throwable> errors = new ArrayList<>();
+
+    private BiConsumer<MethodInfo, AsyncContext> finish(String name) {
+        return (info, async) -> {
+            finished.add(name);
+            errors.add(info.getThrowable());
+        };
+    }
+
+    private Mono<Void> wrap(Mono<Void> source) {
+        return new AgentMono(source, methodInfo, null, finish("agent"));
+    }
+
+    @Test
+    public void finishOnComplete() {
+        StepVerifier.create(wrap(Mono.<Void>empty().hide()))
+            .expectNoFusionSupport()
+            .verifyComplete();
+        assertEquals(1, finished.size());
+        assertNull(errors.get(0));
+    }
+
+    @Test
+    public void finishOnError() {
+        IllegalStateException error = new IllegalStateException("failed");
+        StepVerifier.create(wrap(Mono.<Void>error(error).hide()))
+            .verifyErrorMatches(e -> e == error);
+        assertEquals(1, finished.size());
+        assertSame(error, errors.get(0));
+    }
+
+    @Test
+    public void finishOnceWhenAsyncFused() {
+        Sinks.Many<Void> sink = Sinks.many().unicast().onBackpressureBuffer();
+        StepVerifier.create(wrap(Mono.fromDirect(sink.asFlux())))
+            .expectFusion(Fuseable.ASYNC)
+            .then(sink::tryEmitComplete)
+            .verifyComplete();
+        assertEquals(1, finished.size());
+        assertNull(errors.get(0));
+    }
+
+    @Test
+    public void refuseSyncFusion() {
+        StepVerifier.create(wrap(Mono.empty()))
+            .expectFusion(Fuseable.SYNC, Fuseable.NONE)
+            .verifyComplete();
+        assertEquals(1, finished.size());
+    }
+
+    @Test
+    public void finishOnceWhenFusedPollFails() {
+        IllegalStateException error = new IllegalStateException("failed");
+        Sinks.Many<String> sink = Sinks.many().unicast().onBackpressureBuffer();
+        Mono<Void> source = Mono.fromDirect(sink.asFlux().<Void>map(value -> {
+            throw error;
+        }));
+        StepVerifier.create(wrap(source))
+            .expectFusion(Fuseable.ASYNC)
+            .then(() -> sink.tryEmitNext("value"))
+            .verifyErrorMatches(e -> e == error);
+        assertEquals(1, finished.size());
+        assertSame(error, errors.get(0));
+    }
+
+    @Test
+    public void mergeWrappersOfSameMethod() {
+        Mono<Void> source = Mono.<Void>empty().hide();
+        AgentMono first = new AgentMono(source, methodInfo, null, finish("first"));
+        AgentMono second = new AgentMono(first, methodInfo, null, finish("second"));
+        assertSame(source, second.scan(Scannable.Attr.PARENT));
+
+        StepVerifier.create(second).verifyComplete();
+        assertEquals(2, finished.size());
+        assertEquals("second", finished.get(0));
+        assertEquals("first", finished.get(1));
+    }
+}
@@ -24,28 +24,34 @@ import com.megaease.easeagent.plugin.springweb.interceptor.tracing.WebClientFilt
 import org.reactivestreams.Subscription;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import reactor.core.CoreSubscriber;
+import reactor.core.Scannable;
+import reactor.core.publisher.Operators;
 
 import javax.annotation.Nonnull;
-import java.util.ArrayList;
-import java.util.List;
 
-public class AgentCoreSubscriber implements CoreSubscriber<ClientResponse> {
+/**
+ * Passes the response of the WebClient through, keeping only the first one for the span finished at termination.
+ *
+ * <p>It does not take part in a fusion: the response and the termination then arrive on different threads,
+ * while as a plain subscriber they are signalled in order.
+ */
+public class AgentCoreSubscriber implements CoreSubscriber<ClientResponse>, Subscription, Scannable {
 
-    private final CoreSubscriber<ClientResponse> actual;
+    private final CoreSubscriber<? super ClientResponse> actual;
     private final MethodInfo methodInfo;
-    // private final Integer chain;
     private final RequestContext requestContext;
-    private final List<ClientResponse> results = new ArrayList<>();
+    private Subscription s;
+    private ClientResponse response;
+    private boolean done;
 
-    @SuppressWarnings("unchecked")
     public AgentCoreSubscriber(CoreSubscriber<? super ClientResponse> actual, MethodInfo methodInfo,
                                RequestContext context) {
-        this.actual = (CoreSubscriber<ClientResponse>)actual;
+        this.actual = actual;
         this.methodInfo = methodInfo;
-        // this.chain = chain;
         this.requestContext = context;
     }
 
+    @Nonnull
     @Override
     public reactor.util.context.Context currentContext() {
         return actual.currentContext();
@@ -53,37 +59,46 @@ public class AgentCoreSubscriber implements CoreSubscriber<ClientResponse> {
 
     @Override
     public void onSubscribe(@Nonnull Subscription s) {
-        actual.onSubscribe(s);
+        if (Operators.validate(this.s, s)) {
+            this.s = s;
+            actual.onSubscribe(this);
+        }
     }
 
     @Override
     public void onNext(ClientResponse t) {
+        if (response == null) {
+            response = t;
+        }
         actual.onNext(t);
-        results.add(t);
     }
 
     @Override
     public void onError(Throwable t) {
+        if (done) {
+            Operators.onErrorDropped(t, actual.currentContext());
+            return;
+        }
+        done = true;
         actual.onError(t);
         methodInfo.setThrowable(t);
         finish();
-        // EaseAgent.dispatcher.exit(chain, methodInfo, getContext(), results, t);
     }
 
     @Override
     public void onComplete() {
+        if (done) {
+            return;
+        }
+        done = true;
         actual.onComplete();
-        methodInfo.setRetValue(results);
         finish();
     }
 
     private void finish() {
         if (methodInfo.isSuccess()) {
-            WebClientResponse webClientResponse;
-            if (results.size() > 0) {
-                ClientResponse resp = results.get(0);
-                webClientResponse = new WebClientResponse(null, resp);
-                this.requestContext.finish(webClientResponse);
+            if (response != null) {
+                this.requestContext.finish(new WebClientResponse(null, response));
             }
         } else {
             Span span = requestContext.span();
@@ -91,4 +106,28 @@ public class AgentCoreSubscriber implements CoreSubscriber<ClientResponse> {
             span.finish();
         }
     }
+
+    @Override
+    public void request(long n) {
+        s.request(n);
+    }
+
+    @Override
+    public void cancel() {
+        s.cancel();
+    }
+
+    @Override
+    public Object scanUnsafe(@Nonnull Attr key) {
+        if (key == Attr.PARENT) {
+            return s;
+        }
+        if (key == Attr.ACTUAL) {
+            return actual;
+        }
+        if (key == Attr.TERMINATED) {
+            return done;
+        }
+        return null;
+    }
 }
@@ -22,16 +22,16 @@ import com.megaease.easeagent.plugin.api.context.RequestContext;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import reactor.core.CoreSubscriber;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoOperator;
 
 import javax.annotation.Nonnull;
 
-public class AgentMono extends Mono<ClientResponse> {
-    private final Mono<ClientResponse> source;
+public class AgentMono extends MonoOperator<ClientResponse, ClientResponse> {
     private final MethodInfo methodInfo;
     private final RequestContext context;
 
     public AgentMono(Mono<ClientResponse> source, MethodInfo methodInfo, RequestContext context) {
-        this.source = source;
+        super(source);
         this.methodInfo = methodInfo;
         this.context = context;
     }
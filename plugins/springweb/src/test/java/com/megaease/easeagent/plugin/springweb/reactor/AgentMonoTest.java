@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.plugin.springweb.reactor;
+
+import com.megaease.easeagent.plugin.MethodInfo;
+import com.megaease.easeagent.plugin.api.context.RequestContext;
+import com.megaease.easeagent.plugin.api.trace.Span;
+import com.megaease.easeagent.plugin.springweb.interceptor.tracing.WebClientFilterTracingInterceptor.WebClientResponse;
+import org.junit.Test;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AgentMonoTest {
+    private final MethodInfo methodInfo = MethodInfo.builder().build();
+    private final List<Object> finished = new ArrayList<>();
+    private final List<String> spanCalls = new ArrayList<>();
+    private final Span span = recorder(Span.class, spanCalls);
+    private final RequestContext requestContext = (RequestContext) Proxy.newProxyInstance(
+        getClass().getClassLoader(), new Class<?>[]{RequestContext.class}, (proxy, method, args) -> {
+            if (method.getName().equals("finish")) {
+                finished.add(args[0]);
+            }
+            return method.getName().equals("span") ? span : null;
+        });
+    private final ClientResponse response = recorder(ClientResponse.class, new ArrayList<>());
+
+    /**
+     * Records the methods called, returning itself from the fluent ones.
+     */
+    private static <T> T recorder(Class<T> type, List<String> calls) {
+        Object[] self = new Object[1];
+        self[0] = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return type.getSimpleName();
+                default:
+                    calls.add(method.getName());
+            }
+            return method.getReturnType() == type ? self[0] : null;
+        });
+        return type.cast(self[0]);
+    }
+
+    private Mono<ClientResponse> wrap(Mono<ClientResponse> source) {
+        return new AgentMono(source, methodInfo, requestContext);
+    }
+
+    private void verifyFinishedWithResponse() {
+        assertEquals(1, finished.size());
+        assertTrue(finished.get(0) instanceof WebClientResponse);
+        assertFalse(spanCalls.contains("finish"));
+    }
+
+    @Test
+    public void finishWithResponse() {
+        StepVerifier.create(wrap(Mono.just(response).hide()))
+            .expectNoFusionSupport()
+            .expectNext(response)
+            .verifyComplete();
+        verifyFinishedWithResponse();
+    }
+
+    @Test
+    public void finishSpanOnError() {
+        IllegalStateException error = new IllegalStateException("failed");
+        StepVerifier.create(wrap(Mono.<ClientResponse>error(error).hide()))
+            .verifyErrorMatches(e -> e == error);
+        assertTrue(finished.isEmpty());
+        assertEquals(2, spanCalls.size());
+        assertEquals("error", spanCalls.get(0));
+        assertEquals("finish", spanCalls.get(1));
+    }
+
+    @Test
+    public void refuseFusionOfFusedSource() {
+        StepVerifier.create(wrap(Mono.just(response)))
+            .expectNoFusionSupport()
+            .expectNext(response)
+            .verifyComplete();
+        verifyFinishedWithResponse();
+    }
+
+    @Test
+    public void finishWithResponseOfAsyncSource() throws InterruptedException {
+        // a source which would fuse asynchronously, with the response and the completion from another thread
+        Sinks.Many<ClientResponse> sink = Sinks.many().unicast().onBackpressureBuffer();
+        Thread emitter = new Thread(() -> {
+            sink.tryEmitNext(response);
+            sink.tryEmitComplete();
+        });
+        StepVerifier.create(wrap(Mono.fromDirect(sink.asFlux())))
+            .expectNoFusionSupport()
+            .then(emitter::start)
+            .expectNext(response)
+            .verifyComplete();
+        emitter.join();
+        verifyFinishedWithResponse();
+    }
+}
@@ -77,6 +77,7 @@ public class RefreshableReporter<S> implements Reporter<S> {
                     KafkaSender.newBuilder()
                             .bootstrapServers(agentOutputProperties.getServers())
                             .topic(traceProperties.getOutput().getTopic())
+                            .overrides(SDKKafkaSender.producerOverrides(traceProperties))
                             .messageMaxBytes(traceProperties.getOutput().getMessageMaxBytes())
                             .encoding(Encoding.JSON)
                             .build());
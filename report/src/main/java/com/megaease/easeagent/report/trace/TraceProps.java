@@ -24,6 +24,8 @@ import com.megaease.easeagent.plugin.api.config.AutoRefreshConfigImpl;
 import com.megaease.easeagent.plugin.api.config.AutoRefreshRegistry;
 import com.megaease.easeagent.plugin.api.config.ConfigConst;
 
+import java.io.File;
+
 import static com.megaease.easeagent.plugin.api.config.ConfigConst.Observability.*;
 
 public interface TraceProps {
@@ -47,6 +49,18 @@ public interface TraceProps {
         long getMessageTimeout();
 
         int getQueuedMaxSize();
+
+        int getBatchSize();
+
+        long getLingerMs();
+
+        boolean isSpillEnabled();
+
+        String getSpillDir();
+
+        long getSpillMaxSize();
+
+        long getSpillMaxAge();
     }
 
     static TraceProps newDefault(Configs configs) {
@@ -81,6 +95,12 @@ public interface TraceProps {
             private volatile int queuedMaxSpans;
             private volatile int queuedMaxSize;
             private volatile int messageTimeout;
+            private volatile int batchSize;
+            private volatile long lingerMs;
+            private volatile boolean spillEnabled;
+            private volatile String spillDir;
+            private volatile long spillMaxSize;
+            private volatile long spillMaxAge;
 
             public KafkaOutputPropsImpl(Configs configs) {
                 ConfigUtils.bindProp(TRACE_OUTPUT_ENABLED, configs, Config::getBoolean, v -> this.enabled = v);
@@ -90,6 +110,13 @@ public interface TraceProps {
                 ConfigUtils.bindProp(TRACE_OUTPUT_QUEUED_MAX_SPANS, configs, Config::getInt, v -> this.queuedMaxSpans = v);
                 ConfigUtils.bindProp(TRACE_OUTPUT_QUEUED_MAX_SIZE, configs, Config::getInt, v -> this.queuedMaxSize = v);
                 ConfigUtils.bindProp(TRACE_OUTPUT_MESSAGE_TIMEOUT, configs, Config::getInt, v -> this.messageTimeout = v);
+                ConfigUtils.bindProp(TRACE_OUTPUT_BATCH_SIZE, configs, Config::getInt, v -> this.batchSize = v, 0);
+                ConfigUtils.bindProp(TRACE_OUTPUT_LINGER_MS, configs, Config::getLong, v -> this.lingerMs = v, 0L);
+                ConfigUtils.bindProp(TRACE_OUTPUT_SPILL_ENABLED, configs, Config::getBoolean, v -> this.spillEnabled = v, false);
+                ConfigUtils.bindProp(TRACE_OUTPUT_SPILL_DIR, configs, Config::getString, v -> this.spillDir = v,
+                    new File(System.getProperty("java.io.tmpdir"), "easeagent-spans").getPath());
+                ConfigUtils.bindProp(TRACE_OUTPUT_SPILL_MAX_SIZE, configs, Config::getLong, v -> this.spillMaxSize = v, 64L * 1024 * 1024);
+                ConfigUtils.bindProp(TRACE_OUTPUT_SPILL_MAX_AGE, configs, Config::getLong, v -> this.spillMaxAge = v, 600_000L);
             }
 
             @Override
@@ -126,6 +153,36 @@ public interface TraceProps {
             public int getQueuedMaxSize() {
                 return this.queuedMaxSize;
             }
+
+            @Override
+            public int getBatchSize() {
+                return this.batchSize;
+            }
+
+            @Override
+            public long getLingerMs() {
+                return this.lingerMs;
+            }
+
+            @Override
+            public boolean isSpillEnabled() {
+                return this.spillEnabled;
+            }
+
+            @Override
+            public String getSpillDir() {
+                return this.spillDir;
+            }
+
+            @Override
+            public long getSpillMaxSize() {
+                return this.spillMaxSize;
+            }
+
+            @Override
+            public long getSpillMaxAge() {
+                return this.spillMaxAge;
+            }
         }
     }
 }
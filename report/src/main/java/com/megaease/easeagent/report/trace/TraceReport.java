@@ -18,6 +18,8 @@
 package com.megaease.easeagent.report.trace;
 
 import com.megaease.easeagent.config.*;
+import com.megaease.easeagent.log4j2.Logger;
+import com.megaease.easeagent.log4j2.LoggerFactory;
 import com.megaease.easeagent.plugin.api.config.ConfigConst;
 import com.megaease.easeagent.report.OutputProperties;
 import com.megaease.easeagent.report.util.Utils;
@@ -35,12 +37,15 @@ import zipkin2.reporter.kafka11.KafkaSender;
 import zipkin2.reporter.kafka11.SDKKafkaSender;
 import zipkin2.reporter.kafka11.SimpleSender;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 public class TraceReport {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TraceReport.class);
 
     private final RefreshableReporter<Span> spanRefreshableReporter;
 
@@ -72,6 +77,7 @@ public class TraceReport {
                     .bootstrapServers(outputProperties.getServers())
                     .topic(traceProperties.getOutput().getTopic())
                     .overrides(sslConfig)
+                    .overrides(SDKKafkaSender.producerOverrides(traceProperties))
                     .encoding(Encoding.JSON)
                     .messageMaxBytes(traceProperties.getOutput().getMessageMaxBytes())
                     .build());
@@ -98,6 +104,15 @@ public class TraceReport {
                     .queuedMaxBytes(traceProperties.getOutput().getQueuedMaxSize()),
                 traceProperties,
                 extrasSupplier);
+        if (traceProperties.getOutput().isSpillEnabled()) {
+            String dir = traceProperties.getOutput().getSpillDir();
+            try {
+                reporter.spillTo(new File(dir), traceProperties.getOutput().getSpillMaxSize(),
+                    traceProperties.getOutput().getSpillMaxAge());
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("Spans which fail to send are dropped, can't spill them to {}: {}", dir, e.getMessage());
+            }
+        }
         reporter.startFlushThread();
         spanRefreshableReporter = new RefreshableReporter<>(reporter, traceProperties, outputProperties);
         return spanRefreshableReporter;
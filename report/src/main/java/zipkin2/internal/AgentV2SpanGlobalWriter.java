@@ -19,11 +19,8 @@ package zipkin2.internal;
 
 import com.megaease.easeagent.report.trace.TraceProps;
 import com.megaease.easeagent.report.util.TextUtils;
-import org.apache.commons.lang3.mutable.MutableInt;
 import zipkin2.Span;
 
-import java.util.Optional;
-
 public class AgentV2SpanGlobalWriter implements WriteBuffer.Writer<Span> {
 
     final String type;
@@ -43,48 +40,50 @@ public class AgentV2SpanGlobalWriter implements WriteBuffer.Writer<Span> {
 
     @Override
     public int sizeInBytes(Span value) {
-        final MutableInt mutableInt = new MutableInt(0);
-        Optional.ofNullable(traceProperties).ifPresent(t -> {
-            if (TextUtils.hasText(type)) {
-                mutableInt.add(typeFieldName.length() + 1);
-                mutableInt.add(JsonEscaper.jsonEscapedSizeInBytes(type));
-            }
+        if (traceProperties == null) {
+            return 0;
+        }
+        int sizeInBytes = 0;
+        if (TextUtils.hasText(type)) {
+            sizeInBytes += typeFieldName.length() + 1;
+            sizeInBytes += JsonEscaper.jsonEscapedSizeInBytes(type);
+        }
 
-            String tmpService = this.extras.service();
-            if (TextUtils.hasText(tmpService)) {
-                mutableInt.add(serviceFieldName.length() + 1);
-                mutableInt.add(JsonEscaper.jsonEscapedSizeInBytes(tmpService));
-            }
+        String tmpService = this.extras.service();
+        if (TextUtils.hasText(tmpService)) {
+            sizeInBytes += serviceFieldName.length() + 1;
+            sizeInBytes += JsonEscaper.jsonEscapedSizeInBytes(tmpService);
+        }
 
-            String tmpSystem = this.extras.system();
-            if (TextUtils.hasText(tmpSystem)) {
-                mutableInt.add(systemFieldName.length() + 1);
-                mutableInt.add(JsonEscaper.jsonEscapedSizeInBytes(tmpSystem));
-            }
-        });
-        return mutableInt.intValue();
+        String tmpSystem = this.extras.system();
+        if (TextUtils.hasText(tmpSystem)) {
+            sizeInBytes += systemFieldName.length() + 1;
+            sizeInBytes += JsonEscaper.jsonEscapedSizeInBytes(tmpSystem);
+        }
+        return sizeInBytes;
     }
 
     @Override
     public void write(Span value, WriteBuffer buffer) {
-        Optional.ofNullable(traceProperties).ifPresent(t -> {
-            if (TextUtils.hasText(type)) {
-                buffer.writeAscii(typeFieldName);
-                buffer.writeUtf8(JsonEscaper.jsonEscape(type));
-                buffer.writeByte(34);
-            }
-            String tmpService = this.extras.service();
-            if (TextUtils.hasText(tmpService)) {
-                buffer.writeAscii(serviceFieldName);
-                buffer.writeUtf8(JsonEscaper.jsonEscape(tmpService));
-                buffer.writeByte(34);
-            }
-            String tmpSystem = this.extras.system();
-            if (TextUtils.hasText(tmpSystem)) {
-                buffer.writeAscii(systemFieldName);
-                buffer.writeUtf8(JsonEscaper.jsonEscape(tmpSystem));
-                buffer.writeByte(34);
-            }
-        });
+        if (traceProperties == null) {
+            return;
+        }
+        if (TextUtils.hasText(type)) {
+            buffer.writeAscii(typeFieldName);
+            buffer.writeUtf8(JsonEscaper.jsonEscape(type));
+            buffer.writeByte(34);
+        }
+        String tmpService = this.extras.service();
+        if (TextUtils.hasText(tmpService)) {
+            buffer.writeAscii(serviceFieldName);
+            buffer.writeUtf8(JsonEscaper.jsonEscape(tmpService));
+            buffer.writeByte(34);
+        }
+        String tmpSystem = this.extras.system();
+        if (TextUtils.hasText(tmpSystem)) {
+            buffer.writeAscii(systemFieldName);
+            buffer.writeUtf8(JsonEscaper.jsonEscape(tmpSystem));
+            buffer.writeByte(34);
+        }
     }
 }
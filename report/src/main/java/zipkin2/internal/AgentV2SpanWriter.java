@@ -19,14 +19,24 @@ package zipkin2.internal;
 
 import com.google.common.collect.ImmutableList;
 import com.megaease.easeagent.report.trace.TraceProps;
-import org.apache.commons.lang3.mutable.MutableInt;
+import zipkin2.Annotation;
+import zipkin2.Endpoint;
 import zipkin2.Span;
 
 import java.util.Collection;
+import java.util.Map;
 
 public class AgentV2SpanWriter implements WriteBuffer.Writer<Span> {
 
+    // field names, ids, kind, timestamp and duration of a span
+    static final int ESTIMATED_FIXED_SIZE = 128;
+    // ip and port of an endpoint
+    static final int ESTIMATED_ENDPOINT_SIZE = 80;
+    static final int ESTIMATED_ANNOTATION_SIZE = 48;
+    static final int ESTIMATED_FIELD_SIZE = 16;
+
     public final Collection<WriteBuffer.Writer<Span>> writerList;
+    final AgentV2SpanGlobalWriter globalWriter;
 
     @Deprecated
     public AgentV2SpanWriter() {
@@ -44,32 +54,68 @@ public class AgentV2SpanWriter implements WriteBuffer.Writer<Span> {
     }
 
     public AgentV2SpanWriter(GlobalExtrasSupplier extrasSupplier, TraceProps properties) {
+        globalWriter = new AgentV2SpanGlobalWriter("log-tracing", extrasSupplier, properties);
         writerList = ImmutableList.<WriteBuffer.Writer<Span>>builder()
                 .add(new AgentV2SpanBaseWriter())
                 .add(new AgentV2SpanLocalEndpointWriter())
                 .add(new AgentV2SpanRemoteEndpointWriter())
                 .add(new AgentV2SpanAnnotationsWriter())
                 .add(new AgentV2SpanTagsWriter())
-                .add(new AgentV2SpanGlobalWriter("log-tracing", extrasSupplier, properties))
+                .add(globalWriter)
                 .build();
     }
 
 
     public int sizeInBytes(Span value) {
-        final MutableInt size = new MutableInt(1); // 1 byte for first {
-        writerList.forEach(w -> {
-            size.add(w.sizeInBytes(value));
-        });
-        size.add(1); // 1 byte for last }
-        return size.intValue();
+        int size = 1; // 1 byte for first {
+        for (WriteBuffer.Writer<Span> w : writerList) {
+            size += w.sizeInBytes(value);
+        }
+        size += 1; // 1 byte for last }
+        return size;
+    }
+
+    /**
+     * Estimates the encoded size from string lengths only, without walking the JSON escaping like
+     * {@link #sizeInBytes(Span)} does. Cheap enough to be called on the reporting thread.
+     */
+    public int estimatedSizeInBytes(Span value) {
+        int size = ESTIMATED_FIXED_SIZE + value.traceId().length() + value.id().length();
+        if (value.parentId() != null) {
+            size += ESTIMATED_FIELD_SIZE + value.parentId().length();
+        }
+        if (value.name() != null) {
+            size += value.name().length();
+        }
+        size += estimatedSizeInBytes(value.localEndpoint());
+        size += estimatedSizeInBytes(value.remoteEndpoint());
+        for (Annotation a : value.annotations()) {
+            size += ESTIMATED_ANNOTATION_SIZE + a.value().length();
+        }
+        if (!value.tags().isEmpty()) {
+            size += ESTIMATED_FIELD_SIZE;
+            for (Map.Entry<String, String> entry : value.tags().entrySet()) {
+                size += ESTIMATED_FIELD_SIZE + entry.getKey().length() + entry.getValue().length();
+            }
+        }
+        size += globalWriter.sizeInBytes(value);
+        return size;
+    }
+
+    private static int estimatedSizeInBytes(Endpoint endpoint) {
+        if (endpoint == null) {
+            return 0;
+        }
+        String serviceName = endpoint.serviceName();
+        return ESTIMATED_ENDPOINT_SIZE + (serviceName == null ? 0 : serviceName.length());
     }
 
     @Override
     public void write(Span value, WriteBuffer buffer) {
         buffer.writeByte(123); //write '{'
-        writerList.forEach(w -> {
+        for (WriteBuffer.Writer<Span> w : writerList) {
             w.write(value, buffer);
-        });
+        }
         buffer.writeByte(125); // write last '}'
     }
 
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package zipkin2.reporter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Multi-producer ring buffer of spans, bounded both by count and by bytes, replacing the lock based
+ * {@link ByteBoundedQueue}.
+ *
+ * <p>A reporting thread claims a slot with a CAS on the tail sequence and publishes it through the
+ * sequence of the slot, so producers never wait on a lock. Flush threads drain the published spans
+ * in batches; they are only serialized among themselves, as the reporter can run several of them.
+ *
+ * <p>A waiting flush thread is only woken once a batch of spans is pending, otherwise at the end of
+ * its timeout: spans are sent per message anyway, and unparking it for every span would cost the
+ * reporting thread a system call each time.
+ *
+ * <p>A queue which is replaced is {@link #closeIfEmpty() closed} once drained, so that a reporting
+ * thread which still offers to it is told to offer to the new queue instead of leaving its span there.
+ */
+final class RingBufferSpanQueue<S> implements SpanWithSizeConsumer<S> {
+    private static final SpanWithSizeConsumer<Object> DISCARD = (next, nextSizeInBytes) -> true;
+    private static final int WAKE_UP_BATCH = 64;
+    // the tail of a closed queue, which no slot is claimed at
+    private static final long CLOSED = -1;
+
+    final int maxSize;
+    final int maxBytes;
+    private final int capacity;
+    private final int mask;
+    private final int wakeUpCount;
+    private final Object[] elements;
+    private final int[] sizesInBytes;
+    // sequence of each slot: equals the position when free, position + 1 when published
+    private final AtomicLongArray sequences;
+    private final PaddedAtomicLong tail = new PaddedAtomicLong();
+    private final PaddedAtomicLong head = new PaddedAtomicLong();
+    private final PaddedAtomicLong bytes = new PaddedAtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final ReentrantLock consumerLock = new ReentrantLock();
+    private volatile Thread waiter;
+
+    RingBufferSpanQueue(int maxSize, int maxBytes) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.maxBytes = maxBytes;
+        this.capacity = maxSize == 1 ? 1 : Integer.highestOneBit(maxSize - 1) << 1;
+        this.mask = capacity - 1;
+        this.wakeUpCount = Math.max(1, Math.min(WAKE_UP_BATCH, maxSize >> 1));
+        this.elements = new Object[capacity];
+        this.sizesInBytes = new int[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Returns true if the element could be added or false if it could not due to its size.
+     */
+    @Override
+    public boolean offer(S next, int nextSizeInBytes) {
+        // reserve the bytes only while they fit, so that the bytes pending never exceed the bound
+        for (; ; ) {
+            long reserved = bytes.get();
+            if (reserved + nextSizeInBytes > maxBytes) {
+                dropped.increment();
+                return false;
+            }
+            if (bytes.compareAndSet(reserved, reserved + nextSizeInBytes)) {
+                break;
+            }
+        }
+        long pos;
+        int index;
+        for (; ; ) {
+            pos = tail.get();
+            if (pos == CLOSED) {
+                bytes.addAndGet(-nextSizeInBytes);
+                return false;
+            }
+            index = (int) pos & mask;
+            long sequence = sequences.get(index);
+            if (sequence == pos) {
+                if (pos - head.get() >= maxSize) {
+                    return drop(nextSizeInBytes);
+                }
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+            } else if (sequence < pos) {
+                // the slot of the previous round is not consumed yet
+                return drop(nextSizeInBytes);
+            }
+        }
+        elements[index] = next;
+        sizesInBytes[index] = nextSizeInBytes;
+        // a full fence, so that a consumer about to park either sees the span or is seen as waiter
+        sequences.set(index, pos + 1);
+        Thread consumer = waiter;
+        if (consumer != null && pos + 1 - head.get() >= wakeUpCount) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    private boolean drop(int nextSizeInBytes) {
+        bytes.addAndGet(-nextSizeInBytes);
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * Blocks for up to nanosTimeout for a batch of spans to appear. Then, consume as many as possible.
+     */
+    int drainTo(SpanWithSizeConsumer<S> consumer, long nanosTimeout) {
+        long deadline = System.nanoTime() + nanosTimeout;
+        try {
+            if (!consumerLock.tryLock(nanosTimeout, TimeUnit.NANOSECONDS)) {
+                return 0;
+            }
+        } catch (InterruptedException e) {
+            return 0;
+        }
+        try {
+            while (!isPublished(head.get())) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return 0;
+                }
+                waiter = Thread.currentThread();
+                if (!isPublished(head.get())) {
+                    LockSupport.parkNanos(this, remaining);
+                }
+                waiter = null;
+                if (Thread.interrupted()) {
+                    return 0;
+                }
+            }
+            return doDrain(consumer);
+        } finally {
+            consumerLock.unlock();
+        }
+    }
+
+    /**
+     * Clears the queue unconditionally and returns count of spans cleared.
+     */
+    @SuppressWarnings("unchecked")
+    int clear() {
+        consumerLock.lock();
+        try {
+            return doDrain((SpanWithSizeConsumer<S>) DISCARD);
+        } finally {
+            consumerLock.unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private int doDrain(SpanWithSizeConsumer<S> consumer) {
+        long pos = head.get();
+        int drained = 0;
+        long drainedBytes = 0;
+        while (isPublished(pos)) {
+            int index = (int) pos & mask;
+            int size = sizesInBytes[index];
+            if (!consumer.offer((S) elements[index], size)) {
+                break;
+            }
+            elements[index] = null;
+            sequences.lazySet(index, pos + capacity);
+            pos++;
+            drained++;
+            drainedBytes += size;
+        }
+        if (drained > 0) {
+            head.lazySet(pos);
+            bytes.addAndGet(-drainedBytes);
+        }
+        return drained;
+    }
+
+    private boolean isPublished(long pos) {
+        return sequences.get((int) pos & mask) == pos + 1;
+    }
+
+    /**
+     * Closes the queue if no span is left or being added, after which {@link #offer} returns false.
+     */
+    boolean closeIfEmpty() {
+        long pos = tail.get();
+        return pos == CLOSED || (pos == head.get() && tail.compareAndSet(pos, CLOSED));
+    }
+
+    boolean isClosed() {
+        return tail.get() == CLOSED;
+    }
+
+    int count() {
+        long consumed = head.get();
+        return (int) (tail.get() - consumed);
+    }
+
+    int sizeInBytes() {
+        return (int) bytes.get();
+    }
+
+    long droppedSpans() {
+        return dropped.sum();
+    }
+
+    /**
+     * Keeps the hot sequences of producers and consumers off each other's cache line.
+     */
+    @SuppressWarnings("unused")
+    static final class PaddedAtomicLong extends AtomicLong {
+        long p1, p2, p3, p4, p5, p6, p7;
+    }
+}
@@ -28,11 +28,14 @@ import zipkin2.codec.SpanBytesEncoder;
 import zipkin2.internal.AgentV2SpanWriter;
 import zipkin2.internal.GlobalExtrasSupplier;
 import zipkin2.internal.JsonCodec;
+import zipkin2.internal.WriteBuffer;
 import zipkin2.reporter.kafka11.SDKSender;
 
+import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadFactory;
@@ -47,9 +50,16 @@ import static java.util.logging.Level.WARNING;
 
 public class SDKAsyncReporter<S> extends AsyncReporter<S> {
     static final Logger logger = Logger.getLogger(BoundedAsyncReporter.class.getName());
+    // a spilled message is as large as a live one, so replaying is limited to keep up with the live spans
+    static final int REPLAY_MESSAGES_PER_FLUSH = 4;
+    static final int SPILL_SEGMENT_BYTES = 8 * 1024 * 1024;
     final AtomicBoolean closed = new AtomicBoolean(false);
     final BytesEncoder<S> encoder;
-    ByteBoundedQueue<S> pending;
+    volatile RingBufferSpanQueue<S> pending;
+    // the queues replaced by setPending, oldest first, drained by the flush threads before the current one
+    final Queue<RingBufferSpanQueue<S>> retired = new ConcurrentLinkedQueue<>();
+    // spans are encoded into the message of each flush thread directly, without an array per span
+    final ThreadLocal<SpanBatch> batches;
     final int messageMaxBytes;
     long messageTimeoutNanos;
     final long closeTimeoutNanos;
@@ -57,6 +67,7 @@ public class SDKAsyncReporter<S> extends AsyncReporter<S> {
     final ReporterMetrics metrics;
     final TracerConverter tracerConverter;
     Sender sender;
+    volatile SpanSpillLog spillLog;
     TraceProps traceProperties;
     ThreadFactory threadFactory;
 
@@ -68,7 +79,7 @@ public class SDKAsyncReporter<S> extends AsyncReporter<S> {
     List<Thread> flushThreads;
 
     SDKAsyncReporter(Builder builder, BytesEncoder<S> encoder, TraceProps traceProperties) {
-        this.pending = new ByteBoundedQueue<>(builder.getBuilder().queuedMaxSpans, builder.getBuilder().queuedMaxBytes);
+        this.pending = new RingBufferSpanQueue<>(builder.getBuilder().queuedMaxSpans, builder.getBuilder().queuedMaxBytes);
         this.sender = builder.getBuilder().sender;
         this.messageMaxBytes = builder.getBuilder().messageMaxBytes;
         this.messageTimeoutNanos = builder.getBuilder().messageTimeoutNanos;
@@ -76,6 +87,7 @@ public class SDKAsyncReporter<S> extends AsyncReporter<S> {
         this.close = new CountDownLatch(builder.getBuilder().messageTimeoutNanos > 0 ? 1 : 0);
         this.metrics = builder.getBuilder().metrics;
         this.encoder = encoder;
+        this.batches = ThreadLocal.withInitial(() -> new SpanBatch(encoder.encoding()));
         this.tracerConverter = builder.getTracerConverter();
         this.traceProperties = traceProperties;
     }
@@ -109,25 +121,30 @@ public class SDKAsyncReporter<S> extends AsyncReporter<S> {
     }
 
     public void setPending(int queuedMaxSpans, int queuedMaxBytes) {
-        ByteBoundedQueue<S> copyPending = this.pending;
-        this.pending = new ByteBoundedQueue<>(queuedMaxSpans, queuedMaxBytes);
-        consumerData(copyPending);
+        RingBufferSpanQueue<S> previous = this.pending;
+        this.pending = new RingBufferSpanQueue<>(queuedMaxSpans, queuedMaxBytes);
+        // kept until drained, even when it is replaced again before that
+        retired.add(previous);
     }
 
 
-    private void consumerData(final ByteBoundedQueue<S> copyPending) {
-        Thread flushThread = this.threadFactory.newThread((() -> {
-            final BufferNextMessage<S> bufferNextMessage = BufferNextMessage.create(encoder.encoding(), messageMaxBytes, 0);
-            while (copyPending.count > 0) {
-                flush(bufferNextMessage, copyPending);
-            }
-        }));
-        flushThread.setName("TempAsyncReporter{" + this.sender + "}");
-        flushThread.setDaemon(true);
-        flushThread.start();
+    /**
+     * Spills the messages which fail to send to memory-mapped segments in {@code dir} instead of
+     * dropping them, and replays them once the sender succeeds again.
+     *
+     * @param maxBytes     maximum bytes of the spilled spans on disk, the oldest are dropped beyond it
+     * @param maxAgeMillis spilled spans older than it are dropped instead of replayed
+     */
+    public void spillTo(File dir, long maxBytes, long maxAgeMillis) throws IOException {
+        // a segment holds at least one message of spans, with the sizes prefixed instead of the separators
+        int segmentBytes = (int) Math.min(Integer.MAX_VALUE, Math.max(SPILL_SEGMENT_BYTES, 2L * messageMaxBytes));
+        SpanSpillLog previous = this.spillLog;
+        this.spillLog = new SpanSpillLog(dir, segmentBytes, maxBytes, maxAgeMillis, metrics::incrementSpansDropped);
+        if (previous != null) {
+            previous.close();
+        }
     }
 
-
     public void setMessageTimeoutNanos(long messageTimeoutNanos) {
         this.messageTimeoutNanos = messageTimeoutNanos;
     }
@@ -147,17 +164,36 @@ public class SDKAsyncReporter<S> extends AsyncReporter<S> {
         }
 
         metrics.incrementSpans(1);
-        int nextSizeInBytes = encoder.sizeInBytes(next);
+        // the span is encoded only once by the flusher, so the queue is bounded by an estimate
+        int nextSizeInBytes = estimatedSizeInBytes(next);
         int messageSizeOfNextSpan = sender.messageSizeInBytes(nextSizeInBytes);
-        metrics.incrementSpanBytes(nextSizeInBytes);
         if (closed.get() ||
                 // don't enqueue something larger than we can drain
                 messageSizeOfNextSpan > messageMaxBytes ||
-                !pending.offer(next, nextSizeInBytes)) {
+                !offer(next, nextSizeInBytes, pending)) {
             metrics.incrementSpansDropped(1);
         }
     }
 
+    boolean offer(S next, int nextSizeInBytes, RingBufferSpanQueue<S> queue) {
+        // a queue replaced by setPending is closed once drained, the span then goes to the current one
+        while (!queue.offer(next, nextSizeInBytes)) {
+            if (!queue.isClosed()) {
+                return false;
+            }
+            queue = pending;
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int estimatedSizeInBytes(S next) {
+        if (encoder instanceof Builder.AgentJSONByteEncoder) {
+            return ((Builder.AgentJSONByteEncoder) encoder).estimatedSizeInBytes((Span) next);
+        }
+        return encoder.sizeInBytes(next);
+    }
+
     private boolean isValidSpan(S next) {
         if (!(next instanceof Span)) {
             return false;
@@ -176,67 +212,140 @@ public class SDKAsyncReporter<S> extends AsyncReporter<S> {
     }
 
 
-    void flush(BufferNextMessage<S> bundler, ByteBoundedQueue<S> pending) {
+    void flush(BufferNextMessage<S> bundler, RingBufferSpanQueue<S> pending) {
 
         if (closed.get()) throw new IllegalStateException("closed");
 
+        for (RingBufferSpanQueue<S> retired : this.retired) {
+            retired.drainTo(bundler, 0);
+            if (retired.closeIfEmpty()) {
+                this.retired.remove(retired);
+            }
+        }
         pending.drainTo(bundler, bundler.remainingNanos());
 
         // record after flushing reduces the amount of gauge events vs on doing this on report
-        metrics.updateQueuedSpans(pending.count);
-        metrics.updateQueuedBytes(pending.sizeInBytes);
+        metrics.updateQueuedSpans(pending.count());
+        metrics.updateQueuedBytes(pending.sizeInBytes());
 
         // loop around if we are running, and the bundle isn't full
         // if we are closed, try to send what's pending
         if (!bundler.isReady() && !closed.get()) return;
 
-        // Signal that we are about to send a message of a known size in bytes
-        metrics.incrementMessages();
-        metrics.incrementMessageBytes(bundler.sizeInBytes());
-
         // Create the next message. Since we are outside the lock shared with writers, we can encode
-        ArrayList<byte[]> nextMessage = new ArrayList<>(bundler.count());
+        SpanBatch nextMessage = batches.get();
+        nextMessage.clear();
         bundler.drain(new SpanWithSizeConsumer<S>() {
             @Override
             public boolean offer(S next, int nextSizeInBytes) {
-                nextMessage.add(encoder.encode(next)); // speculatively add to the pending message
-                if (sender.messageSizeInBytes(nextMessage) > messageMaxBytes) {
-                    // if we overran the message size, remove the encoded message.
-                    nextMessage.remove(nextMessage.size() - 1);
-
-                    return false;
+                // speculatively add to the pending message, -1 if the span is larger than a message
+                int encodedSize = encode(next, nextMessage);
+                if (encodedSize >= 0 && nextMessage.messageSizeInBytes() <= messageMaxBytes) {
+                    metrics.incrementSpanBytes(encodedSize);
+                    return true;
+                }
+                // if we overran the message size, remove the encoded span.
+                if (encodedSize >= 0) {
+                    nextMessage.removeLast();
+                }
+                if (nextMessage.isEmpty()) {
+                    // the estimate was too low and the span can never be sent, drop it
+                    if (encodedSize >= 0) {
+                        metrics.incrementSpanBytes(encodedSize);
+                    }
+                    metrics.incrementSpansDropped(1);
+                    return true;
                 }
-                return true;
+                return false;
             }
         });
 
+        if (nextMessage.isEmpty()) {
+            replaySpilled();
+            return;
+        }
+
+        // Signal that we are about to send a message of a known size in bytes
+        metrics.incrementMessages();
+        metrics.incrementMessageBytes(nextMessage.messageSizeInBytes());
+
         try {
 
             sender.sendSpans(nextMessage).execute();
         } catch (IOException | RuntimeException | Error t) {
-            // In failure case, we increment messages and spans dropped.
-            int count = nextMessage.size();
             Call.propagateIfFatal(t);
-            metrics.incrementMessagesDropped(t);
-            metrics.incrementSpansDropped(count);
+            if (!spill(nextMessage)) {
+                dropped(nextMessage.size(), t);
+            }
+
+            // Raise in case the sender was closed out-of-band.
+            if (t instanceof IllegalStateException) throw (IllegalStateException) t;
+            return;
+        }
+        replaySpilled();
+    }
 
-            Level logLevel = FINE;
+    @SuppressWarnings("unchecked")
+    private int encode(S next, SpanBatch batch) {
+        if (encoder instanceof Builder.AgentJSONByteEncoder) {
+            return ((Builder.AgentJSONByteEncoder) encoder).encode((Span) next, batch);
+        }
+        byte[] encoded = encoder.encode(next);
+        batch.add(encoded);
+        return encoded.length;
+    }
 
-            if (shouldWarnException) {
-                logger.log(WARNING, "Spans were dropped due to exceptions. "
-                        + "All subsequent errors will be logged at FINE level.");
-                logLevel = WARNING;
-                shouldWarnException = false;
-            }
+    private boolean spill(List<byte[]> message) {
+        SpanSpillLog spillLog = this.spillLog;
+        if (spillLog == null) {
+            return false;
+        }
+        // the spans dropped by the log are counted by itself
+        spillLog.append(message, System.currentTimeMillis());
+        return true;
+    }
 
-            if (logger.isLoggable(logLevel)) {
-                logger.log(logLevel,
-                        format("Dropped %s spans due to %s(%s)", count, t.getClass().getSimpleName(),
-                                t.getMessage() == null ? "" : t.getMessage()), t);
+    private void replaySpilled() {
+        SpanSpillLog spillLog = this.spillLog;
+        if (spillLog == null || spillLog.count() == 0) {
+            return;
+        }
+        for (int i = 0; i < REPLAY_MESSAGES_PER_FLUSH; i++) {
+            SpanSpillLog.Message message = spillLog.poll(System.currentTimeMillis());
+            if (message == null) {
+                return;
+            }
+            metrics.incrementMessages();
+            metrics.incrementMessageBytes(sender.messageSizeInBytes(message.spans));
+            try {
+                sender.sendSpans(message.spans).execute();
+            } catch (IOException | RuntimeException | Error t) {
+                Call.propagateIfFatal(t);
+                // still failing, it is kept with its age for the next attempt
+                spillLog.append(message.spans, message.timestamp);
+                return;
             }
+        }
+    }
 
-            // Raise in case the sender was closed out-of-band.
-            if (t instanceof IllegalStateException) throw (IllegalStateException) t;
+    private void dropped(int count, Throwable t) {
+        // In failure case, we increment messages and spans dropped.
+        metrics.incrementMessagesDropped(t);
+        metrics.incrementSpansDropped(count);
+
+        Level logLevel = FINE;
+
+        if (shouldWarnException) {
+            logger.log(WARNING, "Spans were dropped due to exceptions. "
+                    + "All subsequent errors will be logged at FINE level.");
+            logLevel = WARNING;
+            shouldWarnException = false;
+        }
+
+        if (logger.isLoggable(logLevel)) {
+            logger.log(logLevel,
+                    format("Dropped %s spans due to %s(%s)", count, t.getClass().getSimpleName(),
+                            t.getMessage() == null ? "" : t.getMessage()), t);
         }
     }
 
@@ -258,10 +367,22 @@ public class SDKAsyncReporter<S> extends AsyncReporter<S> {
             Thread.currentThread().interrupt();
         }
         int count = pending.clear();
+        for (RingBufferSpanQueue<S> retired; (retired = this.retired.poll()) != null; ) {
+            count += retired.clear();
+        }
         if (count > 0) {
             metrics.incrementSpansDropped(count);
             logger.warning("Dropped " + count + " spans due to AsyncReporter.close()");
         }
+        SpanSpillLog spillLog = this.spillLog;
+        if (spillLog != null) {
+            try {
+                // the spilled spans are kept on disk for the next start
+                spillLog.close();
+            } catch (IOException e) {
+                logger.warning("Failed to close the spilled spans: " + e);
+            }
+        }
     }
 
     @Override
@@ -283,6 +404,7 @@ public class SDKAsyncReporter<S> extends AsyncReporter<S> {
                 flushThread.setName("AsyncReporter{" + this.sender + "}");
                 flushThread.setDaemon(true);
                 flushThread.start();
+                flushThreads.add(flushThread);
             }
             this.setFlushThreads(flushThreads);
         }
@@ -393,7 +515,7 @@ public class SDKAsyncReporter<S> extends AsyncReporter<S> {
         }
 
         private BytesEncoder<Span> getAgentEncoder(TraceProps tp, GlobalExtrasSupplier extrasSupplier) {
-            return new AgentJSONByteEncoder( extrasSupplier, tp);
+            return new AgentJSONByteEncoder(extrasSupplier, tp, builder.messageMaxBytes);
         }
 
         /**
@@ -440,12 +562,13 @@ public class SDKAsyncReporter<S> extends AsyncReporter<S> {
             return tracerConverter;
         }
 
-        private static class AgentJSONByteEncoder implements BytesEncoder<Span> {
-
+        static class AgentJSONByteEncoder implements BytesEncoder<Span> {
             final AgentV2SpanWriter writer;
+            final int maxBufferSize;
 
-            AgentJSONByteEncoder(GlobalExtrasSupplier extrasSupplier, TraceProps traceProperties) {
-                writer = new AgentV2SpanWriter( extrasSupplier, traceProperties);
+            AgentJSONByteEncoder(GlobalExtrasSupplier extrasSupplier, TraceProps traceProperties, int maxBufferSize) {
+                this.writer = new AgentV2SpanWriter(extrasSupplier, traceProperties);
+                this.maxBufferSize = maxBufferSize;
             }
 
             @Override
@@ -458,6 +581,10 @@ public class SDKAsyncReporter<S> extends AsyncReporter<S> {
                 return writer.sizeInBytes(input);
             }
 
+            int estimatedSizeInBytes(Span input) {
+                return writer.estimatedSizeInBytes(input);
+            }
+
             @Override
             public byte[] encode(Span span) {
                 return JsonCodec.write(writer, span);
@@ -468,6 +595,24 @@ public class SDKAsyncReporter<S> extends AsyncReporter<S> {
                 return JsonCodec.writeList(writer, spans);
             }
 
+            /**
+             * Encodes the span at the end of the batch.
+             *
+             * @return the size of the encoded span, or -1 if it is larger than a message
+             */
+            int encode(Span span, SpanBatch batch) {
+                int size = writer.sizeInBytes(span);
+                if (size > maxBufferSize) {
+                    return -1;
+                }
+                // the batch is grown to the exact size first, so the span is written straight into it
+                int begin = batch.end();
+                batch.ensureCapacity(begin + size);
+                writer.write(span, WriteBuffer.wrap(batch.buffer, begin));
+                batch.append(begin + size);
+                return size;
+            }
+
             public int encodeList(List<Span> spans, byte[] out, int pos) {
                 return JsonCodec.writeList(writer, spans, out, pos);
             }
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package zipkin2.reporter;
+
+import zipkin2.codec.Encoding;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * The encoded spans of the next message, written back to back into one buffer reused by a flush thread,
+ * instead of one array per span.
+ *
+ * <p>It is a list of the encoded spans for the senders taking them one by one, which copies a span when it
+ * is got. {@link #toMessage()} copies each span once into the message, as the kafka sender does.
+ */
+public final class SpanBatch extends AbstractList<byte[]> implements RandomAccess {
+    static final int INITIAL_BUFFER_SIZE = 4096;
+    static final int INITIAL_SPANS = 64;
+    static final int THRIFT_LIST_HEADER_SIZE = 5;
+    static final byte THRIFT_TYPE_STRUCT = 12;
+
+    final Encoding encoding;
+    byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    int[] ends = new int[INITIAL_SPANS];
+    int count;
+
+    public SpanBatch(Encoding encoding) {
+        this.encoding = encoding;
+    }
+
+    public Encoding encoding() {
+        return encoding;
+    }
+
+    /**
+     * Appends a copy of an encoded span.
+     */
+    public void add(byte[] span, int offset, int length) {
+        int end = end() + length;
+        ensureCapacity(end);
+        System.arraycopy(span, offset, buffer, end(), length);
+        append(end);
+    }
+
+    @Override
+    public boolean add(byte[] span) {
+        add(span, 0, span.length);
+        return true;
+    }
+
+    /**
+     * The position where the next span is written into {@link #buffer}, which the caller grows with
+     * {@link #ensureCapacity(int)} before it calls {@link #append(int)}.
+     */
+    int end() {
+        return count == 0 ? 0 : ends[count - 1];
+    }
+
+    void ensureCapacity(int capacity) {
+        if (capacity > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length << 1));
+        }
+    }
+
+    /**
+     * Adds the span written into {@link #buffer} up to {@code end}.
+     */
+    void append(int end) {
+        if (count == ends.length) {
+            ends = Arrays.copyOf(ends, count << 1);
+        }
+        ends[count++] = end;
+    }
+
+    public void removeLast() {
+        if (count == 0) {
+            throw new IllegalStateException("empty");
+        }
+        count--;
+    }
+
+    @Override
+    public void clear() {
+        count = 0;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    public int sizeInBytes(int index) {
+        checkIndex(index);
+        return ends[index] - (index == 0 ? 0 : ends[index - 1]);
+    }
+
+    @Override
+    public byte[] get(int index) {
+        checkIndex(index);
+        return Arrays.copyOfRange(buffer, index == 0 ? 0 : ends[index - 1], ends[index]);
+    }
+
+    /**
+     * Returns the size of the message of these spans, as {@link Encoding#listSizeInBytes(java.util.List)}.
+     */
+    public int messageSizeInBytes() {
+        int bytes = end();
+        switch (encoding) {
+            case JSON:
+                return 2 + bytes + (count > 1 ? count - 1 : 0);
+            case THRIFT:
+                return THRIFT_LIST_HEADER_SIZE + bytes;
+            default:
+                return bytes;
+        }
+    }
+
+    /**
+     * Returns the message of these spans, as {@link BytesMessageEncoder#encode(java.util.List)}.
+     */
+    public byte[] toMessage() {
+        byte[] message = new byte[messageSizeInBytes()];
+        switch (encoding) {
+            case JSON:
+                message[0] = '[';
+                int pos = 1;
+                int begin = 0;
+                for (int i = 0; i < count; i++) {
+                    if (i > 0) {
+                        message[pos++] = ',';
+                    }
+                    int length = ends[i] - begin;
+                    System.arraycopy(buffer, begin, message, pos, length);
+                    pos += length;
+                    begin = ends[i];
+                }
+                message[pos] = ']';
+                return message;
+            case THRIFT:
+                message[0] = THRIFT_TYPE_STRUCT;
+                message[1] = (byte) (count >>> 24);
+                message[2] = (byte) (count >>> 16);
+                message[3] = (byte) (count >>> 8);
+                message[4] = (byte) count;
+                System.arraycopy(buffer, 0, message, THRIFT_LIST_HEADER_SIZE, end());
+                return message;
+            default:
+                System.arraycopy(buffer, 0, message, 0, end());
+                return message;
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+        }
+    }
+}
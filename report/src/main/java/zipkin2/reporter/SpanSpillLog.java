@@ -0,0 +1,350 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package zipkin2.reporter;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.logging.Logger;
+
+/**
+ * Overflow tier of {@link SDKAsyncReporter}: messages of encoded spans which could not be sent are
+ * appended to memory-mapped segment files on local disk, and replayed in order once the sender
+ * recovers, so traces survive a short outage without being held on the heap.
+ *
+ * <p>A segment is a file of a fixed size, starting with a header of a magic number and the offset
+ * read so far, followed by records of {@code [length][count][timestamp]([size][span])*}. A record
+ * length of zero ends the written part of a segment. The read offset is kept in the segment, so the
+ * spans left on disk are replayed after a restart.
+ *
+ * <p>The log is bounded by the size of its segments, the oldest segment being deleted when a new
+ * one would exceed the limit, and by the age of its records, which are dropped instead of replayed
+ * once they are too old.
+ */
+final class SpanSpillLog implements Closeable {
+    static final Logger logger = Logger.getLogger(SpanSpillLog.class.getName());
+    static final String SUFFIX = ".spans";
+    static final int MAGIC = 0x45415350;
+    static final int HEADER_BYTES = 8;
+    static final int RECORD_HEADER_BYTES = 16;
+    static final int END_MARK_BYTES = 4;
+
+    private final File dir;
+    private final int segmentBytes;
+    private final long maxBytes;
+    private final long maxAgeMillis;
+    private final IntConsumer dropped;
+    private final RandomAccessFile lockFile;
+    private final FileLock lock;
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private long nextSequence;
+    private int count;
+    private boolean closed;
+
+    /**
+     * @param dir          directory of the segments, locked by the log while it is open
+     * @param segmentBytes size of a segment, a message larger than a segment is dropped
+     * @param maxBytes     maximum bytes of all the segments, at least one segment is kept
+     * @param maxAgeMillis age after which spilled spans are dropped instead of replayed
+     * @param dropped      notified of the count of spilled spans dropped by the limits
+     */
+    SpanSpillLog(File dir, int segmentBytes, long maxBytes, long maxAgeMillis, IntConsumer dropped) throws IOException {
+        if (segmentBytes <= HEADER_BYTES + RECORD_HEADER_BYTES + END_MARK_BYTES) {
+            throw new IllegalArgumentException("segmentBytes is too small: " + segmentBytes);
+        }
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("can't create directory " + dir);
+        }
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        this.maxAgeMillis = maxAgeMillis;
+        this.dropped = dropped;
+        this.lockFile = new RandomAccessFile(new File(dir, "lock"), "rw");
+        FileLock fileLock;
+        try {
+            fileLock = lockFile.getChannel().tryLock();
+        } catch (IOException | RuntimeException e) {
+            lockFile.close();
+            throw e;
+        }
+        if (fileLock == null) {
+            lockFile.close();
+            throw new IOException(dir + " is used by another process");
+        }
+        this.lock = fileLock;
+        recover();
+    }
+
+    /**
+     * Returns false if the message was dropped, as it is larger than a segment or the log is closed.
+     */
+    synchronized boolean append(List<byte[]> spans, long timestamp) {
+        SpanBatch batch = spans instanceof SpanBatch ? (SpanBatch) spans : null;
+        int length = RECORD_HEADER_BYTES + 4 * spans.size();
+        if (batch != null) {
+            length += batch.end();
+        } else {
+            for (byte[] span : spans) {
+                length += span.length;
+            }
+        }
+        if (closed || HEADER_BYTES + length + END_MARK_BYTES > segmentBytes) {
+            dropped.accept(spans.size());
+            return false;
+        }
+        try {
+            Segment tail = segments.peekLast();
+            if (tail == null || tail.writePos + length + END_MARK_BYTES > tail.capacity) {
+                tail = roll();
+            }
+            MappedByteBuffer buffer = tail.buffer;
+            int pos = tail.writePos;
+            buffer.putInt(pos + 4, spans.size());
+            buffer.putLong(pos + 8, timestamp);
+            // cast, as ByteBuffer.position(int) only exists since java 9
+            ((Buffer) buffer).position(pos + RECORD_HEADER_BYTES);
+            if (batch != null) {
+                // the spans are copied from the buffer of the batch, instead of one array each
+                int begin = 0;
+                for (int i = 0; i < batch.count; i++) {
+                    int size = batch.ends[i] - begin;
+                    buffer.putInt(size);
+                    buffer.put(batch.buffer, begin, size);
+                    begin = batch.ends[i];
+                }
+            } else {
+                for (byte[] span : spans) {
+                    buffer.putInt(span.length);
+                    buffer.put(span);
+                }
+            }
+            buffer.putInt(0);
+            // the length is written last, so a record is only seen once it is complete
+            buffer.putInt(pos, length);
+            tail.writePos = pos + length;
+            tail.spans += spans.size();
+            tail.lastTimestamp = Math.max(tail.lastTimestamp, timestamp);
+            count += spans.size();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Dropped " + spans.size() + " spans, can't spill them to " + dir + ": " + e);
+            dropped.accept(spans.size());
+            return false;
+        }
+    }
+
+    /**
+     * Removes the oldest message, dropping those older than the age limit.
+     *
+     * @return the message, or null if there is none
+     */
+    synchronized Message poll(long now) {
+        while (!closed && !segments.isEmpty()) {
+            Segment head = segments.peekFirst();
+            if (head.readPos < head.writePos) {
+                MappedByteBuffer buffer = head.buffer;
+                int pos = head.readPos;
+                int length = buffer.getInt(pos);
+                int spanCount = buffer.getInt(pos + 4);
+                long timestamp = buffer.getLong(pos + 8);
+                head.readPos = pos + length;
+                buffer.putInt(4, head.readPos);
+                head.spans -= spanCount;
+                count -= spanCount;
+                if (now - timestamp > maxAgeMillis) {
+                    dropped.accept(spanCount);
+                    continue;
+                }
+                List<byte[]> spans = new ArrayList<>(spanCount);
+                ((Buffer) buffer).position(pos + RECORD_HEADER_BYTES);
+                for (int i = 0; i < spanCount; i++) {
+                    byte[] span = new byte[buffer.getInt()];
+                    buffer.get(span);
+                    spans.add(span);
+                }
+                return new Message(spans, timestamp);
+            }
+            if (segments.size() == 1) {
+                // the tail is read up, it is written again from its beginning
+                head.buffer.putInt(HEADER_BYTES, 0);
+                head.buffer.putInt(4, HEADER_BYTES);
+                head.readPos = HEADER_BYTES;
+                head.writePos = HEADER_BYTES;
+                return null;
+            }
+            delete(segments.pollFirst());
+        }
+        return null;
+    }
+
+    /**
+     * Returns the count of spans spilled and not replayed yet.
+     */
+    synchronized int count() {
+        return count;
+    }
+
+    synchronized long sizeInBytes() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.capacity;
+        }
+        return size;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Segment segment : segments) {
+            segment.buffer.force();
+        }
+        segments.clear();
+        try {
+            lock.release();
+        } finally {
+            lockFile.close();
+        }
+    }
+
+    private Segment roll() throws IOException {
+        long now = System.currentTimeMillis();
+        // whole segments of expired spans are deleted without being read
+        while (!segments.isEmpty() && now - segments.peekFirst().lastTimestamp > maxAgeMillis) {
+            discard(segments.pollFirst());
+        }
+        while (!segments.isEmpty() && (segments.size() + 1) * (long) segmentBytes > maxBytes) {
+            discard(segments.pollFirst());
+        }
+        File file = new File(dir, String.format("%020d%s", nextSequence++, SUFFIX));
+        Segment segment = new Segment(file, map(file, segmentBytes));
+        segment.buffer.putInt(0, MAGIC);
+        segment.buffer.putInt(4, HEADER_BYTES);
+        segments.addLast(segment);
+        return segment;
+    }
+
+    private void recover() throws IOException {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(SUFFIX));
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            String name = file.getName();
+            try {
+                nextSequence = Math.max(nextSequence, Long.parseLong(name.substring(0, name.length() - SUFFIX.length())) + 1);
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            long size = file.length();
+            if (size < HEADER_BYTES + END_MARK_BYTES || size > Integer.MAX_VALUE) {
+                delete(file);
+                continue;
+            }
+            Segment segment = new Segment(file, map(file, (int) size));
+            MappedByteBuffer buffer = segment.buffer;
+            int readPos = buffer.getInt(4);
+            if (buffer.getInt(0) != MAGIC || readPos < HEADER_BYTES || readPos > segment.capacity) {
+                delete(segment);
+                continue;
+            }
+            int pos = HEADER_BYTES;
+            while (pos + END_MARK_BYTES <= segment.capacity) {
+                int length = buffer.getInt(pos);
+                if (length < RECORD_HEADER_BYTES || pos + length + END_MARK_BYTES > segment.capacity) {
+                    break;
+                }
+                if (pos >= readPos) {
+                    segment.spans += buffer.getInt(pos + 4);
+                }
+                segment.lastTimestamp = Math.max(segment.lastTimestamp, buffer.getLong(pos + 8));
+                pos += length;
+            }
+            segment.readPos = Math.min(readPos, pos);
+            segment.writePos = pos;
+            count += segment.spans;
+            segments.addLast(segment);
+        }
+    }
+
+    private void discard(Segment segment) {
+        count -= segment.spans;
+        if (segment.spans > 0) {
+            dropped.accept(segment.spans);
+        }
+        delete(segment);
+    }
+
+    private static MappedByteBuffer map(File file, int size) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // the mapping stays valid after the channel is closed
+            return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private static void delete(Segment segment) {
+        // the mapping is released by the garbage collector, deleting the file is allowed meanwhile except on windows
+        delete(segment.file);
+    }
+
+    private static void delete(File file) {
+        if (!file.delete() && file.exists()) {
+            logger.warning("Can't delete spilled spans " + file);
+        }
+    }
+
+    static final class Message {
+        final List<byte[]> spans;
+        final long timestamp;
+
+        Message(List<byte[]> spans, long timestamp) {
+            this.spans = spans;
+            this.timestamp = timestamp;
+        }
+    }
+
+    private static final class Segment {
+        final File file;
+        final MappedByteBuffer buffer;
+        final int capacity;
+        int readPos = HEADER_BYTES;
+        int writePos = HEADER_BYTES;
+        int spans;
+        long lastTimestamp;
+
+        Segment(File file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+            this.capacity = buffer.capacity();
+        }
+    }
+}
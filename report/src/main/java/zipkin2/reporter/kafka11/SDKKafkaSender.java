@@ -18,28 +18,61 @@
 package zipkin2.reporter.kafka11;
 
 import com.megaease.easeagent.report.trace.TraceProps;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import zipkin2.Call;
+import zipkin2.Callback;
 import zipkin2.CheckResult;
 import zipkin2.codec.Encoding;
+import zipkin2.reporter.AwaitableCallback;
 import zipkin2.reporter.Sender;
+import zipkin2.reporter.SpanBatch;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 public class SDKKafkaSender extends Sender implements SDKSender {
+    // room for the headers of the record and of its batch, so that a message fits in a batch of the producer
+    static final int BATCH_OVERHEAD_BYTES = 1024;
+
     private KafkaSender kafkaSender;
 
     private TraceProps traceProperties;
 
+    private final Supplier<? extends Producer<byte[], byte[]>> producer;
+
     public SDKKafkaSender(KafkaSender kafkaSender, TraceProps traceProperties) {
+        this(kafkaSender, traceProperties, kafkaSender::get);
+    }
+
+    SDKKafkaSender(KafkaSender kafkaSender, TraceProps traceProperties, Supplier<? extends Producer<byte[], byte[]>> producer) {
         this.kafkaSender = kafkaSender;
         this.traceProperties = traceProperties;
+        this.producer = producer;
     }
 
     public static SDKKafkaSender wrap(TraceProps properties, KafkaSender sender) {
         return new SDKKafkaSender(sender, properties);
     }
 
+    /**
+     * The batching of the producer: a batch holds at least one message of spans, so the producer takes the
+     * buffer of each message from its pool instead of allocating one as large as the message, and the
+     * linger lets messages of several flush threads share a request.
+     */
+    public static Map<String, Object> producerOverrides(TraceProps properties) {
+        TraceProps.KafkaOutputProps output = properties.getOutput();
+        int batchSize = output.getBatchSize() > 0 ? output.getBatchSize() : output.getMessageMaxBytes() + BATCH_OVERHEAD_BYTES;
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put(ProducerConfig.BATCH_SIZE_CONFIG, String.valueOf(batchSize));
+        overrides.put(ProducerConfig.LINGER_MS_CONFIG, String.valueOf(output.getLingerMs()));
+        return overrides;
+    }
+
     public boolean isClose() {
         return kafkaSender.closeCalled;
     }
@@ -55,11 +88,18 @@ public class SDKKafkaSender extends Sender implements SDKSender {
         if (kafkaSender.closeCalled) {
             throw new IllegalStateException("closed");
         } else {
-            byte[] message = kafkaSender.encoder.encode(encodedSpans);
-            return kafkaSender.new KafkaCall(message);
+            return new ProducerCall(encode(encodedSpans));
         }
     }
 
+    private byte[] encode(List<byte[]> encodedSpans) {
+        if (encodedSpans instanceof SpanBatch && ((SpanBatch) encodedSpans).encoding() == encoding()) {
+            // each span is copied once, from the buffer of the flush thread into the record
+            return ((SpanBatch) encodedSpans).toMessage();
+        }
+        return kafkaSender.encoder.encode(encodedSpans);
+    }
+
     @Override
     public Encoding encoding() {
         return kafkaSender.encoding();
@@ -72,6 +112,9 @@ public class SDKKafkaSender extends Sender implements SDKSender {
 
     @Override
     public int messageSizeInBytes(List<byte[]> encodedSpans) {
+        if (encodedSpans instanceof SpanBatch && ((SpanBatch) encodedSpans).encoding() == encoding()) {
+            return ((SpanBatch) encodedSpans).messageSizeInBytes();
+        }
         return kafkaSender.messageSizeInBytes(encodedSpans);
     }
 
@@ -85,5 +128,42 @@ public class SDKKafkaSender extends Sender implements SDKSender {
         return kafkaSender.messageSizeInBytes(encodedSizeInBytes);
     }
 
+    /**
+     * Sends a message as one record, like the call of {@link KafkaSender}, through the producer given to this sender.
+     */
+    final class ProducerCall extends Call.Base<Void> {
+        private final byte[] message;
 
+        ProducerCall(byte[] message) {
+            this.message = message;
+        }
+
+        @Override
+        protected Void doExecute() throws IOException {
+            AwaitableCallback callback = new AwaitableCallback();
+            send(callback);
+            callback.await();
+            return null;
+        }
+
+        @Override
+        protected void doEnqueue(Callback<Void> callback) {
+            send(callback);
+        }
+
+        private void send(Callback<Void> callback) {
+            producer.get().send(new ProducerRecord<>(kafkaSender.topic, message), (metadata, exception) -> {
+                if (exception == null) {
+                    callback.onSuccess(null);
+                } else {
+                    callback.onError(exception);
+                }
+            });
+        }
+
+        @Override
+        public Call<Void> clone() {
+            return new ProducerCall(message);
+        }
+    }
 }
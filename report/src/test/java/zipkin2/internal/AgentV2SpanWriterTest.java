@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2017, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package zipkin2.internal;
+
+import com.megaease.easeagent.config.Configs;
+import com.megaease.easeagent.plugin.api.config.ConfigConst;
+import com.megaease.easeagent.report.trace.TraceProps;
+import org.junit.Test;
+import zipkin2.Endpoint;
+import zipkin2.Span;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+
+public class AgentV2SpanWriterTest {
+
+    private static AgentV2SpanWriter writer() {
+        HashMap<String, String> source = new HashMap<>();
+        source.put(ConfigConst.SERVICE_NAME, "test-service");
+        TraceProps traceProps = TraceProps.newDefault(new Configs(source));
+        return new AgentV2SpanWriter(new GlobalExtrasSupplier() {
+            @Override
+            public String service() {
+                return "test-service";
+            }
+
+            @Override
+            public String system() {
+                return "demo-system";
+            }
+        }, traceProps);
+    }
+
+    private static Span span() {
+        return Span.newBuilder()
+            .traceId("463ac35c9f6413ad")
+            .parentId("463ac35c9f6413ad")
+            .id("72485a3953bb6124")
+            .name("get /api/\"quoted\"")
+            .kind(Span.Kind.SERVER)
+            .timestamp(1472470996199000L)
+            .duration(207000L)
+            .localEndpoint(Endpoint.newBuilder().serviceName("frontend").ip("127.0.0.1").port(8080).build())
+            .remoteEndpoint(Endpoint.newBuilder().serviceName("backend").ip("192.168.99.101").port(9000).build())
+            .addAnnotation(1472470996238000L, "ws")
+            .putTag("http.path", "/api")
+            .putTag("clnt/finagle.version", "6.45.0")
+            .build();
+    }
+
+    @Test
+    public void writeIntoSizedBuffer() {
+        AgentV2SpanWriter writer = writer();
+        Span span = span();
+        byte[] expected = JsonCodec.write(writer, span);
+        assertEquals(expected.length, writer.sizeInBytes(span));
+
+        byte[] buffer = new byte[10 + expected.length];
+        writer.write(span, WriteBuffer.wrap(buffer, 10));
+        assertArrayEquals(expected, Arrays.copyOfRange(buffer, 10, buffer.length));
+    }
+
+    @Test
+    public void estimateIsCloseToRealSize() {
+        AgentV2SpanWriter writer = writer();
+        Span span = span();
+        int real = writer.sizeInBytes(span);
+        int estimated = writer.estimatedSizeInBytes(span);
+        assertTrue("estimated " + estimated + " real " + real, estimated >= real);
+        assertTrue("estimated " + estimated + " real " + real, estimated < real * 2);
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package zipkin2.reporter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class RingBufferSpanQueueTest {
+    private static final int PRODUCERS = 64;
+    private static final int SPANS_PER_PRODUCER = 20_000;
+
+    @Test
+    public void boundedByCount() {
+        RingBufferSpanQueue<Integer> queue = new RingBufferSpanQueue<>(3, Integer.MAX_VALUE);
+        assertTrue(queue.offer(1, 1));
+        assertTrue(queue.offer(2, 1));
+        assertTrue(queue.offer(3, 1));
+        assertFalse(queue.offer(4, 1));
+        assertEquals(3, queue.count());
+        assertEquals(3, queue.sizeInBytes());
+        assertEquals(1, queue.droppedSpans());
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(3, queue.drainTo((next, size) -> drained.add(next), 0));
+        assertEquals(0, queue.count());
+        assertEquals(0, queue.sizeInBytes());
+        assertTrue(queue.offer(5, 1));
+        assertEquals(1, queue.count());
+    }
+
+    @Test
+    public void boundedByBytes() {
+        RingBufferSpanQueue<Integer> queue = new RingBufferSpanQueue<>(10, 10);
+        assertTrue(queue.offer(1, 6));
+        assertFalse(queue.offer(2, 5));
+        assertTrue(queue.offer(3, 4));
+        assertEquals(10, queue.sizeInBytes());
+        assertEquals(2, queue.count());
+        assertEquals(1, queue.droppedSpans());
+    }
+
+    @Test
+    public void closeOnlyWhenEmpty() {
+        RingBufferSpanQueue<Integer> queue = new RingBufferSpanQueue<>(10, 100);
+        assertTrue(queue.offer(1, 10));
+        assertFalse(queue.closeIfEmpty());
+        assertFalse(queue.isClosed());
+
+        queue.drainTo((next, size) -> true, 0);
+        assertTrue(queue.closeIfEmpty());
+        assertTrue(queue.isClosed());
+        assertFalse(queue.offer(2, 10));
+        assertEquals(0, queue.sizeInBytes());
+        assertEquals(0, queue.droppedSpans());
+        assertEquals(0, queue.drainTo((next, size) -> true, 0));
+    }
+
+    @Test
+    public void drainStopsWhenConsumerIsFull() {
+        RingBufferSpanQueue<Integer> queue = new RingBufferSpanQueue<>(10, 100);
+        for (int i = 0; i < 5; i++) {
+            queue.offer(i, 10);
+        }
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(2, queue.drainTo((next, size) -> drained.size() < 2 && drained.add(next), 0));
+        assertEquals(3, queue.count());
+        assertEquals(30, queue.sizeInBytes());
+
+        drained.clear();
+        assertEquals(3, queue.drainTo((next, size) -> drained.add(next), 0));
+        assertEquals(2, (int) drained.get(0));
+        assertEquals(0, queue.clear());
+    }
+
+    @Test
+    public void drainWaitsForSpans() throws InterruptedException {
+        RingBufferSpanQueue<Integer> queue = new RingBufferSpanQueue<>(10, 100);
+        long begin = System.nanoTime();
+        assertEquals(0, queue.drainTo((next, size) -> true, TimeUnit.MILLISECONDS.toNanos(50)));
+        assertTrue(System.nanoTime() - begin >= TimeUnit.MILLISECONDS.toNanos(50));
+
+        // a single span is drained when the timeout ends
+        Thread producer = produceLater(queue, 1);
+        begin = System.nanoTime();
+        assertEquals(1, queue.drainTo((next, size) -> true, TimeUnit.MILLISECONDS.toNanos(200)));
+        assertTrue(System.nanoTime() - begin >= TimeUnit.MILLISECONDS.toNanos(200));
+        producer.join();
+
+        // a batch of spans wakes the consumer up
+        producer = produceLater(queue, 5);
+        begin = System.nanoTime();
+        assertEquals(5, queue.drainTo((next, size) -> true, TimeUnit.SECONDS.toNanos(10)));
+        assertTrue(System.nanoTime() - begin < TimeUnit.SECONDS.toNanos(5));
+        producer.join();
+    }
+
+    private static Thread produceLater(RingBufferSpanQueue<Integer> queue, int count) {
+        Thread producer = new Thread(() -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(50);
+            } catch (InterruptedException e) {
+                return;
+            }
+            for (int i = 0; i < count; i++) {
+                queue.offer(i, 1);
+            }
+        });
+        producer.start();
+        return producer;
+    }
+
+    @Test
+    public void clear() {
+        RingBufferSpanQueue<Integer> queue = new RingBufferSpanQueue<>(10, 100);
+        for (int i = 0; i < 5; i++) {
+            queue.offer(i, 10);
+        }
+        assertEquals(5, queue.clear());
+        assertEquals(0, queue.count());
+        assertEquals(0, queue.sizeInBytes());
+    }
+
+    @Test
+    public void contendedProducersWithSingleConsumer() throws InterruptedException {
+        RingBufferSpanQueue<long[]> queue = new RingBufferSpanQueue<>(1024, 1024 * 100);
+        AtomicInteger accepted = new AtomicInteger();
+        long[] lastSeen = new long[PRODUCERS];
+        AtomicBoolean outOfOrder = new AtomicBoolean();
+        AtomicBoolean overBound = new AtomicBoolean();
+        AtomicInteger consumed = new AtomicInteger();
+
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(PRODUCERS);
+        ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS);
+        for (int p = 0; p < PRODUCERS; p++) {
+            final int producer = p;
+            producers.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 1; i <= SPANS_PER_PRODUCER; i++) {
+                        if (queue.offer(new long[]{producer, i}, 100)) {
+                            accepted.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        Thread consumer = new Thread(() -> {
+            SpanWithSizeConsumer<long[]> check = (next, size) -> {
+                int producer = (int) next[0];
+                if (next[1] <= lastSeen[producer]) {
+                    outOfOrder.set(true);
+                }
+                lastSeen[producer] = next[1];
+                consumed.incrementAndGet();
+                return true;
+            };
+            while (done.getCount() > 0 || queue.count() > 0) {
+                if (queue.count() > queue.maxSize || queue.sizeInBytes() > queue.maxBytes) {
+                    overBound.set(true);
+                }
+                queue.drainTo(check, TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        });
+        consumer.start();
+        start.countDown();
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        consumer.join(TimeUnit.SECONDS.toMillis(10));
+        producers.shutdown();
+
+        assertFalse(consumer.isAlive());
+        assertFalse("spans of a producer were reordered", outOfOrder.get());
+        assertFalse("queue exceeded its bounds", overBound.get());
+        assertEquals(accepted.get(), consumed.get());
+        assertEquals(PRODUCERS * SPANS_PER_PRODUCER, accepted.get() + queue.droppedSpans());
+        assertEquals(0, queue.count());
+        assertEquals(0, queue.sizeInBytes());
+    }
+
+    @Test
+    public void contendedProducersWithCompetingFlushers() throws InterruptedException {
+        RingBufferSpanQueue<Integer> queue = new RingBufferSpanQueue<>(100, Integer.MAX_VALUE);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger consumed = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(PRODUCERS);
+        ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS);
+        for (int p = 0; p < PRODUCERS; p++) {
+            producers.execute(() -> {
+                for (int i = 0; i < SPANS_PER_PRODUCER / 10; i++) {
+                    if (queue.offer(i, 1)) {
+                        accepted.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        List<Thread> flushers = new ArrayList<>();
+        for (int f = 0; f < 4; f++) {
+            Thread flusher = new Thread(() -> {
+                while (done.getCount() > 0 || queue.count() > 0) {
+                    consumed.addAndGet(queue.drainTo((next, size) -> true, TimeUnit.MILLISECONDS.toNanos(1)));
+                }
+            });
+            flusher.start();
+            flushers.add(flusher);
+        }
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        for (Thread flusher : flushers) {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+            assertFalse(flusher.isAlive());
+        }
+        producers.shutdown();
+        assertEquals(accepted.get(), consumed.get());
+        assertEquals(PRODUCERS * SPANS_PER_PRODUCER / 10, accepted.get() + queue.droppedSpans());
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package zipkin2.reporter;
+
+import com.megaease.easeagent.config.Configs;
+import com.megaease.easeagent.plugin.api.config.ConfigConst;
+import com.megaease.easeagent.report.trace.TraceProps;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import zipkin2.Call;
+import zipkin2.Span;
+import zipkin2.codec.Encoding;
+import zipkin2.internal.GlobalExtrasSupplier;
+import zipkin2.reporter.kafka11.SDKSender;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SDKAsyncReporterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final FailingSender sender = new FailingSender();
+    private final InMemoryReporterMetrics metrics = new InMemoryReporterMetrics();
+    private SDKAsyncReporter<Span> reporter;
+
+    @Before
+    public void before() {
+        HashMap<String, String> source = new HashMap<>();
+        source.put(ConfigConst.SERVICE_NAME, "test-service");
+        source.put(ConfigConst.Observability.TRACE_OUTPUT_REPORT_THREAD, "1");
+        source.put(ConfigConst.Observability.TRACE_OUTPUT_MESSAGE_MAX_BYTES, "999900");
+        TraceProps.KafkaOutputProps output = TraceProps.newDefault(new Configs(source)).getOutput();
+        TraceProps traceProps = new TraceProps() {
+            @Override
+            public boolean isEnabled() {
+                return true;
+            }
+
+            @Override
+            public KafkaOutputProps getOutput() {
+                return output;
+            }
+        };
+        // no flush threads, spans are flushed by the test
+        reporter = SDKAsyncReporter.builderSDKAsyncReporter(AsyncReporter.builder(sender)
+                .metrics(metrics)
+                .messageTimeout(0, TimeUnit.MILLISECONDS),
+            traceProps, new GlobalExtrasSupplier() {
+                @Override
+                public String service() {
+                    return "test-service";
+                }
+
+                @Override
+                public String system() {
+                    return "demo-system";
+                }
+            });
+    }
+
+    @After
+    public void after() {
+        reporter.close();
+    }
+
+    private static Span span(long id) {
+        return Span.newBuilder().traceId("463ac35c9f6413ad").id(id).name("get").timestamp(1472470996199000L).build();
+    }
+
+    private void report(int from, int to) {
+        for (int i = from; i < to; i++) {
+            reporter.report(span(i));
+        }
+        reporter.flush();
+    }
+
+    @Test
+    public void dropWithoutSpill() {
+        sender.failing = true;
+        report(1, 4);
+        assertEquals(3, metrics.spansDropped());
+        sender.failing = false;
+        report(4, 5);
+        assertEquals(1, sender.spans.size());
+    }
+
+    @Test
+    public void replaySpilledSpans() throws IOException {
+        reporter.spillTo(folder.getRoot(), Long.MAX_VALUE, TimeUnit.MINUTES.toMillis(1));
+        sender.failing = true;
+        report(1, 4);
+        report(4, 6);
+        // an idle flush while the sender still fails keeps the spans
+        reporter.flush();
+        assertEquals(0, metrics.spansDropped());
+        assertEquals(5, reporter.spillLog.count());
+        assertTrue(sender.spans.isEmpty());
+
+        sender.failing = false;
+        report(6, 7);
+        assertEquals(0, reporter.spillLog.count());
+        assertEquals(0, metrics.spansDropped());
+        assertEquals(6, sender.spans.size());
+        for (int i = 1; i < 7; i++) {
+            assertTrue(sender.received(i));
+        }
+    }
+
+    @Test
+    public void replayWhenIdle() throws IOException {
+        reporter.spillTo(folder.getRoot(), Long.MAX_VALUE, TimeUnit.MINUTES.toMillis(1));
+        sender.failing = true;
+        report(1, 3);
+        sender.failing = false;
+        reporter.flush();
+        assertEquals(2, sender.spans.size());
+    }
+
+    @Test
+    public void dropExpiredSpans() throws IOException {
+        reporter.spillTo(folder.getRoot(), Long.MAX_VALUE, -1);
+        sender.failing = true;
+        report(1, 3);
+        sender.failing = false;
+        report(3, 4);
+        assertEquals(1, sender.spans.size());
+        assertEquals(2, metrics.spansDropped());
+    }
+
+    @Test
+    public void sendSpansOfReplacedQueues() {
+        reporter.report(span(1));
+        reporter.setPending(100, 100_000);
+        reporter.report(span(2));
+        // replaced again before the first replaced queue is drained
+        reporter.setPending(100, 100_000);
+        reporter.report(span(3));
+        reporter.flush();
+        assertEquals(0, metrics.spansDropped());
+        assertEquals(3, sender.spans.size());
+        assertTrue(reporter.retired.isEmpty());
+    }
+
+    @Test
+    public void offerToCurrentQueueOnceReplacedIsDrained() {
+        // a reporting thread which read the queue before it was replaced, and offers after its last drain
+        RingBufferSpanQueue<Span> stale = reporter.pending;
+        reporter.setPending(100, 100_000);
+        reporter.flush();
+        assertTrue(reporter.retired.isEmpty());
+        assertTrue(stale.isClosed());
+
+        assertTrue(reporter.offer(span(1), 100, stale));
+        assertEquals(1, reporter.pending.count());
+        reporter.flush();
+        assertEquals(1, sender.spans.size());
+    }
+
+    static class FailingSender extends Sender implements SDKSender {
+        final List<String> spans = new ArrayList<>();
+        volatile boolean failing;
+
+        @Override
+        public Encoding encoding() {
+            return Encoding.JSON;
+        }
+
+        @Override
+        public int messageMaxBytes() {
+            return 1024 * 1024;
+        }
+
+        @Override
+        public int messageSizeInBytes(List<byte[]> encodedSpans) {
+            return encoding().listSizeInBytes(encodedSpans);
+        }
+
+        @Override
+        public Call<Void> sendSpans(List<byte[]> encodedSpans) {
+            if (failing) {
+                return Call.create(null).map(v -> {
+                    throw new IllegalArgumentException("sender is down");
+                });
+            }
+            for (byte[] span : encodedSpans) {
+                spans.add(new String(span));
+            }
+            return Call.create(null);
+        }
+
+        boolean received(long id) {
+            String expected = String.format("\"id\":\"%016x\"", id);
+            return spans.stream().anyMatch(span -> span.contains(expected));
+        }
+
+        @Override
+        public boolean isClose() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package zipkin2.reporter;
+
+import com.megaease.easeagent.config.Configs;
+import com.megaease.easeagent.plugin.api.config.ConfigConst;
+import com.megaease.easeagent.report.trace.TraceProps;
+import org.junit.Test;
+import zipkin2.Span;
+import zipkin2.codec.Encoding;
+import zipkin2.internal.GlobalExtrasSupplier;
+import zipkin2.internal.JsonCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SpanBatchTest {
+    private static List<byte[]> spans(int count) {
+        List<byte[]> spans = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            spans.add(("{\"id\":\"" + i + "\"}").getBytes(StandardCharsets.UTF_8));
+        }
+        return spans;
+    }
+
+    private static SpanBatch batch(Encoding encoding, List<byte[]> spans) {
+        SpanBatch batch = new SpanBatch(encoding);
+        for (byte[] span : spans) {
+            batch.add(span);
+        }
+        return batch;
+    }
+
+    @Test
+    public void messageAsEncoder() {
+        for (Encoding encoding : Encoding.values()) {
+            for (int count : new int[]{0, 1, 3, 1000}) {
+                List<byte[]> spans = spans(count);
+                SpanBatch batch = batch(encoding, spans);
+                assertEquals(encoding.listSizeInBytes(spans), batch.messageSizeInBytes());
+                assertArrayEquals(encoding + " of " + count,
+                    BytesMessageEncoder.forEncoding(encoding).encode(spans), batch.toMessage());
+            }
+        }
+    }
+
+    @Test
+    public void listOfSpans() {
+        List<byte[]> spans = spans(100);
+        SpanBatch batch = batch(Encoding.JSON, spans);
+        assertEquals(100, batch.size());
+        for (int i = 0; i < spans.size(); i++) {
+            assertArrayEquals(spans.get(i), batch.get(i));
+            assertEquals(spans.get(i).length, batch.sizeInBytes(i));
+        }
+        try {
+            batch.get(100);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+    }
+
+    @Test
+    public void removeLastAndReuse() {
+        SpanBatch batch = batch(Encoding.JSON, spans(3));
+        batch.removeLast();
+        assertArrayEquals("[{\"id\":\"0\"},{\"id\":\"1\"}]".getBytes(StandardCharsets.UTF_8), batch.toMessage());
+
+        byte[] buffer = batch.buffer;
+        batch.clear();
+        assertTrue(batch.isEmpty());
+        batch.add("{}".getBytes(StandardCharsets.UTF_8));
+        assertSame(buffer, batch.buffer);
+        assertEquals("[{}]", new String(batch.toMessage(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void growBuffer() {
+        byte[] large = new byte[SpanBatch.INITIAL_BUFFER_SIZE * 3];
+        Arrays.fill(large, (byte) 'a');
+        SpanBatch batch = new SpanBatch(Encoding.PROTO3);
+        batch.add("b".getBytes(StandardCharsets.UTF_8));
+        batch.add(large);
+        assertEquals(large.length + 1, batch.messageSizeInBytes());
+        assertArrayEquals(large, batch.get(1));
+    }
+
+    @Test
+    public void encodeAgentSpans() {
+        HashMap<String, String> source = new HashMap<>();
+        source.put(ConfigConst.SERVICE_NAME, "test-service");
+        SDKAsyncReporter.Builder.AgentJSONByteEncoder encoder = new SDKAsyncReporter.Builder.AgentJSONByteEncoder(
+            new GlobalExtrasSupplier() {
+                @Override
+                public String service() {
+                    return "test-service";
+                }
+
+                @Override
+                public String system() {
+                    return "demo-system";
+                }
+            }, TraceProps.newDefault(new Configs(source)), 1024);
+        Span small = Span.newBuilder().traceId("463ac35c9f6413ad").id("72485a3953bb6124").name("get").build();
+        char[] name = new char[SpanBatch.INITIAL_BUFFER_SIZE];
+        Arrays.fill(name, 'a');
+        Span large = small.toBuilder().name(new String(name)).build();
+
+        SpanBatch batch = new SpanBatch(Encoding.JSON);
+        byte[] expected = JsonCodec.write(encoder.writer, small);
+        assertEquals(expected.length, encoder.encode(small, batch));
+        assertEquals(expected.length, encoder.encode(small, batch));
+        // larger than a message, it is not written
+        assertEquals(-1, encoder.encode(large, batch));
+        assertEquals(2, batch.size());
+        assertArrayEquals(expected, batch.get(0));
+        assertArrayEquals(expected, batch.get(1));
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package zipkin2.reporter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SpanSpillLogTest {
+    private static final int SEGMENT_BYTES = 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger dropped = new AtomicInteger();
+
+    private SpanSpillLog open(File dir, long maxBytes, long maxAgeMillis) throws IOException {
+        return new SpanSpillLog(dir, SEGMENT_BYTES, maxBytes, maxAgeMillis, dropped::addAndGet);
+    }
+
+    private static List<byte[]> message(String... spans) {
+        List<byte[]> message = new ArrayList<>();
+        for (String span : spans) {
+            message.add(span.getBytes(StandardCharsets.UTF_8));
+        }
+        return message;
+    }
+
+    private static List<String> spans(SpanSpillLog.Message message) {
+        List<String> spans = new ArrayList<>();
+        for (byte[] span : message.spans) {
+            spans.add(new String(span, StandardCharsets.UTF_8));
+        }
+        return spans;
+    }
+
+    @Test
+    public void replayInOrder() throws IOException {
+        try (SpanSpillLog log = open(folder.getRoot(), Long.MAX_VALUE, Long.MAX_VALUE)) {
+            assertNull(log.poll(0));
+            // enough messages to roll several segments
+            for (int i = 0; i < 100; i++) {
+                assertTrue(log.append(message("a" + i, "b" + i), i));
+            }
+            assertEquals(200, log.count());
+            assertTrue(log.sizeInBytes() > SEGMENT_BYTES);
+            for (int i = 0; i < 100; i++) {
+                SpanSpillLog.Message message = log.poll(i);
+                assertEquals(Arrays.asList("a" + i, "b" + i), spans(message));
+                assertEquals(i, message.timestamp);
+            }
+            assertNull(log.poll(100));
+            assertEquals(0, log.count());
+            assertEquals(SEGMENT_BYTES, log.sizeInBytes());
+
+            // the read up segment is written again
+            assertTrue(log.append(message("c"), 100));
+            assertEquals(Collections.singletonList("c"), spans(log.poll(100)));
+        }
+        assertEquals(0, dropped.get());
+    }
+
+    @Test
+    public void replayAfterRestart() throws IOException {
+        try (SpanSpillLog log = open(folder.getRoot(), Long.MAX_VALUE, Long.MAX_VALUE)) {
+            for (int i = 0; i < 30; i++) {
+                log.append(message("span" + i), i);
+            }
+            for (int i = 0; i < 10; i++) {
+                log.poll(i);
+            }
+        }
+        try (SpanSpillLog log = open(folder.getRoot(), Long.MAX_VALUE, Long.MAX_VALUE)) {
+            assertEquals(20, log.count());
+            assertTrue(log.append(message("next"), 30));
+            for (int i = 10; i < 30; i++) {
+                assertEquals(Collections.singletonList("span" + i), spans(log.poll(i)));
+            }
+            assertEquals(Collections.singletonList("next"), spans(log.poll(30)));
+            assertNull(log.poll(30));
+        }
+    }
+
+    @Test
+    public void boundedBySize() throws IOException {
+        try (SpanSpillLog log = open(folder.getRoot(), 2 * SEGMENT_BYTES, Long.MAX_VALUE)) {
+            for (int i = 0; i < 100; i++) {
+                assertTrue(log.append(message("span" + i), i));
+            }
+            assertEquals(2 * SEGMENT_BYTES, log.sizeInBytes());
+            assertEquals(2, folder.getRoot().listFiles((d, name) -> name.endsWith(SpanSpillLog.SUFFIX)).length);
+            assertEquals(100, log.count() + dropped.get());
+            assertTrue(dropped.get() > 0);
+
+            // the newest spans are kept
+            String last = null;
+            for (SpanSpillLog.Message message; (message = log.poll(100)) != null; ) {
+                last = spans(message).get(0);
+            }
+            assertEquals("span99", last);
+        }
+    }
+
+    @Test
+    public void boundedByAge() throws IOException {
+        try (SpanSpillLog log = open(folder.getRoot(), Long.MAX_VALUE, 1000)) {
+            log.append(message("old"), 1000);
+            log.append(message("new", "new"), 2000);
+            assertEquals(Arrays.asList("new", "new"), spans(log.poll(2500)));
+            assertEquals(1, dropped.get());
+            assertEquals(0, log.count());
+        }
+    }
+
+    @Test
+    public void dropMessageLargerThanSegment() throws IOException {
+        try (SpanSpillLog log = open(folder.getRoot(), Long.MAX_VALUE, Long.MAX_VALUE)) {
+            assertFalse(log.append(message(new String(new char[SEGMENT_BYTES]), "b"), 0));
+            assertEquals(2, dropped.get());
+            assertEquals(0, log.count());
+        }
+    }
+
+    @Test
+    public void lockedByOneLog() throws IOException {
+        try (SpanSpillLog ignored = open(folder.getRoot(), Long.MAX_VALUE, Long.MAX_VALUE)) {
+            try {
+                open(folder.getRoot(), Long.MAX_VALUE, Long.MAX_VALUE).close();
+                fail("the directory is locked");
+            } catch (IOException | RuntimeException e) {
+                // expected
+            }
+        }
+        open(folder.getRoot(), Long.MAX_VALUE, Long.MAX_VALUE).close();
+    }
+}
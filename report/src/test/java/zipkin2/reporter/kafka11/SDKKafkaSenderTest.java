@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package zipkin2.reporter.kafka11;
+
+import com.megaease.easeagent.config.Configs;
+import com.megaease.easeagent.plugin.api.config.ConfigConst;
+import com.megaease.easeagent.report.trace.TraceProps;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.junit.After;
+import org.junit.Test;
+import zipkin2.Callback;
+import zipkin2.codec.Encoding;
+import zipkin2.reporter.BytesMessageEncoder;
+import zipkin2.reporter.SpanBatch;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class SDKKafkaSenderTest {
+    private final KafkaSender kafkaSender = KafkaSender.newBuilder()
+        .bootstrapServers("127.0.0.1:9092")
+        .topic("log-tracing")
+        .encoding(Encoding.JSON)
+        .build();
+
+    @After
+    public void after() {
+        kafkaSender.close();
+    }
+
+    private static TraceProps traceProps(Map<String, String> source) {
+        source.put(ConfigConst.SERVICE_NAME, "test-service");
+        source.put(ConfigConst.Observability.TRACE_OUTPUT_MESSAGE_MAX_BYTES, "999900");
+        TraceProps.KafkaOutputProps output = TraceProps.newDefault(new Configs(source)).getOutput();
+        return new TraceProps() {
+            @Override
+            public boolean isEnabled() {
+                return true;
+            }
+
+            @Override
+            public KafkaOutputProps getOutput() {
+                return output;
+            }
+        };
+    }
+
+    private static List<byte[]> spans() {
+        List<byte[]> spans = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            spans.add(("{\"id\":\"" + i + "\"}").getBytes(StandardCharsets.UTF_8));
+        }
+        return spans;
+    }
+
+    @Test
+    public void sendBatchAsOneRecord() throws Exception {
+        MockProducer<byte[], byte[]> producer = new MockProducer<>(true, new ByteArraySerializer(), new ByteArraySerializer());
+        SDKKafkaSender sender = new SDKKafkaSender(kafkaSender, traceProps(new HashMap<>()), () -> producer);
+        List<byte[]> spans = spans();
+        SpanBatch batch = new SpanBatch(Encoding.JSON);
+        spans.forEach(batch::add);
+
+        assertEquals(Encoding.JSON.listSizeInBytes(spans), sender.messageSizeInBytes(batch));
+        sender.sendSpans(batch).execute();
+        // spans which are not batched, such as the spilled ones
+        sender.sendSpans(spans).execute();
+
+        assertEquals(2, producer.history().size());
+        byte[] expected = BytesMessageEncoder.JSON.encode(spans);
+        assertEquals("log-tracing", producer.history().get(0).topic());
+        assertArrayEquals(expected, producer.history().get(0).value());
+        assertArrayEquals(expected, producer.history().get(1).value());
+    }
+
+    @Test
+    public void sendFailure() {
+        MockProducer<byte[], byte[]> producer = new MockProducer<>(false, new ByteArraySerializer(), new ByteArraySerializer());
+        SDKKafkaSender sender = new SDKKafkaSender(kafkaSender, traceProps(new HashMap<>()), () -> producer);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        sender.sendSpans(spans()).enqueue(new Callback<Void>() {
+            @Override
+            public void onSuccess(Void value) {
+                fail();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                error.set(t);
+            }
+        });
+        RuntimeException failure = new RuntimeException("broker is down");
+        assertTrue(producer.errorNext(failure));
+        assertSame(failure, error.get());
+    }
+
+    @Test
+    public void producerBatching() {
+        Map<String, Object> overrides = SDKKafkaSender.producerOverrides(traceProps(new HashMap<>()));
+        assertEquals(String.valueOf(999900 + SDKKafkaSender.BATCH_OVERHEAD_BYTES), overrides.get(ProducerConfig.BATCH_SIZE_CONFIG));
+        assertEquals("0", overrides.get(ProducerConfig.LINGER_MS_CONFIG));
+
+        Map<String, String> source = new HashMap<>();
+        source.put(ConfigConst.Observability.TRACE_OUTPUT_BATCH_SIZE, "2000000");
+        source.put(ConfigConst.Observability.TRACE_OUTPUT_LINGER_MS, "5");
+        overrides = SDKKafkaSender.producerOverrides(traceProps(source));
+        assertEquals("2000000", overrides.get(ProducerConfig.BATCH_SIZE_CONFIG));
+        assertEquals("5", overrides.get(ProducerConfig.LINGER_MS_CONFIG));
+    }
+}
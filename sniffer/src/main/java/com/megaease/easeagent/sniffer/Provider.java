@@ -19,7 +19,6 @@ package com.megaease.easeagent.sniffer;
 
 import brave.Tracing;
 import brave.propagation.ThreadLocalCurrentTraceContext;
-import brave.sampler.CountingSampler;
 import com.codahale.metrics.MetricRegistry;
 import com.megaease.easeagent.common.AdditionalAttributes;
 import com.megaease.easeagent.config.AutoRefreshConfigItem;
@@ -57,6 +56,7 @@ import com.megaease.easeagent.sniffer.thread.CrossThreadPropagationConfig;
 import com.megaease.easeagent.zipkin.CustomTagsSpanHandler;
 import com.megaease.easeagent.zipkin.impl.TracingImpl;
 import com.megaease.easeagent.zipkin.logging.AgentMDCScopeDecorator;
+import com.megaease.easeagent.zipkin.sampler.AutoRefreshSampler;
 import org.apache.commons.lang3.StringUtils;
 import zipkin2.Span;
 import zipkin2.reporter.AsyncReporter;
@@ -139,7 +139,7 @@ public abstract class Provider implements AgentReportAware, ConfigAware, IProvid
         this.tracing = Tracing.newBuilder()
             .localServiceName(serviceName.getValue())
             .traceId128Bit(false)
-            .sampler(CountingSampler.create(1))
+            .sampler(new AutoRefreshSampler(config))
             .addSpanHandler(new CustomTagsSpanHandler(serviceName::getValue, AdditionalAttributes.getHostName()))
             .addSpanHandler(AsyncZipkinSpanHandler
                 .newBuilder(reporter)
@@ -20,26 +20,45 @@
 import zipkin2.Call;
 import zipkin2.CheckResult;
 import zipkin2.codec.Encoding;
-import zipkin2.reporter.BytesMessageEncoder;
 import zipkin2.reporter.Sender;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 
+/**
+ * Posts span messages to the gateway over HTTP.
+ *
+ * <p>Responses are always read to their end, so that the connections are kept alive and reused by the
+ * keep-alive cache of the JDK, which holds up to {@code http.maxConnections} (5 by default) idle
+ * connections per endpoint. At most {@code maxInFlight} requests are sent at the same time, each
+ * with a pooled {@link Deflater} and pooled buffers when the message is compressed.
+ */
 class GatewaySender extends Sender {
+    static final int DEFAULT_MAX_IN_FLIGHT = 5;
+    private static final String MEDIA_TYPE = "application/json";
 
     private final Encoding encoding;
     private final int messageMaxBytes;
     private final String sendEndpoint;
+    private final URL url;
     private final int connectTimeout;
     private final int readTimeout;
     private final boolean sendCompression;
     private final String userAgent;
+    private final Semaphore inFlight;
+    private final BlockingQueue<Buffers> buffers;
 
     /**
      * close is typically called from a different thread
@@ -49,12 +68,27 @@ class GatewaySender extends Sender {
 
     GatewaySender(int messageMaxBytes, String sendEndpoint, int connectTimeout, int readTimeout,
                   boolean sendCompression, String userAgent) {
+        this(messageMaxBytes, sendEndpoint, connectTimeout, readTimeout, sendCompression, userAgent, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    GatewaySender(int messageMaxBytes, String sendEndpoint, int connectTimeout, int readTimeout,
+                  boolean sendCompression, String userAgent, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
         this.messageMaxBytes = messageMaxBytes;
         this.sendEndpoint = sendEndpoint;
+        try {
+            this.url = new URL(sendEndpoint);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("invalid endpoint: " + sendEndpoint, e);
+        }
         this.connectTimeout = connectTimeout;
         this.readTimeout = readTimeout;
         this.sendCompression = sendCompression;
         this.userAgent = userAgent;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.buffers = new ArrayBlockingQueue<>(maxInFlight);
         encoding = Encoding.JSON;
     }
 
@@ -77,8 +111,7 @@ class GatewaySender extends Sender {
     public Call<Void> sendSpans(List<byte[]> encodedSpans) {
         if (closeCalled) throw new IllegalStateException("close");
         try {
-            byte[] message = BytesMessageEncoder.JSON.encode(encodedSpans);
-            send(message, "application/json");
+            send(encodedSpans);
         } catch (Throwable e) {
             if (e instanceof Error) throw (Error) e;
         }
@@ -88,7 +121,7 @@ class GatewaySender extends Sender {
     @Override
     public CheckResult check() {
         try {
-            send(new byte[]{'[', ']'}, "application/json");
+            send(Collections.emptyList());
             return CheckResult.OK;
         } catch (Exception e) {
             return CheckResult.failed(e);
@@ -98,49 +131,159 @@ class GatewaySender extends Sender {
 
     public void close() throws IOException {
         closeCalled = true;
+        Buffers idle;
+        while ((idle = buffers.poll()) != null) {
+            idle.deflater.end();
+        }
     }
 
-    private void send(byte[] body, String mediaType) throws IOException {
-        // intentionally not closing the connection, so as to use keep-alives
-        HttpURLConnection connection = (HttpURLConnection) new URL(sendEndpoint).openConnection();
+    private void send(List<byte[]> encodedSpans) throws IOException {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted waiting for a request in flight");
+        }
+        Buffers pooled = buffers.poll();
+        if (pooled == null) {
+            pooled = new Buffers();
+        }
+        try {
+            send(encodedSpans, pooled);
+        } finally {
+            if (closeCalled || !buffers.offer(pooled)) {
+                pooled.deflater.end();
+            }
+            inFlight.release();
+        }
+    }
+
+    private void send(List<byte[]> encodedSpans, Buffers pooled) throws IOException {
+        // intentionally not disconnecting, so as to use keep-alives
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
         connection.setConnectTimeout(connectTimeout);
         connection.setReadTimeout(readTimeout);
         connection.setRequestMethod("POST");
-        connection.addRequestProperty("Content-Type", mediaType);
+        connection.addRequestProperty("Content-Type", MEDIA_TYPE);
         connection.addRequestProperty("User-Agent", userAgent);
+        connection.setDoOutput(true);
         if (sendCompression) {
             connection.addRequestProperty("Content-Encoding", "gzip");
-            ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
-            GZIPOutputStream compressor = new GZIPOutputStream(gzipped);
-            try {
-                compressor.write(body);
-            } finally {
-                compressor.close();
+            int length = pooled.gzip(encodedSpans);
+            connection.setFixedLengthStreamingMode(length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(pooled.output, 0, length);
+            }
+        } else {
+            connection.setFixedLengthStreamingMode(messageSizeInBytes(encodedSpans));
+            try (OutputStream out = connection.getOutputStream()) {
+                writeList(out, encodedSpans);
             }
-            body = gzipped.toByteArray();
         }
-        connection.setDoOutput(true);
-        connection.setFixedLengthStreamingMode(body.length);
-        connection.getOutputStream().write(body);
 
-        try {
-            discard(connection.getInputStream());
-            final int code = connection.getResponseCode();
-            if (code >= 400) throw new IOException(connection.getResponseMessage());
-        } finally {
-            InputStream err = connection.getErrorStream();
-            if (err != null) { // possible, if the connection was dropped
-                discard(err);
+        int code = connection.getResponseCode();
+        InputStream in = code >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        if (in != null) { // possible, if the connection was dropped
+            discard(in, pooled.input);
+        }
+        if (code >= 400) throw new IOException(sendEndpoint + ": " + code + " " + connection.getResponseMessage());
+    }
+
+    private static void writeList(OutputStream out, List<byte[]> encodedSpans) throws IOException {
+        out.write('[');
+        for (int i = 0; i < encodedSpans.size(); i++) {
+            if (i > 0) {
+                out.write(',');
             }
+            out.write(encodedSpans.get(i));
         }
+        out.write(']');
     }
 
-    private void discard(InputStream in) throws IOException {
+    /**
+     * Reads the response to its end, the connection can only be reused then.
+     */
+    private static void discard(InputStream in, byte[] buffer) throws IOException {
         try {
-            while (in.read() != -1) ; // skip
+            while (in.read(buffer) != -1) ; // skip
         } finally {
             in.close();
         }
     }
 
+    /**
+     * Compressor and buffers of one request in flight.
+     */
+    static final class Buffers {
+        private static final int GZIP_HEADER_SIZE = 10;
+        private static final int GZIP_TRAILER_SIZE = 8;
+        private static final byte[] GZIP_HEADER = new byte[]{
+            0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0
+        };
+        private static final byte[] COMMA = new byte[]{','};
+        private static final byte[] OPEN = new byte[]{'['};
+        private static final byte[] CLOSE = new byte[]{']'};
+
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        final CRC32 crc = new CRC32();
+        final byte[] input = new byte[8192];
+        byte[] output = new byte[8192];
+        int position;
+
+        /**
+         * Compresses the json list of spans into {@link #output} in gzip format.
+         *
+         * @return the count of bytes written
+         */
+        int gzip(List<byte[]> encodedSpans) {
+            deflater.reset();
+            crc.reset();
+            System.arraycopy(GZIP_HEADER, 0, output, 0, GZIP_HEADER_SIZE);
+            position = GZIP_HEADER_SIZE;
+            int size = deflate(OPEN);
+            for (int i = 0; i < encodedSpans.size(); i++) {
+                if (i > 0) {
+                    size += deflate(COMMA);
+                }
+                size += deflate(encodedSpans.get(i));
+            }
+            size += deflate(CLOSE);
+            deflater.finish();
+            while (!deflater.finished()) {
+                drain();
+            }
+            ensureCapacity(GZIP_TRAILER_SIZE);
+            writeInt((int) crc.getValue());
+            writeInt(size);
+            return position;
+        }
+
+        private int deflate(byte[] bytes) {
+            crc.update(bytes, 0, bytes.length);
+            deflater.setInput(bytes, 0, bytes.length);
+            while (!deflater.needsInput()) {
+                drain();
+            }
+            return bytes.length;
+        }
+
+        private void drain() {
+            ensureCapacity(1);
+            position += deflater.deflate(output, position, output.length - position);
+        }
+
+        private void ensureCapacity(int required) {
+            if (output.length - position < required) {
+                output = Arrays.copyOf(output, Math.max(output.length << 1, position + required));
+            }
+        }
+
+        private void writeInt(int value) {
+            // little-endian, as gzip requires
+            output[position++] = (byte) value;
+            output[position++] = (byte) (value >>> 8);
+            output[position++] = (byte) (value >>> 16);
+            output[position++] = (byte) (value >>> 24);
+        }
+    }
 }
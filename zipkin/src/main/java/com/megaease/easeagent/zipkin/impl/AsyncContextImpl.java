@@ -24,6 +24,7 @@ import com.megaease.easeagent.plugin.api.context.AsyncContext;
 import com.megaease.easeagent.plugin.api.trace.Scope;
 import com.megaease.easeagent.plugin.api.trace.Tracing;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Supplier;
@@ -31,7 +32,7 @@ import java.util.function.Supplier;
 public class AsyncContextImpl implements AsyncContext {
     private final Tracing tracing;
     private final TraceContext traceContext;
-    private final Map<Object, Object> context;
+    private Map<Object, Object> context;
     private final Supplier<InitializeContext> supplier;
 
     private AsyncContextImpl(Tracing tracing, TraceContext traceContext, Supplier<InitializeContext> supplier, Map<Object, Object> context) {
@@ -42,7 +43,7 @@ public class AsyncContextImpl implements AsyncContext {
     }
 
     public static AsyncContextImpl build(Tracing tracing, TraceContext traceContext, Supplier<InitializeContext> supplier) {
-        return build(tracing, traceContext, supplier, null);
+        return new AsyncContextImpl(tracing, traceContext, supplier, Collections.emptyMap());
     }
 
     public static AsyncContextImpl build(Tracing tracing, TraceContext traceContext, Supplier<InitializeContext> supplier, Map<Object, Object> context) {
@@ -81,6 +82,13 @@ public class AsyncContextImpl implements AsyncContext {
 
     @Override
     public void putAll(Map<Object, Object> context) {
-        context.putAll(context);
+        if (this.context.isEmpty()) {
+            // shared, the snapshot of a SessionContext is immutable
+            this.context = context;
+            return;
+        }
+        Map<Object, Object> all = new HashMap<>(this.context);
+        all.putAll(context);
+        this.context = all;
     }
 }
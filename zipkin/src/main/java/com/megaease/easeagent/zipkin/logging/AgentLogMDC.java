@@ -18,46 +18,141 @@
 package com.megaease.easeagent.zipkin.logging;
 
 import com.google.auto.service.AutoService;
-import com.megaease.easeagent.common.MethodUtils;
 import com.megaease.easeagent.core.AppendBootstrapClassLoaderSearch;
 
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
 
+/**
+ * The log4j or logback MDC of a ClassLoader, called through MethodHandles.
+ *
+ * <p>The MDC of each ClassLoader is resolved once and kept as long as its class, loaders without one are
+ * remembered too, so that a scope change costs a map lookup instead of class loading and reflection.
+ */
 @AutoService(AppendBootstrapClassLoaderSearch.class)
 public class AgentLogMDC {
+    private static final MethodType GET_TYPE = MethodType.methodType(String.class, String.class);
+    private static final MethodType PUT_TYPE = MethodType.methodType(void.class, String.class, String.class);
+    private static final MethodType REMOVE_TYPE = MethodType.methodType(void.class, String.class);
+
+    private static final AgentLogMDC NONE = new AgentLogMDC();
+    // held by the MDC class itself, so it is not collected before the class and pins nothing else
+    private static final ClassValue<AgentLogMDC> MDC_OF_CLASS = new ClassValue<AgentLogMDC>() {
+        @Override
+        protected AgentLogMDC computeValue(Class<?> type) {
+            try {
+                return new AgentLogMDC(type);
+            } catch (IllegalStateException e) {
+                return NONE;
+            }
+        }
+    };
+    // values are weak too: the MDC class, and so the loader, must not be pinned by the map.
+    // they are only cleared with the class, which MDC_OF_CLASS holds them by
+    private static final Map<ClassLoader, WeakReference<AgentLogMDC>> CACHE = new WeakHashMap<>();
+    private static volatile Resolved last;
 
     public final Class<?> clazz;
-    private final Method method4Get;
-    private final Method method4Put;
-    private final Method method4Remove;
+    private final MethodHandle method4Get;
+    private final MethodHandle method4Put;
+    private final MethodHandle method4Remove;
 
     public static AgentLogMDC create(ClassLoader classLoader) {
+        if (classLoader == null) {
+            classLoader = ClassLoader.getSystemClassLoader();
+        }
+        Resolved resolved = last;
+        if (resolved == null || resolved.classLoader.get() != classLoader) {
+            resolved = new Resolved(classLoader, resolve(classLoader));
+            last = resolved;
+        }
+        return resolved.mdc == NONE ? null : resolved.mdc;
+    }
+
+    private static AgentLogMDC resolve(ClassLoader classLoader) {
+        synchronized (CACHE) {
+            WeakReference<AgentLogMDC> reference = CACHE.get(classLoader);
+            AgentLogMDC mdc = reference == null ? null : reference.get();
+            if (mdc == null) {
+                mdc = load(classLoader);
+                CACHE.put(classLoader, new WeakReference<>(mdc));
+            }
+            return mdc;
+        }
+    }
+
+    private static AgentLogMDC load(ClassLoader classLoader) {
         Class<?> aClass = LogUtils.checkLog4JMDC(classLoader);
         if (aClass == null) {
             aClass = LogUtils.checkLogBackMDC(classLoader);
         }
-        if (aClass != null) {
-            return new AgentLogMDC(aClass);
-        }
-        return null;
+        return aClass == null ? NONE : MDC_OF_CLASS.get(aClass);
+    }
+
+    private AgentLogMDC() {
+        this.clazz = null;
+        this.method4Get = null;
+        this.method4Put = null;
+        this.method4Remove = null;
     }
 
     public AgentLogMDC(Class<?> aClass) {
         this.clazz = aClass;
-        method4Get = MethodUtils.findMethod(clazz, "get", String.class);
-        method4Put = MethodUtils.findMethod(clazz, "put", String.class, String.class);
-        method4Remove = MethodUtils.findMethod(clazz, "remove", String.class);
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        try {
+            method4Get = lookup.findStatic(clazz, "get", GET_TYPE);
+            method4Put = lookup.findStatic(clazz, "put", PUT_TYPE);
+            method4Remove = lookup.findStatic(clazz, "remove", REMOVE_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException("MDC method not found in " + aClass.getName() + ": " + e.getMessage());
+        }
     }
 
     public void put(String name, String value) {
-        MethodUtils.invokeMethod(method4Put, null, name, value);
+        try {
+            method4Put.invokeExact(name, value);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
     }
 
     public String get(String name) {
-        return (String) MethodUtils.invokeMethod(method4Get, null, name);
+        try {
+            return (String) method4Get.invokeExact(name);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
     }
 
     public void remove(String name) {
-        MethodUtils.invokeMethod(method4Remove, null, name);
+        try {
+            method4Remove.invokeExact(name);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        throw new IllegalStateException(e);
+    }
+
+    private static final class Resolved {
+        final WeakReference<ClassLoader> classLoader;
+        final AgentLogMDC mdc;
+
+        Resolved(ClassLoader classLoader, AgentLogMDC mdc) {
+            this.classLoader = new WeakReference<>(classLoader);
+            this.mdc = mdc;
+        }
     }
 }
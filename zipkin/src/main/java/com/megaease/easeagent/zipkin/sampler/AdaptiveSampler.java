@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2017, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.zipkin.sampler;
+
+import brave.sampler.Sampler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Samples traces with a probability adjusted every second to keep the sampled traces near the target per second.
+ * <p>
+ * Decisions are derived from the trace id, so they are consistent for a trace, and counted with atomic counters.
+ * The thread which observes the end of a window recalculates the probability from the observed traffic.
+ */
+public class AdaptiveSampler extends Sampler {
+    private static final long WINDOW = TimeUnit.SECONDS.toNanos(1);
+
+    private final int targetPerSecond;
+    private final AtomicLong windowStart;
+    private final AtomicLong seen = new AtomicLong();
+    private volatile double probability = 1.0;
+    private volatile long boundary = Long.MAX_VALUE;
+
+    public AdaptiveSampler(int targetPerSecond) {
+        if (targetPerSecond <= 0) {
+            throw new IllegalArgumentException("targetPerSecond must be positive: " + targetPerSecond);
+        }
+        this.targetPerSecond = targetPerSecond;
+        this.windowStart = new AtomicLong(System.nanoTime());
+    }
+
+    @Override
+    public boolean isSampled(long traceId) {
+        this.seen.incrementAndGet();
+        long start = this.windowStart.get();
+        long now = System.nanoTime();
+        if (now - start >= WINDOW && this.windowStart.compareAndSet(start, now)) {
+            adjust(this.seen.getAndSet(0), now - start);
+        }
+        return (traceId & Long.MAX_VALUE) <= this.boundary;
+    }
+
+    private void adjust(long count, long elapsed) {
+        double rate = count * (double) WINDOW / elapsed;
+        double wanted = rate <= this.targetPerSecond ? 1.0 : this.targetPerSecond / rate;
+        // smooth the change, so a short burst does not swing the probability too far
+        double next = rate <= this.targetPerSecond ? wanted : (this.probability + wanted) / 2;
+        next = Math.min(1.0, Math.min(next, wanted * 2));
+        this.probability = next;
+        this.boundary = next >= 1.0 ? Long.MAX_VALUE : (long) (next * Long.MAX_VALUE);
+    }
+
+    public double probability() {
+        return this.probability;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveSampler(" + this.targetPerSecond + "/s, probability=" + this.probability + ")";
+    }
+}
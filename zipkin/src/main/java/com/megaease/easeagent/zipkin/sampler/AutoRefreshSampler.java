@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2017, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.zipkin.sampler;
+
+import brave.sampler.BoundarySampler;
+import brave.sampler.CountingSampler;
+import brave.sampler.Sampler;
+import com.megaease.easeagent.config.ChangeItem;
+import com.megaease.easeagent.config.Config;
+import com.megaease.easeagent.log4j2.Logger;
+import com.megaease.easeagent.log4j2.LoggerFactory;
+import com.megaease.easeagent.plugin.api.config.ConfigConst;
+
+import java.util.List;
+
+/**
+ * A sampler selected by config and rebuilt when the sampling config changes.
+ * <ul>
+ * <li>counting: sample the rate {@code observability.tracings.sampled} of traces counted in every hundred, the default</li>
+ * <li>probability: sample traces with the probability {@code observability.tracings.sampled}</li>
+ * <li>rate_limit: sample at most {@code observability.tracings.sampledByQPS} traces per second</li>
+ * <li>adaptive: adjust the probability to sample about {@code observability.tracings.sampledByQPS} traces per second</li>
+ * </ul>
+ */
+public class AutoRefreshSampler extends Sampler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AutoRefreshSampler.class);
+
+    public static final String TYPE_COUNTING = "counting";
+    public static final String TYPE_PROBABILITY = "probability";
+    public static final String TYPE_RATE_LIMIT = "rate_limit";
+    public static final String TYPE_ADAPTIVE = "adaptive";
+
+    private static final float DEFAULT_SAMPLED = 1.0f;
+    private static final int DEFAULT_SAMPLED_BY_QPS = 100;
+
+    private final Config config;
+    private volatile Sampler sampler;
+
+    public AutoRefreshSampler(Config config) {
+        this.config = config;
+        this.sampler = build(config);
+        config.addChangeListener(this::onChange);
+    }
+
+    private void onChange(List<ChangeItem> list) {
+        for (ChangeItem item : list) {
+            String name = item.getFullName();
+            if (ConfigConst.Observability.TRACE_SAMPLED_TYPE.equals(name)
+                || ConfigConst.Observability.TRACE_SAMPLED.equals(name)
+                || ConfigConst.Observability.TRACE_SAMPLED_BY_QPS.equals(name)) {
+                this.sampler = build(this.config);
+                LOGGER.info("tracing sampler changed to {}", this.sampler);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public boolean isSampled(long traceId) {
+        return this.sampler.isSampled(traceId);
+    }
+
+    public Sampler getSampler() {
+        return this.sampler;
+    }
+
+    static Sampler build(Config config) {
+        String type = config.getString(ConfigConst.Observability.TRACE_SAMPLED_TYPE);
+        try {
+            if (type == null || type.isEmpty() || TYPE_COUNTING.equalsIgnoreCase(type)) {
+                return CountingSampler.create(sampled(config));
+            } else if (TYPE_PROBABILITY.equalsIgnoreCase(type)) {
+                return BoundarySampler.create(sampled(config));
+            } else if (TYPE_RATE_LIMIT.equalsIgnoreCase(type)) {
+                return new TokenBucketSampler(sampledByQPS(config));
+            } else if (TYPE_ADAPTIVE.equalsIgnoreCase(type)) {
+                return new AdaptiveSampler(sampledByQPS(config));
+            }
+            LOGGER.warn("unknown tracing sampled type: {}, sample all traces", type);
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("illegal tracing sampler config: {}, sample all traces", e.getMessage());
+        }
+        return Sampler.ALWAYS_SAMPLE;
+    }
+
+    private static float sampled(Config config) {
+        Double sampled = config.getDouble(ConfigConst.Observability.TRACE_SAMPLED);
+        return sampled == null ? DEFAULT_SAMPLED : sampled.floatValue();
+    }
+
+    private static int sampledByQPS(Config config) {
+        Integer qps = config.getInt(ConfigConst.Observability.TRACE_SAMPLED_BY_QPS);
+        return qps == null ? DEFAULT_SAMPLED_BY_QPS : qps;
+    }
+}
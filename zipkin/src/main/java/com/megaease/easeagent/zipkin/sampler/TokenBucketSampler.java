@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2017, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.zipkin.sampler;
+
+import brave.sampler.Sampler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket which permits at most tracesPerSecond traces per second, with a burst of one second.
+ * <p>
+ * Tokens are tracked as a theoretical arrival time, so a decision is a single CAS without locking.
+ */
+public class TokenBucketSampler extends Sampler {
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long interval;
+    private final long tolerance;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucketSampler(int tracesPerSecond) {
+        if (tracesPerSecond <= 0) {
+            throw new IllegalArgumentException("tracesPerSecond must be positive: " + tracesPerSecond);
+        }
+        this.interval = Math.max(1, NANOS_PER_SECOND / tracesPerSecond);
+        this.tolerance = NANOS_PER_SECOND - this.interval;
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    @Override
+    public boolean isSampled(long traceId) {
+        long now = System.nanoTime();
+        for (; ; ) {
+            long current = this.theoreticalArrival.get();
+            long base = current - now > 0 ? current : now;
+            if (base - now > this.tolerance) {
+                return false;
+            }
+            if (this.theoreticalArrival.compareAndSet(current, base + this.interval)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TokenBucketSampler(" + (NANOS_PER_SECOND / this.interval) + "/s)";
+    }
+}
@@ -19,12 +19,24 @@ package com.megaease.easeagent.zipkin;
 
 import com.github.dreamhead.moco.HttpServer;
 import com.github.dreamhead.moco.Runnable;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
+import zipkin2.CheckResult;
 
-import java.util.Collections;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
 
 import static com.github.dreamhead.moco.Moco.*;
 import static com.github.dreamhead.moco.Runner.running;
+import static org.junit.Assert.*;
 
 public class GatewaySenderTest {
     @Test
@@ -40,4 +52,142 @@ public class GatewaySenderTest {
             }
         });
     }
-}
\ No newline at end of file
+
+    private com.sun.net.httpserver.HttpServer stub;
+    private final Set<InetSocketAddress> connections = ConcurrentHashMap.newKeySet();
+    private final List<String> bodies = new CopyOnWriteArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile int status = 202;
+    private volatile long delayMillis = 0;
+
+    @Before
+    public void startStub() throws IOException {
+        // otherwise the response body waits for the delayed ack of its headers
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        stub = com.sun.net.httpserver.HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stub.setExecutor(Executors.newFixedThreadPool(16));
+        stub.createContext("/spans", exchange -> {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                connections.add(exchange.getRemoteAddress());
+                InputStream in = exchange.getRequestBody();
+                if ("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+                    in = new GZIPInputStream(in);
+                }
+                bodies.add(new String(readAll(in), StandardCharsets.UTF_8));
+                if (delayMillis > 0) {
+                    TimeUnit.MILLISECONDS.sleep(delayMillis);
+                }
+                byte[] response = "accepted".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(status, response.length);
+                exchange.getResponseBody().write(response);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        stub.start();
+    }
+
+    @After
+    public void stopStub() {
+        stub.stop(0);
+        ((ExecutorService) stub.getExecutor()).shutdownNow();
+    }
+
+    private GatewaySender sender(boolean compression, int maxInFlight) {
+        return new GatewaySender(1024 * 1024, "http://127.0.0.1:" + stub.getAddress().getPort() + "/spans",
+            1000, 5000, compression, "easeagent/0.1.0", maxInFlight);
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<byte[]> spans(String... spans) {
+        List<byte[]> list = new ArrayList<>();
+        for (String span : spans) {
+            list.add(span.getBytes(StandardCharsets.UTF_8));
+        }
+        return list;
+    }
+
+    @Test
+    public void reuseConnection() {
+        GatewaySender sender = sender(false, 1);
+        for (int i = 0; i < 50; i++) {
+            sender.sendSpans(spans("{\"id\":" + i + "}", "{\"id\":0}"));
+        }
+        assertEquals(50, bodies.size());
+        assertEquals("[{\"id\":49},{\"id\":0}]", bodies.get(49));
+        assertEquals(1, connections.size());
+    }
+
+    @Test
+    public void gzip() {
+        GatewaySender sender = sender(true, 1);
+        StringBuilder large = new StringBuilder("{\"tags\":\"");
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            large.append((char) ('a' + random.nextInt(26)));
+        }
+        large.append("\"}");
+        sender.sendSpans(spans("{\"id\":1}", large.toString()));
+        sender.sendSpans(spans());
+        sender.sendSpans(spans("{\"id\":2}"));
+
+        assertEquals(Arrays.asList("[{\"id\":1}," + large + "]", "[]", "[{\"id\":2}]"), bodies);
+        assertEquals(1, connections.size());
+    }
+
+    @Test
+    public void check() {
+        GatewaySender sender = sender(true, 1);
+        assertTrue(sender.check().ok());
+        status = 500;
+        CheckResult result = sender.check();
+        assertFalse(result.ok());
+        assertTrue(result.error().getMessage().contains("500"));
+        status = 202;
+        assertTrue(sender.check().ok());
+    }
+
+    @Test
+    public void concurrentSendsAreBoundedAndReuseConnections() throws Exception {
+        int threads = 8;
+        int messages = 200;
+        int maxInFlightRequests = 3;
+        delayMillis = 2;
+        GatewaySender sender = sender(true, maxInFlightRequests);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < messages; i++) {
+                    sender.sendSpans(spans("{\"thread\":" + thread + "}", "{\"message\":" + i + "}"));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        sender.close();
+
+        assertEquals(threads * messages, bodies.size());
+        assertTrue("in flight: " + maxInFlight.get(), maxInFlight.get() <= maxInFlightRequests);
+        // connections are only opened for requests in flight at the same time, within the keep-alive cache
+        assertTrue("connections: " + connections.size(), connections.size() <= maxInFlightRequests);
+    }
+}
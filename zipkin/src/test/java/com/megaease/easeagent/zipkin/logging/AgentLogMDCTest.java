@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2021, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.megaease.easeagent.zipkin.logging;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class AgentLogMDCTest {
+
+    @Test
+    public void resolveOncePerClassLoader() {
+        MDCClassLoader classLoader = new MDCClassLoader(true);
+        AgentLogMDC mdc = AgentLogMDC.create(classLoader);
+        assertNotNull(mdc);
+        assertSame(FakeMDC.class, mdc.clazz);
+        int loaded = classLoader.loaded;
+
+        assertSame(mdc, AgentLogMDC.create(classLoader));
+        assertNull(AgentLogMDC.create(new MDCClassLoader(false)));
+        assertSame(mdc, AgentLogMDC.create(classLoader));
+        assertEquals(loaded, classLoader.loaded);
+    }
+
+    @Test
+    public void rememberClassLoaderWithoutMDC() {
+        MDCClassLoader classLoader = new MDCClassLoader(false);
+        assertNull(AgentLogMDC.create(classLoader));
+        int loaded = classLoader.loaded;
+        assertNull(AgentLogMDC.create(new MDCClassLoader(true)).get("any"));
+        assertNull(AgentLogMDC.create(classLoader));
+        assertEquals(loaded, classLoader.loaded);
+    }
+
+    @Test
+    public void keepResolvedAfterGC() {
+        MDCClassLoader classLoader = new MDCClassLoader(true);
+        int hash = System.identityHashCode(AgentLogMDC.create(classLoader));
+        int loaded = classLoader.loaded;
+        // another loader replaces the last resolved one, so only the cache holds the MDC
+        assertNull(AgentLogMDC.create(new MDCClassLoader(false)));
+        System.gc();
+        assertEquals(hash, System.identityHashCode(AgentLogMDC.create(classLoader)));
+        assertEquals(loaded, classLoader.loaded);
+    }
+
+    @Test
+    public void invokeMDC() {
+        AgentLogMDC mdc = new AgentLogMDC(FakeMDC.class);
+        mdc.put("traceId", "123");
+        assertEquals("123", mdc.get("traceId"));
+        mdc.remove("traceId");
+        assertNull(mdc.get("traceId"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void classWithoutMDCMethods() {
+        new AgentLogMDC(String.class);
+    }
+
+    public static class FakeMDC {
+        private static final Map<String, String> VALUES = new HashMap<>();
+
+        public static String get(String name) {
+            return VALUES.get(name);
+        }
+
+        public static void put(String name, String value) {
+            VALUES.put(name, value);
+        }
+
+        public static void remove(String name) {
+            VALUES.remove(name);
+        }
+    }
+
+    static class MDCClassLoader extends ClassLoader {
+        private final boolean hasMDC;
+        int loaded;
+
+        MDCClassLoader(boolean hasMDC) {
+            super(null);
+            this.hasMDC = hasMDC;
+        }
+
+        @Override
+        public Class<?> loadClass(String name) throws ClassNotFoundException {
+            loaded++;
+            if (hasMDC && name.equals("ch.qos.logback.core.Appender")) {
+                return Object.class;
+            }
+            if (hasMDC && name.equals("org.slf4j.MDC")) {
+                return FakeMDC.class;
+            }
+            throw new ClassNotFoundException(name);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2017, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.zipkin.sampler;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveSamplerTest {
+
+    @Test
+    public void sampleAllUnderBudget() throws InterruptedException {
+        AdaptiveSampler sampler = new AdaptiveSampler(1000);
+        Random random = new Random(1);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(sampler.isSampled(random.nextLong()));
+        }
+        TimeUnit.MILLISECONDS.sleep(1010);
+        assertTrue(sampler.isSampled(random.nextLong()));
+        assertEquals(1.0, sampler.probability(), 0.0);
+    }
+
+    @Test
+    public void lowerProbabilityOverBudget() throws InterruptedException {
+        AdaptiveSampler sampler = new AdaptiveSampler(100);
+        Random random = new Random(1);
+        for (int i = 0; i < 10000; i++) {
+            sampler.isSampled(random.nextLong());
+        }
+        TimeUnit.MILLISECONDS.sleep(1010);
+        sampler.isSampled(random.nextLong());
+        double probability = sampler.probability();
+        assertTrue("probability " + probability, probability < 0.05);
+
+        int sampled = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (sampler.isSampled(random.nextLong())) {
+                sampled++;
+            }
+        }
+        assertTrue("sampled " + sampled, sampled < 500);
+    }
+}
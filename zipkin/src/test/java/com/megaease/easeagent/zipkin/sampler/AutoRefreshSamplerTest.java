@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2017, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.zipkin.sampler;
+
+import brave.sampler.BoundarySampler;
+import brave.sampler.CountingSampler;
+import brave.sampler.Sampler;
+import com.megaease.easeagent.config.Configs;
+import com.megaease.easeagent.plugin.api.config.ConfigConst;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class AutoRefreshSamplerTest {
+
+    private static Configs configs(String type, String sampled, String qps) {
+        Map<String, String> source = new HashMap<>();
+        if (type != null) {
+            source.put(ConfigConst.Observability.TRACE_SAMPLED_TYPE, type);
+        }
+        if (sampled != null) {
+            source.put(ConfigConst.Observability.TRACE_SAMPLED, sampled);
+        }
+        if (qps != null) {
+            source.put(ConfigConst.Observability.TRACE_SAMPLED_BY_QPS, qps);
+        }
+        return new Configs(source);
+    }
+
+    @Test
+    public void defaultSampleAll() {
+        AutoRefreshSampler sampler = new AutoRefreshSampler(configs(null, null, null));
+        assertSame(Sampler.ALWAYS_SAMPLE, sampler.getSampler());
+        assertTrue(sampler.isSampled(1L));
+    }
+
+    @Test
+    public void selectByType() {
+        assertTrue(AutoRefreshSampler.build(configs("counting", "0.5", null)) instanceof CountingSampler);
+        assertTrue(AutoRefreshSampler.build(configs("probability", "0.5", null)) instanceof BoundarySampler);
+        assertTrue(AutoRefreshSampler.build(configs("rate_limit", null, "10")) instanceof TokenBucketSampler);
+        assertTrue(AutoRefreshSampler.build(configs("adaptive", null, "10")) instanceof AdaptiveSampler);
+        assertSame(Sampler.NEVER_SAMPLE, AutoRefreshSampler.build(configs("probability", "0", null)));
+    }
+
+    @Test
+    public void illegalConfigSampleAll() {
+        assertSame(Sampler.ALWAYS_SAMPLE, AutoRefreshSampler.build(configs("unknown", null, null)));
+        assertSame(Sampler.ALWAYS_SAMPLE, AutoRefreshSampler.build(configs("rate_limit", null, "0")));
+        assertSame(Sampler.ALWAYS_SAMPLE, AutoRefreshSampler.build(configs("counting", "2", null)));
+    }
+
+    @Test
+    public void refreshOnChange() {
+        Configs configs = configs("counting", "1", "10");
+        AutoRefreshSampler sampler = new AutoRefreshSampler(configs);
+        assertSame(Sampler.ALWAYS_SAMPLE, sampler.getSampler());
+
+        configs.updateConfigs(Collections.singletonMap(ConfigConst.Observability.TRACE_SAMPLED_TYPE, "rate_limit"));
+        assertTrue(sampler.getSampler() instanceof TokenBucketSampler);
+        int sampled = 0;
+        for (int i = 0; i < 100; i++) {
+            if (sampler.isSampled(i)) {
+                sampled++;
+            }
+        }
+        assertEquals(10, sampled);
+
+        Sampler old = sampler.getSampler();
+        configs.updateConfigs(Collections.singletonMap("observability.tracings.output.enabled", "false"));
+        assertSame(old, sampler.getSampler());
+
+        configs.updateConfigs(Collections.singletonMap(ConfigConst.Observability.TRACE_SAMPLED, "0"));
+        configs.updateConfigs(Collections.singletonMap(ConfigConst.Observability.TRACE_SAMPLED_TYPE, "counting"));
+        assertFalse(sampler.isSampled(1L));
+    }
+}
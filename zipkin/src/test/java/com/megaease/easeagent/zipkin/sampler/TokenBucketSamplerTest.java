@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2017, MegaEase
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.megaease.easeagent.zipkin.sampler;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TokenBucketSamplerTest {
+
+    @Test
+    public void burstOfOneSecond() {
+        TokenBucketSampler sampler = new TokenBucketSampler(50);
+        int sampled = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (sampler.isSampled(i)) {
+                sampled++;
+            }
+        }
+        assertEquals(50, sampled);
+    }
+
+    @Test
+    public void refillOverTime() throws InterruptedException {
+        TokenBucketSampler sampler = new TokenBucketSampler(100);
+        while (sampler.isSampled(1L)) {
+            // drain the bucket
+        }
+        TimeUnit.MILLISECONDS.sleep(100);
+        int sampled = 0;
+        for (int i = 0; i < 100; i++) {
+            if (sampler.isSampled(i)) {
+                sampled++;
+            }
+        }
+        assertTrue("sampled " + sampled, sampled >= 9 && sampled <= 20);
+    }
+
+    @Test
+    public void concurrentLimit() throws InterruptedException {
+        TokenBucketSampler sampler = new TokenBucketSampler(1000);
+        AtomicInteger sampled = new AtomicInteger();
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 10000; i++) {
+                    if (sampler.isSampled(i)) {
+                        sampled.incrementAndGet();
+                    }
+                }
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+        // burst of one second plus the tokens refilled during the run
+        assertTrue("sampled " + sampled.get(), sampled.get() >= 1000);
+        assertTrue("sampled " + sampled.get(), sampled.get() <= 1000 + elapsedMillis + 1);
+    }
+}